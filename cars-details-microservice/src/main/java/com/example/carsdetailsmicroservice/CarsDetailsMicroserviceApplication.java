@@ -2,8 +2,10 @@ package com.example.carsdetailsmicroservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CarsDetailsMicroserviceApplication {
   public static void main(String[] args) {
     SpringApplication.run(CarsDetailsMicroserviceApplication.class, args);
@@ -0,0 +1,31 @@
+package com.example.carsdetailsmicroservice.config;
+
+import java.util.List;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the lookup caches.
+ * The caches are Caffeine caches (W-TinyLFU eviction) whose size limit, TTL and statistics
+ * are set by the spring.cache.caffeine.spec property. Their hit, miss and eviction metrics
+ * are published through the actuator metrics endpoint.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+  public static final String CARS_BY_VIN = "carsByVin";
+  public static final String CARS_BY_LICENSE_PLATE = "carsByLicensePlate";
+  public static final String DETAILS_BY_SERIAL_NUMBER = "detailsBySerialNumber";
+
+  @Bean
+  public CacheManagerCustomizer<CaffeineCacheManager> lookupCacheCustomizer() {
+    return cacheManager -> {
+      cacheManager.setAllowNullValues(false);
+      cacheManager.setCacheNames(List.of(CARS_BY_VIN, CARS_BY_LICENSE_PLATE,
+              DETAILS_BY_SERIAL_NUMBER));
+    };
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.carsdetailsmicroservice.config;
+
+import com.example.carsdetailsmicroservice.grpc.DeadlineInterceptor;
+import com.example.grpc.drivesbills.v1.AccountLookupGrpc;
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the internal gRPC API.
+ * The server exposes every BindableService bean; the channel to drives-bills applies the
+ * shared deadline policy to its calls.
+ */
+@Configuration
+public class GrpcConfig {
+
+  @Value("${grpc.server.port:9081}")
+  private int serverPort;
+
+  @Value("${grpc.client.deadline:200ms}")
+  private Duration deadline;
+
+  @Value("${grpc.client.drives-bills.target:localhost:9082}")
+  private String drivesBillsTarget;
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  public Server grpcServer(List<BindableService> services) {
+    ServerBuilder<?> builder = ServerBuilder.forPort(serverPort);
+    services.forEach(builder::addService);
+    return builder.build();
+  }
+
+  @Bean(destroyMethod = "shutdownNow")
+  public ManagedChannel drivesBillsChannel() {
+    return ManagedChannelBuilder.forTarget(drivesBillsTarget)
+            .usePlaintext()
+            .intercept(new DeadlineInterceptor(deadline))
+            .build();
+  }
+
+  @Bean
+  public AccountLookupGrpc.AccountLookupBlockingStub accountLookupStub(
+          ManagedChannel drivesBillsChannel) {
+    return AccountLookupGrpc.newBlockingStub(drivesBillsChannel);
+  }
+}
@@ -1,25 +1,85 @@
 package com.example.carsdetailsmicroservice.config;
 
+import com.example.carsdetailsmicroservice.kafka.ProducerProfile;
+import com.example.carsdetailsmicroservice.kafka.codec.EventDeserializer;
+import com.example.carsdetailsmicroservice.kafka.codec.EventSerializer;
+import com.example.carsdetailsmicroservice.kafka.parallel.KeyOrderedExecutor;
+import com.example.carsdetailsmicroservice.kafka.retry.FailedRecordRouter;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 
 /**
  * Configuration class for Kafka related beans.
  * This class provides the necessary configurations for Kafka producers, consumers,
  * and other Kafka-related components.
+ * Event values are written in the binary format of the EventCodec.
+ * Listeners do not retry failed records in place, the FailedRecordRouter parks them on
+ * retry and dead-letter topics, which includes the records whose value cannot be decoded.
+ * Request-reply exchanges use their own template whose replies are consumed by every
+ * instance of the service, the instance that holds the correlation id completes the request.
  */
 @Configuration
 public class KafkaConfig {
+  public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+  public static final String PARALLEL_LISTENER_CONTAINER_FACTORY =
+          "parallelKafkaListenerContainerFactory";
+  public static final String RETRY_LISTENER_CONTAINER_FACTORY =
+          "retryKafkaListenerContainerFactory";
+  /**
+   * Lets the broker hold a fetch until the max latency unless this much data is ready,
+   * so that batches fill up under moderate load.
+   */
+  private static final int BATCH_FETCH_MIN_BYTES = 1024 * 1024;
+
+  @Value("${detail-install.batch.max-size:500}")
+  private int batchMaxSize;
+
+  @Value("${detail-install.batch.max-latency:200ms}")
+  private Duration batchMaxLatency;
+
+  @Value("${kafka.consumer.parallel.workers:0}")
+  private int parallelWorkers;
+
+  @Value("${kafka.consumer.parallel.lane-capacity:256}")
+  private int parallelLaneCapacity;
+
+  @Value("${kafka.producer.profile:BALANCED}")
+  private ProducerProfile producerProfile;
+
+  @Value("${topic.payment-reply:topic.car.payment}")
+  private String paymentReplyTopic;
+
+  @Value("${detail-payment.reply-timeout:5s}")
+  private Duration replyTimeout;
 
   private final KafkaProperties kafkaProperties;
 
@@ -29,24 +89,156 @@ public class KafkaConfig {
   }
 
   @Bean
-  public ProducerFactory<String, String> producerFactory() {
-    Map<String, Object> properties = kafkaProperties.buildProducerProperties();
-    return new DefaultKafkaProducerFactory<>(properties);
+  public ProducerFactory<String, Object> producerFactory() {
+    Map<String, Object> properties = new HashMap<>(producerProfile.properties());
+    properties.putAll(kafkaProperties.buildProducerProperties());
+    return new DefaultKafkaProducerFactory<>(properties,
+            new StringSerializer(), new EventSerializer());
+  }
+
+  @Bean
+  public ConsumerFactory<String, Object> consumerFactory() {
+    Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
+    return consumerFactory(properties);
+  }
+
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    return factory;
+  }
+
+  /**
+   * Container factory of the batch listeners. A poll returns at most max-size records and
+   * waits at most max-latency for them; the offsets are committed after the whole batch
+   * has been processed.
+   */
+  @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+          FailedRecordRouter failedRecordRouter) {
+    Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
+    properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxSize);
+    properties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) batchMaxLatency.toMillis());
+    properties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, BATCH_FETCH_MIN_BYTES);
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory(properties));
+    factory.setBatchListener(true);
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+    factory.setCommonErrorHandler(parkingErrorHandler(failedRecordRouter));
+    return factory;
+  }
+
+  /**
+   * Container factory of the listeners that hand their records to the KeyOrderedExecutor.
+   * Records are acknowledged by the workers, possibly out of order; the container commits
+   * the offsets of a partition up to the lowest record that is not acknowledged yet.
+   */
+  @Bean(PARALLEL_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<String, Object> parallelKafkaListenerContainerFactory(
+          FailedRecordRouter failedRecordRouter) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    factory.getContainerProperties().setAsyncAcks(true);
+    factory.setCommonErrorHandler(parkingErrorHandler(failedRecordRouter));
+    return factory;
+  }
+
+  /**
+   * Container factory of the listeners of the retry topics. A record that is not due yet is
+   * negatively acknowledged, which pauses the consumer until it is.
+   */
+  @Bean(RETRY_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(
+          FailedRecordRouter failedRecordRouter) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    factory.setCommonErrorHandler(parkingErrorHandler(failedRecordRouter));
+    return factory;
   }
 
+  /**
+   * Consumer factory of the dead-letter replays. Values are read as raw bytes so that they
+   * are sent back unchanged, and offsets are committed by the replay itself.
+   */
   @Bean
-  public ConsumerFactory<String, String> consumerFactory() {
+  public ConsumerFactory<String, byte[]> deadLetterConsumerFactory() {
     Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
-    return new DefaultKafkaConsumerFactory<>(properties);
+    properties.put(ConsumerConfig.GROUP_ID_CONFIG,
+            kafkaProperties.getConsumer().getGroupId() + "-dead-letter-replay");
+    properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    return new DefaultKafkaConsumerFactory<>(properties,
+            new StringDeserializer(), new ByteArrayDeserializer());
   }
 
   @Bean
-  public KafkaTemplate<String, String> kafkaTemplate() {
+  public KafkaAdmin.NewTopics parkingTopics(FailedRecordRouter failedRecordRouter) {
+    return new KafkaAdmin.NewTopics(failedRecordRouter.parkingTopics().stream()
+            .map(topic -> TopicBuilder.name(topic).build())
+            .toArray(NewTopic[]::new));
+  }
+
+  /**
+   * Worker lanes of the parallel listeners, one per core unless
+   * kafka.consumer.parallel.workers is set.
+   */
+  @Bean(destroyMethod = "close")
+  public KeyOrderedExecutor keyOrderedExecutor() {
+    int workers = parallelWorkers > 0 ? parallelWorkers : Runtime.getRuntime().availableProcessors();
+    return new KeyOrderedExecutor("kafka-worker", workers, parallelLaneCapacity);
+  }
+
+  @Bean
+  @Primary
+  public KafkaTemplate<String, Object> kafkaTemplate() {
     return new KafkaTemplate<>(producerFactory());
   }
 
+  @Bean
+  public ConcurrentMessageListenerContainer<String, Object> repliesContainer() {
+    ConcurrentMessageListenerContainer<String, Object> container =
+            kafkaListenerContainerFactory().createContainer(paymentReplyTopic);
+    container.getContainerProperties().setGroupId(
+            kafkaProperties.getConsumer().getGroupId() + "-replies-" + UUID.randomUUID());
+    container.setAutoStartup(false);
+    return container;
+  }
+
+  @Bean
+  public ReplyingKafkaTemplate<String, Object, Object> replyingKafkaTemplate() {
+    ReplyingKafkaTemplate<String, Object, Object> template =
+            new ReplyingKafkaTemplate<>(producerFactory(), repliesContainer());
+    template.setDefaultReplyTimeout(replyTimeout);
+    template.setSharedReplyTopic(true);
+    return template;
+  }
+
   @Bean
   public ModelMapper modelMapper() {
     return new ModelMapper();
   }
+
+  /**
+   * Parks the records that fail outside of the listener code, such as the records that
+   * cannot be decoded, without retrying them in place. The parked record is acknowledged
+   * instead of seeking back to it, which asynchronous acks wait for.
+   */
+  private DefaultErrorHandler parkingErrorHandler(FailedRecordRouter failedRecordRouter) {
+    DefaultErrorHandler errorHandler =
+            new DefaultErrorHandler(failedRecordRouter, new FixedBackOff(0L, 0L));
+    errorHandler.setSeekAfterError(false);
+    return errorHandler;
+  }
+
+  private ConsumerFactory<String, Object> consumerFactory(Map<String, Object> properties) {
+    return new DefaultKafkaConsumerFactory<>(properties, new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(new EventDeserializer()));
+  }
 }
\ No newline at end of file
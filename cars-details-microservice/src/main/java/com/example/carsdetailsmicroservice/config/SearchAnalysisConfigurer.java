@@ -0,0 +1,30 @@
+package com.example.carsdetailsmicroservice.config;
+
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * Configuration of the analyzers used by the full-text search index.
+ * The "text" analyzer splits values into lowercase ASCII words and is used both for
+ * indexing and for queries. The "prefix" analyzer additionally indexes every leading
+ * part of a word, so a query for the beginning of a word matches without a wildcard scan.
+ */
+public class SearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+  public static final String TEXT_ANALYZER = "text";
+  public static final String PREFIX_ANALYZER = "prefix";
+
+  @Override
+  public void configure(LuceneAnalysisConfigurationContext context) {
+    context.analyzer(TEXT_ANALYZER).custom()
+            .tokenizer("standard")
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding");
+    context.analyzer(PREFIX_ANALYZER).custom()
+            .tokenizer("standard")
+            .tokenFilter("lowercase")
+            .tokenFilter("asciiFolding")
+            .tokenFilter("edgeNGram")
+            .param("minGramSize", "1")
+            .param("maxGramSize", "20");
+  }
+}
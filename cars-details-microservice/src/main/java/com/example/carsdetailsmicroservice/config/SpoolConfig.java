@@ -0,0 +1,61 @@
+package com.example.carsdetailsmicroservice.config;
+
+import com.example.carsdetailsmicroservice.kafka.spool.OutboundSpool;
+import com.example.carsdetailsmicroservice.kafka.spool.SpoolRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of the outbound spool, enabled with kafka.spool.enabled.
+ * The Producer then appends its events to the OutboundSpool in kafka.spool.directory instead
+ * of sending them, and the SpoolRelay sends them to Kafka in the background.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.spool.enabled", havingValue = "true")
+public class SpoolConfig {
+
+  @Value("${kafka.spool.directory:./spool/cars-details}")
+  private Path directory;
+
+  @Value("${kafka.spool.segment-size:64MB}")
+  private DataSize segmentSize;
+
+  @Value("${kafka.spool.max-size:1GB}")
+  private DataSize maxSize;
+
+  @Value("${kafka.spool.flush-interval:2ms}")
+  private Duration flushInterval;
+
+  @Value("${kafka.spool.relay.batch-size:1000}")
+  private int relayBatchSize;
+
+  @Value("${kafka.spool.relay.initial-back-off:100ms}")
+  private Duration relayInitialBackOff;
+
+  @Value("${kafka.spool.relay.max-back-off:30s}")
+  private Duration relayMaxBackOff;
+
+  @Value("${kafka.producer.ack-timeout:10s}")
+  private Duration ackTimeout;
+
+  @Bean(destroyMethod = "close")
+  public OutboundSpool outboundSpool() {
+    return new OutboundSpool(directory, Math.toIntExact(segmentSize.toBytes()),
+            maxSize.toBytes(), flushInterval);
+  }
+
+  @Bean(destroyMethod = "close")
+  public SpoolRelay spoolRelay(OutboundSpool outboundSpool,
+                               KafkaTemplate<String, Object> kafkaTemplate,
+                               MeterRegistry meterRegistry) {
+    return new SpoolRelay(outboundSpool, kafkaTemplate, meterRegistry, relayBatchSize,
+            ackTimeout, relayInitialBackOff, relayMaxBackOff);
+  }
+}
@@ -10,4 +10,11 @@ public class ErrorCodeConstants {
   public static final String CAR_NOT_FOUND_404 = "404_CAR_NOT_FOUND";
   public static final String DETAIL_NOT_FOUND_404 = "404_DETAIL_NOT_FOUND";
   public static final String DETAIL_ALREADY_EXIST_409 = "409_DETAIL_ALREADY_EXIST";
+  public static final String INVALID_CURSOR_400 = "400_INVALID_CURSOR";
+  public static final String INVALID_SORT_400 = "400_INVALID_SORT";
+  public static final String MESSAGE_NOT_SENT_503 = "503_MESSAGE_NOT_SENT";
+  public static final String ACCOUNT_INSUFFICIENT_BALANCE_402 = "402_ACCOUNT_INSUFFICIENT_BALANCE";
+  public static final String ACCOUNT_NOT_FOUND_404 = "404_ACCOUNT_NOT_FOUND";
+  public static final String REPLY_TIMEOUT_504 = "504_REPLY_TIMEOUT";
+  public static final String TOPIC_NOT_REPLAYABLE_400 = "400_TOPIC_NOT_REPLAYABLE";
 }
\ No newline at end of file
@@ -1,13 +1,19 @@
 package com.example.carsdetailsmicroservice.controller;
 
 import com.example.carsdetailsmicroservice.controller.utils.ControllerUtils;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateRequestDto;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateResponseDto;
 import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
+import com.example.carsdetailsmicroservice.dto.car.export.CarExportDto;
 import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.search.CarSearchRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.update.CarUpdateRequestDto;
 import com.example.carsdetailsmicroservice.dto.message.MessageDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.service.CarExportService;
 import com.example.carsdetailsmicroservice.service.CarService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.info.Info;
@@ -16,7 +22,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.servers.Server;
 import jakarta.validation.Valid;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -31,6 +40,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @OpenAPIDefinition(
@@ -44,12 +54,21 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequestMapping("/cars")
 public class CarController {
+  private static final String INCLUDE_DETAILS = "details";
+
   private final CarService carService;
+  private final SearchIndexService searchIndexService;
+  private final CarExportService carExportService;
   private final ControllerUtils controllerUtils;
 
   @Autowired
-  public CarController(CarService carService, ControllerUtils controllerUtils) {
+  public CarController(CarService carService,
+                       SearchIndexService searchIndexService,
+                       CarExportService carExportService,
+                       ControllerUtils controllerUtils) {
     this.carService = carService;
+    this.searchIndexService = searchIndexService;
+    this.carExportService = carExportService;
     this.controllerUtils = controllerUtils;
   }
 
@@ -81,6 +100,37 @@ public class CarController {
     return controllerUtils.createResponseEntityOk("create.car.message");
   }
 
+  @Operation(
+          summary = "Create cars in bulk",
+          description = "This endpoint allows to register up to 10000 cars with their details "
+                  + "at once. Cars that already exist or carry existing details are skipped "
+                  + "and reported in the result of the corresponding item",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Cars processed",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CarBatchCreateResponseDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Invalid request",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE
+                          )
+                  )
+          }
+  )
+  @PostMapping("/batch")
+  public ResponseEntity<CarBatchCreateResponseDto> createCars(
+          @Valid @RequestBody CarBatchCreateRequestDto carBatchRequestDto
+  ) {
+    CarBatchCreateResponseDto result = carService.registerCars(carBatchRequestDto.getCars());
+    return ResponseEntity.ok(result);
+  }
+
   @Operation(
           summary = "Get cars",
           description = "This endpoint allows to get all cars",
@@ -99,16 +149,53 @@ public class CarController {
   public ResponseEntity<Page<CarGetResponseDto>> getAllCars(
           @RequestParam(defaultValue = "0") int page,
           @RequestParam(defaultValue = "10") int size,
-          @RequestParam(defaultValue = "vin") String sortBy
+          @RequestParam(defaultValue = "vin") String sortBy,
+          @RequestParam(defaultValue = "") Set<String> include
+  ) {
+    Page<CarGetResponseDto> cars = carService
+            .getAllCars(page, size, sortBy, include.contains(INCLUDE_DETAILS));
+    return ResponseEntity.ok(cars);
+  }
+
+  @Operation(
+          summary = "Get cars with keyset pagination",
+          description = "This endpoint allows to get all cars slice by slice. Pass an empty "
+                  + "cursor for the first slice and the returned nextCursor for the following ones",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "status OK",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CursorPageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Invalid cursor",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPageDto<CarGetResponseDto>> scrollCars(
+          @RequestParam String cursor,
+          @RequestParam(defaultValue = "10") int size,
+          @RequestParam(defaultValue = "vin") String sortBy,
+          @RequestParam(defaultValue = "") Set<String> include
   ) {
-    Page<CarGetResponseDto> cars = carService.getAllCars(page, size, sortBy);
+    CursorPageDto<CarGetResponseDto> cars = carService
+            .scrollCars(cursor, size, sortBy, include.contains(INCLUDE_DETAILS));
     return ResponseEntity.ok(cars);
   }
 
   @Operation(
-          summary = "Get car by manufacturer, model or year, with page, filter and sorting",
-          description = "This endpoint allows to get car by parameter with page, filter "
-                  + "and sorting",
+          summary = "Search cars by any combination of filters, with page and sorting",
+          description = "This endpoint allows to search cars by manufacturer, model, year or "
+                  + "year range, driver and installed detail. All passed filters are combined",
           responses = {
               @ApiResponse(
                           responseCode = "200",
@@ -130,26 +217,101 @@ public class CarController {
   )
   @GetMapping("/search")
   public ResponseEntity<Page<CarGetResponseDto>> searchCars(
-          @RequestParam(required = false) String manufacturer,
-          @RequestParam(required = false) String model,
-          @RequestParam(required = false) Integer year,
+          @ParameterObject CarSearchRequestDto searchRequest,
           @RequestParam(defaultValue = "0") int page,
           @RequestParam(defaultValue = "10") int size,
-          @RequestParam(defaultValue = "vin") String sortBy
+          @RequestParam(defaultValue = "vin") String sortBy,
+          @RequestParam(defaultValue = "") Set<String> include
+  ) {
+    Page<CarGetResponseDto> cars = carService
+            .searchCars(searchRequest, page, size, sortBy, include.contains(INCLUDE_DETAILS));
+    return ResponseEntity.ok(cars);
+  }
+
+  @Operation(
+          summary = "Search cars by any combination of filters, with keyset pagination",
+          description = "This endpoint allows to search cars slice by slice. Pass an empty "
+                  + "cursor for the first slice and the returned nextCursor for the following ones",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Car successfully found",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CursorPageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Invalid cursor",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(value = "/search", params = "cursor")
+  public ResponseEntity<CursorPageDto<CarGetResponseDto>> scrollSearchCars(
+          @ParameterObject CarSearchRequestDto searchRequest,
+          @RequestParam String cursor,
+          @RequestParam(defaultValue = "10") int size,
+          @RequestParam(defaultValue = "vin") String sortBy,
+          @RequestParam(defaultValue = "") Set<String> include
   ) {
-    Page<CarGetResponseDto> cars;
-    if (manufacturer != null) {
-      cars = carService.searchCarsByManufacturer(manufacturer, page, size, sortBy);
-    } else if (model != null) {
-      cars = carService.searchCarsByModel(model, page, size, sortBy);
-    } else if (year != null) {
-      cars = carService.searchCarsByYear(year, page, size, sortBy);
-    } else {
-      cars = carService.getAllCars(page, size, sortBy);
-    }
+    CursorPageDto<CarGetResponseDto> cars = carService
+            .scrollSearchCars(searchRequest, cursor, size, sortBy, include.contains(INCLUDE_DETAILS));
     return ResponseEntity.ok(cars);
   }
 
+  @Operation(
+          summary = "Full-text search of cars, ordered by relevance",
+          description = "This endpoint allows to search cars by VIN, license plate, manufacturer "
+                  + "or model. Whole words, beginnings of words and words with typos are matched",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Car successfully found",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CarGetResponseDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(value = "/search", params = {"q", "!cursor"})
+  public ResponseEntity<Page<CarGetResponseDto>> fullTextSearchCars(
+          @RequestParam String q,
+          @RequestParam(defaultValue = "0") int page,
+          @RequestParam(defaultValue = "10") int size
+  ) {
+    Page<CarGetResponseDto> cars = searchIndexService.searchCars(q, page, size);
+    return ResponseEntity.ok(cars);
+  }
+
+  @Operation(
+          summary = "Export cars",
+          description = "This endpoint allows to export all cars with their details as "
+                  + "newline-delimited JSON, one car per line, ordered by vin",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Cars exported",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                  schema = @Schema(implementation = CarExportDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportCars() {
+    StreamingResponseBody body = carExportService::exportCars;
+    return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+  }
+
   @Operation(
           summary = "Get car by vin",
           description = "This endpoint allows to get car by vin",
@@ -173,9 +335,12 @@ public class CarController {
           }
   )
   @GetMapping("/{vin}")
-  public ResponseEntity<CarGetResponseDto> getCarByVin(@PathVariable String vin) {
+  public ResponseEntity<CarGetResponseDto> getCarByVin(
+          @PathVariable String vin,
+          @RequestParam(defaultValue = "") Set<String> include
+  ) {
     return ResponseEntity.status(HttpStatus.OK)
-           .body(carService.findCarByVin(vin).get());
+           .body(carService.findCarByVin(vin, include.contains(INCLUDE_DETAILS)).get());
   }
 
   @Operation(
@@ -258,9 +423,54 @@ public class CarController {
           }
   )
   @PostMapping("/add-detail")
-  public String addDetailToCar(@RequestBody DetailAddEvent detailAddEvent)
-          throws JsonProcessingException {
+  public String addDetailToCar(@RequestBody DetailAddEvent detailAddEvent) {
     log.info("Received request to add detail to car");
     return carService.addDetail(detailAddEvent);
   }
+
+  @Operation(
+          summary = "Add detail to car and await payment",
+          description = "This endpoint allows to add detail to car once the driver has paid for it",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Detail paid, installation queued",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "402",
+                          description = "Insufficient balance",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "404",
+                          description = "Not found",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "504",
+                          description = "Payment outcome not received in time",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @PostMapping(value = "/add-detail", params = "await=true")
+  public CompletableFuture<ResponseEntity<MessageDto>> addDetailToCarAndAwaitPayment(
+          @RequestBody DetailAddEvent detailAddEvent) {
+    log.info("Received request to add detail to car and await payment");
+    ResponseEntity<MessageDto> paid = controllerUtils.createResponseEntityOk("paid.detail.message");
+    return carService.addDetailAndAwaitPayment(detailAddEvent).thenApply(ignored -> paid);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.carsdetailsmicroservice.controller;
+
+import com.example.carsdetailsmicroservice.dto.deadletter.DeadLetterReplayResponseDto;
+import com.example.carsdetailsmicroservice.dto.message.MessageDto;
+import com.example.carsdetailsmicroservice.service.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/dead-letters")
+public class DeadLetterController {
+  private final DeadLetterService deadLetterService;
+
+  @Autowired
+  public DeadLetterController(DeadLetterService deadLetterService) {
+    this.deadLetterService = deadLetterService;
+  }
+
+  @Operation(
+          summary = "Replay dead letters",
+          description = "This endpoint allows to send the records parked on the dead-letter "
+                  + "topic of a topic back to it",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Dead letters replayed",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = DeadLetterReplayResponseDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Topic has no dead-letter topic",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @PostMapping("/{topic}/replay")
+  public ResponseEntity<DeadLetterReplayResponseDto> replay(
+          @PathVariable String topic,
+          @RequestParam(defaultValue = "100") int max) {
+    log.info("Received request to replay at most {} dead letters of {}", max, topic);
+    return ResponseEntity.ok(deadLetterService.replay(topic, max));
+  }
+}
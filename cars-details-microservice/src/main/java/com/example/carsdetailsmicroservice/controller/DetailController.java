@@ -5,9 +5,11 @@ import com.example.carsdetailsmicroservice.dto.detail.create.DetailCreateRequest
 import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
 import com.example.carsdetailsmicroservice.dto.detail.update.DetailUpdateRequestDto;
 import com.example.carsdetailsmicroservice.dto.message.MessageDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Detail;
 import com.example.carsdetailsmicroservice.mapper.DetailMapper;
 import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.info.Info;
@@ -45,11 +47,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/details")
 public class DetailController {
   private final DetailService detailService;
+  private final SearchIndexService searchIndexService;
   private final ControllerUtils controllerUtils;
 
   @Autowired
-  public DetailController(DetailService detailService, ControllerUtils controllerUtils) {
+  public DetailController(DetailService detailService,
+                          SearchIndexService searchIndexService,
+                          ControllerUtils controllerUtils) {
     this.detailService = detailService;
+    this.searchIndexService = searchIndexService;
     this.controllerUtils = controllerUtils;
   }
 
@@ -126,6 +132,100 @@ public class DetailController {
     }
   }
 
+  @Operation(
+          summary = "Get details with keyset pagination",
+          description = "This endpoint allows to get all details slice by slice. Pass an empty "
+                  + "cursor for the first slice and the returned nextCursor for the following ones",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "status OK",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CursorPageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Invalid cursor",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPageDto<DetailGetResponseDto>> scrollDetails(
+          @RequestParam String cursor,
+          @RequestParam(defaultValue = "10") int size,
+          @RequestParam(defaultValue = "id") String sortBy
+  ) {
+    CursorPageDto<DetailGetResponseDto> details = detailService.scrollDetails(cursor, size, sortBy);
+    return ResponseEntity.ok(details);
+  }
+
+  @Operation(
+          summary = "Get detail by serial number or price, with keyset pagination",
+          description = "This endpoint allows to search details slice by slice. Pass an empty "
+                  + "cursor for the first slice and the returned nextCursor for the following ones",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Detail successfully found",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CursorPageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Invalid cursor",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(value = "/search", params = "cursor")
+  public ResponseEntity<CursorPageDto<DetailGetResponseDto>> scrollSearchDetails(
+          @RequestParam(required = false) String serialNumber,
+          @RequestParam(required = false) BigDecimal price,
+          @RequestParam String cursor,
+          @RequestParam(defaultValue = "10") int size,
+          @RequestParam(defaultValue = "id") String sortBy
+  ) {
+    CursorPageDto<DetailGetResponseDto> details = detailService
+            .scrollSearchDetails(serialNumber, price, cursor, size, sortBy);
+    return ResponseEntity.ok(details);
+  }
+
+  @Operation(
+          summary = "Full-text search of details, ordered by relevance",
+          description = "This endpoint allows to search details by serial number. "
+                  + "Whole serial numbers, their beginnings and serial numbers with typos are matched",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Details successfully found",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = DetailGetResponseDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping(value = "/search", params = {"q", "!cursor"})
+  public ResponseEntity<Page<DetailGetResponseDto>> fullTextSearchDetails(
+          @RequestParam String q,
+          @RequestParam(defaultValue = "0") int page,
+          @RequestParam(defaultValue = "10") int size
+  ) {
+    Page<DetailGetResponseDto> details = searchIndexService.searchDetails(q, page, size);
+    return ResponseEntity.ok(details);
+  }
+
   @Operation(
           summary = "Get detail by serial number",
           description = "This endpoint allows to get detail by serial number",
@@ -0,0 +1,50 @@
+package com.example.carsdetailsmicroservice.controller;
+
+import com.example.carsdetailsmicroservice.controller.utils.ControllerUtils;
+import com.example.carsdetailsmicroservice.dto.message.MessageDto;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/search-index")
+public class SearchIndexController {
+  private final SearchIndexService searchIndexService;
+  private final ControllerUtils controllerUtils;
+
+  @Autowired
+  public SearchIndexController(SearchIndexService searchIndexService,
+                               ControllerUtils controllerUtils) {
+    this.searchIndexService = searchIndexService;
+    this.controllerUtils = controllerUtils;
+  }
+
+  @Operation(
+          summary = "Rebuild search index",
+          description = "This endpoint allows to rebuild the full-text search index of cars "
+                  + "and details from the database",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Search index rebuilt",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @PostMapping("/rebuild")
+  public ResponseEntity<MessageDto> rebuildIndex() throws InterruptedException {
+    searchIndexService.rebuildIndex();
+    return controllerUtils.createResponseEntityOk("rebuild.search.index.message");
+  }
+}
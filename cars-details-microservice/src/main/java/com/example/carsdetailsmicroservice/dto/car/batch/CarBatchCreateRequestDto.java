@@ -0,0 +1,34 @@
+package com.example.carsdetailsmicroservice.dto.car.batch;
+
+import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for creating cars in bulk.
+ * This class represents the request payload for registering many cars with their details
+ * at once.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CarBatchCreateRequestDto {
+  @Schema(description = "Cars to register")
+  @NotEmpty(message = "{validate.car.batch.notempty}")
+  @Size(max = 10000, message = "{validate.car.batch.size}")
+  @Builder.Default
+  private List<@Valid CarCreateRequestDto> cars = new ArrayList<>();
+}
@@ -0,0 +1,32 @@
+package com.example.carsdetailsmicroservice.dto.car.batch;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a bulk car registration.
+ * This class represents the response payload with one result per requested car, in the
+ * order of the request.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CarBatchCreateResponseDto {
+  @Schema(description = "Number of registered cars",
+          example = "998")
+  private int created;
+  @Schema(description = "Number of rejected cars",
+          example = "2")
+  private int rejected;
+  @Schema(description = "Result of every requested car")
+  private List<CarBatchItemResultDto> results;
+}
@@ -0,0 +1,30 @@
+package com.example.carsdetailsmicroservice.dto.car.batch;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of registering one car of a bulk request.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CarBatchItemResultDto {
+  @Schema(description = "Car's vin code",
+          example = "QWERTY12345")
+  private String vin;
+  @Schema(description = "Whether the car was registered",
+          example = "false")
+  private boolean created;
+  @Schema(description = "Error code of a rejected car, absent for a registered one",
+          example = "409_CAR_ALREADY_EXIST")
+  private String code;
+}
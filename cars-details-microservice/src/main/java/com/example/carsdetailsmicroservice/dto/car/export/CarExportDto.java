@@ -0,0 +1,46 @@
+package com.example.carsdetailsmicroservice.dto.car.export;
+
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for exporting cars.
+ * This class represents one line of the car catalog export, a car together with its details.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CarExportDto {
+  @Schema(description = "Car's vin code",
+          example = "QWERTY12345")
+  private String vin;
+  @Schema(description = "Car's licensePlate",
+          example = "QWERTY1")
+  private String licensePlate;
+  @Schema(description = "Car's manufacturer",
+          example = "Mazda")
+  private String manufacturer;
+  @Schema(description = "Car's model",
+          example = "Mazda")
+  private String model;
+  @Schema(description = "Car's year of manufacturer",
+          example = "1998")
+  private Integer year;
+  @Schema(description = "Car's driver id",
+          example = "1")
+  private Long driverId;
+  @Schema(description = "Car's details")
+  @Builder.Default
+  private List<DetailGetResponseDto> details = new ArrayList<>();
+}
@@ -1,6 +1,9 @@
 package com.example.carsdetailsmicroservice.dto.car.get;
 
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -37,4 +40,7 @@ public class CarGetResponseDto {
   @Schema(description = "Car's driver id",
           example = "1")
   private Long driverId;
+  @Schema(description = "Car's details, present only when requested with include=details")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private List<DetailGetResponseDto> details;
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.carsdetailsmicroservice.dto.car.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.annotation.Nullable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for searching cars.
+ * This class represents the set of filters of a car search, every non-null filter is
+ * combined with the others into a single query.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CarSearchRequestDto {
+  @Schema(description = "Part of the car's manufacturer",
+          example = "Mazda")
+  @Nullable
+  private String manufacturer;
+  @Schema(description = "Part of the car's model",
+          example = "CX7")
+  @Nullable
+  private String model;
+  @Schema(description = "Car's year of manufacturer",
+          example = "1998")
+  @Nullable
+  private Integer year;
+  @Schema(description = "Lower bound of the car's year of manufacturer, inclusive",
+          example = "1995")
+  @Nullable
+  private Integer yearFrom;
+  @Schema(description = "Upper bound of the car's year of manufacturer, inclusive",
+          example = "2005")
+  @Nullable
+  private Integer yearTo;
+  @Schema(description = "Car's driver id",
+          example = "1")
+  @Nullable
+  private Long driverId;
+  @Schema(description = "Serial number of a detail installed in the car",
+          example = "QWERTY12345")
+  @Nullable
+  private String serialNumber;
+}
@@ -1,13 +1,18 @@
 package com.example.carsdetailsmicroservice.entity;
 
+import com.example.carsdetailsmicroservice.config.SearchAnalysisConfigurer;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.Table;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.AllArgsConstructor;
@@ -16,11 +21,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 
 /**
  * The Car entity class represents a car entity in the system.
  * It contains information about a car, such as VIN, license plate,
  * manufacturer, model, year, details, and driver ID.
+ * The identifying and descriptive fields are also kept in the full-text search index.
  */
 @Setter
 @Getter
@@ -29,20 +37,41 @@ import lombok.ToString;
 @AllArgsConstructor
 @ToString
 @Entity
+@Indexed
+@NamedEntityGraph(name = Car.WITH_DETAILS, attributeNodes = @NamedAttributeNode("details"))
+@Table(indexes = {
+    @Index(name = "idx_car_year_manufacturer_model", columnList = "year, manufacturer, model"),
+    @Index(name = "idx_car_driver_id_year", columnList = "driverId, year")
+})
 public class Car {
+  public static final String WITH_DETAILS = "Car.withDetails";
+
   @Id
   @Column(unique = true)
+  @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
+  @FullTextField(name = "vin_prefix", analyzer = SearchAnalysisConfigurer.PREFIX_ANALYZER,
+          searchAnalyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
   private String vin;
   @Column(unique = true)
+  @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
+  @FullTextField(name = "licensePlate_prefix", analyzer = SearchAnalysisConfigurer.PREFIX_ANALYZER,
+          searchAnalyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
   private String licensePlate;
+  @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
+  @FullTextField(name = "manufacturer_prefix", analyzer = SearchAnalysisConfigurer.PREFIX_ANALYZER,
+          searchAnalyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
   private String manufacturer;
+  @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
+  @FullTextField(name = "model_prefix", analyzer = SearchAnalysisConfigurer.PREFIX_ANALYZER,
+          searchAnalyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
   private String model;
   private Integer year;
   @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
   @JoinTable(
           name = "car_details",
           joinColumns = @JoinColumn(name = "car_vin"),
-          inverseJoinColumns = @JoinColumn(name = "detail_id")
+          inverseJoinColumns = @JoinColumn(name = "detail_id"),
+          indexes = @Index(name = "idx_car_details_detail_id", columnList = "detail_id, car_vin")
     )
   private Set<Detail> details = new HashSet<>();
   private Long driverId;
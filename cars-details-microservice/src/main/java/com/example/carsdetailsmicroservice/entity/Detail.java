@@ -1,10 +1,12 @@
 package com.example.carsdetailsmicroservice.entity;
 
+import com.example.carsdetailsmicroservice.config.SearchAnalysisConfigurer;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,10 +14,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 
 /**
  * The Detail entity class represents a detail in the system.
  * It contains information about a detail, such as ID, serial number, and price.
+ * The serial number is also kept in the full-text search index.
+ * Identifiers are taken from a pooled sequence, so inserts of many details are sent to the
+ * database in JDBC batches.
  */
 @Setter
 @Getter
@@ -24,11 +31,16 @@ import lombok.ToString;
 @AllArgsConstructor
 @ToString
 @Entity
+@Indexed
 public class Detail {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detail_seq")
+  @SequenceGenerator(name = "detail_seq", sequenceName = "detail_seq", allocationSize = 50)
   private Long id;
   @Column(unique = true)
+  @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
+  @FullTextField(name = "serialNumber_prefix", analyzer = SearchAnalysisConfigurer.PREFIX_ANALYZER,
+          searchAnalyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
   private String serialNumber;
   @Column
   private BigDecimal price;
@@ -6,10 +6,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import java.util.UUID;
 
 /**
  * Data Transfer Object (DTO) for a car event.
  * This class represents the payload for a car event that is sent to Kafka.
+ * The event id identifies the event across redeliveries.
  */
 @Setter
 @Getter
@@ -20,4 +22,5 @@ import lombok.ToString;
 public class CarPurchaseEvent {
   private Long driverId;
   private String licensePlate;
+  private UUID eventId;
 }
\ No newline at end of file
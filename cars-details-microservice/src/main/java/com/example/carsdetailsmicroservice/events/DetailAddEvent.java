@@ -7,11 +7,14 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import java.math.BigDecimal;
+import java.util.UUID;
 
 /**
  * The DetailAddEvent class represents an event for adding a detail to a car.
  * It contains information about the detail, such as serial number, price, license plate, driver ID, and currency.
  * This event is intended to be sent to Kafka for processing.
+ * The event id identifies the event across redeliveries, so that it is paid only once.
+ * The price is sent as a decimal and in minor units; older writers send the decimal only.
  */
 @Setter
 @Getter
@@ -25,4 +28,6 @@ public class DetailAddEvent {
     private String licensePlate;
     private Long driverId;
     private String currency;
+    private UUID eventId;
+    private Long priceMinor;
 }
\ No newline at end of file
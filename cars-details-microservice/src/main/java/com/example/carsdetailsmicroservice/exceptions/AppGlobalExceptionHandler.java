@@ -1,9 +1,16 @@
 package com.example.carsdetailsmicroservice.exceptions;
 
+import com.example.carsdetailsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.account.InsufficientBalanceException;
 import com.example.carsdetailsmicroservice.exceptions.car.CarAlreadyExistException;
 import com.example.carsdetailsmicroservice.exceptions.car.CarNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.cursor.InvalidCursorException;
+import com.example.carsdetailsmicroservice.exceptions.cursor.InvalidSortException;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailAlreadyExistException;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.kafka.MessageNotSentException;
+import com.example.carsdetailsmicroservice.exceptions.kafka.ReplyTimeoutException;
+import com.example.carsdetailsmicroservice.exceptions.kafka.TopicNotReplayableException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
@@ -66,7 +73,11 @@ public class AppGlobalExceptionHandler {
   }
 
   @ExceptionHandler({CarAlreadyExistException.class, CarNotFoundException.class,
-                     DetailAlreadyExistException.class, DetailNotFoundException.class})
+                     DetailAlreadyExistException.class, DetailNotFoundException.class,
+                     InvalidCursorException.class, InvalidSortException.class,
+                     MessageNotSentException.class, InsufficientBalanceException.class,
+                     AccountNotFoundException.class, ReplyTimeoutException.class,
+                     TopicNotReplayableException.class})
   public ResponseEntity<CustomErrorResponse> handleProjectException(AppException ex) {
     CustomErrorResponse apiResponse = new CustomErrorResponse();
     apiResponse.setCode(ex.getErrorCode().getCode());
@@ -24,6 +24,27 @@ public enum ErrorCode {
             LocalDateTime.now()),
   DETAIL_ALREADY_EXIST(ErrorCodeConstants.DETAIL_ALREADY_EXIST_409,
             HttpStatus.CONFLICT,
+            LocalDateTime.now()),
+  INVALID_CURSOR(ErrorCodeConstants.INVALID_CURSOR_400,
+            HttpStatus.BAD_REQUEST,
+            LocalDateTime.now()),
+  INVALID_SORT(ErrorCodeConstants.INVALID_SORT_400,
+            HttpStatus.BAD_REQUEST,
+            LocalDateTime.now()),
+  MESSAGE_NOT_SENT(ErrorCodeConstants.MESSAGE_NOT_SENT_503,
+            HttpStatus.SERVICE_UNAVAILABLE,
+            LocalDateTime.now()),
+  ACCOUNT_INSUFFICIENT_BALANCE(ErrorCodeConstants.ACCOUNT_INSUFFICIENT_BALANCE_402,
+            HttpStatus.PAYMENT_REQUIRED,
+            LocalDateTime.now()),
+  ACCOUNT_NOT_FOUND(ErrorCodeConstants.ACCOUNT_NOT_FOUND_404,
+            HttpStatus.NOT_FOUND,
+            LocalDateTime.now()),
+  REPLY_TIMEOUT(ErrorCodeConstants.REPLY_TIMEOUT_504,
+            HttpStatus.GATEWAY_TIMEOUT,
+            LocalDateTime.now()),
+  TOPIC_NOT_REPLAYABLE(ErrorCodeConstants.TOPIC_NOT_REPLAYABLE_400,
+            HttpStatus.BAD_REQUEST,
             LocalDateTime.now());
 
   private String code;
@@ -0,0 +1,19 @@
+package com.example.carsdetailsmicroservice.exceptions.account;
+
+import com.example.carsdetailsmicroservice.exceptions.AppException;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when the driver of a car has no account.
+ */
+@Getter
+public class AccountNotFoundException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public AccountNotFoundException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
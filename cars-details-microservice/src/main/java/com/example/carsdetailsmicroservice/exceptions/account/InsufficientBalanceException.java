@@ -0,0 +1,19 @@
+package com.example.carsdetailsmicroservice.exceptions.account;
+
+import com.example.carsdetailsmicroservice.exceptions.AppException;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when the account of a driver cannot pay for a detail.
+ */
+@Getter
+public class InsufficientBalanceException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public InsufficientBalanceException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.carsdetailsmicroservice.exceptions.cursor;
+
+import com.example.carsdetailsmicroservice.exceptions.AppException;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * The InvalidCursorException is an exception class that is thrown when a continuation
+ * token can not be decoded or does not match the requested sorting.
+ * It extends the RuntimeException class and implements the AppException interface.
+ * The exception includes an error code and parameters associated with the error.
+ */
+@Getter
+public class InvalidCursorException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public InvalidCursorException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
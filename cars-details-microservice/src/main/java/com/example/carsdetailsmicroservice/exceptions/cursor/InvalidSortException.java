@@ -0,0 +1,26 @@
+package com.example.carsdetailsmicroservice.exceptions.cursor;
+
+import com.example.carsdetailsmicroservice.exceptions.AppException;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * The InvalidSortException is an exception class that is thrown when a keyset listing is
+ * requested with a sort property that is unknown or may hold null values.
+ * It extends the RuntimeException class and implements the AppException interface.
+ * The exception includes an error code and parameters associated with the error.
+ */
+@Getter
+public class InvalidSortException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public InvalidSortException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+
+  public InvalidSortException(String message) {
+    super(message);
+  }
+}
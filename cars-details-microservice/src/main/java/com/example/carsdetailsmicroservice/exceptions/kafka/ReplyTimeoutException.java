@@ -0,0 +1,19 @@
+package com.example.carsdetailsmicroservice.exceptions.kafka;
+
+import com.example.carsdetailsmicroservice.exceptions.AppException;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when no reply to a request is received in time.
+ */
+@Getter
+public class ReplyTimeoutException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public ReplyTimeoutException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
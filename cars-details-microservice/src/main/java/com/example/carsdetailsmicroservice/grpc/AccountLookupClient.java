@@ -0,0 +1,49 @@
+package com.example.carsdetailsmicroservice.grpc;
+
+import com.example.grpc.drivesbills.v1.AccountLookupGrpc;
+import com.example.grpc.drivesbills.v1.CheckDebitRequest;
+import io.grpc.StatusRuntimeException;
+import java.math.BigDecimal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client of the account lookups served by drives-bills.
+ * The checks are advisory: drives-bills still validates the debit when it consumes the
+ * event, so a check that cannot be answered in time lets the request through.
+ */
+@Slf4j
+@Component
+public class AccountLookupClient {
+  private final AccountLookupGrpc.AccountLookupBlockingStub accountLookupStub;
+
+  @Autowired
+  public AccountLookupClient(AccountLookupGrpc.AccountLookupBlockingStub accountLookupStub) {
+    this.accountLookupStub = accountLookupStub;
+  }
+
+  /**
+   * Tells whether an account could be debited with an amount.
+   *
+   * @param accountId The ID of the account to debit.
+   * @param amount    The amount to debit.
+   * @param currency  The currency of the amount.
+   * @return false only when drives-bills answers that the balance is insufficient.
+   */
+  public boolean canDebit(Long accountId, BigDecimal amount, String currency) {
+    if (accountId == null || amount == null || currency == null) {
+      return true;
+    }
+    try {
+      return accountLookupStub.checkDebit(CheckDebitRequest.newBuilder()
+              .setAccountId(accountId)
+              .setAmount(Decimals.toProto(amount))
+              .setCurrency(currency)
+              .build()).getAffordable();
+    } catch (StatusRuntimeException e) {
+      log.warn("Debit check of account {} skipped: {}", accountId, e.getStatus());
+      return true;
+    }
+  }
+}
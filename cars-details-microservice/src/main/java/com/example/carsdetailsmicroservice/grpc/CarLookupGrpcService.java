@@ -0,0 +1,118 @@
+package com.example.carsdetailsmicroservice.grpc;
+
+import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.exceptions.car.CarNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
+import com.example.carsdetailsmicroservice.service.CarService;
+import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.grpc.carsdetails.v1.CarLookupGrpc;
+import com.example.grpc.carsdetails.v1.CarReply;
+import com.example.grpc.carsdetails.v1.DetailReply;
+import com.example.grpc.carsdetails.v1.GetCarRequest;
+import com.example.grpc.carsdetails.v1.GetDetailRequest;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.util.NoSuchElementException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves the car and detail lookups of the internal gRPC API.
+ * The lookups go through the services, so they are answered from the lookup caches when
+ * the car or the detail has been read recently.
+ */
+@Slf4j
+@Component
+public class CarLookupGrpcService extends CarLookupGrpc.CarLookupImplBase {
+  private final CarService carService;
+  private final DetailService detailService;
+
+  @Autowired
+  public CarLookupGrpcService(CarService carService, DetailService detailService) {
+    this.carService = carService;
+    this.detailService = detailService;
+  }
+
+  @Override
+  public void getCar(GetCarRequest request, StreamObserver<CarReply> responseObserver) {
+    CarGetResponseDto car;
+    try {
+      car = carService.findCarByLicensePlate(request.getLicensePlate()).orElseThrow();
+    } catch (CarNotFoundException | NoSuchElementException e) {
+      responseObserver.onError(Status.NOT_FOUND
+              .withDescription("Car not found: " + request.getLicensePlate())
+              .asRuntimeException());
+      return;
+    }
+    responseObserver.onNext(toCarReply(car));
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void getDetail(GetDetailRequest request, StreamObserver<DetailReply> responseObserver) {
+    DetailReply reply = findDetail(request.getSerialNumber());
+    if (!reply.getFound()) {
+      responseObserver.onError(Status.NOT_FOUND
+              .withDescription("Detail not found: " + request.getSerialNumber())
+              .asRuntimeException());
+      return;
+    }
+    responseObserver.onNext(reply);
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public StreamObserver<GetDetailRequest> getDetails(StreamObserver<DetailReply> responseObserver) {
+    return new StreamObserver<>() {
+      @Override
+      public void onNext(GetDetailRequest request) {
+        responseObserver.onNext(findDetail(request.getSerialNumber()));
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        log.warn("Detail lookup stream cancelled by the client", t);
+      }
+
+      @Override
+      public void onCompleted() {
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  private DetailReply findDetail(String serialNumber) {
+    DetailReply.Builder reply = DetailReply.newBuilder().setSerialNumber(serialNumber);
+    try {
+      detailService.findDetailBySerialNumber(serialNumber).ifPresent(detail -> {
+        reply.setFound(true);
+        if (detail.getPrice() != null) {
+          reply.setPrice(Decimals.toProto(detail.getPrice()));
+        }
+      });
+    } catch (DetailNotFoundException e) {
+      reply.setFound(false);
+    }
+    return reply.build();
+  }
+
+  private CarReply toCarReply(CarGetResponseDto car) {
+    CarReply.Builder reply = CarReply.newBuilder()
+            .setVin(car.getVin())
+            .setLicensePlate(car.getLicensePlate());
+    if (car.getManufacturer() != null) {
+      reply.setManufacturer(car.getManufacturer());
+    }
+    if (car.getModel() != null) {
+      reply.setModel(car.getModel());
+    }
+    if (car.getYear() != null) {
+      reply.setYear(car.getYear());
+    }
+    if (car.getDriverId() != null) {
+      reply.setDriverId(car.getDriverId());
+    }
+    return reply.build();
+  }
+}
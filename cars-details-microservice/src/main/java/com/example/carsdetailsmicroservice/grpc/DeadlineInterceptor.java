@@ -0,0 +1,34 @@
+package com.example.carsdetailsmicroservice.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.MethodDescriptor;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline policy of the internal gRPC calls: a unary call without an explicit deadline is
+ * given the default one, so a slow peer can never hold a request thread for longer.
+ * A call made while serving another call inherits the remaining deadline of that call.
+ * Streaming calls set their deadline themselves, depending on the size of the batch.
+ */
+public class DeadlineInterceptor implements ClientInterceptor {
+  private final Duration deadline;
+
+  public DeadlineInterceptor(Duration deadline) {
+    this.deadline = deadline;
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                             CallOptions callOptions,
+                                                             Channel next) {
+    if (callOptions.getDeadline() == null && method.getType().clientSendsOneMessage()
+            && method.getType().serverSendsOneMessage()) {
+      callOptions = callOptions.withDeadlineAfter(deadline.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    return next.newCall(method, callOptions);
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.carsdetailsmicroservice.grpc;
+
+import com.example.grpc.common.v1.Decimal;
+import java.math.BigDecimal;
+
+/**
+ * Conversions between BigDecimal and the Decimal message of the internal API.
+ */
+public final class Decimals {
+
+  private Decimals() {
+  }
+
+  /**
+   * Converts an amount whose unscaled value fits a long, which is the case of all prices.
+   *
+   * @param value The amount to convert.
+   * @return The Decimal message.
+   * @throws ArithmeticException if the unscaled value does not fit a long.
+   */
+  public static Decimal toProto(BigDecimal value) {
+    return Decimal.newBuilder()
+            .setUnscaled(value.unscaledValue().longValueExact())
+            .setScale(value.scale())
+            .build();
+  }
+
+  public static BigDecimal fromProto(Decimal value) {
+    return BigDecimal.valueOf(value.getUnscaled(), value.getScale());
+  }
+}
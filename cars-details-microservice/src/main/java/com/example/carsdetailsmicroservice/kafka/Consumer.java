@@ -1,42 +1,122 @@
 package com.example.carsdetailsmicroservice.kafka;
 
+import com.example.carsdetailsmicroservice.config.KafkaConfig;
 import com.example.carsdetailsmicroservice.events.CarPurchaseEvent;
 import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.kafka.parallel.KeyOrderedExecutor;
+import com.example.carsdetailsmicroservice.kafka.retry.FailedRecordRouter;
 import com.example.carsdetailsmicroservice.service.CarService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
+import com.example.carsdetailsmicroservice.service.utils.DetailInstallResult;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 /**
  * This class represents a consumer that listens to Kafka topics and processes messages.
+ * Single records are processed in parallel by the KeyOrderedExecutor, the events of a car
+ * are keyed by its license plate so that they are applied in order.
+ * Records that cannot be processed are parked by the FailedRecordRouter and processed again
+ * from the retry topics by the retry listeners.
  */
 @Slf4j
 @Component
 public class Consumer {
-  private final ObjectMapper objectMapper;
   private final CarService carService;
+  private final KeyOrderedExecutor keyOrderedExecutor;
+  private final FailedRecordRouter failedRecordRouter;
 
   @Autowired
-  public Consumer(ObjectMapper objectMapper, CarService carService) {
-    this.objectMapper = objectMapper;
+  public Consumer(CarService carService,
+                  KeyOrderedExecutor keyOrderedExecutor,
+                  FailedRecordRouter failedRecordRouter) {
     this.carService = carService;
+    this.keyOrderedExecutor = keyOrderedExecutor;
+    this.failedRecordRouter = failedRecordRouter;
   }
 
-  @KafkaListener(topics = "topic.driver.buy.car")
-  public void processCarPurchaseEvent(String message) throws JsonProcessingException {
-    log.info("message consumed {}", message);
-    CarPurchaseEvent carPurchaseEvent = objectMapper.readValue(message, CarPurchaseEvent.class);
-    carService.byuCar(carPurchaseEvent);
+  @KafkaListener(topics = "topic.driver.buy.car",
+          containerFactory = KafkaConfig.PARALLEL_LISTENER_CONTAINER_FACTORY)
+  public void processCarPurchaseEvent(ConsumerRecord<String, Object> record,
+                                      Acknowledgment acknowledgment) {
+    CarPurchaseEvent carPurchaseEvent = (CarPurchaseEvent) record.value();
+    log.info("message consumed {}", carPurchaseEvent);
+    keyOrderedExecutor.submit(carPurchaseEvent.getLicensePlate(),
+            () -> failedRecordRouter.process(record, () -> carService.byuCar(carPurchaseEvent)),
+            acknowledgment);
   }
 
-  @Transactional
-  @KafkaListener(topics = "topic.add.detail")
-  public void processDetailAddEvent(String message) throws JsonProcessingException {
-    log.info("message consumed {}", message);
-    DetailAddEvent detailAddEvent = objectMapper.readValue(message, DetailAddEvent.class);
+  @KafkaListener(topicPattern = "topic\\.driver\\.buy\\.car\\.retry-\\d+",
+          containerFactory = KafkaConfig.RETRY_LISTENER_CONTAINER_FACTORY)
+  public void retryCarPurchaseEvent(ConsumerRecord<String, Object> record,
+                                    Acknowledgment acknowledgment) {
+    failedRecordRouter.retry(record, acknowledgment,
+            () -> carService.byuCar((CarPurchaseEvent) record.value()));
+  }
+
+  @KafkaListener(topics = "topic.add.detail",
+          containerFactory = KafkaConfig.PARALLEL_LISTENER_CONTAINER_FACTORY,
+          autoStartup = "#{!${detail-install.batch.enabled:true}}")
+  public void processDetailAddEvent(ConsumerRecord<String, Object> record,
+                                    Acknowledgment acknowledgment) {
+    DetailAddEvent detailAddEvent = (DetailAddEvent) record.value();
+    log.info("message consumed {}", detailAddEvent);
+    keyOrderedExecutor.submit(detailAddEvent.getLicensePlate(),
+            () -> failedRecordRouter.process(record, () -> installDetail(detailAddEvent)),
+            acknowledgment);
+  }
+
+  @KafkaListener(topicPattern = "topic\\.add\\.detail\\.retry-\\d+",
+          containerFactory = KafkaConfig.RETRY_LISTENER_CONTAINER_FACTORY)
+  public void retryDetailAddEvent(ConsumerRecord<String, Object> record,
+                                  Acknowledgment acknowledgment) {
+    failedRecordRouter.retry(record, acknowledgment,
+            () -> installDetail((DetailAddEvent) record.value()));
+  }
+
+  /**
+   * Installs all details of a poll in one transaction. The offsets of the poll are committed
+   * by the container once this method returns, that is after the database commit.
+   * Records that are not DetailAddEvents, such as those that could not be decoded, are
+   * parked on the dead-letter topic, and so are the events whose car or detail does not
+   * exist, once the transaction is committed, like on the single-record listener. When the
+   * transaction fails, every record of the poll is parked on the retry topics.
+   */
+  @KafkaListener(topics = "topic.add.detail",
+          containerFactory = KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY,
+          autoStartup = "${detail-install.batch.enabled:true}")
+  public void processDetailAddEvents(List<ConsumerRecord<String, Object>> records) {
+    List<DetailAddEvent> detailAddEvents = new ArrayList<>(records.size());
+    Map<DetailAddEvent, ConsumerRecord<String, Object>> recordsByEvent = new IdentityHashMap<>();
+    List<ConsumerRecord<String, Object>> rejected = new ArrayList<>();
+    for (ConsumerRecord<String, Object> record : records) {
+      if (record.value() instanceof DetailAddEvent detailAddEvent) {
+        detailAddEvents.add(detailAddEvent);
+        recordsByEvent.put(detailAddEvent, record);
+      } else {
+        rejected.add(record);
+      }
+    }
+    DetailInstallResult result = carService.installDetails(detailAddEvents);
+    log.info("{} messages consumed, {} details installed, {} not applied", records.size(),
+            result.getInstalled(), result.getUnapplied().size());
+    for (ConsumerRecord<String, Object> record : rejected) {
+      failedRecordRouter.accept(record,
+              new SerializationException("Record value is not a DetailAddEvent"));
+    }
+    for (DetailInstallResult.Unapplied unapplied : result.getUnapplied()) {
+      failedRecordRouter.accept(recordsByEvent.get(unapplied.getEvent()),
+              unapplied.getReason());
+    }
+  }
+
+  private void installDetail(DetailAddEvent detailAddEvent) {
     carService.updateCarDetail(detailAddEvent.getLicensePlate(), detailAddEvent.getSerialNumber());
   }
-}
\ No newline at end of file
+}
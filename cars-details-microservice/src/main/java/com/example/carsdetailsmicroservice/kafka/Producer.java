@@ -1,15 +1,45 @@
 package com.example.carsdetailsmicroservice.kafka;
 
 import com.example.carsdetailsmicroservice.events.DetailAddEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.carsdetailsmicroservice.events.DetailPaymentEvent;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import com.example.carsdetailsmicroservice.exceptions.kafka.MessageNotSentException;
+import com.example.carsdetailsmicroservice.exceptions.kafka.ReplyTimeoutException;
+import com.example.carsdetailsmicroservice.kafka.codec.EventCodec;
+import com.example.carsdetailsmicroservice.kafka.spool.OutboundSpool;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.requestreply.KafkaReplyTimeoutException;
+import org.springframework.kafka.requestreply.ReplyingKafkaTemplate;
+import org.springframework.kafka.requestreply.RequestReplyFuture;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 /**
  * This class represents a producer that sends messages to a Kafka topic.
+ * Events are serialized in the binary format of the EventCodec.
+ * Records are keyed by driver id so that the debits of a driver keep their order.
+ * Acknowledgements are handled asynchronously and counted in the kafka.producer.sends
+ * metric, unless kafka.producer.wait-for-ack is set, in which case a send fails when the
+ * broker does not acknowledge the record within kafka.producer.ack-timeout.
+ * A detail request can also be sent as a request-reply exchange, the correlation id and the
+ * reply topic headers are set by the ReplyingKafkaTemplate and the returned future completes
+ * with the payment outcome sent back by drives-bills.
+ * With kafka.spool.enabled, events are appended to the OutboundSpool instead and sent by the
+ * SpoolRelay, so a send only waits for the local disk, whatever the state of the broker.
+ * Request-reply exchanges are never spooled, their caller waits for the reply anyway.
  */
 
 @Slf4j
@@ -19,20 +49,96 @@ public class Producer {
   @Value("${topic.name}")
   private String driverTopic;
 
-  private final ObjectMapper objectMapper;
-  private final KafkaTemplate<String, String> kafkaTemplate;
+  @Value("${kafka.producer.wait-for-ack:false}")
+  private boolean waitForAck;
+
+  @Value("${kafka.producer.ack-timeout:10s}")
+  private Duration ackTimeout;
+
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final ReplyingKafkaTemplate<String, Object, Object> replyingKafkaTemplate;
+  private final MeterRegistry meterRegistry;
+  private final OutboundSpool outboundSpool;
 
   @Autowired
-  public Producer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+  public Producer(KafkaTemplate<String, Object> kafkaTemplate,
+                  ReplyingKafkaTemplate<String, Object, Object> replyingKafkaTemplate,
+                  MeterRegistry meterRegistry,
+                  ObjectProvider<OutboundSpool> outboundSpool) {
     this.kafkaTemplate = kafkaTemplate;
-    this.objectMapper = objectMapper;
+    this.replyingKafkaTemplate = replyingKafkaTemplate;
+    this.meterRegistry = meterRegistry;
+    this.outboundSpool = outboundSpool.getIfAvailable();
   }
 
-  public String sendDetailAddEventMessage(DetailAddEvent detailAddEvent)
-          throws JsonProcessingException {
-    String detailEventAsMessage = objectMapper.writeValueAsString(detailAddEvent);
-    kafkaTemplate.send(driverTopic, detailEventAsMessage);
-    log.info("Driver request produced {}", detailEventAsMessage);
+  public String sendDetailAddEventMessage(DetailAddEvent detailAddEvent) {
+    send(driverTopic, Objects.toString(detailAddEvent.getDriverId(), null), detailAddEvent);
+    log.info("Driver request produced {}", detailAddEvent);
     return "message sent";
   }
-}
\ No newline at end of file
+
+  public CompletableFuture<DetailPaymentEvent> sendDetailAddEventAndReceive(
+          DetailAddEvent detailAddEvent) {
+    String key = Objects.toString(detailAddEvent.getDriverId(), null);
+    RequestReplyFuture<String, Object, Object> future = replyingKafkaTemplate
+            .sendAndReceive(new ProducerRecord<>(driverTopic, key, detailAddEvent));
+    future.getSendFuture()
+            .whenComplete((result, ex) -> onAcknowledgement(driverTopic, key, result, ex));
+    log.info("Driver request produced {}, awaiting payment outcome", detailAddEvent);
+    return future.handle((reply, ex) -> {
+      if (ex == null) {
+        return (DetailPaymentEvent) reply.value();
+      }
+      Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+      if (cause instanceof KafkaReplyTimeoutException) {
+        throw new ReplyTimeoutException(ErrorCode.REPLY_TIMEOUT);
+      }
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, cause);
+    });
+  }
+
+  private void send(String topic, String key, Object event) {
+    if (outboundSpool != null) {
+      spool(topic, key, event);
+      return;
+    }
+    CompletableFuture<SendResult<String, Object>> future = kafkaTemplate
+            .send(topic, key, event)
+            .whenComplete((result, ex) -> onAcknowledgement(topic, key, result, ex));
+    if (!waitForAck) {
+      return;
+    }
+    try {
+      future.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    }
+  }
+
+  private void spool(String topic, String key, Object event) {
+    try {
+      outboundSpool.append(topic, key, EventCodec.encode(event));
+    } catch (IllegalStateException | UncheckedIOException e) {
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    }
+  }
+
+  private void onAcknowledgement(String topic,
+                                 String key,
+                                 SendResult<String, Object> result,
+                                 Throwable ex) {
+    if (ex == null) {
+      log.debug("Message with key {} acknowledged at {}-{}@{}", key, topic,
+              result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+      meterRegistry.counter("kafka.producer.sends", "topic", topic, "result", "success")
+              .increment();
+    } else {
+      log.error("Message with key {} was not delivered to {}", key, topic, ex);
+      meterRegistry.counter("kafka.producer.sends", "topic", topic, "result", "failure")
+              .increment();
+    }
+  }
+}
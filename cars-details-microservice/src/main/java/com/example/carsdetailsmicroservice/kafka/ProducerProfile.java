@@ -0,0 +1,40 @@
+package com.example.carsdetailsmicroservice.kafka;
+
+import java.util.Map;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * Batching and compression settings of the Kafka producer, selected with the
+ * kafka.producer.profile property. Settings given explicitly under spring.kafka.producer
+ * take precedence over the profile.
+ */
+public enum ProducerProfile {
+  /**
+   * Sends every record as soon as possible, compressing only what happens to be batched.
+   */
+  LOW_LATENCY(0, 16 * 1024, "lz4"),
+  /**
+   * Waits a few milliseconds to fill batches, keeping the added latency small.
+   */
+  BALANCED(5, 64 * 1024, "lz4"),
+  /**
+   * Favours large, well compressed batches over latency.
+   */
+  THROUGHPUT(20, 256 * 1024, "zstd");
+
+  private final int lingerMs;
+  private final int batchSize;
+  private final String compressionType;
+
+  ProducerProfile(int lingerMs, int batchSize, String compressionType) {
+    this.lingerMs = lingerMs;
+    this.batchSize = batchSize;
+    this.compressionType = compressionType;
+  }
+
+  public Map<String, Object> properties() {
+    return Map.of(ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+            ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+  }
+}
@@ -0,0 +1,228 @@
+package com.example.carsdetailsmicroservice.kafka.codec;
+
+import com.example.carsdetailsmicroservice.events.CarPurchaseEvent;
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.events.DetailPaymentEvent;
+import java.util.List;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Binary format of the events exchanged with the drives-bills service.
+ * A record starts with a magic byte, the format version and the event type, followed by a
+ * varint bitmap of the fields that are present and by the present fields in field order.
+ *
+ * <p>Schema evolution rules, which the drives-bills copy of this class follows as well:
+ * <ul>
+ *   <li>a new field is appended after the last one and gets the next bit of the bitmap;</li>
+ *   <li>a bit is never reused, a removed field simply stays absent;</li>
+ *   <li>a reader ignores the bits and the trailing bytes of fields it does not know, so old
+ *   readers accept records of newer writers and the other way round;</li>
+ *   <li>changing the type or the order of a field requires a new version, records of an
+ *   unknown version are rejected;</li>
+ *   <li>new event types get the next type number;</li>
+ *   <li>currency codes and payment statuses are appended to the known codes, unknown codes
+ *   are written inline.</li>
+ * </ul>
+ */
+public final class EventCodec {
+  public static final int VERSION = 1;
+
+  static final int MAGIC = 0xCE;
+  static final int CAR_PURCHASE = 1;
+  static final int DETAIL_ADD = 2;
+  static final int DETAIL_PAYMENT = 3;
+
+  private static final List<String> CURRENCIES = List.of("RED", "GREEN", "BLUE");
+  private static final List<String> PAYMENT_STATUSES =
+          List.of("PAID", "INSUFFICIENT_BALANCE", "ACCOUNT_NOT_FOUND");
+  private static final int INITIAL_CAPACITY = 64;
+
+  private EventCodec() {
+  }
+
+  /**
+   * Encodes a CarPurchaseEvent, a DetailAddEvent or a DetailPaymentEvent.
+   *
+   * @param event The event to encode.
+   * @return The binary record.
+   */
+  public static byte[] encode(Object event) {
+    EventWriter writer = new EventWriter(INITIAL_CAPACITY);
+    writer.writeByte(MAGIC);
+    writer.writeByte(VERSION);
+    if (event instanceof CarPurchaseEvent carPurchaseEvent) {
+      writer.writeByte(CAR_PURCHASE);
+      writeCarPurchaseEvent(writer, carPurchaseEvent);
+    } else if (event instanceof DetailAddEvent detailAddEvent) {
+      writer.writeByte(DETAIL_ADD);
+      writeDetailAddEvent(writer, detailAddEvent);
+    } else if (event instanceof DetailPaymentEvent detailPaymentEvent) {
+      writer.writeByte(DETAIL_PAYMENT);
+      writeDetailPaymentEvent(writer, detailPaymentEvent);
+    } else {
+      throw new SerializationException("Unsupported event " + event.getClass().getName());
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Decodes a record written by {@link #encode(Object)} of this or of a compatible writer.
+   *
+   * @param data The binary record.
+   * @return The event held by the record.
+   */
+  public static Object decode(byte[] data) {
+    EventReader reader = new EventReader(data);
+    if (reader.readByte() != MAGIC) {
+      throw new SerializationException("Record is not a binary event");
+    }
+    int version = reader.readByte();
+    if (version != VERSION) {
+      throw new SerializationException("Unsupported event format version " + version);
+    }
+    int type = reader.readByte();
+    return switch (type) {
+      case CAR_PURCHASE -> readCarPurchaseEvent(reader);
+      case DETAIL_ADD -> readDetailAddEvent(reader);
+      case DETAIL_PAYMENT -> readDetailPaymentEvent(reader);
+      default -> throw new SerializationException("Unknown event type " + type);
+    };
+  }
+
+  private static void writeCarPurchaseEvent(EventWriter writer, CarPurchaseEvent event) {
+    writer.writeUnsignedVarLong(presence(event.getDriverId(), event.getLicensePlate(),
+            event.getEventId()));
+    if (event.getDriverId() != null) {
+      writer.writeVarLong(event.getDriverId());
+    }
+    if (event.getLicensePlate() != null) {
+      writer.writeString(event.getLicensePlate());
+    }
+    if (event.getEventId() != null) {
+      writer.writeUuid(event.getEventId());
+    }
+  }
+
+  private static CarPurchaseEvent readCarPurchaseEvent(EventReader reader) {
+    long presence = reader.readUnsignedVarLong();
+    CarPurchaseEvent event = new CarPurchaseEvent();
+    if (isPresent(presence, 0)) {
+      event.setDriverId(reader.readVarLong());
+    }
+    if (isPresent(presence, 1)) {
+      event.setLicensePlate(reader.readString());
+    }
+    if (isPresent(presence, 2)) {
+      event.setEventId(reader.readUuid());
+    }
+    return event;
+  }
+
+  private static void writeDetailAddEvent(EventWriter writer, DetailAddEvent event) {
+    writer.writeUnsignedVarLong(presence(event.getSerialNumber(), event.getPrice(),
+            event.getLicensePlate(), event.getDriverId(), event.getCurrency(),
+            event.getEventId(), event.getPriceMinor()));
+    if (event.getSerialNumber() != null) {
+      writer.writeString(event.getSerialNumber());
+    }
+    if (event.getPrice() != null) {
+      writer.writeDecimal(event.getPrice());
+    }
+    if (event.getLicensePlate() != null) {
+      writer.writeString(event.getLicensePlate());
+    }
+    if (event.getDriverId() != null) {
+      writer.writeVarLong(event.getDriverId());
+    }
+    if (event.getCurrency() != null) {
+      writer.writeCode(event.getCurrency(), CURRENCIES);
+    }
+    if (event.getEventId() != null) {
+      writer.writeUuid(event.getEventId());
+    }
+    if (event.getPriceMinor() != null) {
+      writer.writeVarLong(event.getPriceMinor());
+    }
+  }
+
+  private static DetailAddEvent readDetailAddEvent(EventReader reader) {
+    long presence = reader.readUnsignedVarLong();
+    DetailAddEvent event = new DetailAddEvent();
+    if (isPresent(presence, 0)) {
+      event.setSerialNumber(reader.readString());
+    }
+    if (isPresent(presence, 1)) {
+      event.setPrice(reader.readDecimal());
+    }
+    if (isPresent(presence, 2)) {
+      event.setLicensePlate(reader.readString());
+    }
+    if (isPresent(presence, 3)) {
+      event.setDriverId(reader.readVarLong());
+    }
+    if (isPresent(presence, 4)) {
+      event.setCurrency(reader.readCode(CURRENCIES));
+    }
+    if (isPresent(presence, 5)) {
+      event.setEventId(reader.readUuid());
+    }
+    if (isPresent(presence, 6)) {
+      event.setPriceMinor(reader.readVarLong());
+    }
+    return event;
+  }
+
+  private static void writeDetailPaymentEvent(EventWriter writer, DetailPaymentEvent event) {
+    writer.writeUnsignedVarLong(presence(event.getSerialNumber(), event.getLicensePlate(),
+            event.getDriverId(), event.getStatus()));
+    if (event.getSerialNumber() != null) {
+      writer.writeString(event.getSerialNumber());
+    }
+    if (event.getLicensePlate() != null) {
+      writer.writeString(event.getLicensePlate());
+    }
+    if (event.getDriverId() != null) {
+      writer.writeVarLong(event.getDriverId());
+    }
+    if (event.getStatus() != null) {
+      writer.writeCode(event.getStatus().name(), PAYMENT_STATUSES);
+    }
+  }
+
+  private static DetailPaymentEvent readDetailPaymentEvent(EventReader reader) {
+    long presence = reader.readUnsignedVarLong();
+    DetailPaymentEvent event = new DetailPaymentEvent();
+    if (isPresent(presence, 0)) {
+      event.setSerialNumber(reader.readString());
+    }
+    if (isPresent(presence, 1)) {
+      event.setLicensePlate(reader.readString());
+    }
+    if (isPresent(presence, 2)) {
+      event.setDriverId(reader.readVarLong());
+    }
+    if (isPresent(presence, 3)) {
+      String status = reader.readCode(PAYMENT_STATUSES);
+      try {
+        event.setStatus(DetailPaymentEvent.Status.valueOf(status));
+      } catch (IllegalArgumentException e) {
+        throw new SerializationException("Unknown payment status " + status);
+      }
+    }
+    return event;
+  }
+
+  private static long presence(Object... fields) {
+    long presence = 0;
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i] != null) {
+        presence |= 1L << i;
+      }
+    }
+    return presence;
+  }
+
+  private static boolean isPresent(long presence, int field) {
+    return (presence & (1L << field)) != 0;
+  }
+}
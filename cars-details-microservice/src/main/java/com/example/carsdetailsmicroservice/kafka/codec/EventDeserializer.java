@@ -0,0 +1,14 @@
+package com.example.carsdetailsmicroservice.kafka.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer reading events in the binary format of {@link EventCodec}.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+  @Override
+  public Object deserialize(String topic, byte[] data) {
+    return data == null ? null : EventCodec.decode(data);
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.carsdetailsmicroservice.kafka.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing events in the binary format of {@link EventCodec}.
+ * Byte arrays are written as they are, so that records which could not be decoded are
+ * forwarded unchanged to their dead-letter topic.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+  @Override
+  public byte[] serialize(String topic, Object event) {
+    if (event == null || event instanceof byte[]) {
+      return (byte[]) event;
+    }
+    return EventCodec.encode(event);
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.carsdetailsmicroservice.kafka.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends the primitive fields of the binary event format to a growable byte array.
+ * Integers are written as zigzag varints, strings as a varint length followed by their UTF-8
+ * bytes encoded straight from the chars, decimals as their scale and unscaled value, UUIDs
+ * as their two halves in big-endian order.
+ */
+class EventWriter {
+  private byte[] buffer;
+  private int position;
+
+  EventWriter(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+  }
+
+  void writeVarLong(long value) {
+    writeUnsignedVarLong((value << 1) ^ (value >> 63));
+  }
+
+  void writeUnsignedVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  void writeUuid(UUID value) {
+    ensureCapacity(2 * Long.BYTES);
+    writeFixedLong(value.getMostSignificantBits());
+    writeFixedLong(value.getLeastSignificantBits());
+  }
+
+  void writeString(String value) {
+    int length = value.length();
+    int utf8Length = utf8Length(value);
+    writeUnsignedVarLong(utf8Length);
+    ensureCapacity(utf8Length);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+              && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        buffer[position++] = (byte) '?';
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  /**
+   * Writes a value that is usually one of a few well-known codes as the index of the code,
+   * any other value is written inline after a zero marker.
+   */
+  void writeCode(String value, List<String> knownCodes) {
+    int index = knownCodes.indexOf(value);
+    if (index >= 0) {
+      writeUnsignedVarLong(index + 1L);
+    } else {
+      writeUnsignedVarLong(0);
+      writeString(value);
+    }
+  }
+
+  /**
+   * Writes the scale together with a flag telling whether the unscaled value fits a long,
+   * which is always the case for prices, followed by the unscaled value itself.
+   */
+  void writeDecimal(BigDecimal value) {
+    BigInteger unscaled = value.unscaledValue();
+    boolean compact = unscaled.bitLength() < Long.SIZE;
+    writeVarLong(((long) value.scale() << 1) | (compact ? 0 : 1));
+    if (compact) {
+      writeVarLong(unscaled.longValue());
+    } else {
+      byte[] bytes = unscaled.toByteArray();
+      writeUnsignedVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buffer, position);
+  }
+
+  private void writeFixedLong(long value) {
+    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      buffer[position++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void ensureCapacity(int additional) {
+    if (position + additional > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+    }
+  }
+
+  private static int utf8Length(String value) {
+    int length = value.length();
+    int utf8Length = length;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < length
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+          i++;
+          utf8Length += 2;
+        }
+      } else if (c >= 0x800) {
+        utf8Length += 2;
+      } else if (c >= 0x80) {
+        utf8Length++;
+      }
+    }
+    return utf8Length;
+  }
+}
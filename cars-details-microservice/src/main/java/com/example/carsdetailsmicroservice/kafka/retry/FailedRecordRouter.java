@@ -0,0 +1,215 @@
+package com.example.carsdetailsmicroservice.kafka.retry;
+
+import com.example.carsdetailsmicroservice.exceptions.AppException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parks the records that listeners failed to process, so that the records behind them keep
+ * flowing at full speed.
+ * A record whose failure is retryable is forwarded to the retry topic of its attempt,
+ * {@code <topic>.retry-<attempt>}, and processed again once the delay of the attempt has
+ * elapsed; delays grow exponentially from kafka.retry.initial-delay. A record whose failure
+ * is fatal, that is processing it again cannot succeed, or whose kafka.retry.attempts are
+ * exhausted is forwarded to the dead-letter topic {@code <topic>.dlt}.
+ * The failure reason and the original topic, partition and offset of a parked record are
+ * kept in the kafka_dlt-* headers.
+ */
+@Slf4j
+@Component
+public class FailedRecordRouter implements ConsumerRecordRecoverer {
+  public static final String ATTEMPTS_HEADER = "retry-attempts";
+  public static final String DUE_AT_HEADER = "retry-due-at";
+  private static final String RETRY_TOPIC_SUFFIX = ".retry-";
+  private static final String DEAD_LETTER_TOPIC_SUFFIX = ".dlt";
+  private static final String DEAD_LETTER_HEADER_PREFIX = KafkaHeaders.PREFIX + "dlt-";
+  private static final List<Class<? extends Throwable>> FATAL_EXCEPTIONS = List.of(
+          DeserializationException.class,
+          SerializationException.class,
+          ClassCastException.class,
+          IllegalArgumentException.class,
+          NullPointerException.class);
+
+  @Value("${kafka.retry.topics}")
+  private Set<String> topics;
+
+  @Value("${kafka.retry.attempts:3}")
+  private int attempts;
+
+  @Value("${kafka.retry.initial-delay:1s}")
+  private Duration initialDelay;
+
+  @Value("${kafka.retry.multiplier:5}")
+  private double multiplier;
+
+  private final DeadLetterPublishingRecoverer recoverer;
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public FailedRecordRouter(KafkaTemplate<String, Object> kafkaTemplate,
+                            MeterRegistry meterRegistry) {
+    this.recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate, this::destinationOf);
+    this.recoverer.setHeadersFunction(this::retryHeadersOf);
+    this.recoverer.setAppendOriginalHeaders(false);
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Processes a record and parks it when the processing fails.
+   *
+   * @param record     The record to process.
+   * @param processing The processing of the record.
+   */
+  public void process(ConsumerRecord<?, ?> record, Runnable processing) {
+    try {
+      processing.run();
+    } catch (RuntimeException e) {
+      accept(record, e);
+    }
+  }
+
+  /**
+   * Processes a record of a retry topic once it is due. A record that is not due yet is
+   * redelivered after the remaining delay, the consumer is paused in the meantime.
+   *
+   * @param record         The record to process.
+   * @param acknowledgment The acknowledgment of the record.
+   * @param processing     The processing of the record.
+   */
+  public void retry(ConsumerRecord<?, ?> record,
+                    Acknowledgment acknowledgment,
+                    Runnable processing) {
+    long wait = dueAtOf(record) - System.currentTimeMillis();
+    if (wait > 0) {
+      acknowledgment.nack(Duration.ofMillis(wait));
+      return;
+    }
+    process(record, processing);
+    acknowledgment.acknowledge();
+  }
+
+  @Override
+  public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+    boolean deadLetter = isDeadLetter(record, exception);
+    log.warn("Record {}-{}@{} failed on attempt {} and is parked on {}", record.topic(),
+            record.partition(), record.offset(), attemptsOf(record),
+            destinationOf(record, exception).topic(), exception);
+    recoverer.accept(record, exception);
+    meterRegistry.counter("kafka.consumer.parked", "topic", originalTopicOf(record),
+            "destination", deadLetter ? "dead-letter" : "retry").increment();
+  }
+
+  /**
+   * Whether the failed records of a topic are parked, which makes its dead-letter topic
+   * replayable.
+   */
+  public boolean isRouted(String topic) {
+    return topics.contains(topic);
+  }
+
+  public String deadLetterTopic(String topic) {
+    return topic + DEAD_LETTER_TOPIC_SUFFIX;
+  }
+
+  /**
+   * Returns the retry and dead-letter topics of all routed topics.
+   */
+  public List<String> parkingTopics() {
+    List<String> parkingTopics = new ArrayList<>();
+    for (String topic : topics) {
+      for (int attempt = 0; attempt < attempts; attempt++) {
+        parkingTopics.add(topic + RETRY_TOPIC_SUFFIX + attempt);
+      }
+      parkingTopics.add(deadLetterTopic(topic));
+    }
+    return parkingTopics;
+  }
+
+  /**
+   * Whether a header was added when the record was parked, such headers are dropped when
+   * a dead letter is replayed.
+   */
+  public static boolean isParkingHeader(String key) {
+    return key.startsWith(DEAD_LETTER_HEADER_PREFIX)
+            || key.startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)
+            || key.equals(ATTEMPTS_HEADER)
+            || key.equals(DUE_AT_HEADER);
+  }
+
+  static boolean isFatal(Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof AppException appException) {
+        return appException.getErrorCode().getHttpStatus().is4xxClientError();
+      }
+      for (Class<? extends Throwable> fatalException : FATAL_EXCEPTIONS) {
+        if (fatalException.isInstance(cause)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  TopicPartition destinationOf(ConsumerRecord<?, ?> record, Exception exception) {
+    String topic = originalTopicOf(record);
+    String destination = isDeadLetter(record, exception)
+            ? deadLetterTopic(topic)
+            : topic + RETRY_TOPIC_SUFFIX + attemptsOf(record);
+    return new TopicPartition(destination, -1);
+  }
+
+  Headers retryHeadersOf(ConsumerRecord<?, ?> record, Exception exception) {
+    int attempt = attemptsOf(record);
+    Headers headers = new RecordHeaders();
+    headers.add(ATTEMPTS_HEADER, toBytes(attempt + 1));
+    if (!isDeadLetter(record, exception)) {
+      long delay = (long) (initialDelay.toMillis() * Math.pow(multiplier, attempt));
+      headers.add(DUE_AT_HEADER, toBytes(System.currentTimeMillis() + delay));
+    }
+    return headers;
+  }
+
+  private boolean isDeadLetter(ConsumerRecord<?, ?> record, Exception exception) {
+    return isFatal(exception) || attemptsOf(record) >= attempts;
+  }
+
+  private static String originalTopicOf(ConsumerRecord<?, ?> record) {
+    Header header = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+    return header == null ? record.topic() : new String(header.value(), StandardCharsets.UTF_8);
+  }
+
+  private static int attemptsOf(ConsumerRecord<?, ?> record) {
+    Header header = record.headers().lastHeader(ATTEMPTS_HEADER);
+    return header == null ? 0 : Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8));
+  }
+
+  private static long dueAtOf(ConsumerRecord<?, ?> record) {
+    Header header = record.headers().lastHeader(DUE_AT_HEADER);
+    return header == null ? 0 : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+  }
+
+  private static byte[] toBytes(long value) {
+    return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,463 @@
+package com.example.carsdetailsmicroservice.kafka.spool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of the records waiting to be sent to Kafka, kept on local disk so that
+ * they survive a restart while the broker is slow or unavailable.
+ * The log is a sequence of memory-mapped segment files of a fixed size. A record is framed
+ * by its length and the CRC32C of its content; a frame that does not fit in the rest of a
+ * segment is written at the start of the next one. Positions are logical: a segment starts
+ * at the position of its first byte, which is also its file name.
+ * Appends return once their record is on disk. A flusher thread forces the segments to disk
+ * for all appends made since the previous flush at once, so that concurrent appends share
+ * one fsync.
+ * The SpoolRelay reads the flushed records and commits the position up to which they were
+ * sent; the committed position is kept in a checkpoint file, and the segments below it are
+ * deleted. On opening, the records from the checkpoint up to the first frame that is
+ * incomplete or corrupt, which a crash in the middle of an append leaves behind, are read
+ * again.
+ */
+@Slf4j
+public class OutboundSpool implements AutoCloseable {
+  private static final String SEGMENT_SUFFIX = ".spool";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final String LOCK_FILE = "lock";
+  private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int END_OF_SEGMENT = -1;
+  private static final int NULL_KEY = -1;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxSize;
+  private final long flushIntervalNanos;
+  private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition written = lock.newCondition();
+  private final Condition flushed = lock.newCondition();
+  private final Thread flusher;
+  private FileChannel lockChannel;
+  private long writePosition;
+  private volatile long flushedPosition;
+  private volatile long committedPosition;
+  private volatile boolean open = true;
+
+  /**
+   * Opens the spool of a directory, recovering the records it holds, and starts the flusher.
+   *
+   * @param directory     The directory of the segment and checkpoint files.
+   * @param segmentSize   The size of a segment file, which bounds the size of a record.
+   * @param maxSize       The number of bytes the spool can hold before appends are refused.
+   * @param flushInterval The maximum time between two flushes while records are appended.
+   */
+  public OutboundSpool(Path directory, int segmentSize, long maxSize, Duration flushInterval) {
+    if (segmentSize <= FRAME_HEADER_SIZE || maxSize < segmentSize) {
+      throw new IllegalArgumentException("maxSize must hold at least one segment");
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSize = maxSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+    try {
+      Files.createDirectories(directory);
+      lock();
+      recover();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Spool " + directory + " cannot be opened", e);
+    }
+    this.flusher = new Thread(this::runFlusher, "kafka-spool-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  /**
+   * Appends a record and waits until it is on disk.
+   *
+   * @param topic The topic of the record.
+   * @param key   The key of the record, may be null.
+   * @param value The serialized value of the record.
+   * @throws IllegalStateException if the spool is closed or full, or the record is larger
+   *                               than a segment
+   * @throws UncheckedIOException  if the record cannot be written
+   */
+  public void append(String topic, String key, byte[] value) {
+    byte[] frame = frame(topic, key, value);
+    long end;
+    lock.lock();
+    try {
+      if (!open) {
+        throw new IllegalStateException("Spool is closed");
+      }
+      if (frame.length > segmentSize) {
+        throw new IllegalStateException("Record of " + frame.length + " bytes exceeds a segment");
+      }
+      if (writePosition + frame.length - committedPosition > maxSize) {
+        throw new IllegalStateException("Spool is full");
+      }
+      int offset = offsetOf(writePosition);
+      if (offset + frame.length > segmentSize) {
+        if (offset + Integer.BYTES <= segmentSize) {
+          segmentOf(writePosition).buffer.putInt(offset, END_OF_SEGMENT);
+        }
+        writePosition += segmentSize - offset;
+        offset = 0;
+      }
+      segmentOf(writePosition).buffer.put(offset, frame);
+      writePosition += frame.length;
+      end = writePosition;
+      written.signal();
+      while (flushedPosition < end) {
+        if (!open) {
+          throw new IllegalStateException("Spool is closed");
+        }
+        flushed.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Reads the flushed records from a position, waiting up to the timeout for one to be.
+   *
+   * @param position   The position of the first record to read.
+   * @param maxRecords The maximum number of records to read.
+   * @param timeout    The maximum time to wait when no record is flushed yet.
+   * @return the records, empty if none was flushed in time
+   */
+  public List<SpoolEntry> read(long position, int maxRecords, Duration timeout)
+          throws InterruptedException {
+    lock.lock();
+    try {
+      long deadline = System.nanoTime() + timeout.toNanos();
+      while (flushedPosition <= position && open) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return List.of();
+        }
+        flushed.awaitNanos(remaining);
+      }
+    } finally {
+      lock.unlock();
+    }
+    List<SpoolEntry> entries = new ArrayList<>();
+    long limit = flushedPosition;
+    while (position < limit && entries.size() < maxRecords) {
+      SpoolEntry entry = readFrame(position);
+      if (entry == null) {
+        position += segmentSize - offsetOf(position);
+      } else {
+        entries.add(entry);
+        position = entry.getNextPosition();
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Marks the records below a position as sent. The checkpoint is written to disk before
+   * the segments that are no longer needed are deleted.
+   */
+  public void commit(long position) {
+    try {
+      Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position));
+        channel.force(true);
+      }
+      Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+              StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Spool checkpoint cannot be written", e);
+    }
+    committedPosition = position;
+    lock.lock();
+    try {
+      long current = baseOf(writePosition);
+      while (!segments.isEmpty() && segments.firstKey() + segmentSize <= position
+              && segments.firstKey() < current) {
+        Map.Entry<Long, Segment> segment = segments.pollFirstEntry();
+        segment.getValue().close();
+        Files.deleteIfExists(segmentPath(segment.getKey()));
+      }
+    } catch (IOException e) {
+      log.warn("Sent spool segment cannot be deleted", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long committedPosition() {
+    return committedPosition;
+  }
+
+  /**
+   * Returns the number of bytes appended and not committed yet.
+   */
+  public long backlog() {
+    return flushedPosition - committedPosition;
+  }
+
+  /**
+   * Flushes the records appended so far and stops the flusher.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      if (open) {
+        open = false;
+        flush();
+      }
+      written.signalAll();
+      flushed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      flusher.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    segments.values().forEach(Segment::close);
+    try {
+      lockChannel.close();
+    } catch (IOException e) {
+      log.warn("Spool lock cannot be released", e);
+    }
+  }
+
+  /**
+   * Locks the directory, two processes appending to the same segments would overwrite each
+   * other's records.
+   */
+  private void lock() throws IOException {
+    lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+    FileLock fileLock;
+    try {
+      fileLock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      fileLock = null;
+    }
+    if (fileLock == null) {
+      lockChannel.close();
+      throw new IllegalStateException("Spool " + directory + " is used by another process");
+    }
+  }
+
+  private void recover() throws IOException {
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    committedPosition = Files.exists(checkpoint)
+            ? ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong()
+            : 0;
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+        String name = file.getFileName().toString();
+        long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        if (Files.size(file) != segmentSize) {
+          throw new IllegalStateException("Segment " + file + " was written with another "
+                  + "segment size, send or remove its records first");
+        }
+        if (base + segmentSize <= committedPosition) {
+          Files.delete(file);
+        } else {
+          segments.put(base, new Segment(file, segmentSize));
+        }
+      }
+    }
+    long position = Math.max(committedPosition,
+            segments.isEmpty() ? committedPosition : segments.firstKey());
+    while (segments.containsKey(baseOf(position))) {
+      SpoolEntry entry = readFrame(position);
+      if (entry != null) {
+        position = entry.getNextPosition();
+      } else if (segments.higherKey(baseOf(position)) != null) {
+        position = baseOf(position) + segmentSize;
+      } else {
+        break;
+      }
+    }
+    writePosition = position;
+    flushedPosition = position;
+    committedPosition = Math.min(committedPosition, position);
+    if (segments.containsKey(baseOf(position))) {
+      MappedByteBuffer buffer = segments.get(baseOf(position)).buffer;
+      for (int offset = offsetOf(position); offset < segmentSize; offset++) {
+        buffer.put(offset, (byte) 0);
+      }
+      buffer.force();
+    }
+    for (Long base : new ArrayList<>(segments.tailMap(baseOf(position), false).keySet())) {
+      segments.remove(base).close();
+      Files.delete(segmentPath(base));
+    }
+    log.info("Spool {} opened, {} bytes to send", directory, position - committedPosition);
+  }
+
+  /**
+   * Reads the frame at a position, or returns null when the segment has no more frames.
+   */
+  private SpoolEntry readFrame(long position) {
+    int offset = offsetOf(position);
+    Segment segment = segments.get(baseOf(position));
+    if (segment == null || offset + FRAME_HEADER_SIZE > segmentSize) {
+      return null;
+    }
+    MappedByteBuffer buffer = segment.buffer;
+    int length = buffer.getInt(offset);
+    if (length <= 0 || offset + FRAME_HEADER_SIZE + length > segmentSize) {
+      return null;
+    }
+    byte[] content = new byte[length];
+    buffer.get(offset + FRAME_HEADER_SIZE, content);
+    CRC32C crc = new CRC32C();
+    crc.update(content);
+    if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+      return null;
+    }
+    ByteBuffer reader = ByteBuffer.wrap(content);
+    String topic = readString(reader, reader.getShort());
+    String key = readString(reader, reader.getInt());
+    byte[] value = new byte[reader.remaining()];
+    reader.get(value);
+    return new SpoolEntry(topic, key, value, position + FRAME_HEADER_SIZE + length);
+  }
+
+  private static byte[] frame(String topic, String key, byte[] value) {
+    byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+    byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+    int length = Short.BYTES + topicBytes.length
+            + Integer.BYTES + (keyBytes == null ? 0 : keyBytes.length)
+            + value.length;
+    ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + length);
+    frame.putInt(length).putInt(0)
+            .putShort((short) topicBytes.length).put(topicBytes)
+            .putInt(keyBytes == null ? NULL_KEY : keyBytes.length);
+    if (keyBytes != null) {
+      frame.put(keyBytes);
+    }
+    frame.put(value);
+    CRC32C crc = new CRC32C();
+    crc.update(frame.array(), FRAME_HEADER_SIZE, length);
+    frame.putInt(Integer.BYTES, (int) crc.getValue());
+    return frame.array();
+  }
+
+  private static String readString(ByteBuffer reader, int length) {
+    if (length == NULL_KEY) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    reader.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void runFlusher() {
+    lock.lock();
+    try {
+      while (open) {
+        if (writePosition == flushedPosition) {
+          written.awaitUninterruptibly();
+          continue;
+        }
+        lock.unlock();
+        try {
+          TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } finally {
+          lock.lock();
+        }
+        flush();
+      }
+    } catch (UncheckedIOException e) {
+      log.error("Spool {} cannot be flushed, appends are refused", directory, e);
+      open = false;
+      flushed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forces the segments written since the previous flush to disk. Called with the lock
+   * held, so appends wait for the flush instead of writing next to it.
+   */
+  private void flush() {
+    long end = writePosition;
+    for (Segment segment : segments.subMap(baseOf(flushedPosition), true, end, false).values()) {
+      segment.buffer.force();
+    }
+    if (end > flushedPosition) {
+      flushedPosition = end;
+      flushed.signalAll();
+    }
+  }
+
+  private Segment segmentOf(long position) {
+    return segments.computeIfAbsent(baseOf(position), base -> {
+      try {
+        return new Segment(segmentPath(base), segmentSize);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Spool segment cannot be created", e);
+      }
+    });
+  }
+
+  private Path segmentPath(long base) {
+    return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+  }
+
+  private long baseOf(long position) {
+    return position - offsetOf(position);
+  }
+
+  private int offsetOf(long position) {
+    return (int) (position % segmentSize);
+  }
+
+  private static final class Segment {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private Segment(Path file, int size) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        log.warn("Spool segment cannot be closed", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.carsdetailsmicroservice.kafka.spool;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A record read from the OutboundSpool, with the position of the record that follows it.
+ */
+@Getter
+@AllArgsConstructor
+public class SpoolEntry {
+  private final String topic;
+  private final String key;
+  private final byte[] value;
+  private final long nextPosition;
+}
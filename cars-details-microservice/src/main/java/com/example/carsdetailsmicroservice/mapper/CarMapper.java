@@ -4,12 +4,13 @@ import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
 import com.example.carsdetailsmicroservice.entity.Car;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 /**
  * This interface represents a mapper for converting between Car objects and DTOs.
  */
-@Mapper
+@Mapper(uses = DetailMapper.class)
 public interface CarMapper {
   CarMapper INSTANCE = Mappers.getMapper(CarMapper.class);
 
@@ -17,6 +18,10 @@ public interface CarMapper {
 
   Car toCar(CarCreateRequestDto carCreateRequestDto);
 
+  @Mapping(target = "details", ignore = true)
   CarGetResponseDto toDtoResponse(Car car);
 
+  @Mapping(target = "details", source = "details")
+  CarGetResponseDto toDtoResponseWithDetails(Car car);
+
 }
\ No newline at end of file
@@ -1,17 +1,28 @@
 package com.example.carsdetailsmicroservice.repository;
 
 import com.example.carsdetailsmicroservice.entity.Car;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * This interface represents a repository for Car entities.
  */
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
   /**
    * Retrieves a Car entity by its VIN.
    *
@@ -20,6 +31,35 @@ public interface CarRepository extends JpaRepository<Car, Long> {
    */
   Optional<Car> findByVin(String vin);
 
+  /**
+   * Retrieves a Car entity by its VIN together with its Details in a single query.
+   *
+   * @param vin The VIN of the Car.
+   * @return An Optional containing the Car entity if found, or an empty Optional if not found.
+   */
+  @EntityGraph(Car.WITH_DETAILS)
+  Optional<Car> findWithDetailsByVin(String vin);
+
+  /**
+   * Retrieves the Car entities with the specified VINs together with their Details in a
+   * single query.
+   *
+   * @param vins The VINs of the Cars.
+   * @return A List containing the Car entities with initialized Details.
+   */
+  @EntityGraph(Car.WITH_DETAILS)
+  List<Car> findWithDetailsByVinIn(Collection<String> vins);
+
+  /**
+   * Retrieves the Car entities with the specified license plates together with their Details
+   * in a single query.
+   *
+   * @param licensePlates The license plates of the Cars.
+   * @return A List containing the Car entities with initialized Details.
+   */
+  @EntityGraph(Car.WITH_DETAILS)
+  List<Car> findWithDetailsByLicensePlateIn(Collection<String> licensePlates);
+
   /**
    * Retrieves a Car entity by its license plate.
    *
@@ -85,4 +125,40 @@ public interface CarRepository extends JpaRepository<Car, Long> {
    * @return A Page containing the matching Car entities.
    */
   Page<Car> findByYear(Integer year, Pageable pageable);
+
+  /**
+   * Retrieves which of the specified VINs already belong to a Car entity.
+   *
+   * @param vins The VINs to check.
+   * @return A Set containing the VINs that are already taken.
+   */
+  @Query("select c.vin from Car c where c.vin in :vins")
+  Set<String> findExistingVins(@Param("vins") Collection<String> vins);
+
+  /**
+   * Retrieves which of the specified license plates already belong to a Car entity.
+   *
+   * @param licensePlates The license plates to check.
+   * @return A Set containing the license plates that are already taken.
+   */
+  @Query("select c.licensePlate from Car c where c.licensePlate in :licensePlates")
+  Set<String> findExistingLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+
+  /**
+   * Streams the VINs of all Car entities. Must be consumed inside a transaction.
+   *
+   * @return A Stream of all VINs.
+   */
+  @Query("select c.vin from Car c")
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<String> streamAllVins();
+
+  /**
+   * Streams the license plates of all Car entities. Must be consumed inside a transaction.
+   *
+   * @return A Stream of all license plates.
+   */
+  @Query("select c.licensePlate from Car c")
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<String> streamAllLicensePlates();
 }
\ No newline at end of file
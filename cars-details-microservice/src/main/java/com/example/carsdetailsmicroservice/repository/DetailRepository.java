@@ -1,18 +1,28 @@
 package com.example.carsdetailsmicroservice.repository;
 
 import com.example.carsdetailsmicroservice.entity.Detail;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * This interface represents a repository for Detail entities.
  */
 @Repository
-public interface DetailRepository extends JpaRepository<Detail, Long> {
+public interface DetailRepository extends JpaRepository<Detail, Long>, JpaSpecificationExecutor<Detail> {
   /**
    * Retrieves a Detail entity by its serial number.
    *
@@ -61,4 +71,30 @@ public interface DetailRepository extends JpaRepository<Detail, Long> {
    * @return A Page containing the matching Detail entities.
    */
   Page<Detail> findByPrice(BigDecimal price, Pageable pageable);
+
+  /**
+   * Retrieves the Detail entities with the specified serial numbers.
+   *
+   * @param serialNumbers The serial numbers of the Details.
+   * @return A List containing the matching Detail entities.
+   */
+  List<Detail> findBySerialNumberIn(Collection<String> serialNumbers);
+
+  /**
+   * Retrieves which of the specified serial numbers already belong to a Detail entity.
+   *
+   * @param serialNumbers The serial numbers to check.
+   * @return A Set containing the serial numbers that are already taken.
+   */
+  @Query("select d.serialNumber from Detail d where d.serialNumber in :serialNumbers")
+  Set<String> findExistingSerialNumbers(@Param("serialNumbers") Collection<String> serialNumbers);
+
+  /**
+   * Streams the serial numbers of all Detail entities. Must be consumed inside a transaction.
+   *
+   * @return A Stream of all serial numbers.
+   */
+  @Query("select d.serialNumber from Detail d")
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<String> streamAllSerialNumbers();
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.example.carsdetailsmicroservice.repository.specification;
+
+import com.example.carsdetailsmicroservice.dto.car.search.CarSearchRequestDto;
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.entity.Detail;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Factory of Specification predicates for Car entities.
+ * Each method describes one search filter, {@link #matches(CarSearchRequestDto)} combines
+ * every filter set in a search request into a single query.
+ */
+public final class CarSpecification {
+  private CarSpecification() {
+  }
+
+  /**
+   * Combines all non-null filters of the search request with a logical AND.
+   *
+   * @param searchRequest The search request holding the filters.
+   * @return The Specification predicate, matching every car when no filter is set.
+   */
+  public static Specification<Car> matches(CarSearchRequestDto searchRequest) {
+    Specification<Car> specification = Specification.where(null);
+    if (searchRequest.getManufacturer() != null) {
+      specification = specification.and(manufacturerContains(searchRequest.getManufacturer()));
+    }
+    if (searchRequest.getModel() != null) {
+      specification = specification.and(modelContains(searchRequest.getModel()));
+    }
+    if (searchRequest.getYear() != null) {
+      specification = specification.and(yearEquals(searchRequest.getYear()));
+    }
+    if (searchRequest.getYearFrom() != null) {
+      specification = specification.and(yearFrom(searchRequest.getYearFrom()));
+    }
+    if (searchRequest.getYearTo() != null) {
+      specification = specification.and(yearTo(searchRequest.getYearTo()));
+    }
+    if (searchRequest.getDriverId() != null) {
+      specification = specification.and(driverIdEquals(searchRequest.getDriverId()));
+    }
+    if (searchRequest.getSerialNumber() != null) {
+      specification = specification.and(hasDetail(searchRequest.getSerialNumber()));
+    }
+    return specification;
+  }
+
+  /**
+   * Matches cars whose manufacturer contains the specified value.
+   *
+   * @param manufacturer The value to search for in the manufacturer field.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> manufacturerContains(String manufacturer) {
+    return (root, query, builder) -> builder.like(root.get("manufacturer"), "%" + manufacturer + "%");
+  }
+
+  /**
+   * Matches cars whose model contains the specified value.
+   *
+   * @param model The value to search for in the model field.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> modelContains(String model) {
+    return (root, query, builder) -> builder.like(root.get("model"), "%" + model + "%");
+  }
+
+  /**
+   * Matches cars of the specified year.
+   *
+   * @param year The value to match in the year field.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> yearEquals(Integer year) {
+    return (root, query, builder) -> builder.equal(root.get("year"), year);
+  }
+
+  /**
+   * Matches cars made in the specified year or later.
+   *
+   * @param year The lower bound of the year field, inclusive.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> yearFrom(Integer year) {
+    return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("year"), year);
+  }
+
+  /**
+   * Matches cars made in the specified year or earlier.
+   *
+   * @param year The upper bound of the year field, inclusive.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> yearTo(Integer year) {
+    return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("year"), year);
+  }
+
+  /**
+   * Matches cars owned by the specified driver.
+   *
+   * @param driverId The value to match in the driver id field.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> driverIdEquals(Long driverId) {
+    return (root, query, builder) -> builder.equal(root.get("driverId"), driverId);
+  }
+
+  /**
+   * Matches cars with the specified detail installed.
+   * The detail is looked up in a correlated EXISTS subquery, so the cars are not
+   * multiplied by the join with their details.
+   *
+   * @param serialNumber The serial number of the detail.
+   * @return The Specification predicate.
+   */
+  public static Specification<Car> hasDetail(String serialNumber) {
+    return (root, query, builder) -> {
+      Subquery<Long> subquery = query.subquery(Long.class);
+      Root<Car> car = subquery.correlate(root);
+      Join<Car, Detail> detail = car.join("details");
+      subquery.select(detail.get("id"))
+              .where(builder.equal(detail.get("serialNumber"), serialNumber));
+      return builder.exists(subquery);
+    };
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.carsdetailsmicroservice.repository.specification;
+
+import com.example.carsdetailsmicroservice.entity.Detail;
+import java.math.BigDecimal;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Factory of Specification predicates for Detail entities.
+ * Each method mirrors one of the derived search queries of the DetailRepository, so the
+ * same filters can be used with fluent queries such as keyset scrolling.
+ */
+public final class DetailSpecification {
+  private DetailSpecification() {
+  }
+
+  /**
+   * Matches details whose serial number contains the specified value.
+   *
+   * @param serialNumber The value to search for in the serial number field.
+   * @return The Specification predicate.
+   */
+  public static Specification<Detail> serialNumberContains(String serialNumber) {
+    return (root, query, builder) -> builder.like(root.get("serialNumber"), "%" + serialNumber + "%");
+  }
+
+  /**
+   * Matches details of the specified price.
+   *
+   * @param price The value to match in the price field.
+   * @return The Specification predicate.
+   */
+  public static Specification<Detail> priceEquals(BigDecimal price) {
+    return (root, query, builder) -> builder.equal(root.get("price"), price);
+  }
+}
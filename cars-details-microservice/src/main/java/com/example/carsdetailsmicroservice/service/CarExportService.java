@@ -0,0 +1,22 @@
+package com.example.carsdetailsmicroservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.springframework.stereotype.Service;
+
+/**
+ * This interface represents a service for exporting the car catalog.
+ */
+@Service
+public interface CarExportService {
+  /**
+   * Writes every Car with its Details to the output stream as newline-delimited JSON,
+   * one Car per line, ordered by VIN.
+   * The Cars are read through a forward-only database cursor chunk by chunk, so the memory
+   * used does not depend on the number of Cars.
+   *
+   * @param outputStream The output stream to write the Cars to.
+   * @throws IOException if there is an error while writing to the output stream.
+   */
+  void exportCars(OutputStream outputStream) throws IOException;
+}
@@ -1,13 +1,18 @@
 package com.example.carsdetailsmicroservice.service;
 
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateResponseDto;
 import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.search.CarSearchRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.update.CarUpdateRequestDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Car;
 import com.example.carsdetailsmicroservice.events.CarPurchaseEvent;
 import com.example.carsdetailsmicroservice.events.DetailAddEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.carsdetailsmicroservice.service.utils.DetailInstallResult;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
@@ -23,17 +28,29 @@ public interface CarService {
    */
   void registerCar(CarCreateRequestDto carRequestDto);
 
+  /**
+   * Registers many Cars with their Details in a single transaction.
+   * A Car is rejected when its VIN, its license plate or the serial number of one of its
+   * Details is already taken, either in the database or by a previous Car of the request.
+   *
+   * @param carRequestDtos The CarCreateRequestDto objects of the Cars to register.
+   * @return A CarBatchCreateResponseDto with the result of every Car, in request order.
+   */
+  CarBatchCreateResponseDto registerCars(List<CarCreateRequestDto> carRequestDtos);
+
   /**
    * Retrieves a Car by its VIN.
+   * Without Details the Car is served from the lookup cache when present.
    *
-   * @param vin The VIN of the Car to retrieve.
+   * @param vin            The VIN of the Car to retrieve.
+   * @param includeDetails Whether to load the Details of the Car in the same query.
    * @return An Optional containing the CarGetResponseDto if found, or an empty Optional
    * if not found.
    */
-  Optional<CarGetResponseDto> findCarByVin(String vin);
+  Optional<CarGetResponseDto> findCarByVin(String vin, boolean includeDetails);
 
   /**
-   * Retrieves a Car by its license plate.
+   * Retrieves a Car by its license plate, served from the lookup cache when present.
    *
    * @param licensePlate The license plate of the Car to retrieve.
    * @return An Optional containing the CarGetResponseDto if found, or an empty Optional
@@ -59,13 +76,15 @@ public interface CarService {
 
   /**
    * Retrieves all Cars with pagination.
+   * The Details of a whole page are loaded with one additional query when requested.
    *
-   * @param page   The page number.
-   * @param size   The number of items per page.
-   * @param sortBy The field to sort the results by.
+   * @param page           The page number.
+   * @param size           The number of items per page.
+   * @param sortBy         The field to sort the results by.
+   * @param includeDetails Whether to return the Details of the Cars.
    * @return A Page containing the CarGetResponseDto objects.
    */
-  Page<CarGetResponseDto> getAllCars(int page, int size, String sortBy);
+  Page<CarGetResponseDto> getAllCars(int page, int size, String sortBy, boolean includeDetails);
 
   /**
    * Searches for Cars by manufacturer with pagination.
@@ -103,6 +122,52 @@ public interface CarService {
    */
   Page<CarGetResponseDto> searchCarsByYear(Integer year, int page, int size, String sortBy);
 
+  /**
+   * Retrieves all Cars with keyset pagination, without offset scan and count query.
+   *
+   * @param cursor         The continuation token of the previous slice, empty for the first one.
+   * @param size           The number of items per slice.
+   * @param sortBy         The field to sort the results by, the VIN is used as tie-breaker.
+   * @param includeDetails Whether to return the Details of the Cars.
+   * @return A CursorPageDto containing the CarGetResponseDto objects.
+   */
+  CursorPageDto<CarGetResponseDto> scrollCars(String cursor,
+                                              int size,
+                                              String sortBy,
+                                              boolean includeDetails);
+
+  /**
+   * Searches for Cars matching all filters of the search request with pagination.
+   *
+   * @param searchRequest  The search request, only its non-null filters are applied.
+   * @param page           The page number.
+   * @param size           The number of items per page.
+   * @param sortBy         The field to sort the results by.
+   * @param includeDetails Whether to return the Details of the Cars.
+   * @return A Page containing the CarGetResponseDto objects.
+   */
+  Page<CarGetResponseDto> searchCars(CarSearchRequestDto searchRequest,
+                                     int page,
+                                     int size,
+                                     String sortBy,
+                                     boolean includeDetails);
+
+  /**
+   * Searches for Cars matching all filters of the search request with keyset pagination.
+   *
+   * @param searchRequest  The search request, only its non-null filters are applied.
+   * @param cursor         The continuation token of the previous slice, empty for the first one.
+   * @param size           The number of items per slice.
+   * @param sortBy         The field to sort the results by, the VIN is used as tie-breaker.
+   * @param includeDetails Whether to return the Details of the Cars.
+   * @return A CursorPageDto containing the CarGetResponseDto objects.
+   */
+  CursorPageDto<CarGetResponseDto> scrollSearchCars(CarSearchRequestDto searchRequest,
+                                                    String cursor,
+                                                    int size,
+                                                    String sortBy,
+                                                    boolean includeDetails);
+
   /**
    * Processes a CarEventDto for buying a car.
    *
@@ -112,12 +177,23 @@ public interface CarService {
 
   /**
    * Adds a detail to a car.
+   * The request is rejected early when drives-bills answers that the driver cannot pay for
+   * the detail.
    *
    * @param detailAddEvent The DetailAddEvent containing the details of the detail to add.
    * @return A message indicating the success of the operation.
-   * @throws JsonProcessingException if there is an error while processing the JSON.
    */
-  String addDetail(DetailAddEvent detailAddEvent) throws JsonProcessingException;
+  String addDetail(DetailAddEvent detailAddEvent);
+
+  /**
+   * Adds a detail to a car and waits for drives-bills to debit the driver for it.
+   * No request thread is held while waiting, the future completes when the payment outcome
+   * is received or fails when it is not received within detail-payment.reply-timeout.
+   *
+   * @param detailAddEvent The DetailAddEvent containing the details of the detail to add.
+   * @return A future completed once the detail is paid and its installation is queued.
+   */
+  CompletableFuture<Void> addDetailAndAwaitPayment(DetailAddEvent detailAddEvent);
 
   /**
    * Updates the details of a car.
@@ -127,4 +203,15 @@ public interface CarService {
    * @return The updated Car object.
    */
   Car updateCarDetail(String licensePlate, String serialNumber);
+
+  /**
+   * Installs many details on cars in a single transaction.
+   * The cars and the details referenced by the events are loaded with one query each.
+   * Events whose car or detail does not exist are not applied and are returned with the
+   * exception updateCarDetail would throw for them, so that they can be parked.
+   *
+   * @param detailAddEvents The DetailAddEvents describing the details to install.
+   * @return The number of details that were installed and the events not applied.
+   */
+  DetailInstallResult installDetails(List<DetailAddEvent> detailAddEvents);
 }
\ No newline at end of file
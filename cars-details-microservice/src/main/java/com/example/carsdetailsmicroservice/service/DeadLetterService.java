@@ -0,0 +1,21 @@
+package com.example.carsdetailsmicroservice.service;
+
+import com.example.carsdetailsmicroservice.dto.deadletter.DeadLetterReplayResponseDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * This interface represents a service for the records parked on dead-letter topics.
+ */
+@Service
+public interface DeadLetterService {
+  /**
+   * Sends the dead letters of a topic back to it in the order of their partitions, without
+   * their failure and retry headers. A dead letter is replayed only once, the next replay resumes after the
+   * last dead letter replayed.
+   *
+   * @param topic The topic whose dead letters to replay.
+   * @param max   The maximum number of dead letters to replay.
+   * @return A DeadLetterReplayResponseDto with the number of dead letters replayed.
+   */
+  DeadLetterReplayResponseDto replay(String topic, int max);
+}
@@ -2,6 +2,7 @@ package com.example.carsdetailsmicroservice.service;
 
 import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
 import com.example.carsdetailsmicroservice.dto.detail.update.DetailUpdateRequestDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Detail;
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -21,7 +22,7 @@ public interface DetailService {
   void createDetail(Detail detail);
 
   /**
-   * Retrieves a Detail by its serial number.
+   * Retrieves a Detail by its serial number, served from the lookup cache when present.
    *
    * @param serialNumber The serial number of the Detail to retrieve.
    * @return An Optional containing the DetailGetResponseDto if found, or an empty Optional
@@ -85,4 +86,31 @@ public interface DetailService {
                                                          int page,
                                                          int size,
                                                          String sortBy);
+
+  /**
+   * Retrieves all Details with keyset pagination, without offset scan and count query.
+   *
+   * @param cursor The continuation token of the previous slice, empty for the first one.
+   * @param size   The number of items per slice.
+   * @param sortBy The field to sort the results by, the id is used as tie-breaker.
+   * @return A CursorPageDto containing the DetailGetResponseDto objects.
+   */
+  CursorPageDto<DetailGetResponseDto> scrollDetails(String cursor, int size, String sortBy);
+
+  /**
+   * Searches for Details by serial number or price with keyset pagination.
+   * Only the first non-null filter is applied, the same way as for the paged search.
+   *
+   * @param serialNumber The serial number to search for.
+   * @param price        The price to search for.
+   * @param cursor       The continuation token of the previous slice, empty for the first one.
+   * @param size         The number of items per slice.
+   * @param sortBy       The field to sort the results by, the id is used as tie-breaker.
+   * @return A CursorPageDto containing the DetailGetResponseDto objects.
+   */
+  CursorPageDto<DetailGetResponseDto> scrollSearchDetails(String serialNumber,
+                                                          BigDecimal price,
+                                                          String cursor,
+                                                          int size,
+                                                          String sortBy);
 }
\ No newline at end of file
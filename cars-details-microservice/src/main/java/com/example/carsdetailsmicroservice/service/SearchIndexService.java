@@ -0,0 +1,45 @@
+package com.example.carsdetailsmicroservice.service;
+
+import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+/**
+ * This interface represents a service for the full-text search index of cars and details.
+ * The index is stored on disk next to the service and is kept up to date automatically
+ * whenever a Car or a Detail is saved, updated or deleted.
+ */
+@Service
+public interface SearchIndexService {
+  /**
+   * Searches for Cars by VIN, license plate, manufacturer or model.
+   * Whole words, beginnings of words and words with typos are matched, the best matches
+   * come first.
+   *
+   * @param text The text to search for.
+   * @param page The page number.
+   * @param size The number of items per page.
+   * @return A Page containing the CarGetResponseDto objects ordered by relevance.
+   */
+  Page<CarGetResponseDto> searchCars(String text, int page, int size);
+
+  /**
+   * Searches for Details by serial number.
+   * Whole serial numbers, their beginnings and serial numbers with typos are matched,
+   * the best matches come first.
+   *
+   * @param text The text to search for.
+   * @param page The page number.
+   * @param size The number of items per page.
+   * @return A Page containing the DetailGetResponseDto objects ordered by relevance.
+   */
+  Page<DetailGetResponseDto> searchDetails(String text, int page, int size);
+
+  /**
+   * Drops the search index and rebuilds it from all Cars and Details in the database.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting for the rebuild.
+   */
+  void rebuildIndex() throws InterruptedException;
+}
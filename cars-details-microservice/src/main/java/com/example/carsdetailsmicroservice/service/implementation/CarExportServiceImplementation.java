@@ -0,0 +1,103 @@
+package com.example.carsdetailsmicroservice.service.implementation;
+
+import com.example.carsdetailsmicroservice.dto.car.export.CarExportDto;
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.mapper.DetailMapper;
+import com.example.carsdetailsmicroservice.service.CarExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class CarExportServiceImplementation implements CarExportService {
+  private static final byte LINE_SEPARATOR = '\n';
+
+  @Value("${car.export.fetch-size:500}")
+  private int fetchSize;
+
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  @Autowired
+  public CarExportServiceImplementation(EntityManager entityManager, ObjectMapper objectMapper) {
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  @Transactional
+  public void exportCars(OutputStream outputStream) throws IOException {
+    long exported = 0;
+    try (Stream<Car> cars = entityManager
+            .createQuery("select c from Car c order by c.vin", Car.class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()) {
+      Iterator<Car> iterator = cars.iterator();
+      Map<String, CarExportDto> chunk = new LinkedHashMap<>();
+      while (iterator.hasNext()) {
+        Car car = iterator.next();
+        chunk.put(car.getVin(), toExportDto(car));
+        if (chunk.size() == fetchSize) {
+          exported += writeChunk(chunk, outputStream);
+        }
+      }
+      exported += writeChunk(chunk, outputStream);
+    }
+    log.info("Exported {} cars", exported);
+  }
+
+  private int writeChunk(Map<String, CarExportDto> chunk, OutputStream outputStream)
+          throws IOException {
+    if (chunk.isEmpty()) {
+      return 0;
+    }
+    List<Tuple> details = entityManager
+            .createQuery("select c.vin, d from Car c join c.details d where c.vin in :vins",
+                    Tuple.class)
+            .setParameter("vins", chunk.keySet())
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultList();
+    for (Tuple detail : details) {
+      chunk.get(detail.get(0, String.class)).getDetails()
+              .add(DetailMapper.INSTANCE.toDtoResponse(detail.get(1, Detail.class)));
+    }
+    for (CarExportDto car : chunk.values()) {
+      outputStream.write(objectMapper.writeValueAsBytes(car));
+      outputStream.write(LINE_SEPARATOR);
+    }
+    outputStream.flush();
+    entityManager.clear();
+    int written = chunk.size();
+    chunk.clear();
+    return written;
+  }
+
+  private CarExportDto toExportDto(Car car) {
+    return CarExportDto.builder()
+            .vin(car.getVin())
+            .licensePlate(car.getLicensePlate())
+            .manufacturer(car.getManufacturer())
+            .model(car.getModel())
+            .year(car.getYear())
+            .driverId(car.getDriverId())
+            .details(new ArrayList<>())
+            .build();
+  }
+}
@@ -1,77 +1,224 @@
 package com.example.carsdetailsmicroservice.service.implementation;
 
+import com.example.carsdetailsmicroservice.config.CacheConfig;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchItemResultDto;
 import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.search.CarSearchRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.update.CarUpdateRequestDto;
 import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Car;
 import com.example.carsdetailsmicroservice.entity.Detail;
 import com.example.carsdetailsmicroservice.events.CarPurchaseEvent;
 import com.example.carsdetailsmicroservice.events.DetailAddEvent;
 import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import com.example.carsdetailsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.account.InsufficientBalanceException;
 import com.example.carsdetailsmicroservice.exceptions.car.CarAlreadyExistException;
 import com.example.carsdetailsmicroservice.exceptions.car.CarNotFoundException;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
+import com.example.carsdetailsmicroservice.grpc.AccountLookupClient;
 import com.example.carsdetailsmicroservice.kafka.Producer;
 import com.example.carsdetailsmicroservice.mapper.CarMapper;
 import com.example.carsdetailsmicroservice.repository.CarRepository;
 import com.example.carsdetailsmicroservice.repository.DetailRepository;
+import com.example.carsdetailsmicroservice.repository.specification.CarSpecification;
 import com.example.carsdetailsmicroservice.service.CarService;
 import com.example.carsdetailsmicroservice.service.DetailService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.carsdetailsmicroservice.service.utils.CursorCodec;
+import com.example.carsdetailsmicroservice.service.utils.DetailInstallResult;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilter;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilters;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
 public class CarServiceImplementation implements CarService {
+  private static final int REGISTRATION_CHUNK_SIZE = 500;
+  private static final Set<String> SORTABLE_FIELDS = Set.of("vin");
   private final CarRepository carRepository;
   private final EntityManager entityManager;
   private final DetailService detailService;
   private final DetailRepository detailRepository;
   private final Producer producer;
+  private final CursorCodec cursorCodec;
+  private final UniqueKeyFilters uniqueKeyFilters;
+  private final AccountLookupClient accountLookupClient;
+  private final Cache carsByVin;
+  private final Cache carsByLicensePlate;
 
   @Autowired
   public CarServiceImplementation(CarRepository carRepository,
                                     EntityManager entityManager,
                                     DetailService detailService,
                                     DetailRepository detailRepository,
-                                    Producer producer) {
+                                    Producer producer,
+                                    CursorCodec cursorCodec,
+                                    UniqueKeyFilters uniqueKeyFilters,
+                                    CacheManager cacheManager,
+                                    AccountLookupClient accountLookupClient) {
     this.carRepository = carRepository;
     this.entityManager = entityManager;
     this.detailService = detailService;
     this.detailRepository = detailRepository;
     this.producer = producer;
+    this.cursorCodec = cursorCodec;
+    this.uniqueKeyFilters = uniqueKeyFilters;
+    this.accountLookupClient = accountLookupClient;
+    this.carsByVin = new TransactionAwareCacheDecorator(
+            cacheManager.getCache(CacheConfig.CARS_BY_VIN));
+    this.carsByLicensePlate = new TransactionAwareCacheDecorator(
+            cacheManager.getCache(CacheConfig.CARS_BY_LICENSE_PLATE));
   }
 
+  @Transactional
   @Override
   public void registerCar(CarCreateRequestDto carRequestDto) {
     String vin = carRequestDto.getVin();
     String licensePlate = carRequestDto.getLicensePlate();
-    if (carRepository.existsByVin(vin) || carRepository.existsByLicensePlate(licensePlate)) {
+    if ((uniqueKeyFilters.vins().mightContain(vin) && carRepository.existsByVin(vin))
+            || (uniqueKeyFilters.licensePlates().mightContain(licensePlate)
+            && carRepository.existsByLicensePlate(licensePlate))) {
       throw new CarAlreadyExistException(ErrorCode.CAR_ALREADY_EXIST);
     }
     Set<Detail> details = carRequestDto.getDetails();
     details.forEach(detailService::createDetail);
+    uniqueKeyFilters.vins().add(vin);
+    uniqueKeyFilters.licensePlates().add(licensePlate);
     Car car = CarMapper.INSTANCE.toCar(carRequestDto);
-    carRepository.save(car);
+    entityManager.persist(car);
+    flush();
+  }
+
+  @Transactional
+  @Override
+  public CarBatchCreateResponseDto registerCars(List<CarCreateRequestDto> carRequestDtos) {
+    List<CarBatchItemResultDto> results = new ArrayList<>(carRequestDtos.size());
+    Set<String> takenVins = new HashSet<>();
+    Set<String> takenLicensePlates = new HashSet<>();
+    Set<String> takenSerialNumbers = new HashSet<>();
+    int created = 0;
+    for (int from = 0; from < carRequestDtos.size(); from += REGISTRATION_CHUNK_SIZE) {
+      List<CarCreateRequestDto> chunk = carRequestDtos
+              .subList(from, Math.min(from + REGISTRATION_CHUNK_SIZE, carRequestDtos.size()));
+      takenVins.addAll(findExisting(carRepository::findExistingVins,
+              uniqueKeyFilters.vins(),
+              chunk.stream().map(CarCreateRequestDto::getVin)));
+      takenLicensePlates.addAll(findExisting(carRepository::findExistingLicensePlates,
+              uniqueKeyFilters.licensePlates(),
+              chunk.stream().map(CarCreateRequestDto::getLicensePlate)));
+      takenSerialNumbers.addAll(findExisting(detailRepository::findExistingSerialNumbers,
+              uniqueKeyFilters.serialNumbers(),
+              chunk.stream()
+                      .flatMap(carRequestDto -> carRequestDto.getDetails().stream())
+                      .map(Detail::getSerialNumber)));
+      for (CarCreateRequestDto carRequestDto : chunk) {
+        ErrorCode errorCode = checkRegistration(carRequestDto,
+                takenVins, takenLicensePlates, takenSerialNumbers);
+        if (errorCode == null) {
+          takenVins.add(carRequestDto.getVin());
+          takenLicensePlates.add(carRequestDto.getLicensePlate());
+          uniqueKeyFilters.vins().add(carRequestDto.getVin());
+          uniqueKeyFilters.licensePlates().add(carRequestDto.getLicensePlate());
+          carRequestDto.getDetails().forEach(detail -> {
+            detail.setId(null);
+            takenSerialNumbers.add(detail.getSerialNumber());
+            uniqueKeyFilters.serialNumbers().add(detail.getSerialNumber());
+          });
+          entityManager.persist(CarMapper.INSTANCE.toCar(carRequestDto));
+          created++;
+        }
+        results.add(new CarBatchItemResultDto(carRequestDto.getVin(),
+                errorCode == null,
+                errorCode == null ? null : errorCode.getCode()));
+      }
+      flush();
+      entityManager.clear();
+    }
+    log.info("Registered {} of {} cars", created, carRequestDtos.size());
+    return new CarBatchCreateResponseDto(created, carRequestDtos.size() - created, results);
+  }
+
+  /**
+   * Flushes the pending inserts, so a key that the filters missed, because it was inserted
+   * by another instance since their last rebuild, is rejected by the unique constraints as
+   * a conflict instead of an internal error.
+   * The conflicting values are already in the filters, so a retry is checked against the
+   * database and gets the precise answer.
+   */
+  private void flush() {
+    try {
+      entityManager.flush();
+    } catch (ConstraintViolationException e) {
+      throw new CarAlreadyExistException(ErrorCode.CAR_ALREADY_EXIST);
+    }
+  }
+
+  private Set<String> findExisting(Function<Collection<String>, Set<String>> query,
+                                   UniqueKeyFilter filter,
+                                   Stream<String> values) {
+    List<String> candidates = values.filter(filter::mightContain).toList();
+    return candidates.isEmpty() ? Set.of() : query.apply(candidates);
+  }
+
+  private ErrorCode checkRegistration(CarCreateRequestDto carRequestDto,
+                                      Set<String> takenVins,
+                                      Set<String> takenLicensePlates,
+                                      Set<String> takenSerialNumbers) {
+    if (takenVins.contains(carRequestDto.getVin())
+            || takenLicensePlates.contains(carRequestDto.getLicensePlate())) {
+      return ErrorCode.CAR_ALREADY_EXIST;
+    }
+    Set<String> serialNumbers = new HashSet<>();
+    for (Detail detail : carRequestDto.getDetails()) {
+      if (takenSerialNumbers.contains(detail.getSerialNumber())
+              || !serialNumbers.add(detail.getSerialNumber())) {
+        return ErrorCode.DETAIL_ALREADY_EXIST;
+      }
+    }
+    return null;
   }
 
   @Override
-  public Page<CarGetResponseDto> getAllCars(int page, int size, String sortBy) {
+  public Page<CarGetResponseDto> getAllCars(int page,
+                                            int size,
+                                            String sortBy,
+                                            boolean includeDetails) {
     Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
     Page<Car> carPage = carRepository.findAll(pageable);
-    return carPage.map(CarMapper.INSTANCE::toDtoResponse);
+    return carPage.map(toDtoResponse(carPage.getContent(), includeDetails));
   }
 
   @Override
@@ -105,29 +252,102 @@ public class CarServiceImplementation implements CarService {
   }
 
   @Override
-  public Optional<CarGetResponseDto> findCarByVin(String vin) {
-    Optional<Car> car = carRepository.findByVin(vin);
+  public CursorPageDto<CarGetResponseDto> scrollCars(String cursor,
+                                                     int size,
+                                                     String sortBy,
+                                                     boolean includeDetails) {
+    return scroll(Specification.where(null), cursor, size, sortBy, includeDetails);
+  }
+
+  @Override
+  public Page<CarGetResponseDto> searchCars(CarSearchRequestDto searchRequest,
+                                            int page,
+                                            int size,
+                                            String sortBy,
+                                            boolean includeDetails) {
+    Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+    Page<Car> carPage = carRepository.findAll(CarSpecification.matches(searchRequest), pageable);
+    return carPage.map(toDtoResponse(carPage.getContent(), includeDetails));
+  }
+
+  @Override
+  public CursorPageDto<CarGetResponseDto> scrollSearchCars(CarSearchRequestDto searchRequest,
+                                                           String cursor,
+                                                           int size,
+                                                           String sortBy,
+                                                           boolean includeDetails) {
+    return scroll(CarSpecification.matches(searchRequest), cursor, size, sortBy, includeDetails);
+  }
+
+  private CursorPageDto<CarGetResponseDto> scroll(Specification<Car> specification,
+                                                  String cursor,
+                                                  int size,
+                                                  String sortBy,
+                                                  boolean includeDetails) {
+    Sort sort = cursorCodec.sort(sortBy, SORTABLE_FIELDS, "vin");
+    ScrollPosition position = cursorCodec.decode(cursor, Car.class, sort);
+    Window<Car> carWindow = carRepository.findBy(specification, query -> query
+            .sortBy(sort)
+            .limit(size)
+            .scroll(position));
+    return cursorCodec.toPage(carWindow.map(toDtoResponse(carWindow.getContent(), includeDetails)));
+  }
+
+  private Function<Car, CarGetResponseDto> toDtoResponse(List<Car> cars, boolean includeDetails) {
+    if (!includeDetails || cars.isEmpty()) {
+      return CarMapper.INSTANCE::toDtoResponse;
+    }
+    Map<String, Car> carsWithDetails = carRepository
+            .findWithDetailsByVinIn(cars.stream().map(Car::getVin).toList())
+            .stream()
+            .collect(Collectors.toMap(Car::getVin, Function.identity()));
+    return car -> CarMapper.INSTANCE.toDtoResponseWithDetails(carsWithDetails.get(car.getVin()));
+  }
+
+  @Override
+  public Optional<CarGetResponseDto> findCarByVin(String vin, boolean includeDetails) {
+    if (!includeDetails) {
+      return Optional.of(findCached(carsByVin, vin, carRepository::findByVin));
+    }
+    Optional<Car> car = carRepository.findWithDetailsByVin(vin);
     if (car.isEmpty()) {
       throw new CarNotFoundException(ErrorCode.CAR_NOT_FOUND);
     }
-    return car.map(CarMapper.INSTANCE::toDtoResponse);
+    return car.map(CarMapper.INSTANCE::toDtoResponseWithDetails);
   }
 
   @Override
   public Optional<CarGetResponseDto> findCarByLicensePlate(String licensePlate) {
-    Optional<Car> car = carRepository.findCarByLicensePlate(licensePlate);
-    if (car.isEmpty()) {
-      throw new CarNotFoundException(ErrorCode.CAR_NOT_FOUND);
+    return Optional.of(findCached(carsByLicensePlate, licensePlate,
+            carRepository::findCarByLicensePlate));
+  }
+
+  private CarGetResponseDto findCached(Cache cache,
+                                       String key,
+                                       Function<String, Optional<Car>> loader) {
+    CarGetResponseDto car = cache.get(key, CarGetResponseDto.class);
+    if (car == null) {
+      car = loader.apply(key)
+              .map(CarMapper.INSTANCE::toDtoResponse)
+              .orElseThrow(() -> new CarNotFoundException(ErrorCode.CAR_NOT_FOUND));
+      cache.put(key, car);
     }
-    return car.map(CarMapper.INSTANCE::toDtoResponse);
+    return car;
+  }
+
+  private void evict(Car car) {
+    carsByVin.evict(car.getVin());
+    carsByLicensePlate.evict(car.getLicensePlate());
   }
 
   @Transactional
   @Override
   public void deleteCar(String vin) {
-    if (!carRepository.existsByVin(vin)) {
-      throw new CarNotFoundException(ErrorCode.CAR_NOT_FOUND);
-    }
+    Car car = carRepository.findByVin(vin).orElseThrow(() ->
+              new CarNotFoundException(ErrorCode.CAR_NOT_FOUND));
+    evict(car);
+    uniqueKeyFilters.vins().remove(car.getVin());
+    uniqueKeyFilters.licensePlates().remove(car.getLicensePlate());
     carRepository.deleteByVin(vin);
   }
 
@@ -138,6 +358,12 @@ public class CarServiceImplementation implements CarService {
     }
     Car car = carRepository.findByVin(vin).orElseThrow(() ->
               new CarNotFoundException(ErrorCode.CAR_NOT_FOUND));
+    evict(car);
+    if (updatedCar.getLicensePlate() != null
+            && !updatedCar.getLicensePlate().equals(car.getLicensePlate())) {
+      uniqueKeyFilters.licensePlates().remove(car.getLicensePlate());
+      uniqueKeyFilters.licensePlates().add(updatedCar.getLicensePlate());
+    }
     car.setLicensePlate(Objects.requireNonNullElse(updatedCar.getLicensePlate(),
                 car.getLicensePlate()));
     car.setManufacturer(Objects.requireNonNullElse(updatedCar.getManufacturer(),
@@ -156,6 +382,7 @@ public class CarServiceImplementation implements CarService {
         .findCarByLicensePlate(carPurchaseEvent.getLicensePlate());
     if (optionalCar.isPresent()) {
       Car car = optionalCar.get();
+      evict(car);
       entityManager.detach(car);
       car.setDriverId(carPurchaseEvent.getDriverId());
       entityManager.merge(car);
@@ -166,14 +393,41 @@ public class CarServiceImplementation implements CarService {
   }
 
   @Override
-  public String addDetail(DetailAddEvent detailAddEvent) throws JsonProcessingException {
+  public String addDetail(DetailAddEvent detailAddEvent) {
+    prepareDetailAdd(detailAddEvent);
+    return producer.sendDetailAddEventMessage(detailAddEvent);
+  }
+
+  @Override
+  public CompletableFuture<Void> addDetailAndAwaitPayment(DetailAddEvent detailAddEvent) {
+    prepareDetailAdd(detailAddEvent);
+    return producer.sendDetailAddEventAndReceive(detailAddEvent).thenAccept(outcome -> {
+      switch (outcome.getStatus()) {
+        case INSUFFICIENT_BALANCE ->
+                throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
+        case ACCOUNT_NOT_FOUND -> throw new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND);
+        default -> log.info("Detail {} paid by driver {}", outcome.getSerialNumber(),
+                outcome.getDriverId());
+      }
+    });
+  }
+
+  private void prepareDetailAdd(DetailAddEvent detailAddEvent) {
+    if (detailAddEvent.getEventId() == null) {
+      detailAddEvent.setEventId(UUID.randomUUID());
+    }
     Optional<CarGetResponseDto> car = findCarByLicensePlate(detailAddEvent.getLicensePlate());
     System.err.println(car.get());
     detailAddEvent.setDriverId(car.get().getDriverId());
     Optional<DetailGetResponseDto> detail = detailService
             .findDetailBySerialNumber(detailAddEvent.getSerialNumber());
     detailAddEvent.setPrice(detail.get().getPrice());
-    return producer.sendDetailAddEventMessage(detailAddEvent);
+    detailAddEvent.setPriceMinor(detail.get().getPrice()
+            .setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+    if (!accountLookupClient.canDebit(detailAddEvent.getDriverId(),
+            detailAddEvent.getPrice(), detailAddEvent.getCurrency())) {
+      throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
+    }
   }
 
   @Transactional
@@ -183,7 +437,68 @@ public class CarServiceImplementation implements CarService {
       new CarNotFoundException(ErrorCode.CAR_NOT_FOUND));
     Detail detail = detailRepository.findBySerialNumber(serialNumber).orElseThrow(() ->
       new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND));
+    evict(car);
     car.getDetails().add(detail);
     return carRepository.save(car);
   }
-}
\ No newline at end of file
+
+  /**
+   * Events without a license plate get a CarNotFoundException, like the single-event install
+   * of a car that cannot be found.
+   */
+  @Transactional
+  @Override
+  public DetailInstallResult installDetails(List<DetailAddEvent> detailAddEvents) {
+    List<DetailInstallResult.Unapplied> unapplied = new ArrayList<>();
+    Map<String, List<DetailAddEvent>> eventsByLicensePlate = new LinkedHashMap<>();
+    for (DetailAddEvent detailAddEvent : detailAddEvents) {
+      if (detailAddEvent.getLicensePlate() == null) {
+        unapplied.add(new DetailInstallResult.Unapplied(detailAddEvent,
+                new CarNotFoundException(ErrorCode.CAR_NOT_FOUND)));
+      } else {
+        eventsByLicensePlate.computeIfAbsent(detailAddEvent.getLicensePlate(),
+                licensePlate -> new ArrayList<>()).add(detailAddEvent);
+      }
+    }
+    if (eventsByLicensePlate.isEmpty()) {
+      return new DetailInstallResult(0, unapplied);
+    }
+    Map<String, Car> cars = carRepository
+            .findWithDetailsByLicensePlateIn(eventsByLicensePlate.keySet())
+            .stream()
+            .collect(Collectors.toMap(Car::getLicensePlate, Function.identity()));
+    Map<String, Detail> details = detailRepository
+            .findBySerialNumberIn(detailAddEvents.stream()
+                    .map(DetailAddEvent::getSerialNumber)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Detail::getSerialNumber, Function.identity()));
+    int installed = 0;
+    for (Map.Entry<String, List<DetailAddEvent>> entry : eventsByLicensePlate.entrySet()) {
+      Car car = cars.get(entry.getKey());
+      if (car == null) {
+        log.warn("Car {} not found, {} detail installs not applied",
+                entry.getKey(), entry.getValue().size());
+        for (DetailAddEvent detailAddEvent : entry.getValue()) {
+          unapplied.add(new DetailInstallResult.Unapplied(detailAddEvent,
+                  new CarNotFoundException(ErrorCode.CAR_NOT_FOUND)));
+        }
+        continue;
+      }
+      evict(car);
+      for (DetailAddEvent detailAddEvent : entry.getValue()) {
+        Detail detail = details.get(detailAddEvent.getSerialNumber());
+        if (detail == null) {
+          log.warn("Detail {} not found, install on car {} not applied",
+                  detailAddEvent.getSerialNumber(), entry.getKey());
+          unapplied.add(new DetailInstallResult.Unapplied(detailAddEvent,
+                  new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND)));
+        } else if (car.getDetails().add(detail)) {
+          installed++;
+        }
+      }
+    }
+    return new DetailInstallResult(installed, unapplied);
+  }
+}
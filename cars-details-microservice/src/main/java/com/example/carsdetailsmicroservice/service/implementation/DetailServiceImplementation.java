@@ -1,41 +1,73 @@
 package com.example.carsdetailsmicroservice.service.implementation;
 
+import com.example.carsdetailsmicroservice.config.CacheConfig;
 import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
 import com.example.carsdetailsmicroservice.dto.detail.update.DetailUpdateRequestDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Detail;
 import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailAlreadyExistException;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
 import com.example.carsdetailsmicroservice.mapper.DetailMapper;
 import com.example.carsdetailsmicroservice.repository.DetailRepository;
+import com.example.carsdetailsmicroservice.repository.specification.DetailSpecification;
 import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.utils.CursorCodec;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilters;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 @Service
 public class DetailServiceImplementation implements DetailService {
+  private static final Set<String> SORTABLE_FIELDS = Set.of("id");
+
   private final DetailRepository detailRepository;
+  private final CursorCodec cursorCodec;
+  private final UniqueKeyFilters uniqueKeyFilters;
+  private final Cache detailsBySerialNumber;
 
   @Autowired
-  public DetailServiceImplementation(DetailRepository detailRepository) {
+  public DetailServiceImplementation(DetailRepository detailRepository,
+                                     CursorCodec cursorCodec,
+                                     UniqueKeyFilters uniqueKeyFilters,
+                                     CacheManager cacheManager) {
     this.detailRepository = detailRepository;
+    this.cursorCodec = cursorCodec;
+    this.uniqueKeyFilters = uniqueKeyFilters;
+    this.detailsBySerialNumber = new TransactionAwareCacheDecorator(
+            cacheManager.getCache(CacheConfig.DETAILS_BY_SERIAL_NUMBER));
   }
 
 
   @Override
   public void createDetail(Detail detail) {
-    if (detailRepository.existsBySerialNumber(detail.getSerialNumber())) {
+    String serialNumber = detail.getSerialNumber();
+    if (uniqueKeyFilters.serialNumbers().mightContain(serialNumber)
+            && detailRepository.existsBySerialNumber(serialNumber)) {
+      throw new DetailAlreadyExistException(ErrorCode.DETAIL_ALREADY_EXIST);
+    }
+    uniqueKeyFilters.serialNumbers().add(serialNumber);
+    try {
+      detailRepository.saveAndFlush(detail);
+    } catch (DataIntegrityViolationException e) {
       throw new DetailAlreadyExistException(ErrorCode.DETAIL_ALREADY_EXIST);
     }
-    detailRepository.save(detail);
   }
 
   @Override
@@ -47,10 +79,15 @@ public class DetailServiceImplementation implements DetailService {
 
   @Override
   public Optional<DetailGetResponseDto> findDetailBySerialNumber(String serialNumber) {
-    return detailRepository.findBySerialNumber(serialNumber)
-                .map(DetailMapper.INSTANCE::toDtoResponse)
-                .map(Optional::ofNullable)
-                .orElseThrow(() -> new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND));
+    DetailGetResponseDto detail = detailsBySerialNumber
+            .get(serialNumber, DetailGetResponseDto.class);
+    if (detail == null) {
+      detail = detailRepository.findBySerialNumber(serialNumber)
+              .map(DetailMapper.INSTANCE::toDtoResponse)
+              .orElseThrow(() -> new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND));
+      detailsBySerialNumber.put(serialNumber, detail);
+    }
+    return Optional.of(detail);
   }
 
   @Override
@@ -73,12 +110,49 @@ public class DetailServiceImplementation implements DetailService {
     return detailPage.map(DetailMapper.INSTANCE::toDtoResponse);
   }
 
+  @Override
+  public CursorPageDto<DetailGetResponseDto> scrollDetails(String cursor, int size, String sortBy) {
+    return scroll(Specification.where(null), cursor, size, sortBy);
+  }
+
+  @Override
+  public CursorPageDto<DetailGetResponseDto> scrollSearchDetails(String serialNumber,
+                                                                 BigDecimal price,
+                                                                 String cursor,
+                                                                 int size,
+                                                                 String sortBy) {
+    Specification<Detail> specification;
+    if (serialNumber != null) {
+      specification = DetailSpecification.serialNumberContains(serialNumber);
+    } else if (price != null) {
+      specification = DetailSpecification.priceEquals(price);
+    } else {
+      specification = Specification.where(null);
+    }
+    return scroll(specification, cursor, size, sortBy);
+  }
+
+  private CursorPageDto<DetailGetResponseDto> scroll(Specification<Detail> specification,
+                                                     String cursor,
+                                                     int size,
+                                                     String sortBy) {
+    Sort sort = cursorCodec.sort(sortBy, SORTABLE_FIELDS, "id");
+    ScrollPosition position = cursorCodec.decode(cursor, Detail.class, sort);
+    Window<Detail> detailWindow = detailRepository.findBy(specification, query -> query
+            .sortBy(sort)
+            .limit(size)
+            .scroll(position));
+    return cursorCodec.toPage(detailWindow.map(DetailMapper.INSTANCE::toDtoResponse));
+  }
+
   @Transactional
   @Override
   public void deleteDetail(String serialNumber) {
     if (!detailRepository.existsBySerialNumber(serialNumber)) {
       throw new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND);
     }
+    detailsBySerialNumber.evict(serialNumber);
+    uniqueKeyFilters.serialNumbers().remove(serialNumber);
     detailRepository.deleteBySerialNumber(serialNumber);
   }
 
@@ -90,6 +164,12 @@ public class DetailServiceImplementation implements DetailService {
     }
     Detail detail = detailRepository.findBySerialNumber(serialNumber)
                 .orElseThrow(() -> new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND));
+    detailsBySerialNumber.evict(serialNumber);
+    if (detailUpdateRequestDtoCar.getSerialNumber() != null
+            && !detailUpdateRequestDtoCar.getSerialNumber().equals(serialNumber)) {
+      uniqueKeyFilters.serialNumbers().remove(serialNumber);
+      uniqueKeyFilters.serialNumbers().add(detailUpdateRequestDtoCar.getSerialNumber());
+    }
     detail.setSerialNumber(Objects.requireNonNullElse(detailUpdateRequestDtoCar.getSerialNumber(),
                                                       detail.getSerialNumber()));
     detail.setPrice(Objects.requireNonNullElse(detailUpdateRequestDtoCar.getPrice(),
@@ -0,0 +1,85 @@
+package com.example.carsdetailsmicroservice.service.implementation;
+
+import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.mapper.CarMapper;
+import com.example.carsdetailsmicroservice.mapper.DetailMapper;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.engine.search.predicate.dsl.PredicateFinalStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class SearchIndexServiceImplementation implements SearchIndexService {
+  private static final String[] CAR_FIELDS = {"vin", "licensePlate", "manufacturer", "model"};
+  private static final String[] CAR_PREFIX_FIELDS = {"vin_prefix", "licensePlate_prefix",
+      "manufacturer_prefix", "model_prefix"};
+  private static final String[] DETAIL_FIELDS = {"serialNumber"};
+  private static final String[] DETAIL_PREFIX_FIELDS = {"serialNumber_prefix"};
+  private static final float EXACT_MATCH_BOOST = 4.0f;
+  private static final float PREFIX_MATCH_BOOST = 2.0f;
+  private final EntityManager entityManager;
+
+  @Autowired
+  public SearchIndexServiceImplementation(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  @Transactional
+  public Page<CarGetResponseDto> searchCars(String text, int page, int size) {
+    SearchResult<Car> result = Search.session(entityManager)
+            .search(Car.class)
+            .where(f -> matches(f, text, CAR_FIELDS, CAR_PREFIX_FIELDS))
+            .fetch(page * size, size);
+    return new PageImpl<>(result.hits(), PageRequest.of(page, size), result.total().hitCount())
+            .map(CarMapper.INSTANCE::toDtoResponse);
+  }
+
+  @Override
+  @Transactional
+  public Page<DetailGetResponseDto> searchDetails(String text, int page, int size) {
+    SearchResult<Detail> result = Search.session(entityManager)
+            .search(Detail.class)
+            .where(f -> matches(f, text, DETAIL_FIELDS, DETAIL_PREFIX_FIELDS))
+            .fetch(page * size, size);
+    return new PageImpl<>(result.hits(), PageRequest.of(page, size), result.total().hitCount())
+            .map(DetailMapper.INSTANCE::toDtoResponse);
+  }
+
+  @Override
+  public void rebuildIndex() throws InterruptedException {
+    log.info("Rebuilding the search index");
+    Search.mapping(entityManager.getEntityManagerFactory())
+            .scope(List.of(Car.class, Detail.class))
+            .massIndexer()
+            .startAndWait();
+    log.info("Search index rebuilt");
+  }
+
+  private PredicateFinalStep matches(SearchPredicateFactory f,
+                                     String text,
+                                     String[] fields,
+                                     String[] prefixFields) {
+    if (text == null || text.isBlank()) {
+      return f.matchAll();
+    }
+    return f.bool()
+            .should(f.match().fields(fields).matching(text).boost(EXACT_MATCH_BOOST))
+            .should(f.match().fields(prefixFields).matching(text).boost(PREFIX_MATCH_BOOST))
+            .should(f.match().fields(fields).matching(text).fuzzy());
+  }
+}
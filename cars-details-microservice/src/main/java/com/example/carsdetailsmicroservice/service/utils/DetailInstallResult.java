@@ -0,0 +1,33 @@
+package com.example.carsdetailsmicroservice.service.utils;
+
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Outcome of installing a batch of details: the number of installed details and the events
+ * that could not be applied, each with the exception the single-event install would throw.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class DetailInstallResult {
+  private final int installed;
+  private final List<Unapplied> unapplied;
+
+  /**
+   * An event that could not be applied and the reason why.
+   */
+  @Getter
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  @ToString
+  public static class Unapplied {
+    private final DetailAddEvent event;
+    private final RuntimeException reason;
+  }
+}
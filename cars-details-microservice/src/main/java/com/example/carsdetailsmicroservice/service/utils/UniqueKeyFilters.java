@@ -0,0 +1,83 @@
+package com.example.carsdetailsmicroservice.service.utils;
+
+import com.example.carsdetailsmicroservice.repository.CarRepository;
+import com.example.carsdetailsmicroservice.repository.DetailRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Holds the Bloom filters of the VINs, license plates and serial numbers, which let the
+ * create paths skip the existence query for values that are certainly new.
+ * The filters are loaded from the database once the application is ready and rebuilt on
+ * the unique-key-filter.rebuild-cron schedule, so values inserted by other instances are
+ * picked up.
+ */
+@Slf4j
+@Component
+public class UniqueKeyFilters {
+  private final CarRepository carRepository;
+  private final DetailRepository detailRepository;
+  private final UniqueKeyFilter vins;
+  private final UniqueKeyFilter licensePlates;
+  private final UniqueKeyFilter serialNumbers;
+
+  @Autowired
+  public UniqueKeyFilters(CarRepository carRepository,
+                          DetailRepository detailRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${unique-key-filter.memory-budget:4MB}") DataSize memoryBudget,
+                          @Value("${unique-key-filter.false-positive-rate:0.01}")
+                          double falsePositiveRate) {
+    this.carRepository = carRepository;
+    this.detailRepository = detailRepository;
+    this.vins = new UniqueKeyFilter("vin", memoryBudget, falsePositiveRate);
+    this.licensePlates = new UniqueKeyFilter("licensePlate", memoryBudget, falsePositiveRate);
+    this.serialNumbers = new UniqueKeyFilter("serialNumber", memoryBudget, falsePositiveRate);
+    vins.bindTo(meterRegistry);
+    licensePlates.bindTo(meterRegistry);
+    serialNumbers.bindTo(meterRegistry);
+  }
+
+  public UniqueKeyFilter vins() {
+    return vins;
+  }
+
+  public UniqueKeyFilter licensePlates() {
+    return licensePlates;
+  }
+
+  public UniqueKeyFilter serialNumbers() {
+    return serialNumbers;
+  }
+
+  @Transactional
+  @Scheduled(cron = "${unique-key-filter.rebuild-cron:0 30 * * * ?}")
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    load(vins, carRepository::streamAllVins);
+    load(licensePlates, carRepository::streamAllLicensePlates);
+    load(serialNumbers, detailRepository::streamAllSerialNumbers);
+  }
+
+  private void load(UniqueKeyFilter filter, Supplier<Stream<String>> values) {
+    try (Stream<String> stream = values.get()) {
+      filter.load(stream);
+      log.info("Loaded {} filter, capacity {}, occupancy {}",
+              filter.getName(), filter.getCapacity(), filter.occupancy());
+    } catch (DataAccessException e) {
+      log.warn("Could not load {} filter, its previous state stays in use",
+              filter.getName(), e);
+    }
+  }
+}
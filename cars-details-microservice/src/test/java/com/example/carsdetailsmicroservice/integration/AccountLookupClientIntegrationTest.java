@@ -0,0 +1,81 @@
+package com.example.carsdetailsmicroservice.integration;
+
+import com.example.carsdetailsmicroservice.grpc.AccountLookupClient;
+import com.example.carsdetailsmicroservice.grpc.DeadlineInterceptor;
+import com.example.carsdetailsmicroservice.grpc.Decimals;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import com.example.grpc.drivesbills.v1.AccountLookupGrpc;
+import com.example.grpc.drivesbills.v1.CheckDebitReply;
+import com.example.grpc.drivesbills.v1.CheckDebitRequest;
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountLookupClientIntegrationTest {
+  private static final Duration DEADLINE = Duration.ofMillis(100);
+
+  private Server server;
+  private ManagedChannel channel;
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void canDebit_ReturnsAnswerOfDrivesBills() throws IOException {
+    AtomicReference<CheckDebitRequest> received = new AtomicReference<>();
+    AccountLookupClient client = startClient(new AccountLookupGrpc.AccountLookupImplBase() {
+      @Override
+      public void checkDebit(CheckDebitRequest request,
+                             StreamObserver<CheckDebitReply> responseObserver) {
+        received.set(request);
+        responseObserver.onNext(CheckDebitReply.newBuilder().setAffordable(false).build());
+        responseObserver.onCompleted();
+      }
+    });
+    assertFalse(client.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY));
+    assertEquals(TestConstants.ID, received.get().getAccountId());
+    assertEquals(TestConstants.PRICE, Decimals.fromProto(received.get().getAmount()));
+    assertEquals(TestConstants.CURRENCY, received.get().getCurrency());
+  }
+
+  @Test
+  void canDebit_LetsRequestThrough_WhenDrivesBillsDoesNotAnswerBeforeDeadline() throws IOException {
+    AccountLookupClient client = startClient(new AccountLookupGrpc.AccountLookupImplBase() {
+      @Override
+      public void checkDebit(CheckDebitRequest request,
+                             StreamObserver<CheckDebitReply> responseObserver) {
+        // never answers
+      }
+    });
+    long start = System.nanoTime();
+    assertTrue(client.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY));
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(DEADLINE.multipliedBy(10)) < 0);
+  }
+
+  private AccountLookupClient startClient(BindableService service) throws IOException {
+    String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(service)
+            .build()
+            .start();
+    channel = InProcessChannelBuilder.forName(serverName)
+            .intercept(new DeadlineInterceptor(DEADLINE))
+            .build();
+    return new AccountLookupClient(AccountLookupGrpc.newBlockingStub(channel));
+  }
+}
@@ -2,13 +2,23 @@ package com.example.carsdetailsmicroservice.integration;
 
 import com.example.carsdetailsmicroservice.controller.CarController;
 import com.example.carsdetailsmicroservice.controller.utils.ControllerUtils;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateRequestDto;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchItemResultDto;
 import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
 import com.example.carsdetailsmicroservice.dto.car.update.CarUpdateRequestDto;
 import com.example.carsdetailsmicroservice.dto.message.MessageDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import com.example.carsdetailsmicroservice.exceptions.account.InsufficientBalanceException;
 import com.example.carsdetailsmicroservice.repository.CarRepository;
+import com.example.carsdetailsmicroservice.service.CarExportService;
 import com.example.carsdetailsmicroservice.service.CarService;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
 import com.example.carsdetailsmicroservice.utils.TestConstants;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -20,21 +30,31 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CarController.class)
@@ -47,6 +67,10 @@ public class CarControllerIntegrationTest {
   @MockBean
   private CarService carService;
   @MockBean
+  private SearchIndexService searchIndexService;
+  @MockBean
+  private CarExportService carExportService;
+  @MockBean
   private CarRepository carRepository;
 
   @Test
@@ -67,6 +91,35 @@ public class CarControllerIntegrationTest {
             .andExpect(jsonPath("$.message").value(TestConstants.CAR_CREATED_MESSAGE));
   }
 
+  @Test
+  public void testCreateCars() throws Exception {
+    CarCreateRequestDto carRequestDto = new CarCreateRequestDto();
+    Set<Detail> details = new HashSet<>();
+    details.add(new Detail(null, TestConstants.SERIAL_NUMBER, new BigDecimal(10)));
+    carRequestDto.setVin(TestConstants.VIN_1);
+    carRequestDto.setLicensePlate(TestConstants.LICENSE_PLATE_1);
+    carRequestDto.setDetails(details);
+    CarBatchCreateRequestDto batchRequestDto = new CarBatchCreateRequestDto(List.of(carRequestDto));
+    CarBatchCreateResponseDto response = new CarBatchCreateResponseDto(1, 0,
+            List.of(new CarBatchItemResultDto(TestConstants.VIN_1, true, null)));
+    given(carService.registerCars(any())).willReturn(response);
+    mockMvc.perform(post("/cars/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(new ObjectMapper().writeValueAsString(batchRequestDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.results[0].vin").value(TestConstants.VIN_1))
+            .andExpect(jsonPath("$.results[0].created").value(true));
+  }
+
+  @Test
+  public void testCreateCars_EmptyRequest() throws Exception {
+    mockMvc.perform(post("/cars/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(new ObjectMapper().writeValueAsString(new CarBatchCreateRequestDto(List.of()))))
+            .andExpect(status().isBadRequest());
+  }
+
   @Test
   public void testDeleteCar() throws Exception {
     given(controllerUtils.createResponseEntityOk(anyString())).willReturn(ResponseEntity.ok(new MessageDto(TestConstants.CAR_DELETED_MESSAGE)));
@@ -91,9 +144,9 @@ public class CarControllerIntegrationTest {
   @Test
   public void testSearchCarsByManufacturer() throws Exception {
     List<CarGetResponseDto> cars = new ArrayList<>();
-    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID));
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
     Page<CarGetResponseDto> carPage = new PageImpl<>(cars);
-    given(carService.searchCarsByManufacturer(TestConstants.MANUFACTURER, TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN)).willReturn(carPage);
+    given(carService.searchCars(argThat(searchRequest -> TestConstants.MANUFACTURER.equals(searchRequest.getManufacturer())), eq(TestConstants.PAGE), eq(TestConstants.SIZE), eq(TestConstants.SORT_BY_VIN), eq(false))).willReturn(carPage);
     mockMvc.perform(get("/cars/search")
                     .param("manufacturer", TestConstants.MANUFACTURER)
                     .param("page", String.valueOf(TestConstants.PAGE))
@@ -110,9 +163,9 @@ public class CarControllerIntegrationTest {
   @Test
   public void testSearchCarsByModel() throws Exception {
     List<CarGetResponseDto> cars = new ArrayList<>();
-    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID));
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
     Page<CarGetResponseDto> carPage = new PageImpl<>(cars);
-    given(carService.searchCarsByModel(TestConstants.MODEL, TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN)).willReturn(carPage);
+    given(carService.searchCars(argThat(searchRequest -> TestConstants.MODEL.equals(searchRequest.getModel())), eq(TestConstants.PAGE), eq(TestConstants.SIZE), eq(TestConstants.SORT_BY_VIN), eq(false))).willReturn(carPage);
     mockMvc.perform(get("/cars/search")
                     .param("model", TestConstants.MODEL)
                     .param("page", String.valueOf(TestConstants.PAGE))
@@ -129,9 +182,9 @@ public class CarControllerIntegrationTest {
   @Test
   public void testSearchCarsByYear() throws Exception {
     List<CarGetResponseDto> cars = new ArrayList<>();
-    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID));
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
     Page<CarGetResponseDto> carPage = new PageImpl<>(cars);
-    given(carService.searchCarsByYear(TestConstants.YEAR, TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN)).willReturn(carPage);
+    given(carService.searchCars(argThat(searchRequest -> TestConstants.YEAR.equals(searchRequest.getYear())), eq(TestConstants.PAGE), eq(TestConstants.SIZE), eq(TestConstants.SORT_BY_VIN), eq(false))).willReturn(carPage);
     mockMvc.perform(get("/cars/search")
                     .param("year", String.valueOf(TestConstants.YEAR))
                     .param("page", String.valueOf(TestConstants.PAGE))
@@ -145,10 +198,99 @@ public class CarControllerIntegrationTest {
             .andExpect(jsonPath("$.content[0].year").value(cars.get(0).getYear()));
   }
 
+  @Test
+  public void testSearchCarsByCombinedFilters() throws Exception {
+    List<CarGetResponseDto> cars = new ArrayList<>();
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
+    Page<CarGetResponseDto> carPage = new PageImpl<>(cars);
+    given(carService.searchCars(argThat(searchRequest -> TestConstants.MANUFACTURER.equals(searchRequest.getManufacturer())
+                    && TestConstants.YEAR.equals(searchRequest.getYearFrom())
+                    && TestConstants.ID.equals(searchRequest.getDriverId())
+                    && TestConstants.SERIAL_NUMBER.equals(searchRequest.getSerialNumber())),
+            eq(TestConstants.PAGE), eq(TestConstants.SIZE), eq(TestConstants.SORT_BY_VIN), eq(false))).willReturn(carPage);
+    mockMvc.perform(get("/cars/search")
+                    .param("manufacturer", TestConstants.MANUFACTURER)
+                    .param("yearFrom", String.valueOf(TestConstants.YEAR))
+                    .param("driverId", String.valueOf(TestConstants.ID))
+                    .param("serialNumber", TestConstants.SERIAL_NUMBER)
+                    .param("page", String.valueOf(TestConstants.PAGE))
+                    .param("size", String.valueOf(TestConstants.SIZE))
+                    .param("sortBy", TestConstants.SORT_BY_VIN))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(cars.size())))
+            .andExpect(jsonPath("$.content[0].vin").value(cars.get(0).getVin()));
+  }
+
+  @Test
+  public void testFullTextSearchCars() throws Exception {
+    List<CarGetResponseDto> cars = new ArrayList<>();
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
+    Page<CarGetResponseDto> carPage = new PageImpl<>(cars);
+    given(searchIndexService.searchCars(TestConstants.MANUFACTURER, TestConstants.PAGE, TestConstants.SIZE)).willReturn(carPage);
+    mockMvc.perform(get("/cars/search")
+                    .param("q", TestConstants.MANUFACTURER)
+                    .param("page", String.valueOf(TestConstants.PAGE))
+                    .param("size", String.valueOf(TestConstants.SIZE)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(cars.size())))
+            .andExpect(jsonPath("$.content[0].vin").value(cars.get(0).getVin()))
+            .andExpect(jsonPath("$.content[0].manufacturer").value(cars.get(0).getManufacturer()));
+  }
+
+  @Test
+  public void testAddDetailToCarAndAwaitPayment() throws Exception {
+    given(controllerUtils.createResponseEntityOk(anyString())).willReturn(ResponseEntity.ok(new MessageDto(TestConstants.DETAIL_PAID_MESSAGE)));
+    given(carService.addDetailAndAwaitPayment(any(DetailAddEvent.class))).willReturn(CompletableFuture.completedFuture(null));
+    MvcResult mvcResult = mockMvc.perform(post("/cars/add-detail").param("await", "true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(new ObjectMapper().writeValueAsString(createDetailAddEvent())))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value(TestConstants.DETAIL_PAID_MESSAGE));
+  }
+
+  @Test
+  public void testAddDetailToCarAndAwaitPayment_InsufficientBalance() throws Exception {
+    given(carService.addDetailAndAwaitPayment(any(DetailAddEvent.class))).willReturn(CompletableFuture.failedFuture(
+            new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE)));
+    MvcResult mvcResult = mockMvc.perform(post("/cars/add-detail").param("await", "true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(new ObjectMapper().writeValueAsString(createDetailAddEvent())))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isPaymentRequired());
+  }
+
+  private DetailAddEvent createDetailAddEvent() {
+    return DetailAddEvent.builder()
+            .serialNumber(TestConstants.SERIAL_NUMBER)
+            .licensePlate(TestConstants.LICENSE_PLATE_1)
+            .currency(TestConstants.CURRENCY)
+            .build();
+  }
+
+  @Test
+  public void testExportCars() throws Exception {
+    willAnswer(invocation -> {
+      invocation.getArgument(0, OutputStream.class).write((TestConstants.EXPORT_LINE + "\n").getBytes());
+      return null;
+    }).given(carExportService).exportCars(any());
+    MvcResult mvcResult = mockMvc.perform(get("/cars/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(TestConstants.EXPORT_LINE + "\n"));
+  }
+
   @Test
   public void testGetCarByVin() throws Exception {
-    CarGetResponseDto car = new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID);
-    given(carService.findCarByVin(TestConstants.VIN_1)).willReturn(Optional.of(car));
+    CarGetResponseDto car = new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null);
+    given(carService.findCarByVin(TestConstants.VIN_1, false)).willReturn(Optional.of(car));
     mockMvc.perform(get("/cars/{vin}", TestConstants.VIN_1))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.vin").value(car.getVin()))
@@ -157,12 +299,25 @@ public class CarControllerIntegrationTest {
             .andExpect(jsonPath("$.year").value(car.getYear()));
   }
 
+  @Test
+  public void testGetCarByVinWithDetails() throws Exception {
+    List<DetailGetResponseDto> details = List.of(new DetailGetResponseDto(TestConstants.SERIAL_NUMBER, BigDecimal.TEN));
+    CarGetResponseDto car = new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, details);
+    given(carService.findCarByVin(TestConstants.VIN_1, true)).willReturn(Optional.of(car));
+    mockMvc.perform(get("/cars/{vin}", TestConstants.VIN_1)
+                    .param("include", "details"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.vin").value(car.getVin()))
+            .andExpect(jsonPath("$.details", hasSize(details.size())))
+            .andExpect(jsonPath("$.details[0].serialNumber").value(TestConstants.SERIAL_NUMBER));
+  }
+
   @Test
   public void testGetAllCars() throws Exception {
     List<CarGetResponseDto> cars = new ArrayList<>();
-    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID));
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
     Page<CarGetResponseDto> carPage = new PageImpl<>(cars);
-    given(carService.getAllCars(TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN)).willReturn(carPage);
+    given(carService.getAllCars(TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN, false)).willReturn(carPage);
     mockMvc.perform(get("/cars")
                     .param("page", String.valueOf(TestConstants.PAGE))
                     .param("size", String.valueOf(TestConstants.SIZE))
@@ -174,4 +329,20 @@ public class CarControllerIntegrationTest {
             .andExpect(jsonPath("$.content[0].model").value(cars.get(0).getModel()))
             .andExpect(jsonPath("$.content[0].year").value(cars.get(0).getYear()));
   }
+
+  @Test
+  public void testScrollCars() throws Exception {
+    List<CarGetResponseDto> cars = new ArrayList<>();
+    cars.add(new CarGetResponseDto(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER, TestConstants.MODEL, TestConstants.YEAR, TestConstants.ID, null));
+    CursorPageDto<CarGetResponseDto> carPage = new CursorPageDto<>(cars, cars.size(), TestConstants.CURSOR, true);
+    given(carService.scrollCars("", TestConstants.SIZE, TestConstants.SORT_BY_VIN, false)).willReturn(carPage);
+    mockMvc.perform(get("/cars")
+                    .param("cursor", "")
+                    .param("size", String.valueOf(TestConstants.SIZE)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(cars.size())))
+            .andExpect(jsonPath("$.content[0].vin").value(cars.get(0).getVin()))
+            .andExpect(jsonPath("$.nextCursor").value(TestConstants.CURSOR))
+            .andExpect(jsonPath("$.hasNext").value(true));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.carsdetailsmicroservice.integration;
+
+import com.example.carsdetailsmicroservice.config.CacheConfig;
+import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.search.CarSearchRequestDto;
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.grpc.AccountLookupClient;
+import com.example.carsdetailsmicroservice.kafka.Producer;
+import com.example.carsdetailsmicroservice.service.CarService;
+import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.implementation.CarServiceImplementation;
+import com.example.carsdetailsmicroservice.service.utils.CursorCodec;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilters;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that reading Cars with their Details issues the same number of SQL statements
+ * whatever the page size is.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:fetch-plan;MODE=PostgreSQL;NON_KEYWORDS=YEAR",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CarServiceImplementation.class, CacheConfig.class})
+class CarFetchPlanIntegrationTest {
+  private static final int CARS = 60;
+  private static final int DETAILS_PER_CAR = 3;
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private CarService carService;
+  @MockBean
+  private DetailService detailService;
+  @MockBean
+  private Producer producer;
+  @MockBean
+  private CursorCodec cursorCodec;
+  @MockBean
+  private UniqueKeyFilters uniqueKeyFilters;
+  @MockBean
+  private AccountLookupClient accountLookupClient;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < CARS; i++) {
+      Car car = new Car();
+      car.setVin(String.format("VIN%05d", i));
+      car.setLicensePlate(String.format("PLATE%05d", i));
+      car.setManufacturer(TestConstants.MANUFACTURER);
+      car.setModel(TestConstants.MODEL);
+      car.setYear(TestConstants.YEAR);
+      for (int j = 0; j < DETAILS_PER_CAR; j++) {
+        Detail detail = new Detail();
+        detail.setSerialNumber(String.format("SN%05d-%d", i, j));
+        detail.setPrice(BigDecimal.TEN);
+        car.getDetails().add(detail);
+      }
+      testEntityManager.persist(car);
+    }
+    testEntityManager.flush();
+    testEntityManager.clear();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Test
+  void getAllCars_IssuesSameStatementCount_WhenPageSizeGrows() {
+    long smallPageStatements = countStatements(() -> assertDetailsLoaded(
+            carService.getAllCars(0, 5, TestConstants.SORT_BY_VIN, true), 5));
+    long largePageStatements = countStatements(() -> assertDetailsLoaded(
+            carService.getAllCars(0, 50, TestConstants.SORT_BY_VIN, true), 50));
+    assertEquals(smallPageStatements, largePageStatements);
+  }
+
+  @Test
+  void searchCars_IssuesSameStatementCount_WhenPageSizeGrows() {
+    CarSearchRequestDto searchRequest = CarSearchRequestDto.builder()
+            .manufacturer(TestConstants.MANUFACTURER)
+            .build();
+    long smallPageStatements = countStatements(() -> assertDetailsLoaded(
+            carService.searchCars(searchRequest, 0, 5, TestConstants.SORT_BY_VIN, true), 5));
+    long largePageStatements = countStatements(() -> assertDetailsLoaded(
+            carService.searchCars(searchRequest, 0, 50, TestConstants.SORT_BY_VIN, true), 50));
+    assertEquals(smallPageStatements, largePageStatements);
+  }
+
+  private long countStatements(Runnable read) {
+    testEntityManager.clear();
+    statistics.clear();
+    read.run();
+    return statistics.getPrepareStatementCount();
+  }
+
+  private void assertDetailsLoaded(Page<CarGetResponseDto> page, int size) {
+    assertEquals(size, page.getContent().size());
+    page.getContent().forEach(car -> assertEquals(DETAILS_PER_CAR, car.getDetails().size()));
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.carsdetailsmicroservice.integration;
+
+import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import com.example.carsdetailsmicroservice.exceptions.ErrorCode;
+import com.example.carsdetailsmicroservice.exceptions.car.CarNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
+import com.example.carsdetailsmicroservice.grpc.CarLookupGrpcService;
+import com.example.carsdetailsmicroservice.grpc.DeadlineInterceptor;
+import com.example.carsdetailsmicroservice.grpc.Decimals;
+import com.example.carsdetailsmicroservice.service.CarService;
+import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import com.example.grpc.carsdetails.v1.CarLookupGrpc;
+import com.example.grpc.carsdetails.v1.CarReply;
+import com.example.grpc.carsdetails.v1.DetailReply;
+import com.example.grpc.carsdetails.v1.GetCarRequest;
+import com.example.grpc.carsdetails.v1.GetDetailRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class CarLookupGrpcIntegrationTest {
+  @Mock
+  private CarService carService;
+  @Mock
+  private DetailService detailService;
+
+  private Server server;
+  private ManagedChannel channel;
+  private CarLookupGrpc.CarLookupBlockingStub blockingStub;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(new CarLookupGrpcService(carService, detailService))
+            .build()
+            .start();
+    channel = InProcessChannelBuilder.forName(serverName)
+            .directExecutor()
+            .intercept(new DeadlineInterceptor(Duration.ofSeconds(1)))
+            .build();
+    blockingStub = CarLookupGrpc.newBlockingStub(channel);
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void getCar_ReturnsCar_WhenCarExists() {
+    CarGetResponseDto car = CarGetResponseDto.builder()
+            .vin(TestConstants.VIN_1)
+            .licensePlate(TestConstants.LICENSE_PLATE_1)
+            .year(TestConstants.YEAR)
+            .driverId(TestConstants.ID)
+            .build();
+    when(carService.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1)).thenReturn(Optional.of(car));
+    CarReply reply = blockingStub.getCar(GetCarRequest.newBuilder()
+            .setLicensePlate(TestConstants.LICENSE_PLATE_1)
+            .build());
+    assertEquals(TestConstants.VIN_1, reply.getVin());
+    assertEquals(TestConstants.YEAR, reply.getYear());
+    assertTrue(reply.hasDriverId());
+    assertEquals(TestConstants.ID, reply.getDriverId());
+  }
+
+  @Test
+  void getCar_FailsWithNotFound_WhenCarDoesNotExist() {
+    when(carService.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1))
+            .thenThrow(new CarNotFoundException(ErrorCode.CAR_NOT_FOUND));
+    StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub.getCar(GetCarRequest.newBuilder()
+                    .setLicensePlate(TestConstants.LICENSE_PLATE_1)
+                    .build()));
+    assertEquals(Status.Code.NOT_FOUND, exception.getStatus().getCode());
+  }
+
+  @Test
+  void getDetails_AnswersEveryRequestOfTheStreamInOrder() throws InterruptedException {
+    when(detailService.findDetailBySerialNumber(TestConstants.SERIAL_NUMBER)).thenReturn(
+            Optional.of(new DetailGetResponseDto(TestConstants.SERIAL_NUMBER, TestConstants.PRICE)));
+    when(detailService.findDetailBySerialNumber(TestConstants.SERIAL_NUMBER_2))
+            .thenThrow(new DetailNotFoundException(ErrorCode.DETAIL_NOT_FOUND));
+    List<DetailReply> replies = new CopyOnWriteArrayList<>();
+    CountDownLatch completed = new CountDownLatch(1);
+    StreamObserver<GetDetailRequest> requests = CarLookupGrpc.newStub(channel)
+            .withDeadlineAfter(1, TimeUnit.SECONDS)
+            .getDetails(new StreamObserver<>() {
+              @Override
+              public void onNext(DetailReply reply) {
+                replies.add(reply);
+              }
+
+              @Override
+              public void onError(Throwable t) {
+                completed.countDown();
+              }
+
+              @Override
+              public void onCompleted() {
+                completed.countDown();
+              }
+            });
+    requests.onNext(GetDetailRequest.newBuilder().setSerialNumber(TestConstants.SERIAL_NUMBER).build());
+    requests.onNext(GetDetailRequest.newBuilder().setSerialNumber(TestConstants.SERIAL_NUMBER_2).build());
+    requests.onCompleted();
+    assertTrue(completed.await(1, TimeUnit.SECONDS));
+    assertEquals(2, replies.size());
+    assertTrue(replies.get(0).getFound());
+    assertEquals(TestConstants.PRICE, Decimals.fromProto(replies.get(0).getPrice()));
+    assertEquals(TestConstants.SERIAL_NUMBER_2, replies.get(1).getSerialNumber());
+    assertFalse(replies.get(1).getFound());
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.carsdetailsmicroservice.integration;
+
+import com.example.carsdetailsmicroservice.config.CacheConfig;
+import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.exceptions.car.CarAlreadyExistException;
+import com.example.carsdetailsmicroservice.grpc.AccountLookupClient;
+import com.example.carsdetailsmicroservice.kafka.Producer;
+import com.example.carsdetailsmicroservice.service.CarService;
+import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.implementation.CarServiceImplementation;
+import com.example.carsdetailsmicroservice.service.utils.CursorCodec;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilter;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilters;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import java.util.HashSet;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.unit.DataSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that a car whose VIN the Bloom filters do not know, because it was registered by
+ * another instance since their last rebuild, is rejected as a conflict by the database and
+ * does not overwrite the stored car.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:car-registration;MODE=PostgreSQL;NON_KEYWORDS=YEAR",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CarServiceImplementation.class, CacheConfig.class})
+class CarRegistrationIntegrationTest {
+  @Autowired
+  private TestEntityManager testEntityManager;
+  @Autowired
+  private CarService carService;
+  @MockBean
+  private DetailService detailService;
+  @MockBean
+  private Producer producer;
+  @MockBean
+  private CursorCodec cursorCodec;
+  @MockBean
+  private UniqueKeyFilters uniqueKeyFilters;
+  @MockBean
+  private AccountLookupClient accountLookupClient;
+
+  @BeforeEach
+  void setUp() {
+    Car car = new Car();
+    car.setVin(TestConstants.VIN_1);
+    car.setLicensePlate(TestConstants.LICENSE_PLATE_1);
+    car.setManufacturer(TestConstants.MANUFACTURER);
+    testEntityManager.persistAndFlush(car);
+    testEntityManager.clear();
+    when(uniqueKeyFilters.vins()).thenReturn(emptyFilter("vin"));
+    when(uniqueKeyFilters.licensePlates()).thenReturn(emptyFilter("licensePlate"));
+  }
+
+  @Test
+  void registerCar_ThrowsCarAlreadyExistException_WhenFiltersMissTakenVin() {
+    CarCreateRequestDto carRequestDto = new CarCreateRequestDto();
+    carRequestDto.setVin(TestConstants.VIN_1);
+    carRequestDto.setLicensePlate(TestConstants.LICENSE_PLATE_2);
+    carRequestDto.setModel(TestConstants.MODEL);
+    carRequestDto.setDetails(new HashSet<>());
+    assertThrows(CarAlreadyExistException.class, () -> carService.registerCar(carRequestDto));
+    testEntityManager.clear();
+    Car stored = testEntityManager.find(Car.class, TestConstants.VIN_1);
+    assertEquals(TestConstants.LICENSE_PLATE_1, stored.getLicensePlate());
+    assertEquals(TestConstants.MANUFACTURER, stored.getManufacturer());
+    assertNull(stored.getModel());
+  }
+
+  private UniqueKeyFilter emptyFilter(String name) {
+    UniqueKeyFilter filter = new UniqueKeyFilter(name, DataSize.ofKilobytes(64), 0.01);
+    filter.load(Stream.empty());
+    return filter;
+  }
+}
@@ -8,6 +8,7 @@ import com.example.carsdetailsmicroservice.dto.detail.update.DetailUpdateRequest
 import com.example.carsdetailsmicroservice.dto.message.MessageDto;
 import com.example.carsdetailsmicroservice.repository.DetailRepository;
 import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
 import com.example.carsdetailsmicroservice.utils.TestConstants;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -44,6 +45,8 @@ public class DetailControllerIntegrationTest {
   @MockBean
   private DetailService detailService;
   @MockBean
+  private SearchIndexService searchIndexService;
+  @MockBean
   private DetailRepository detailRepository;
 
   @Test
@@ -98,6 +101,21 @@ public class DetailControllerIntegrationTest {
             .andExpect(jsonPath("$.content[0].price").value(details.get(0).getPrice()));
   }
 
+  @Test
+  public void testFullTextSearchDetails() throws Exception {
+    List<DetailGetResponseDto> details = new ArrayList<>();
+    details.add(new DetailGetResponseDto(TestConstants.SERIAL_NUMBER, new BigDecimal("10.0")));
+    Page<DetailGetResponseDto> detailPage = new PageImpl<>(details);
+    given(searchIndexService.searchDetails(TestConstants.SERIAL_NUMBER, TestConstants.PAGE, TestConstants.SIZE)).willReturn(detailPage);
+    mockMvc.perform(get("/details/search")
+                    .param("q", TestConstants.SERIAL_NUMBER)
+                    .param("page", String.valueOf(TestConstants.PAGE))
+                    .param("size", String.valueOf(TestConstants.SIZE)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(details.size())))
+            .andExpect(jsonPath("$.content[0].serialNumber").value(details.get(0).getSerialNumber()));
+  }
+
   @Test
   public void testSearchDetailsByPrice() throws Exception {
     BigDecimal price = new BigDecimal("10.0");
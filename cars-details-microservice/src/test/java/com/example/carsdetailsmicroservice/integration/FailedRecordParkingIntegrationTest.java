@@ -0,0 +1,214 @@
+package com.example.carsdetailsmicroservice.integration;
+
+import com.example.carsdetailsmicroservice.dto.deadletter.DeadLetterReplayResponseDto;
+import com.example.carsdetailsmicroservice.events.CarPurchaseEvent;
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.kafka.codec.EventDeserializer;
+import com.example.carsdetailsmicroservice.kafka.codec.EventSerializer;
+import com.example.carsdetailsmicroservice.kafka.parallel.KeyOrderedExecutor;
+import com.example.carsdetailsmicroservice.kafka.retry.FailedRecordRouter;
+import com.example.carsdetailsmicroservice.service.implementation.DeadLetterServiceImplementation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.backoff.FixedBackOff;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EmbeddedKafka(partitions = 1, topics = {
+    FailedRecordParkingIntegrationTest.PURCHASE_TOPIC,
+    FailedRecordParkingIntegrationTest.PURCHASE_TOPIC + ".retry-0",
+    FailedRecordParkingIntegrationTest.PURCHASE_TOPIC + ".dlt",
+    FailedRecordParkingIntegrationTest.DETAIL_TOPIC,
+    FailedRecordParkingIntegrationTest.DETAIL_TOPIC + ".retry-0",
+    FailedRecordParkingIntegrationTest.DETAIL_TOPIC + ".dlt"})
+class FailedRecordParkingIntegrationTest {
+  static final String PURCHASE_TOPIC = "topic.driver.buy.car";
+  static final String DETAIL_TOPIC = "topic.add.detail";
+  private static final String FAILING_LICENSE_PLATE = "FAIL1";
+  private static final String FAILURE_MESSAGE = "database unavailable";
+  private static final Duration RETRY_DELAY = Duration.ofMillis(500);
+  private static final long TIMEOUT_MS = 20_000;
+
+  private final List<ConcurrentMessageListenerContainer<String, Object>> containers = new ArrayList<>();
+  private final List<String> processed = new CopyOnWriteArrayList<>();
+  private EmbeddedKafkaBroker broker;
+  private KafkaTemplate<String, Object> kafkaTemplate;
+  private FailedRecordRouter failedRecordRouter;
+  private KeyOrderedExecutor keyOrderedExecutor;
+
+  @BeforeEach
+  void setUp(EmbeddedKafkaBroker broker) {
+    this.broker = broker;
+    kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+            KafkaTestUtils.producerProps(broker), new StringSerializer(), new EventSerializer()));
+    failedRecordRouter = new FailedRecordRouter(kafkaTemplate, new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(failedRecordRouter, "topics", Set.of(PURCHASE_TOPIC, DETAIL_TOPIC));
+    ReflectionTestUtils.setField(failedRecordRouter, "attempts", 1);
+    ReflectionTestUtils.setField(failedRecordRouter, "initialDelay", RETRY_DELAY);
+    ReflectionTestUtils.setField(failedRecordRouter, "multiplier", 2.0);
+    keyOrderedExecutor = new KeyOrderedExecutor("test-worker", 4, 16);
+  }
+
+  @AfterEach
+  void tearDown() {
+    containers.forEach(ConcurrentMessageListenerContainer::stop);
+    keyOrderedExecutor.close();
+  }
+
+  @Test
+  void failedRecords_AreParked_AndFollowingRecordsAreProcessedAndCommitted() throws Exception {
+    startContainer(PURCHASE_TOPIC, "parking", true, (record, acknowledgment) ->
+            keyOrderedExecutor.submit(record.key(),
+                    () -> failedRecordRouter.process(record, () -> process(record)),
+                    acknowledgment));
+    byte[] poison = {1, 2, 3};
+    send(PURCHASE_TOPIC, "AB1");
+    send(PURCHASE_TOPIC, FAILING_LICENSE_PLATE);
+    kafkaTemplate.send(PURCHASE_TOPIC, "XX1", poison).get();
+    send(PURCHASE_TOPIC, "AB2");
+
+    await(() -> processed.containsAll(List.of("AB1", "AB2")));
+    ConsumerRecord<String, byte[]> retried = readLast(PURCHASE_TOPIC + ".retry-0");
+    assertEquals(FAILING_LICENSE_PLATE, retried.key());
+    assertEquals("1", header(retried, FailedRecordRouter.ATTEMPTS_HEADER));
+    assertEquals(FAILURE_MESSAGE, header(retried, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+    ConsumerRecord<String, byte[]> deadLetter = readLast(PURCHASE_TOPIC + ".dlt");
+    assertArrayEquals(poison, deadLetter.value());
+    assertEquals(DeserializationException.class.getName(),
+            header(deadLetter, KafkaHeaders.DLT_EXCEPTION_FQCN));
+    await(() -> committedOffset("parking", PURCHASE_TOPIC) == 4);
+  }
+
+  @Test
+  void retriedRecords_AreDeadLettered_WhenAttemptsAreExhausted_AndCanBeReplayed() throws Exception {
+    startContainer(DETAIL_TOPIC + ".retry-0", "retry", false, (record, acknowledgment) ->
+            failedRecordRouter.retry(record, acknowledgment, () -> process(record)));
+    long start = System.currentTimeMillis();
+    failedRecordRouter.accept(new ConsumerRecord<>(DETAIL_TOPIC, 0, 0, FAILING_LICENSE_PLATE,
+            detailAddEvent(FAILING_LICENSE_PLATE)), new IllegalStateException(FAILURE_MESSAGE));
+
+    ConsumerRecord<String, byte[]> deadLetter = readLast(DETAIL_TOPIC + ".dlt");
+    assertTrue(deadLetter.timestamp() - start >= RETRY_DELAY.toMillis());
+    assertEquals("2", header(deadLetter, FailedRecordRouter.ATTEMPTS_HEADER));
+    assertEquals(DETAIL_TOPIC, header(deadLetter, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+
+    DeadLetterServiceImplementation deadLetterService = new DeadLetterServiceImplementation(
+            new DefaultKafkaConsumerFactory<>(consumerProperties("replay"),
+                    new StringDeserializer(), new ByteArrayDeserializer()),
+            kafkaTemplate, failedRecordRouter);
+    ReflectionTestUtils.setField(deadLetterService, "ackTimeout", Duration.ofSeconds(10));
+    DeadLetterReplayResponseDto response = deadLetterService.replay(DETAIL_TOPIC, 10);
+    assertEquals(1, response.getReplayed());
+    assertEquals(0, deadLetterService.replay(DETAIL_TOPIC, 10).getReplayed());
+    ConsumerRecord<String, byte[]> replayed = readLast(DETAIL_TOPIC);
+    assertEquals(FAILING_LICENSE_PLATE, replayed.key());
+    assertNull(replayed.headers().lastHeader(FailedRecordRouter.ATTEMPTS_HEADER));
+    assertNull(replayed.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC));
+  }
+
+  private void process(ConsumerRecord<String, Object> record) {
+    if (FAILING_LICENSE_PLATE.equals(record.key())) {
+      throw new IllegalStateException(FAILURE_MESSAGE);
+    }
+    processed.add(record.key());
+  }
+
+  private void startContainer(String topic,
+                              String groupId,
+                              boolean asyncAcks,
+                              AcknowledgingMessageListener<String, Object> listener) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerProperties(groupId),
+            new StringDeserializer(), new ErrorHandlingDeserializer<>(new EventDeserializer())));
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    factory.getContainerProperties().setAsyncAcks(asyncAcks);
+    DefaultErrorHandler errorHandler =
+            new DefaultErrorHandler(failedRecordRouter, new FixedBackOff(0L, 0L));
+    errorHandler.setSeekAfterError(false);
+    factory.setCommonErrorHandler(errorHandler);
+    ConcurrentMessageListenerContainer<String, Object> container = factory.createContainer(topic);
+    container.setupMessageListener(listener);
+    container.start();
+    containers.add(container);
+    ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+  }
+
+  private void send(String topic, String licensePlate) throws Exception {
+    kafkaTemplate.send(topic, licensePlate,
+            CarPurchaseEvent.builder().driverId(1L).licensePlate(licensePlate).build()).get();
+  }
+
+  private static DetailAddEvent detailAddEvent(String licensePlate) {
+    return DetailAddEvent.builder().serialNumber("SN1").licensePlate(licensePlate).build();
+  }
+
+  private ConsumerRecord<String, byte[]> readLast(String topic) {
+    try (Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(
+            consumerProperties("reader-" + System.nanoTime()),
+            new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+      broker.consumeFromAnEmbeddedTopic(consumer, topic);
+      List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+      KafkaTestUtils.getRecords(consumer, Duration.ofMillis(TIMEOUT_MS)).records(topic)
+              .forEach(records::add);
+      return records.get(records.size() - 1);
+    }
+  }
+
+  private long committedOffset(String groupId, String topic) throws Exception {
+    return KafkaTestUtils.getCurrentOffset(broker.getBrokersAsString(), groupId, topic, 0).offset();
+  }
+
+  private Map<String, Object> consumerProperties(String groupId) {
+    return KafkaTestUtils.consumerProps(groupId, "false", broker);
+  }
+
+  private static String header(ConsumerRecord<?, ?> record, String key) {
+    return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+  }
+
+  private static void await(CheckedCondition condition) throws Exception {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.met()) {
+      assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+      TimeUnit.MILLISECONDS.sleep(50);
+    }
+  }
+
+  private interface CheckedCondition {
+    boolean met() throws Exception;
+  }
+}
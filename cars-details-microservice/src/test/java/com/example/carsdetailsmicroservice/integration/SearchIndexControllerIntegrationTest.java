@@ -0,0 +1,40 @@
+package com.example.carsdetailsmicroservice.integration;
+
+import com.example.carsdetailsmicroservice.controller.SearchIndexController;
+import com.example.carsdetailsmicroservice.controller.utils.ControllerUtils;
+import com.example.carsdetailsmicroservice.dto.message.MessageDto;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SearchIndexController.class)
+public class SearchIndexControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @MockBean
+  private ControllerUtils controllerUtils;
+  @MockBean
+  private SearchIndexService searchIndexService;
+
+  @Test
+  public void testRebuildIndex() throws Exception {
+    given(controllerUtils.createResponseEntityOk(anyString())).willReturn(ResponseEntity.ok(new MessageDto(TestConstants.SEARCH_INDEX_REBUILT_MESSAGE)));
+    mockMvc.perform(post("/search-index/rebuild"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value(TestConstants.SEARCH_INDEX_REBUILT_MESSAGE));
+    verify(searchIndexService).rebuildIndex();
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.carsdetailsmicroservice.kafka.codec;
+
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares the binary event codec with the previous JSON path, where the event was written
+ * with the ObjectMapper into a String that the StringSerializer turned into UTF-8 bytes.
+ * Run with {@code mvn test-compile} and the main method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+  private ObjectMapper objectMapper;
+  private DetailAddEvent event;
+  private byte[] jsonRecord;
+  private byte[] binaryRecord;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    event = DetailAddEvent.builder()
+            .serialNumber("DETAIL-000123")
+            .price(new BigDecimal("1249.99"))
+            .licensePlate("AB1234-7")
+            .driverId(1048576L)
+            .currency("GREEN")
+            .build();
+    jsonRecord = objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+    binaryRecord = EventCodec.encode(event);
+  }
+
+  @Benchmark
+  public byte[] encodeJson() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public byte[] encodeBinary() {
+    return EventCodec.encode(event);
+  }
+
+  @Benchmark
+  public DetailAddEvent decodeJson() throws JsonProcessingException {
+    return objectMapper.readValue(new String(jsonRecord, StandardCharsets.UTF_8),
+            DetailAddEvent.class);
+  }
+
+  @Benchmark
+  public Object decodeBinary() {
+    return EventCodec.decode(binaryRecord);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(EventCodecBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build()).run();
+  }
+}
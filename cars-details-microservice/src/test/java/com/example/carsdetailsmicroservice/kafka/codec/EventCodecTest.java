@@ -0,0 +1,173 @@
+package com.example.carsdetailsmicroservice.kafka.codec;
+
+import com.example.carsdetailsmicroservice.events.CarPurchaseEvent;
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.events.DetailPaymentEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The expected records are shared with the EventCodecTest of the drives-bills service, so both
+ * services are guaranteed to speak the same format.
+ */
+class EventCodecTest {
+  private static final String DETAIL_ADD_RECORD = "ce01021f04534e2d3108c413064142313233340e01";
+  private static final String CAR_PURCHASE_RECORD = "ce0101030e06414231323334";
+  private static final String CAR_PURCHASE_RECORD_WITH_EVENT_ID =
+          "ce0101070e06414231323334123e4567e89b12d3a456426614174000";
+  private static final UUID EVENT_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+  private static final String DETAIL_PAYMENT_RECORD = "ce01030f04534e2d31064142313233340e02";
+
+  @Test
+  void encode_WritesVersionOneLayoutOfDetailAddEvent() {
+    byte[] record = EventCodec.encode(createDetailAddEvent());
+    assertEquals(DETAIL_ADD_RECORD, HexFormat.of().formatHex(record));
+  }
+
+  @Test
+  void encode_WritesVersionOneLayoutOfCarPurchaseEvent() {
+    byte[] record = EventCodec.encode(new CarPurchaseEvent(7L, "AB1234", null));
+    assertEquals(CAR_PURCHASE_RECORD, HexFormat.of().formatHex(record));
+  }
+
+  @Test
+  void encode_AppendsEventIdToVersionOneLayout() {
+    byte[] record = EventCodec.encode(new CarPurchaseEvent(7L, "AB1234", EVENT_ID));
+    assertEquals(CAR_PURCHASE_RECORD_WITH_EVENT_ID, HexFormat.of().formatHex(record));
+  }
+
+  @Test
+  void decode_RestoresEventIds() {
+    CarPurchaseEvent carPurchaseEvent = (CarPurchaseEvent) EventCodec.decode(
+            HexFormat.of().parseHex(CAR_PURCHASE_RECORD_WITH_EVENT_ID));
+    assertEquals(EVENT_ID, carPurchaseEvent.getEventId());
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    detailAddEvent.setEventId(EVENT_ID);
+    assertEquals(EVENT_ID, roundTrip(detailAddEvent).getEventId());
+    assertNull(roundTrip(createDetailAddEvent()).getEventId());
+  }
+
+  @Test
+  void decode_RestoresPriceInMinorUnits() {
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    detailAddEvent.setPriceMinor(1250L);
+    assertEquals(1250L, roundTrip(detailAddEvent).getPriceMinor());
+    assertNull(roundTrip(createDetailAddEvent()).getPriceMinor());
+  }
+
+  @Test
+  void encode_WritesVersionOneLayoutOfDetailPaymentEvent() {
+    byte[] record = EventCodec.encode(new DetailPaymentEvent("SN-1", "AB1234", 7L,
+            DetailPaymentEvent.Status.INSUFFICIENT_BALANCE));
+    assertEquals(DETAIL_PAYMENT_RECORD, HexFormat.of().formatHex(record));
+  }
+
+  @Test
+  void decode_RestoresDetailPaymentEvent() {
+    DetailPaymentEvent event = (DetailPaymentEvent) EventCodec.decode(HexFormat.of().parseHex(DETAIL_PAYMENT_RECORD));
+    assertEquals("SN-1", event.getSerialNumber());
+    assertEquals("AB1234", event.getLicensePlate());
+    assertEquals(7L, event.getDriverId());
+    assertEquals(DetailPaymentEvent.Status.INSUFFICIENT_BALANCE, event.getStatus());
+  }
+
+  @Test
+  void decode_RestoresDetailAddEvent() {
+    DetailAddEvent event = (DetailAddEvent) EventCodec.decode(HexFormat.of().parseHex(DETAIL_ADD_RECORD));
+    assertEquals("SN-1", event.getSerialNumber());
+    assertEquals(new BigDecimal("12.50"), event.getPrice());
+    assertEquals("AB1234", event.getLicensePlate());
+    assertEquals(7L, event.getDriverId());
+    assertEquals("RED", event.getCurrency());
+  }
+
+  @Test
+  void decode_RestoresCarPurchaseEvent() {
+    CarPurchaseEvent event = (CarPurchaseEvent) EventCodec.decode(HexFormat.of().parseHex(CAR_PURCHASE_RECORD));
+    assertEquals(7L, event.getDriverId());
+    assertEquals("AB1234", event.getLicensePlate());
+  }
+
+  @Test
+  void encode_SkipsAbsentFields() {
+    DetailAddEvent event = DetailAddEvent.builder().serialNumber("SN-1").build();
+    DetailAddEvent decoded = roundTrip(event);
+    assertEquals("SN-1", decoded.getSerialNumber());
+    assertNull(decoded.getPrice());
+    assertNull(decoded.getDriverId());
+    assertNull(decoded.getCurrency());
+    assertEquals(9, EventCodec.encode(event).length);
+  }
+
+  @Test
+  void encode_KeepsValuesOutsideTheCompactForms() {
+    DetailAddEvent event = DetailAddEvent.builder()
+            .serialNumber("Деталь-🚗")
+            .price(new BigDecimal("123456789012345678901234567890.123"))
+            .driverId(-1L)
+            .currency("USD")
+            .build();
+    DetailAddEvent decoded = roundTrip(event);
+    assertEquals(event.getSerialNumber(), decoded.getSerialNumber());
+    assertEquals(event.getPrice(), decoded.getPrice());
+    assertEquals(event.getDriverId(), decoded.getDriverId());
+    assertEquals(event.getCurrency(), decoded.getCurrency());
+  }
+
+  @Test
+  void decode_IgnoresFieldsOfNewerWriters() {
+    byte[] record = HexFormat.of().parseHex("ce0101" + "23" + "0e06414231323334" + "0201ff");
+    CarPurchaseEvent event = (CarPurchaseEvent) EventCodec.decode(record);
+    assertEquals(7L, event.getDriverId());
+    assertEquals("AB1234", event.getLicensePlate());
+  }
+
+  @Test
+  void decode_RejectsUnknownVersion() {
+    byte[] record = HexFormat.of().parseHex(CAR_PURCHASE_RECORD);
+    record[1] = 2;
+    assertThrows(SerializationException.class, () -> EventCodec.decode(record));
+  }
+
+  @Test
+  void decode_RejectsTruncatedRecord() {
+    byte[] record = HexFormat.of().parseHex(DETAIL_ADD_RECORD);
+    byte[] truncated = Arrays.copyOf(record, record.length - 4);
+    assertThrows(SerializationException.class, () -> EventCodec.decode(truncated));
+  }
+
+  @Test
+  void encode_RejectsUnsupportedEvent() {
+    assertThrows(SerializationException.class, () -> EventCodec.encode("event"));
+  }
+
+  @Test
+  void serializers_PassNullValuesThrough() {
+    assertNull(new EventSerializer().serialize("topic.car", null));
+    assertNull(new EventDeserializer().deserialize("topic.car", null));
+    assertArrayEquals(HexFormat.of().parseHex(CAR_PURCHASE_RECORD),
+            new EventSerializer().serialize("topic.car", new CarPurchaseEvent(7L, "AB1234", null)));
+  }
+
+  private DetailAddEvent createDetailAddEvent() {
+    return DetailAddEvent.builder()
+            .serialNumber("SN-1")
+            .price(new BigDecimal("12.50"))
+            .licensePlate("AB1234")
+            .driverId(7L)
+            .currency("RED")
+            .build();
+  }
+
+  private DetailAddEvent roundTrip(DetailAddEvent event) {
+    return (DetailAddEvent) EventCodec.decode(EventCodec.encode(event));
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.carsdetailsmicroservice.kafka.parallel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyOrderedExecutorTest {
+  private static final int LANES = 4;
+  private static final int RECORDS = 1000;
+  private static final long TIMEOUT_SECONDS = 5;
+
+  private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test-worker", LANES, 16);
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  void submit_KeepsSubmissionOrder_ForRecordsWithSameKey() throws InterruptedException {
+    List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch acknowledged = new CountDownLatch(RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      int offset = i;
+      executor.submit("AB1234", () -> processed.add(offset), acknowledged::countDown);
+    }
+    assertTrue(acknowledged.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    for (int i = 0; i < RECORDS; i++) {
+      assertEquals(i, processed.get(i));
+    }
+  }
+
+  @Test
+  void submit_ProcessesRecordsWithDifferentKeysInParallel() throws InterruptedException {
+    Long slowKey = 1L;
+    Long fastKey = findKeyOnOtherLane(slowKey);
+    CountDownLatch fastProcessed = new CountDownLatch(1);
+    CountDownLatch acknowledged = new CountDownLatch(2);
+    executor.submit(slowKey, () -> await(fastProcessed), acknowledged::countDown);
+    executor.submit(fastKey, fastProcessed::countDown, acknowledged::countDown);
+    assertTrue(acknowledged.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void submit_RetriesAndAcknowledgesOnlyOnSuccess_WhenProcessingFails()
+          throws InterruptedException {
+    AtomicInteger attempts = new AtomicInteger();
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch acknowledged = new CountDownLatch(2);
+    executor.submit(1L, () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new IllegalStateException("dead-letter topic unavailable");
+      }
+      events.add("parked");
+    }, () -> {
+      events.add("acknowledged");
+      acknowledged.countDown();
+    });
+    executor.submit(1L, () -> events.add("next"), acknowledged::countDown);
+    assertTrue(acknowledged.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertEquals(3, attempts.get());
+    assertEquals(List.of("parked", "acknowledged", "next"), events);
+  }
+
+  @Test
+  void close_LeavesRecordUnacknowledged_WhenParkingKeepsFailing() throws InterruptedException {
+    CountDownLatch attempted = new CountDownLatch(2);
+    AtomicInteger acknowledgments = new AtomicInteger();
+    AtomicBoolean nextProcessed = new AtomicBoolean();
+    executor.submit(1L, () -> {
+      attempted.countDown();
+      throw new IllegalStateException("dead-letter topic unavailable");
+    }, acknowledgments::incrementAndGet);
+    executor.submit(1L, () -> nextProcessed.set(true), acknowledgments::incrementAndGet);
+    assertTrue(attempted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    executor.close();
+    assertEquals(0, acknowledgments.get());
+    assertFalse(nextProcessed.get());
+  }
+
+  private Long findKeyOnOtherLane(Long key) {
+    long candidate = key;
+    while (executor.laneOf(candidate) == executor.laneOf(key)) {
+      candidate++;
+    }
+    return candidate;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.example.carsdetailsmicroservice.kafka.spool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundSpoolTest {
+  private static final String TOPIC = "topic.car";
+  private static final int SEGMENT_SIZE = 1024;
+  private static final Duration FLUSH_INTERVAL = Duration.ofMillis(1);
+  private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+  @TempDir
+  Path directory;
+
+  private final List<OutboundSpool> spools = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    spools.forEach(OutboundSpool::close);
+  }
+
+  @Test
+  void read_ReturnsAppendedRecordsInOrder_AcrossSegments() throws InterruptedException {
+    OutboundSpool spool = open(SEGMENT_SIZE * 8);
+    for (int i = 0; i < 100; i++) {
+      spool.append(TOPIC, i % 2 == 0 ? null : "key-" + i, value(i));
+    }
+
+    List<SpoolEntry> entries = readAll(spool, 0);
+    assertEquals(100, entries.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(TOPIC, entries.get(i).getTopic());
+      assertEquals(i % 2 == 0 ? null : "key-" + i, entries.get(i).getKey());
+      assertArrayEquals(value(i), entries.get(i).getValue());
+    }
+    assertTrue(segmentFiles() > 1);
+  }
+
+  @Test
+  void open_RecoversRecordsNotCommitted_AndDeletesSentSegments() throws InterruptedException {
+    OutboundSpool spool = open(SEGMENT_SIZE * 8);
+    for (int i = 0; i < 100; i++) {
+      spool.append(TOPIC, null, value(i));
+    }
+    List<SpoolEntry> entries = readAll(spool, 0);
+    spool.commit(entries.get(59).getNextPosition());
+    spool.close();
+
+    OutboundSpool reopened = open(SEGMENT_SIZE * 8);
+    List<SpoolEntry> recovered = readAll(reopened, reopened.committedPosition());
+    assertEquals(40, recovered.size());
+    assertArrayEquals(value(60), recovered.get(0).getValue());
+    reopened.append(TOPIC, null, value(100));
+    List<SpoolEntry> afterAppend = readAll(reopened, reopened.committedPosition());
+    assertEquals(41, afterAppend.size());
+    assertArrayEquals(value(100), afterAppend.get(40).getValue());
+    assertTrue(segmentFiles() < 8);
+  }
+
+  @Test
+  void open_IgnoresTornRecord_AtEndOfLog() throws IOException, InterruptedException {
+    OutboundSpool spool = open(SEGMENT_SIZE * 8);
+    spool.append(TOPIC, null, value(1));
+    long end = readAll(spool, 0).get(0).getNextPosition();
+    spool.close();
+    try (FileChannel channel = FileChannel.open(lastSegment(), StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(12).putInt(0, 40).putInt(4, 12345), end);
+    }
+
+    OutboundSpool reopened = open(SEGMENT_SIZE * 8);
+    reopened.append(TOPIC, null, value(2));
+    List<SpoolEntry> entries = readAll(reopened, 0);
+    assertEquals(2, entries.size());
+    assertArrayEquals(value(2), entries.get(1).getValue());
+  }
+
+  @Test
+  void append_Fails_WhenSpoolIsFull() {
+    OutboundSpool spool = open(SEGMENT_SIZE);
+    assertThrows(IllegalStateException.class, () -> {
+      for (int i = 0; i < 100; i++) {
+        spool.append(TOPIC, null, value(i));
+      }
+    });
+    assertThrows(IllegalStateException.class,
+        () -> spool.append(TOPIC, null, new byte[SEGMENT_SIZE]));
+  }
+
+  @Test
+  void append_SharesFlushes_BetweenConcurrentAppends() throws InterruptedException {
+    OutboundSpool spool = new OutboundSpool(directory, SEGMENT_SIZE * 64, SEGMENT_SIZE * 64,
+            Duration.ofMillis(20));
+    spools.add(spool);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch appended = new CountDownLatch(200);
+    long start = System.nanoTime();
+    for (int i = 0; i < 200; i++) {
+      int index = i;
+      executor.execute(() -> {
+        spool.append(TOPIC, null, value(index));
+        appended.countDown();
+      });
+    }
+    assertTrue(appended.await(5, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    assertEquals(200, readAll(spool, 0).size());
+  }
+
+  @Test
+  void read_ReturnsNothing_WhenNothingIsAppended() throws InterruptedException {
+    OutboundSpool spool = open(SEGMENT_SIZE);
+    assertTrue(spool.read(0, 10, Duration.ofMillis(10)).isEmpty());
+  }
+
+  private OutboundSpool open(long maxSize) {
+    OutboundSpool spool = new OutboundSpool(directory, SEGMENT_SIZE, maxSize, FLUSH_INTERVAL);
+    spools.add(spool);
+    return spool;
+  }
+
+  private static List<SpoolEntry> readAll(OutboundSpool spool, long position)
+          throws InterruptedException {
+    List<SpoolEntry> entries = new ArrayList<>();
+    List<SpoolEntry> batch;
+    while (!(batch = spool.read(position, 16, TIMEOUT.dividedBy(10))).isEmpty()) {
+      entries.addAll(batch);
+      position = batch.get(batch.size() - 1).getNextPosition();
+    }
+    return entries;
+  }
+
+  private static byte[] value(int index) {
+    return ("value-" + index).repeat(3).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private long segmentFiles() {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".spool")).count();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Path lastSegment() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".spool")).sorted()
+              .reduce((first, second) -> second).orElseThrow();
+    }
+  }
+}
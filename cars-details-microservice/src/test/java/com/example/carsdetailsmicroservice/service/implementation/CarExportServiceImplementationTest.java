@@ -0,0 +1,81 @@
+package com.example.carsdetailsmicroservice.service.implementation;
+
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.service.CarExportService;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarExportServiceImplementationTest {
+  @Mock
+  private EntityManager entityManager;
+  @Mock
+  private TypedQuery<Car> carQuery;
+  @Mock
+  private TypedQuery<Tuple> detailQuery;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private CarExportService carExportService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    carExportService = new CarExportServiceImplementation(entityManager, objectMapper);
+    ReflectionTestUtils.setField(carExportService, "fetchSize", 1);
+    when(entityManager.createQuery(anyString(), eq(Car.class))).thenReturn(carQuery);
+    when(carQuery.setHint(anyString(), any())).thenReturn(carQuery);
+    when(entityManager.createQuery(anyString(), eq(Tuple.class))).thenReturn(detailQuery);
+    when(detailQuery.setParameter(anyString(), any())).thenReturn(detailQuery);
+    when(detailQuery.setHint(anyString(), any())).thenReturn(detailQuery);
+  }
+
+  @Test
+  void exportCars_WritesOneLinePerCarWithItsDetails() throws IOException {
+    Car car1 = Car.builder().vin(TestConstants.VIN_1).licensePlate(TestConstants.LICENSE_PLATE_1).build();
+    Car car2 = Car.builder().vin(TestConstants.VIN_2).licensePlate(TestConstants.LICENSE_PLATE_2).build();
+    Tuple detail = mock(Tuple.class);
+    when(detail.get(0, String.class)).thenReturn(TestConstants.VIN_1);
+    when(detail.get(1, Detail.class)).thenReturn(new Detail(TestConstants.ID, TestConstants.SERIAL_NUMBER, BigDecimal.TEN));
+    when(carQuery.getResultStream()).thenReturn(List.of(car1, car2).stream());
+    when(detailQuery.getResultList()).thenReturn(List.of(detail), List.of());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    carExportService.exportCars(outputStream);
+    String[] lines = outputStream.toString().split("\n");
+    assertEquals(2, lines.length);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(TestConstants.VIN_1, first.get("vin").asText());
+    assertEquals(TestConstants.SERIAL_NUMBER, first.get("details").get(0).get("serialNumber").asText());
+    assertEquals(0, objectMapper.readTree(lines[1]).get("details").size());
+    verify(detailQuery, times(2)).getResultList();
+    verify(entityManager, times(2)).clear();
+  }
+
+  @Test
+  void exportCars_WritesNothingForEmptyCatalog() throws IOException {
+    when(carQuery.getResultStream()).thenReturn(List.<Car>of().stream());
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    carExportService.exportCars(outputStream);
+    assertEquals(0, outputStream.size());
+    verify(entityManager, times(0)).createQuery(anyString(), eq(Tuple.class));
+  }
+}
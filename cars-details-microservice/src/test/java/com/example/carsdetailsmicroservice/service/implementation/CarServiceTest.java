@@ -1,36 +1,69 @@
 package com.example.carsdetailsmicroservice.service.implementation;
 
+import com.example.carsdetailsmicroservice.config.CacheConfig;
+import com.example.carsdetailsmicroservice.constants.ErrorCodeConstants;
+import com.example.carsdetailsmicroservice.dto.car.batch.CarBatchCreateResponseDto;
 import com.example.carsdetailsmicroservice.dto.car.create.CarCreateRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.car.search.CarSearchRequestDto;
 import com.example.carsdetailsmicroservice.dto.car.update.CarUpdateRequestDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Car;
 import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.events.DetailAddEvent;
+import com.example.carsdetailsmicroservice.events.DetailPaymentEvent;
+import com.example.carsdetailsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.account.InsufficientBalanceException;
 import com.example.carsdetailsmicroservice.exceptions.car.CarAlreadyExistException;
 import com.example.carsdetailsmicroservice.exceptions.car.CarNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
+import com.example.carsdetailsmicroservice.exceptions.cursor.InvalidCursorException;
+import com.example.carsdetailsmicroservice.exceptions.cursor.InvalidSortException;
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import com.example.carsdetailsmicroservice.grpc.AccountLookupClient;
 import com.example.carsdetailsmicroservice.kafka.Producer;
 import com.example.carsdetailsmicroservice.mapper.CarMapper;
 import com.example.carsdetailsmicroservice.repository.CarRepository;
 import com.example.carsdetailsmicroservice.repository.DetailRepository;
 import com.example.carsdetailsmicroservice.service.CarService;
 import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.utils.CursorCodec;
+import com.example.carsdetailsmicroservice.service.utils.DetailInstallResult;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilters;
 import com.example.carsdetailsmicroservice.utils.TestConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.unit.DataSize;
+import java.sql.SQLException;
 import java.util.Set;
 import java.util.List;
 import java.util.HashSet;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
@@ -38,6 +71,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.doThrow;
 
 class CarServiceTest {
   @Mock
@@ -51,17 +85,29 @@ class CarServiceTest {
   DetailRepository detailRepository;
   @Mock
   private Producer producer;
+  @Mock
+  private AccountLookupClient accountLookupClient;
+
+  private final CursorCodec cursorCodec = new CursorCodec(new ObjectMapper());
 
   private CarService carService;
+  private UniqueKeyFilters uniqueKeyFilters;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    uniqueKeyFilters = new UniqueKeyFilters(carRepository, detailRepository,
+            new SimpleMeterRegistry(), DataSize.ofKilobytes(64), 0.01);
     carService = new CarServiceImplementation(carRepository,
                                               entityManager,
                                               detailService,
                                               detailRepository,
-                                              producer);
+                                              producer,
+                                              cursorCodec,
+                                              uniqueKeyFilters,
+                                              new CaffeineCacheManager(CacheConfig.CARS_BY_VIN,
+                                                      CacheConfig.CARS_BY_LICENSE_PLATE),
+                                              accountLookupClient);
     }
 
   @Test
@@ -73,7 +119,8 @@ class CarServiceTest {
     ArgumentCaptor<Car> carCaptor = ArgumentCaptor.forClass(Car.class);
     carService.registerCar(carRequestDto);
     verify(detailService, times(carRequestDto.getDetails().size())).createDetail(any(Detail.class));
-    verify(carRepository, times(1)).save(carCaptor.capture());
+    verify(entityManager, times(1)).persist(carCaptor.capture());
+    verify(entityManager).flush();
     Car capturedCar = carCaptor.getValue();
     assertEquals(car.getVin(), capturedCar.getVin());
     assertEquals(car.getLicensePlate(), capturedCar.getLicensePlate());
@@ -84,7 +131,81 @@ class CarServiceTest {
     CarCreateRequestDto carRequestDto = createCarRequestDto();
     when(carRepository.existsByVin(carRequestDto.getVin())).thenReturn(true);
     assertThrows(CarAlreadyExistException.class, () -> carService.registerCar(carRequestDto));
-    verify(carRepository, never()).save(any(Car.class));
+    verify(entityManager, never()).persist(any(Car.class));
+  }
+
+  @Test
+  void registerCar_SkipsExistenceQueries_WhenFiltersRuleOutVinAndLicensePlate() {
+    CarCreateRequestDto carRequestDto = createCarRequestDto();
+    when(carRepository.streamAllVins()).thenReturn(Stream.of(TestConstants.VIN_2));
+    when(carRepository.streamAllLicensePlates()).thenReturn(Stream.of(TestConstants.LICENSE_PLATE_2));
+    when(detailRepository.streamAllSerialNumbers()).thenReturn(Stream.empty());
+    uniqueKeyFilters.load();
+    carService.registerCar(carRequestDto);
+    verify(carRepository, never()).existsByVin(any());
+    verify(carRepository, never()).existsByLicensePlate(any());
+    verify(entityManager, times(1)).persist(any(Car.class));
+    assertTrue(uniqueKeyFilters.vins().mightContain(carRequestDto.getVin()));
+  }
+
+  @Test
+  void registerCar_ThrowsCarAlreadyExistException_WhenFilterMissedVinTakenElsewhere() {
+    CarCreateRequestDto carRequestDto = createCarRequestDto();
+    when(carRepository.streamAllVins()).thenReturn(Stream.empty());
+    when(carRepository.streamAllLicensePlates()).thenReturn(Stream.empty());
+    when(detailRepository.streamAllSerialNumbers()).thenReturn(Stream.empty());
+    uniqueKeyFilters.load();
+    doThrow(new ConstraintViolationException("duplicate key", new SQLException(), "car_pkey"))
+            .when(entityManager).flush();
+    assertThrows(CarAlreadyExistException.class, () -> carService.registerCar(carRequestDto));
+    verify(carRepository, never()).existsByVin(any());
+    assertTrue(uniqueKeyFilters.vins().mightContain(carRequestDto.getVin()));
+  }
+
+  @Test
+  void registerCar_ChecksDatabase_WhenFilterMightContainVin() {
+    CarCreateRequestDto carRequestDto = createCarRequestDto();
+    when(carRepository.streamAllVins()).thenReturn(Stream.of(carRequestDto.getVin()));
+    when(carRepository.streamAllLicensePlates()).thenReturn(Stream.empty());
+    when(detailRepository.streamAllSerialNumbers()).thenReturn(Stream.empty());
+    when(carRepository.existsByVin(carRequestDto.getVin())).thenReturn(true);
+    uniqueKeyFilters.load();
+    assertThrows(CarAlreadyExistException.class, () -> carService.registerCar(carRequestDto));
+    verify(entityManager, never()).persist(any(Car.class));
+  }
+
+  @Test
+  void registerCars_PersistsNewCarsAndRejectsTakenOnes() {
+    CarCreateRequestDto newCar = createCarRequestDto();
+    CarCreateRequestDto existingCar = createCarRequestDto();
+    existingCar.setVin(TestConstants.VIN_2);
+    existingCar.setDetails(new HashSet<>());
+    CarCreateRequestDto duplicateCar = createCarRequestDto();
+    duplicateCar.setLicensePlate(TestConstants.LICENSE_PLATE_2);
+    when(carRepository.findExistingVins(any())).thenReturn(Set.of(TestConstants.VIN_2));
+    when(carRepository.findExistingLicensePlates(any())).thenReturn(Set.of());
+    when(detailRepository.findExistingSerialNumbers(any())).thenReturn(Set.of());
+    CarBatchCreateResponseDto result = carService.registerCars(List.of(newCar, existingCar, duplicateCar));
+    assertEquals(1, result.getCreated());
+    assertEquals(2, result.getRejected());
+    assertTrue(result.getResults().get(0).isCreated());
+    assertEquals(ErrorCodeConstants.CAR_ALREADY_EXIST_409, result.getResults().get(1).getCode());
+    assertEquals(ErrorCodeConstants.CAR_ALREADY_EXIST_409, result.getResults().get(2).getCode());
+    verify(entityManager, times(1)).persist(any(Car.class));
+    verify(entityManager).flush();
+    verify(carRepository, never()).existsByVin(any());
+  }
+
+  @Test
+  void registerCars_RejectsCarWithTakenDetail() {
+    CarCreateRequestDto carRequestDto = createCarRequestDto();
+    when(carRepository.findExistingVins(any())).thenReturn(Set.of());
+    when(carRepository.findExistingLicensePlates(any())).thenReturn(Set.of());
+    when(detailRepository.findExistingSerialNumbers(any())).thenReturn(Set.of(TestConstants.SERIAL_NUMBER_2));
+    CarBatchCreateResponseDto result = carService.registerCars(List.of(carRequestDto));
+    assertEquals(0, result.getCreated());
+    assertEquals(ErrorCodeConstants.DETAIL_ALREADY_EXIST_409, result.getResults().get(0).getCode());
+    verify(entityManager, never()).persist(any());
   }
 
   private CarCreateRequestDto createCarRequestDto() {
@@ -116,11 +237,153 @@ class CarServiceTest {
     Pageable pageable = PageRequest.of(TestConstants.PAGE, TestConstants.SIZE, Sort.by(TestConstants.SORT_BY_VIN));
     Page<Car> carPage = new PageImpl<>(cars, pageable, cars.size());
     when(carRepository.findAll(pageable)).thenReturn(carPage);
-    Page<CarGetResponseDto> result = carService.getAllCars(TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN);
+    Page<CarGetResponseDto> result = carService.getAllCars(TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN, false);
     assertEquals(cars.size(), result.getTotalElements());
     assertEquals(cars.size(), result.getContent().size());
   }
 
+  @Test
+  void getAllCars_ReturnsDetails_WhenIncludeDetailsIsRequested() {
+    List<Car> cars = new ArrayList<>();
+    cars.add(createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1));
+    cars.add(createCar(TestConstants.VIN_2, TestConstants.LICENSE_PLATE_2));
+    Pageable pageable = PageRequest.of(TestConstants.PAGE, TestConstants.SIZE, Sort.by(TestConstants.SORT_BY_VIN));
+    Page<Car> carPage = new PageImpl<>(cars, pageable, cars.size());
+    Car carWithDetails1 = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1);
+    carWithDetails1.setDetails(createDetails());
+    Car carWithDetails2 = createCar(TestConstants.VIN_2, TestConstants.LICENSE_PLATE_2);
+    carWithDetails2.setDetails(new HashSet<>());
+    when(carRepository.findAll(pageable)).thenReturn(carPage);
+    when(carRepository.findWithDetailsByVinIn(List.of(TestConstants.VIN_1, TestConstants.VIN_2)))
+            .thenReturn(List.of(carWithDetails2, carWithDetails1));
+    Page<CarGetResponseDto> result = carService.getAllCars(TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN, true);
+    assertEquals(TestConstants.VIN_1, result.getContent().get(0).getVin());
+    assertEquals(carWithDetails1.getDetails().size(), result.getContent().get(0).getDetails().size());
+    assertTrue(result.getContent().get(1).getDetails().isEmpty());
+    verify(carRepository, times(1)).findWithDetailsByVinIn(any());
+  }
+
+  @Test
+  void findCarByVin_UsesFetchPlan_WhenIncludeDetailsIsRequested() {
+    Car car = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1);
+    car.setDetails(createDetails());
+    when(carRepository.findWithDetailsByVin(TestConstants.VIN_1)).thenReturn(Optional.of(car));
+    Optional<CarGetResponseDto> result = carService.findCarByVin(TestConstants.VIN_1, true);
+    assertTrue(result.isPresent());
+    assertEquals(car.getDetails().size(), result.get().getDetails().size());
+    verify(carRepository, never()).findByVin(TestConstants.VIN_1);
+  }
+
+  @Test
+  void installDetails_LoadsCarsAndDetailsOnceAndInstallsGroupedEvents() {
+    Car car = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1);
+    Detail detail1 = new Detail();
+    detail1.setId(1L);
+    detail1.setSerialNumber(TestConstants.SERIAL_NUMBER);
+    Detail detail2 = new Detail();
+    detail2.setId(2L);
+    detail2.setSerialNumber(TestConstants.SERIAL_NUMBER_2);
+    when(carRepository.findWithDetailsByLicensePlateIn(any())).thenReturn(List.of(car));
+    when(detailRepository.findBySerialNumberIn(any())).thenReturn(List.of(detail1, detail2));
+    DetailAddEvent missingCar = DetailAddEvent.builder().licensePlate(TestConstants.LICENSE_PLATE_2).serialNumber(TestConstants.SERIAL_NUMBER).build();
+    DetailAddEvent missingDetail = DetailAddEvent.builder().licensePlate(TestConstants.LICENSE_PLATE_1).serialNumber("UNKNOWN").build();
+    DetailAddEvent missingLicensePlate = DetailAddEvent.builder().serialNumber(TestConstants.SERIAL_NUMBER).build();
+    DetailInstallResult result = carService.installDetails(List.of(
+            DetailAddEvent.builder().licensePlate(TestConstants.LICENSE_PLATE_1).serialNumber(TestConstants.SERIAL_NUMBER).build(),
+            missingCar,
+            DetailAddEvent.builder().licensePlate(TestConstants.LICENSE_PLATE_1).serialNumber(TestConstants.SERIAL_NUMBER_2).build(),
+            DetailAddEvent.builder().licensePlate(TestConstants.LICENSE_PLATE_1).serialNumber(TestConstants.SERIAL_NUMBER_2).build(),
+            missingDetail,
+            missingLicensePlate));
+    assertEquals(2, result.getInstalled());
+    assertEquals(List.of(missingLicensePlate, missingDetail, missingCar),
+            result.getUnapplied().stream().map(DetailInstallResult.Unapplied::getEvent).toList());
+    assertInstanceOf(CarNotFoundException.class, result.getUnapplied().get(0).getReason());
+    assertInstanceOf(DetailNotFoundException.class, result.getUnapplied().get(1).getReason());
+    assertInstanceOf(CarNotFoundException.class, result.getUnapplied().get(2).getReason());
+    assertEquals(Set.of(detail1, detail2), car.getDetails());
+    verify(carRepository, times(1)).findWithDetailsByLicensePlateIn(Set.of(TestConstants.LICENSE_PLATE_1, TestConstants.LICENSE_PLATE_2));
+    verify(detailRepository, times(1)).findBySerialNumberIn(Set.of(TestConstants.SERIAL_NUMBER, TestConstants.SERIAL_NUMBER_2, "UNKNOWN"));
+  }
+
+  @Test
+  void installDetails_DoesNotQuery_WhenThereAreNoEvents() {
+    assertEquals(0, carService.installDetails(List.of()).getInstalled());
+    verify(carRepository, never()).findWithDetailsByLicensePlateIn(any());
+  }
+
+  @Test
+  void addDetail_SendsEvent_WhenDriverCanPayForDetail() {
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    when(accountLookupClient.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY)).thenReturn(true);
+    when(producer.sendDetailAddEventMessage(detailAddEvent)).thenReturn(TestConstants.MESSAGE_SENT);
+    assertEquals(TestConstants.MESSAGE_SENT, carService.addDetail(detailAddEvent));
+    assertEquals(TestConstants.ID, detailAddEvent.getDriverId());
+    assertEquals(TestConstants.PRICE, detailAddEvent.getPrice());
+  }
+
+  @Test
+  void addDetail_ThrowsInsufficientBalanceException_WhenDriverCannotPayForDetail() {
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    when(accountLookupClient.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY)).thenReturn(false);
+    assertThrows(InsufficientBalanceException.class, () -> carService.addDetail(detailAddEvent));
+    verify(producer, never()).sendDetailAddEventMessage(any());
+  }
+
+  @Test
+  void addDetailAndAwaitPayment_Completes_WhenDetailIsPaid() {
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    when(accountLookupClient.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY)).thenReturn(true);
+    when(producer.sendDetailAddEventAndReceive(detailAddEvent)).thenReturn(
+            CompletableFuture.completedFuture(createDetailPaymentEvent(DetailPaymentEvent.Status.PAID)));
+    carService.addDetailAndAwaitPayment(detailAddEvent).join();
+    assertEquals(TestConstants.PRICE, detailAddEvent.getPrice());
+  }
+
+  @Test
+  void addDetailAndAwaitPayment_FailsWithInsufficientBalanceException_WhenDebitIsRefused() {
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    when(accountLookupClient.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY)).thenReturn(true);
+    when(producer.sendDetailAddEventAndReceive(detailAddEvent)).thenReturn(CompletableFuture.completedFuture(
+            createDetailPaymentEvent(DetailPaymentEvent.Status.INSUFFICIENT_BALANCE)));
+    CompletionException exception = assertThrows(CompletionException.class,
+            () -> carService.addDetailAndAwaitPayment(detailAddEvent).join());
+    assertInstanceOf(InsufficientBalanceException.class, exception.getCause());
+  }
+
+  @Test
+  void addDetailAndAwaitPayment_FailsWithAccountNotFoundException_WhenDriverHasNoAccount() {
+    DetailAddEvent detailAddEvent = createDetailAddEvent();
+    when(accountLookupClient.canDebit(TestConstants.ID, TestConstants.PRICE, TestConstants.CURRENCY)).thenReturn(true);
+    when(producer.sendDetailAddEventAndReceive(detailAddEvent)).thenReturn(CompletableFuture.completedFuture(
+            createDetailPaymentEvent(DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND)));
+    CompletionException exception = assertThrows(CompletionException.class,
+            () -> carService.addDetailAndAwaitPayment(detailAddEvent).join());
+    assertInstanceOf(AccountNotFoundException.class, exception.getCause());
+  }
+
+  private DetailPaymentEvent createDetailPaymentEvent(DetailPaymentEvent.Status status) {
+    return DetailPaymentEvent.builder()
+            .serialNumber(TestConstants.SERIAL_NUMBER)
+            .licensePlate(TestConstants.LICENSE_PLATE_1)
+            .driverId(TestConstants.ID)
+            .status(status)
+            .build();
+  }
+
+  private DetailAddEvent createDetailAddEvent() {
+    Car car = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1);
+    car.setDriverId(TestConstants.ID);
+    when(carRepository.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1)).thenReturn(Optional.of(car));
+    when(detailService.findDetailBySerialNumber(TestConstants.SERIAL_NUMBER)).thenReturn(
+            Optional.of(new DetailGetResponseDto(TestConstants.SERIAL_NUMBER, TestConstants.PRICE)));
+    return DetailAddEvent.builder()
+            .serialNumber(TestConstants.SERIAL_NUMBER)
+            .licensePlate(TestConstants.LICENSE_PLATE_1)
+            .currency(TestConstants.CURRENCY)
+            .build();
+  }
+
   private Car createCar(String vin, String licensePlate) {
     Car car = new Car();
     car.setVin(vin);
@@ -141,6 +404,25 @@ class CarServiceTest {
     assertEquals(matchingCars.size(), result.getContent().size());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void searchCars_ReturnsCarsMatchingAllFilters() {
+    List<Car> matchingCars = new ArrayList<>();
+    matchingCars.add(createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER));
+    Pageable pageable = PageRequest.of(TestConstants.PAGE, TestConstants.SIZE, Sort.by(TestConstants.SORT_BY_VIN));
+    Page<Car> matchingCarsPage = new PageImpl<>(matchingCars, pageable, matchingCars.size());
+    when(carRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(matchingCarsPage);
+    CarSearchRequestDto searchRequest = CarSearchRequestDto.builder()
+            .manufacturer(TestConstants.MANUFACTURER)
+            .yearFrom(TestConstants.YEAR)
+            .serialNumber(TestConstants.SERIAL_NUMBER)
+            .build();
+    Page<CarGetResponseDto> result = carService.searchCars(searchRequest, TestConstants.PAGE, TestConstants.SIZE, TestConstants.SORT_BY_VIN, false);
+    assertEquals(matchingCars.size(), result.getTotalElements());
+    assertEquals(TestConstants.VIN_1, result.getContent().get(0).getVin());
+    verify(carRepository).findAll(any(Specification.class), any(Pageable.class));
+  }
+
   private Car createCar1(String vin, String licensePlate, String manufacturer) {
     Car car = new Car();
     car.setVin(vin);
@@ -167,15 +449,43 @@ class CarServiceTest {
   }
 
   @Test
-  void deleteCar_DeletesCar_WhenCarExists() {
+  void findCarByLicensePlate_ReadsDatabaseOnce_WhenCarIsRequestedRepeatedly() {
+    Car car = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER);
+    when(carRepository.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1)).thenReturn(Optional.of(car));
+    carService.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1);
+    Optional<CarGetResponseDto> result = carService.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1);
+    assertEquals(car.getVin(), result.get().getVin());
+    verify(carRepository, times(1)).findCarByLicensePlate(TestConstants.LICENSE_PLATE_1);
+  }
+
+  @Test
+  void updateCar_EvictsCachedCar() {
+    Car car = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER);
+    when(carRepository.findByVin(TestConstants.VIN_1)).thenReturn(Optional.of(car));
+    when(carRepository.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1)).thenReturn(Optional.of(car));
     when(carRepository.existsByVin(TestConstants.VIN_1)).thenReturn(true);
+    when(carRepository.save(any(Car.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    carService.findCarByVin(TestConstants.VIN_1, false);
+    carService.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1);
+    carService.updateCar(TestConstants.VIN_1, createUpdatedCar(null, null, TestConstants.MODEL, 2022));
+    Optional<CarGetResponseDto> result = carService.findCarByVin(TestConstants.VIN_1, false);
+    carService.findCarByLicensePlate(TestConstants.LICENSE_PLATE_1);
+    assertEquals(TestConstants.MODEL, result.get().getModel());
+    verify(carRepository, times(3)).findByVin(TestConstants.VIN_1);
+    verify(carRepository, times(2)).findCarByLicensePlate(TestConstants.LICENSE_PLATE_1);
+  }
+
+  @Test
+  void deleteCar_DeletesCar_WhenCarExists() {
+    Car car = createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER);
+    when(carRepository.findByVin(TestConstants.VIN_1)).thenReturn(Optional.of(car));
     carService.deleteCar(TestConstants.VIN_1);
     verify(carRepository, times(1)).deleteByVin(TestConstants.VIN_1);
   }
 
   @Test
   void deleteCar_ThrowsCarNotFoundException_WhenCarDoesNotExist() {
-    when(carRepository.existsByVin(TestConstants.VIN_1)).thenReturn(false);
+    when(carRepository.findByVin(TestConstants.VIN_1)).thenReturn(Optional.empty());
     assertThrows(CarNotFoundException.class, () -> carService.deleteCar(TestConstants.VIN_1));
   }
 
@@ -200,6 +510,53 @@ class CarServiceTest {
     assertThrows(CarNotFoundException.class, () -> carService.updateCar(TestConstants.VIN_1, updatedCar));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void scrollCars_ReturnsSliceWithCursorOfLastRow() {
+    List<Car> cars = new ArrayList<>();
+    cars.add(createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER));
+    cars.add(createCar(TestConstants.VIN_2, TestConstants.LICENSE_PLATE_2, TestConstants.MANUFACTURER));
+    Window<Car> carWindow = Window.from(cars,
+            index -> ScrollPosition.forward(Map.of(TestConstants.SORT_BY_VIN, cars.get(index).getVin())),
+            true);
+    when(carRepository.findBy(any(Specification.class), any())).thenReturn(carWindow);
+    CursorPageDto<CarGetResponseDto> result = carService.scrollCars("", 2, TestConstants.SORT_BY_VIN, false);
+    assertEquals(cars.size(), result.getSize());
+    assertTrue(result.isHasNext());
+    assertEquals(ScrollPosition.forward(Map.of(TestConstants.SORT_BY_VIN, TestConstants.VIN_2)),
+            cursorCodec.decode(result.getNextCursor(), Car.class, Sort.by(TestConstants.SORT_BY_VIN)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void scrollSearchCars_ReturnsLastSliceWithoutCursor() {
+    List<Car> cars = new ArrayList<>();
+    cars.add(createCar(TestConstants.VIN_1, TestConstants.LICENSE_PLATE_1, TestConstants.MANUFACTURER));
+    Window<Car> carWindow = Window.from(cars,
+            index -> ScrollPosition.forward(Map.of(TestConstants.SORT_BY_VIN, cars.get(index).getVin())),
+            false);
+    when(carRepository.findBy(any(Specification.class), any())).thenReturn(carWindow);
+    String cursor = cursorCodec.encode(ScrollPosition.forward(Map.of(TestConstants.SORT_BY_VIN, TestConstants.VIN_1)));
+    CursorPageDto<CarGetResponseDto> result = carService.scrollSearchCars(
+            CarSearchRequestDto.builder().manufacturer(TestConstants.MANUFACTURER).build(), cursor, TestConstants.SIZE, TestConstants.SORT_BY_VIN, false);
+    assertEquals(TestConstants.VIN_1, result.getContent().get(0).getVin());
+    assertFalse(result.isHasNext());
+    assertNull(result.getNextCursor());
+  }
+
+  @Test
+  void scrollCars_ThrowsInvalidCursorException_WhenCursorIsMalformed() {
+    assertThrows(InvalidCursorException.class,
+            () -> carService.scrollCars("not-a-cursor", TestConstants.SIZE, TestConstants.SORT_BY_VIN, false));
+  }
+
+  @Test
+  void scrollCars_ThrowsInvalidSortException_WhenSortPropertyIsNullable() {
+    assertThrows(InvalidSortException.class,
+            () -> carService.scrollCars("", TestConstants.SIZE, TestConstants.SORT_BY_MANUFACTURER, false));
+    verify(carRepository, never()).findBy(any(Specification.class), any());
+  }
+
   private Car createCar(String vin, String licensePlate, String manufacturer) {
     Car car = new Car();
     car.setVin(vin);
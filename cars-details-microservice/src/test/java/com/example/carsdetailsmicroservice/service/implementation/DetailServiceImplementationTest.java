@@ -1,53 +1,138 @@
 package com.example.carsdetailsmicroservice.service.implementation;
 
+import com.example.carsdetailsmicroservice.config.CacheConfig;
 import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
 import com.example.carsdetailsmicroservice.dto.detail.update.DetailUpdateRequestDto;
+import com.example.carsdetailsmicroservice.dto.page.CursorPageDto;
 import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.exceptions.cursor.InvalidSortException;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailAlreadyExistException;
 import com.example.carsdetailsmicroservice.exceptions.detail.DetailNotFoundException;
+import com.example.carsdetailsmicroservice.repository.CarRepository;
 import com.example.carsdetailsmicroservice.repository.DetailRepository;
 import com.example.carsdetailsmicroservice.service.DetailService;
+import com.example.carsdetailsmicroservice.service.utils.CursorCodec;
+import com.example.carsdetailsmicroservice.service.utils.UniqueKeyFilters;
 import com.example.carsdetailsmicroservice.utils.TestConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.unit.DataSize;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.eq;
 
 class DetailServiceImplementationTest {
   @Mock
   private DetailRepository detailRepository;
   @Mock
+  private CarRepository carRepository;
+  @Mock
   private DetailService detailService;
+  private UniqueKeyFilters uniqueKeyFilters;
+  private final CursorCodec cursorCodec = new CursorCodec(new ObjectMapper());
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
-    detailService = new DetailServiceImplementation(detailRepository);
+    uniqueKeyFilters = new UniqueKeyFilters(carRepository, detailRepository,
+            new SimpleMeterRegistry(), DataSize.ofKilobytes(64), 0.01);
+    detailService = new DetailServiceImplementation(detailRepository, cursorCodec, uniqueKeyFilters,
+            new CaffeineCacheManager(CacheConfig.DETAILS_BY_SERIAL_NUMBER));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void scrollDetails_ReturnsSliceWithCursorOfLastRow() {
+    List<Detail> details = new ArrayList<>();
+    details.add(createDetail(TestConstants.SERIAL_NUMBER, BigDecimal.valueOf(100.00)));
+    details.get(0).setId(TestConstants.ID);
+    Window<Detail> detailWindow = Window.from(details,
+            index -> ScrollPosition.forward(Map.of(TestConstants.SORT_BY_ID, details.get(index).getId())),
+            true);
+    when(detailRepository.findBy(any(Specification.class), any())).thenReturn(detailWindow);
+    CursorPageDto<DetailGetResponseDto> result = detailService.scrollDetails("", 1, TestConstants.SORT_BY_ID);
+    assertEquals(TestConstants.SERIAL_NUMBER, result.getContent().get(0).getSerialNumber());
+    assertEquals(ScrollPosition.forward(Map.of(TestConstants.SORT_BY_ID, TestConstants.ID)),
+            cursorCodec.decode(result.getNextCursor(), Detail.class, Sort.by(TestConstants.SORT_BY_ID)));
+  }
+
+  @Test
+  void scrollDetails_ThrowsInvalidSortException_WhenSortPropertyIsUnknown() {
+    assertThrows(InvalidSortException.class,
+            () -> detailService.scrollDetails("", TestConstants.SIZE, "weight"));
   }
 
   @Test
   void createDetail_CreatesDetail_WhenDetailDoesNotExist() {
     Detail detail = createDetail(TestConstants.SERIAL_NUMBER, BigDecimal.valueOf(100.00));
     when(detailRepository.existsBySerialNumber(detail.getSerialNumber())).thenReturn(false);
-    when(detailRepository.save(any(Detail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(detailRepository.saveAndFlush(any(Detail.class))).thenAnswer(invocation -> invocation.getArgument(0));
     detailService.createDetail(detail);
-    verify(detailRepository, times(1)).save(detail);
+    verify(detailRepository, times(1)).saveAndFlush(detail);
+  }
+
+  @Test
+  void createDetail_SkipsExistenceQuery_WhenFilterRulesOutSerialNumber() {
+    Detail detail = createDetail(TestConstants.SERIAL_NUMBER, BigDecimal.valueOf(100.00));
+    when(carRepository.streamAllVins()).thenReturn(Stream.empty());
+    when(carRepository.streamAllLicensePlates()).thenReturn(Stream.empty());
+    when(detailRepository.streamAllSerialNumbers()).thenReturn(Stream.of(TestConstants.SERIAL_NUMBER_2));
+    uniqueKeyFilters.load();
+    detailService.createDetail(detail);
+    verify(detailRepository, never()).existsBySerialNumber(any());
+    verify(detailRepository, times(1)).saveAndFlush(detail);
+  }
+
+  @Test
+  void createDetail_ChecksDatabase_WhenRebuildPicksUpSerialNumberAddedElsewhere() {
+    Detail detail = createDetail(TestConstants.SERIAL_NUMBER, BigDecimal.valueOf(100.00));
+    when(carRepository.streamAllVins()).thenReturn(Stream.empty(), Stream.empty());
+    when(carRepository.streamAllLicensePlates()).thenReturn(Stream.empty(), Stream.empty());
+    when(detailRepository.streamAllSerialNumbers())
+            .thenReturn(Stream.empty(), Stream.of(TestConstants.SERIAL_NUMBER));
+    uniqueKeyFilters.load();
+    assertFalse(uniqueKeyFilters.serialNumbers().mightContain(TestConstants.SERIAL_NUMBER));
+    uniqueKeyFilters.load();
+    when(detailRepository.existsBySerialNumber(TestConstants.SERIAL_NUMBER)).thenReturn(true);
+    assertThrows(DetailAlreadyExistException.class, () -> detailService.createDetail(detail));
+  }
+
+  @Test
+  void createDetail_ThrowsDetailAlreadyExistException_WhenFilterMissedSerialNumberTakenElsewhere() {
+    Detail detail = createDetail(TestConstants.SERIAL_NUMBER, BigDecimal.valueOf(100.00));
+    when(carRepository.streamAllVins()).thenReturn(Stream.empty());
+    when(carRepository.streamAllLicensePlates()).thenReturn(Stream.empty());
+    when(detailRepository.streamAllSerialNumbers()).thenReturn(Stream.empty());
+    uniqueKeyFilters.load();
+    when(detailRepository.saveAndFlush(detail)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+    assertThrows(DetailAlreadyExistException.class, () -> detailService.createDetail(detail));
+    verify(detailRepository, never()).existsBySerialNumber(any());
   }
 
   @Test
@@ -76,6 +161,20 @@ class DetailServiceImplementationTest {
     assertEquals(detail.getPrice(), result.get().getPrice());
   }
 
+  @Test
+  void findDetailBySerialNumber_ReadsDatabaseAgain_AfterDetailIsChanged() {
+    Detail detail = createDetail(TestConstants.SERIAL_NUMBER, BigDecimal.valueOf(100.00));
+    when(detailRepository.findBySerialNumber(TestConstants.SERIAL_NUMBER)).thenReturn(Optional.of(detail));
+    when(detailRepository.existsBySerialNumber(TestConstants.SERIAL_NUMBER)).thenReturn(true);
+    when(detailRepository.save(any(Detail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    detailService.findDetailBySerialNumber(TestConstants.SERIAL_NUMBER);
+    detailService.findDetailBySerialNumber(TestConstants.SERIAL_NUMBER);
+    detailService.changeDetail(TestConstants.SERIAL_NUMBER, createUpdatedDetail(null, BigDecimal.valueOf(200.00)));
+    Optional<DetailGetResponseDto> result = detailService.findDetailBySerialNumber(TestConstants.SERIAL_NUMBER);
+    assertEquals(BigDecimal.valueOf(200.00), result.get().getPrice());
+    verify(detailRepository, times(3)).findBySerialNumber(TestConstants.SERIAL_NUMBER);
+  }
+
   @Test
   void findDetailBySerialNumber_ThrowsDetailNotFoundException_WhenDetailDoesNotExist() {
     when(detailRepository.findBySerialNumber(TestConstants.SERIAL_NUMBER)).thenReturn(Optional.empty());
@@ -0,0 +1,97 @@
+package com.example.carsdetailsmicroservice.service.implementation;
+
+import com.example.carsdetailsmicroservice.dto.car.get.CarGetResponseDto;
+import com.example.carsdetailsmicroservice.dto.detail.get.DetailGetResponseDto;
+import com.example.carsdetailsmicroservice.entity.Car;
+import com.example.carsdetailsmicroservice.entity.Detail;
+import com.example.carsdetailsmicroservice.service.SearchIndexService;
+import com.example.carsdetailsmicroservice.utils.TestConstants;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.mapping.SearchMapping;
+import org.hibernate.search.mapper.orm.massindexing.MassIndexer;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchIndexServiceImplementationTest {
+  @Mock
+  private EntityManager entityManager;
+  @Mock
+  private EntityManagerFactory entityManagerFactory;
+  private SearchIndexService searchIndexService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    searchIndexService = new SearchIndexServiceImplementation(entityManager);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void searchCars_ReturnsHitsPageWithTotalHitCount() {
+    Car car = new Car();
+    car.setVin(TestConstants.VIN_1);
+    car.setManufacturer(TestConstants.MANUFACTURER);
+    SearchSession searchSession = mock(SearchSession.class, RETURNS_DEEP_STUBS);
+    SearchResult<Car> searchResult = mock(SearchResult.class, RETURNS_DEEP_STUBS);
+    when(searchResult.hits()).thenReturn(List.of(car));
+    when(searchResult.total().hitCount()).thenReturn(11L);
+    when(searchSession.search(Car.class).where(any(Function.class))
+            .fetch(TestConstants.SIZE, TestConstants.SIZE)).thenReturn(searchResult);
+    try (MockedStatic<Search> search = mockStatic(Search.class)) {
+      search.when(() -> Search.session(entityManager)).thenReturn(searchSession);
+      Page<CarGetResponseDto> result = searchIndexService.searchCars(TestConstants.MANUFACTURER, 1, TestConstants.SIZE);
+      assertEquals(11L, result.getTotalElements());
+      assertEquals(TestConstants.VIN_1, result.getContent().get(0).getVin());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void searchDetails_ReturnsHitsPageWithTotalHitCount() {
+    Detail detail = new Detail(TestConstants.ID, TestConstants.SERIAL_NUMBER, BigDecimal.TEN);
+    SearchSession searchSession = mock(SearchSession.class, RETURNS_DEEP_STUBS);
+    SearchResult<Detail> searchResult = mock(SearchResult.class, RETURNS_DEEP_STUBS);
+    when(searchResult.hits()).thenReturn(List.of(detail));
+    when(searchResult.total().hitCount()).thenReturn(1L);
+    when(searchSession.search(Detail.class).where(any(Function.class))
+            .fetch(0, TestConstants.SIZE)).thenReturn(searchResult);
+    try (MockedStatic<Search> search = mockStatic(Search.class)) {
+      search.when(() -> Search.session(entityManager)).thenReturn(searchSession);
+      Page<DetailGetResponseDto> result = searchIndexService.searchDetails(TestConstants.SERIAL_NUMBER, 0, TestConstants.SIZE);
+      assertEquals(1L, result.getTotalElements());
+      assertEquals(TestConstants.SERIAL_NUMBER, result.getContent().get(0).getSerialNumber());
+    }
+  }
+
+  @Test
+  void rebuildIndex_RunsMassIndexerForCarsAndDetails() throws InterruptedException {
+    SearchMapping searchMapping = mock(SearchMapping.class, RETURNS_DEEP_STUBS);
+    MassIndexer massIndexer = mock(MassIndexer.class);
+    when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+    when(searchMapping.scope(anyCollection()).massIndexer()).thenReturn(massIndexer);
+    try (MockedStatic<Search> search = mockStatic(Search.class)) {
+      search.when(() -> Search.mapping(entityManagerFactory)).thenReturn(searchMapping);
+      searchIndexService.rebuildIndex();
+      verify(massIndexer).startAndWait();
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.example.carsdetailsmicroservice.utils;
 
+import java.math.BigDecimal;
+
 public class TestConstants {
     public static final String SERIAL_NUMBER= "DETAIL1";
     public static final String SERIAL_NUMBER_2= "DETAIL2";
@@ -8,6 +10,7 @@ public class TestConstants {
     public static final String MODEL= "Mustang";
     public static final String SORT_BY_VIN = "vin";
     public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_MANUFACTURER = "manufacturer";
     public static final String VIN_1 = "VIN12341FCA";
     public static final String VIN_2 = "VIN1234ACSF";
     public static final String LICENSE_PLATE_1= "ABC123";
@@ -18,8 +21,15 @@ public class TestConstants {
     public static final String CAR_CREATED_MESSAGE = "Car created";
     public static final String CAR_UPDATED_MESSAGE = "Car updated";
     public static final String CAR_DELETED_MESSAGE = "Car deleted";
+    public static final String SEARCH_INDEX_REBUILT_MESSAGE = "Search index rebuilt";
+    public static final String DETAIL_PAID_MESSAGE = "Detail paid, installation queued";
+    public static final String EXPORT_LINE = "{\"vin\":\"VIN12341FCA\",\"details\":[]}";
     public static final Long ID = 1L;
     public static final Integer YEAR = 2021;
     public static final int PAGE = 0;
     public static final int SIZE = 10;
+    public static final String CURSOR = "eyJ2aW4iOiJWSU4xMjM0MUZDQSJ9";
+    public static final BigDecimal PRICE = new BigDecimal("20.00");
+    public static final String CURRENCY = "RED";
+    public static final String MESSAGE_SENT = "message sent";
 }
\ No newline at end of file
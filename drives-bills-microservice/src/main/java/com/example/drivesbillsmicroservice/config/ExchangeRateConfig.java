@@ -0,0 +1,33 @@
+package com.example.drivesbillsmicroservice.config;
+
+import com.example.drivesbillsmicroservice.rates.ExchangeRates;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuration of the exchange rates. The rates are read from currency.rates.file, and
+ * reloaded whenever it changes if currency.rates.watch is set; without a file the built-in
+ * rates are used.
+ */
+@Configuration
+public class ExchangeRateConfig {
+
+  @Value("${currency.rates.file:}")
+  private String file;
+
+  @Value("${currency.rates.watch:true}")
+  private boolean watch;
+
+  @Bean(destroyMethod = "close")
+  public ExchangeRates exchangeRates() {
+    ExchangeRates exchangeRates = new ExchangeRates(StringUtils.hasText(file) ? Path.of(file)
+            : null);
+    if (watch) {
+      exchangeRates.watch();
+    }
+    return exchangeRates;
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.drivesbillsmicroservice.config;
+
+import com.example.drivesbillsmicroservice.grpc.DeadlineInterceptor;
+import com.example.grpc.carsdetails.v1.CarLookupGrpc;
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the internal gRPC API.
+ * The server exposes every BindableService bean; the channel to cars-details applies the
+ * shared deadline policy to its calls.
+ */
+@Configuration
+public class GrpcConfig {
+
+  @Value("${grpc.server.port:9082}")
+  private int serverPort;
+
+  @Value("${grpc.client.deadline:200ms}")
+  private Duration deadline;
+
+  @Value("${grpc.client.cars-details.target:localhost:9081}")
+  private String carsDetailsTarget;
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  public Server grpcServer(List<BindableService> services) {
+    ServerBuilder<?> builder = ServerBuilder.forPort(serverPort);
+    services.forEach(builder::addService);
+    return builder.build();
+  }
+
+  @Bean(destroyMethod = "shutdownNow")
+  public ManagedChannel carsDetailsChannel() {
+    return ManagedChannelBuilder.forTarget(carsDetailsTarget)
+            .usePlaintext()
+            .intercept(new DeadlineInterceptor(deadline))
+            .build();
+  }
+
+  @Bean
+  public CarLookupGrpc.CarLookupBlockingStub carLookupStub(
+          ManagedChannel carsDetailsChannel) {
+    return CarLookupGrpc.newBlockingStub(carsDetailsChannel);
+  }
+}
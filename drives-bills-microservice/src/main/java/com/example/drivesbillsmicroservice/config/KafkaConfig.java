@@ -1,24 +1,79 @@
 package com.example.drivesbillsmicroservice.config;
 
+import com.example.drivesbillsmicroservice.kafka.ProducerProfile;
+import com.example.drivesbillsmicroservice.kafka.codec.EventDeserializer;
+import com.example.drivesbillsmicroservice.kafka.codec.EventSerializer;
+import com.example.drivesbillsmicroservice.kafka.parallel.KeyOrderedExecutor;
+import com.example.drivesbillsmicroservice.kafka.retry.FailedRecordRouter;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
 
 
 /**
  * Configuration class for Kafka related beans.
  * This class provides the necessary configurations for Kafka producers, consumers,
  * and other Kafka-related components.
+ * Event values are written in the binary format of the EventCodec.
+ * Listeners do not retry failed records in place, the FailedRecordRouter parks them on
+ * retry and dead-letter topics, which includes the records whose value cannot be decoded.
+ * With kafka.transactions.enabled the producer is transactional: the transactional and retry
+ * listeners consume, produce and commit their offsets in Kafka transactions, while sends
+ * made outside of a listener are not transactional. Consumers read committed records only.
  */
 @Configuration
 public class KafkaConfig {
+  public static final String PARALLEL_LISTENER_CONTAINER_FACTORY =
+          "parallelKafkaListenerContainerFactory";
+  public static final String RETRY_LISTENER_CONTAINER_FACTORY =
+          "retryKafkaListenerContainerFactory";
+  public static final String TRANSACTIONAL_LISTENER_CONTAINER_FACTORY =
+          "transactionalKafkaListenerContainerFactory";
+  /**
+   * Interval at which a batch whose Kafka transaction was aborted is delivered again. Such a
+   * batch is never skipped, its debits may already be committed.
+   */
+  private static final long ROLLBACK_BACK_OFF_MS = 1000;
+
+  @Value("${kafka.consumer.parallel.workers:0}")
+  private int parallelWorkers;
+
+  @Value("${kafka.consumer.parallel.lane-capacity:256}")
+  private int parallelLaneCapacity;
+
+  @Value("${kafka.producer.profile:BALANCED}")
+  private ProducerProfile producerProfile;
+
+  @Value("${kafka.transactions.enabled:false}")
+  private boolean transactionsEnabled;
+
+  @Value("${kafka.transactions.max-batch-size:500}")
+  private int transactionMaxBatchSize;
 
   private final KafkaProperties kafkaProperties;
 
@@ -27,20 +82,158 @@ public class KafkaConfig {
     this.kafkaProperties = kafkaProperties;
   }
 
+  /**
+   * Producer factory of all templates. When transactions are enabled, the transactional ids
+   * of the instance are unique, so that instances do not fence each other.
+   */
+  @Bean
+  public ProducerFactory<String, Object> producerFactory() {
+    Map<String, Object> properties = new HashMap<>(producerProfile.properties());
+    properties.putAll(kafkaProperties.buildProducerProperties());
+    DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(
+            properties, new StringSerializer(), new EventSerializer());
+    if (transactionsEnabled) {
+      factory.setTransactionIdPrefix(
+              kafkaProperties.getConsumer().getGroupId() + "-tx-" + UUID.randomUUID() + "-");
+    }
+    return factory;
+  }
+
   @Bean
-  public ProducerFactory<String, String> producerFactory() {
-    Map<String, Object> properties = kafkaProperties.buildProducerProperties();
-    return new DefaultKafkaProducerFactory<>(properties);
+  public ConsumerFactory<String, Object> consumerFactory() {
+    Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
+    return new DefaultKafkaConsumerFactory<>(properties, new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(new EventDeserializer()));
+  }
+
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    return factory;
+  }
+
+  /**
+   * Container factory of the listeners that hand their records to the KeyOrderedExecutor.
+   * Records are acknowledged by the workers, possibly out of order; the container commits
+   * the offsets of a partition up to the lowest record that is not acknowledged yet.
+   */
+  @Bean(PARALLEL_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<String, Object> parallelKafkaListenerContainerFactory(
+          FailedRecordRouter failedRecordRouter) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    factory.getContainerProperties().setAsyncAcks(true);
+    factory.setCommonErrorHandler(parkingErrorHandler(failedRecordRouter));
+    return factory;
   }
 
+  /**
+   * Container factory of the listeners of the retry topics. A record that is not due yet is
+   * negatively acknowledged, which pauses the consumer until it is. When transactions are
+   * enabled, each record is retried in its own Kafka transaction.
+   */
+  @Bean(RETRY_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(
+          FailedRecordRouter failedRecordRouter) {
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(consumerFactory());
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+    if (transactionsEnabled) {
+      factory.getContainerProperties().setTransactionManager(kafkaTransactionManager());
+      factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(failedRecordRouter,
+              new FixedBackOff(0L, 0L), kafkaTemplate(), true));
+    } else {
+      factory.setCommonErrorHandler(parkingErrorHandler(failedRecordRouter));
+    }
+    return factory;
+  }
+
+  /**
+   * Container factory of the listeners that handle each poll as a batch in one Kafka
+   * transaction, up to kafka.transactions.max-batch-size records. The offsets of the batch
+   * are committed with the records it produced, or not at all.
+   */
+  @Bean(TRANSACTIONAL_LISTENER_CONTAINER_FACTORY)
+  @ConditionalOnProperty(name = "kafka.transactions.enabled", havingValue = "true")
+  public ConcurrentKafkaListenerContainerFactory<String, Object> transactionalKafkaListenerContainerFactory() {
+    Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
+    properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, transactionMaxBatchSize);
+    ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(properties,
+            new StringDeserializer(), new ErrorHandlingDeserializer<>(new EventDeserializer())));
+    factory.setBatchListener(true);
+    factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+    factory.getContainerProperties().setTransactionManager(kafkaTransactionManager());
+    factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(
+            new FixedBackOff(ROLLBACK_BACK_OFF_MS, FixedBackOff.UNLIMITED_ATTEMPTS)));
+    return factory;
+  }
+
+  /**
+   * Consumer factory of the dead-letter replays. Values are read as raw bytes so that they
+   * are sent back unchanged, and offsets are committed by the replay itself.
+   */
   @Bean
-  public ConsumerFactory<String, String> consumerFactory() {
+  public ConsumerFactory<String, byte[]> deadLetterConsumerFactory() {
     Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
-    return new DefaultKafkaConsumerFactory<>(properties);
+    properties.put(ConsumerConfig.GROUP_ID_CONFIG,
+            kafkaProperties.getConsumer().getGroupId() + "-dead-letter-replay");
+    properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    return new DefaultKafkaConsumerFactory<>(properties,
+            new StringDeserializer(), new ByteArrayDeserializer());
+  }
+
+  @Bean
+  public KafkaAdmin.NewTopics parkingTopics(FailedRecordRouter failedRecordRouter) {
+    return new KafkaAdmin.NewTopics(failedRecordRouter.parkingTopics().stream()
+            .map(topic -> TopicBuilder.name(topic).build())
+            .toArray(NewTopic[]::new));
+  }
+
+  /**
+   * Worker lanes of the parallel listeners, one per core unless
+   * kafka.consumer.parallel.workers is set.
+   */
+  @Bean(destroyMethod = "close")
+  public KeyOrderedExecutor keyOrderedExecutor() {
+    int workers = parallelWorkers > 0 ? parallelWorkers : Runtime.getRuntime().availableProcessors();
+    return new KeyOrderedExecutor("kafka-worker", workers, parallelLaneCapacity);
   }
 
+  /**
+   * Template of all sends. Inside a listener transaction it sends in that transaction,
+   * elsewhere it sends without one.
+   */
   @Bean
-  public KafkaTemplate<String, String> kafkaTemplate() {
-    return new KafkaTemplate<>(producerFactory());
+  public KafkaTemplate<String, Object> kafkaTemplate() {
+    KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(producerFactory());
+    kafkaTemplate.setAllowNonTransactional(true);
+    return kafkaTemplate;
+  }
+
+  /**
+   * Parks the records that fail outside of the listener code, such as the records that
+   * cannot be decoded, without retrying them in place. The parked record is acknowledged
+   * instead of seeking back to it, which asynchronous acks wait for.
+   */
+  private DefaultErrorHandler parkingErrorHandler(FailedRecordRouter failedRecordRouter) {
+    DefaultErrorHandler errorHandler =
+            new DefaultErrorHandler(failedRecordRouter, new FixedBackOff(0L, 0L));
+    errorHandler.setSeekAfterError(false);
+    return errorHandler;
+  }
+
+  /**
+   * Not a bean, it would replace the JPA transaction manager of the repositories.
+   */
+  private KafkaTransactionManager<String, Object> kafkaTransactionManager() {
+    return new KafkaTransactionManager<>(producerFactory());
   }
 }
\ No newline at end of file
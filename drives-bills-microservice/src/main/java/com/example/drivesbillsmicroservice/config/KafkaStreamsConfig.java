@@ -0,0 +1,95 @@
+package com.example.drivesbillsmicroservice.config;
+
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalanceSerde;
+import com.example.drivesbillsmicroservice.kafka.streams.PaymentTopology;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import java.util.Map;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.KafkaStreamsInfrastructureCustomizer;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+/**
+ * Configuration of the Kafka Streams engine of the purchase-and-install flow, enabled with
+ * kafka.streams.enabled, which replaces the listeners of the "topic.car" topic.
+ * The streams client is configured from spring.kafka.streams; unless set otherwise it
+ * processes exactly once and skips the records it cannot decode. It is started once the
+ * topics of the topology are created.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.streams.enabled", havingValue = "true")
+public class KafkaStreamsConfig {
+  public static final String BALANCE_LISTENER_CONTAINER_FACTORY =
+          "balanceKafkaListenerContainerFactory";
+
+  @Value("${kafka.transactions.enabled:false}")
+  private boolean transactionsEnabled;
+
+  private final KafkaProperties kafkaProperties;
+
+  @Autowired
+  public KafkaStreamsConfig(KafkaProperties kafkaProperties) {
+    this.kafkaProperties = kafkaProperties;
+  }
+
+  @Bean
+  public StreamsBuilderFactoryBean paymentStreams(AccountRepository accountRepository) {
+    if (transactionsEnabled) {
+      throw new IllegalStateException(
+              "kafka.streams.enabled and kafka.transactions.enabled cannot be set together");
+    }
+    Map<String, Object> properties = kafkaProperties.buildStreamsProperties();
+    properties.putIfAbsent(StreamsConfig.APPLICATION_ID_CONFIG,
+            kafkaProperties.getConsumer().getGroupId() + "-payments");
+    properties.putIfAbsent(StreamsConfig.PROCESSING_GUARANTEE_CONFIG,
+            StreamsConfig.EXACTLY_ONCE_V2);
+    properties.putIfAbsent(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+            LogAndContinueExceptionHandler.class);
+    StreamsBuilderFactoryBean factoryBean =
+            new StreamsBuilderFactoryBean(new KafkaStreamsConfiguration(properties));
+    factoryBean.setInfrastructureCustomizer(new KafkaStreamsInfrastructureCustomizer() {
+      @Override
+      public void configureTopology(Topology topology) {
+        PaymentTopology.configure(topology,
+                accountId -> accountRepository.findById(accountId).map(AccountBalance::of));
+      }
+    });
+    return factoryBean;
+  }
+
+  /**
+   * Container factory of the AccountBalanceMaterializer, which handles each poll as a batch.
+   */
+  @Bean(BALANCE_LISTENER_CONTAINER_FACTORY)
+  public ConcurrentKafkaListenerContainerFactory<String, AccountBalance> balanceKafkaListenerContainerFactory() {
+    ConcurrentKafkaListenerContainerFactory<String, AccountBalance> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+    factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+            kafkaProperties.buildConsumerProperties(), new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(new AccountBalanceSerde().deserializer())));
+    factory.setBatchListener(true);
+    return factory;
+  }
+
+  @Bean
+  public KafkaAdmin.NewTopics paymentTopologyTopics() {
+    return new KafkaAdmin.NewTopics(
+            TopicBuilder.name(PaymentTopology.ADJUSTMENT_TOPIC).build(),
+            TopicBuilder.name(PaymentTopology.BALANCE_TOPIC).compact().build());
+  }
+}
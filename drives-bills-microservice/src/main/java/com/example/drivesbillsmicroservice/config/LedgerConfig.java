@@ -0,0 +1,58 @@
+package com.example.drivesbillsmicroservice.config;
+
+import com.example.drivesbillsmicroservice.ledger.AccountLedgerStore;
+import com.example.drivesbillsmicroservice.ledger.LedgerEngine;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of the in-memory ledger, enabled with ledger.enabled, which then answers
+ * the AccountService. The ledger keeps its journals in ledger.directory and has to be the
+ * only writer of the balances, so a single instance of the service may run with it and the
+ * Kafka Streams engine cannot be enabled as well.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.enabled", havingValue = "true")
+public class LedgerConfig {
+
+  @Value("${kafka.streams.enabled:false}")
+  private boolean streamsEnabled;
+
+  @Value("${ledger.directory:./ledger/drives-bills}")
+  private Path directory;
+
+  @Value("${ledger.shards:4}")
+  private int shards;
+
+  @Value("${ledger.ring-size:1024}")
+  private int ringSize;
+
+  @Value("${ledger.flush-interval:200ms}")
+  private Duration flushInterval;
+
+  @Value("${ledger.journal.segment-size:64MB}")
+  private DataSize segmentSize;
+
+  @Value("${ledger.journal.fsync:true}")
+  private boolean fsync;
+
+  @Bean(destroyMethod = "close")
+  public LedgerEngine ledgerEngine(AccountRepository accountRepository,
+                                   PlatformTransactionManager transactionManager) {
+    if (streamsEnabled) {
+      throw new IllegalStateException(
+              "ledger.enabled and kafka.streams.enabled cannot be set together");
+    }
+    return new LedgerEngine(directory, shards, ringSize, flushInterval, segmentSize.toBytes(),
+            fsync, new AccountLedgerStore(accountRepository,
+                    new TransactionTemplate(transactionManager)));
+  }
+}
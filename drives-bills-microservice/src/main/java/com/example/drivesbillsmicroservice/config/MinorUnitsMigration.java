@@ -0,0 +1,56 @@
+package com.example.drivesbillsmicroservice.config;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the money columns of a PostgreSQL database from double precision dollars to bigint
+ * minor units, on start. Hibernate only adds missing columns, so the columns created before
+ * amounts were kept in minor units are converted here; a column that is already a bigint is
+ * left alone, which makes the migration safe to run on every start.
+ */
+@Slf4j
+@Component
+public class MinorUnitsMigration {
+  private static final String POSTGRESQL = "PostgreSQL";
+  private static final List<String> TABLES =
+          List.of("accounts", "account_journal", "account_snapshots");
+  private static final List<String> COLUMNS =
+          List.of("red_dollar", "green_dollar", "blue_dollar", "amount");
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public MinorUnitsMigration(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Converts the double precision money columns, rounding each amount to cents.
+   */
+  @PostConstruct
+  public void migrate() {
+    String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+    if (!POSTGRESQL.equals(database)) {
+      return;
+    }
+    List<String[]> columns = jdbcTemplate.query("SELECT table_name, column_name "
+                    + "FROM information_schema.columns WHERE table_schema = current_schema() "
+                    + "AND data_type = 'double precision' AND table_name = ANY (?) "
+                    + "AND column_name = ANY (?)",
+            (resultSet, row) -> new String[] {resultSet.getString(1), resultSet.getString(2)},
+            TABLES.toArray(String[]::new), COLUMNS.toArray(String[]::new));
+    for (String[] column : columns) {
+      log.info("Converting {}.{} to minor units", column[0], column[1]);
+      jdbcTemplate.execute(String.format(
+              "ALTER TABLE %1$s ALTER COLUMN %2$s TYPE BIGINT USING ROUND(%2$s * 100)",
+              column[0], column[1]));
+    }
+  }
+}
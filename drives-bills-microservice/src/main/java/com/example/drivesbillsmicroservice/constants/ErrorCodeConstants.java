@@ -10,4 +10,12 @@ public class ErrorCodeConstants {
   public static final String DRIVER_NOT_FOUND_401 = "401_DRIVER_NOT_FOUND";
   public static final String ACCOUNT_NOT_FOUND_401 = "401_ACCOUNT_NOT_FOUND";
   public static final String ACCOUNT_INSUFFICIENT_BALANCE_402 = "402_ACCOUNT_INSUFFICIENT_BALANCE";
+  public static final String INVALID_CURSOR_400 = "400_INVALID_CURSOR";
+  public static final String INVALID_SORT_400 = "400_INVALID_SORT";
+  public static final String MESSAGE_NOT_SENT_503 = "503_MESSAGE_NOT_SENT";
+  public static final String CAR_NOT_FOUND_404 = "404_CAR_NOT_FOUND";
+  public static final String TOPIC_NOT_REPLAYABLE_400 = "400_TOPIC_NOT_REPLAYABLE";
+  public static final String IDEMPOTENCY_KEY_IN_USE_409 = "409_IDEMPOTENCY_KEY_IN_USE";
+  public static final String IDEMPOTENCY_KEY_REUSED_422 = "422_IDEMPOTENCY_KEY_REUSED";
+  public static final String RATE_TABLE_INVALID_422 = "422_RATE_TABLE_INVALID";
 }
\ No newline at end of file
@@ -1,16 +1,28 @@
 package com.example.drivesbillsmicroservice.controller;
 
 import com.example.drivesbillsmicroservice.controller.utils.ControllerUtils;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalanceDto;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalancesRequestDto;
+import com.example.drivesbillsmicroservice.dto.account.statement.StatementEntryDto;
 import com.example.drivesbillsmicroservice.dto.message.MessageDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
 import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.info.Info;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.servers.Server;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,10 +30,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 
 @OpenAPIDefinition(
@@ -35,13 +52,25 @@ import java.math.BigDecimal;
 @RestController
 @RequestMapping("/accounts")
 public class AccountController {
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String RATE_VERSION_HEADER = "Rate-Version";
   private final AccountService accountService;
+  private final AccountJournalService accountJournalService;
+  private final IdempotencyService idempotencyService;
   private final ControllerUtils controllerUtils;
+  private final ObjectMapper objectMapper;
 
   @Autowired
-  public AccountController(AccountService accountService, ControllerUtils controllerUtils) {
+  public AccountController(AccountService accountService,
+                           AccountJournalService accountJournalService,
+                           IdempotencyService idempotencyService,
+                           ControllerUtils controllerUtils,
+                           ObjectMapper objectMapper) {
     this.accountService = accountService;
+    this.accountJournalService = accountJournalService;
+    this.idempotencyService = idempotencyService;
     this.controllerUtils = controllerUtils;
+    this.objectMapper = objectMapper;
   }
 
   @Operation(
@@ -63,14 +92,35 @@ public class AccountController {
                                   mediaType = MediaType.APPLICATION_JSON_VALUE,
                                   schema = @Schema(implementation = MessageDto.class)
                           )
+                  ),
+              @ApiResponse(
+                          responseCode = "409",
+                          description = "Request with the same idempotency key in progress",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "422",
+                          description = "Idempotency key used for a different request",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
                   )
           }
   )
   @PostMapping("/{accountId}/credit")
   public ResponseEntity<MessageDto> credit(@PathVariable Long accountId,
-                                           @RequestParam Double amount,
-                                           @RequestParam Currency currency) {
-    accountService.credit(accountId, amount, currency);
+                                           @RequestParam BigDecimal amount,
+                                           @RequestParam Currency currency,
+                                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER,
+                                                   required = false) String idempotencyKey) {
+    long minorUnits = Money.fromDecimal(amount);
+    executeOnce("credit/" + accountId, idempotencyKey,
+            accountId + "/" + minorUnits + "/" + currency,
+            () -> accountService.credit(accountId, minorUnits, currency));
     return controllerUtils.createResponseEntityOk("money.credit.account");
   }
 
@@ -101,20 +151,42 @@ public class AccountController {
                                   mediaType = MediaType.APPLICATION_JSON_VALUE,
                                   schema = @Schema(implementation = MessageDto.class)
                           )
+                  ),
+              @ApiResponse(
+                          responseCode = "409",
+                          description = "Request with the same idempotency key in progress",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "422",
+                          description = "Idempotency key used for a different request",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
                   )
           }
   )
   @PostMapping("/{accountId}/debit")
   public ResponseEntity<MessageDto> debit(@PathVariable Long accountId,
-                                          @RequestParam double amount,
-                                          @RequestParam Currency currency) {
-    accountService.debit(accountId, amount, currency);
+                                          @RequestParam BigDecimal amount,
+                                          @RequestParam Currency currency,
+                                          @RequestHeader(name = IDEMPOTENCY_KEY_HEADER,
+                                                  required = false) String idempotencyKey) {
+    long minorUnits = Money.fromDecimal(amount);
+    executeOnce("debit/" + accountId, idempotencyKey,
+            accountId + "/" + minorUnits + "/" + currency,
+            () -> accountService.debit(accountId, minorUnits, currency));
     return controllerUtils.createResponseEntityOk("money.debit.account");
   }
 
   @Operation(
           summary = "Endpoint for get current balance",
-          description = "This endpoint allows to get balance",
+          description = "This endpoint allows to get balance, the Rate-Version header holds "
+                  + "the version of the exchange rates it was converted with",
           responses = {
               @ApiResponse(
                           responseCode = "200",
@@ -137,8 +209,119 @@ public class AccountController {
   @GetMapping("/{accountId}/balance")
   public ResponseEntity<MessageDto> getBalance(@PathVariable Long accountId,
                                                @RequestParam Currency currency) {
-    BigDecimal balance = accountService.getBalance(accountId, currency);
+    ConvertedAmount balance = accountService.getBalance(accountId, currency);
     return ResponseEntity.status(HttpStatus.OK)
-            .body(new MessageDto(String.valueOf(balance)));
+            .header(RATE_VERSION_HEADER, String.valueOf(balance.getRateVersion()))
+            .body(new MessageDto(Money.format(balance.getAmount())));
+  }
+
+  @Operation(
+          summary = "Endpoint for get the balances of several accounts",
+          description = "This endpoint returns the balances of the accounts with the given ids "
+                  + "and whose drivers match the given filters, all accounts for an empty "
+                  + "request, ordered by account id. With a currency, each balance is converted "
+                  + "to it with the exchange rates of one version, otherwise the balance in "
+                  + "each currency is returned. The array is streamed as the balances are read",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Balances",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  array = @ArraySchema(schema = @Schema(
+                                          implementation = AccountBalanceDto.class))
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Too many account ids",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @PostMapping("/balances")
+  public ResponseEntity<StreamingResponseBody> getBalances(
+          @Valid @RequestBody AccountBalancesRequestDto request) {
+    StreamingResponseBody body = outputStream -> {
+      try (SequenceWriter writer = objectMapper.writerFor(AccountBalanceDto.class)
+              .writeValuesAsArray(outputStream)) {
+        accountService.streamBalances(request, balance -> write(writer, balance));
+      }
+    };
+    return ResponseEntity.status(HttpStatus.OK)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+  }
+
+  @Operation(
+          summary = "Endpoint for get the statement of an account",
+          description = "This endpoint returns the credits and debits of an account, the most "
+                  + "recent first, one slice per request. With a currency, the amounts are also "
+                  + "converted to it with the exchange rates of one version",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Statement slice",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = CursorPageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "400",
+                          description = "Invalid cursor",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "404",
+                          description = "Not found",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping("/{accountId}/statement")
+  public ResponseEntity<CursorPageDto<StatementEntryDto>> getStatement(
+          @PathVariable Long accountId,
+          @RequestParam(required = false) String cursor,
+          @RequestParam(defaultValue = "10") int size,
+          @RequestParam(required = false) Currency currency) {
+    CursorPageDto<StatementEntryDto> statement = accountJournalService.getStatement(accountId,
+            cursor, size, currency);
+    return ResponseEntity.status(HttpStatus.OK).body(statement);
+  }
+
+  /**
+   * Executes an operation once per idempotency key. A request repeated with the key of a
+   * completed request gets the same response without the operation being executed again,
+   * a request without a key is always executed. A key reused with other request parameters
+   * is rejected with 422.
+   */
+  private void executeOnce(String scope, String idempotencyKey, String request,
+                           Runnable operation) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      operation.run();
+      return;
+    }
+    idempotencyService.execute(scope, idempotencyKey, request, () -> {
+      operation.run();
+      return 0;
+    });
+  }
+
+  private static void write(SequenceWriter writer, AccountBalanceDto balance) {
+    try {
+      writer.write(balance);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
-}
\ No newline at end of file
+}
@@ -5,9 +5,9 @@ import com.example.drivesbillsmicroservice.dto.driver.create.DriverCreateRequest
 import com.example.drivesbillsmicroservice.dto.driver.get.DriverGetResponseDto;
 import com.example.drivesbillsmicroservice.dto.driver.update.DriverUpdateRequestDto;
 import com.example.drivesbillsmicroservice.dto.message.MessageDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.events.CarPurchaseEvent;
 import com.example.drivesbillsmicroservice.service.DriverService;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -166,6 +166,15 @@ public class DriverController {
     return ResponseEntity.ok(drivers);
   }
 
+  @GetMapping(params = "cursor")
+  public ResponseEntity<CursorPageDto<DriverGetResponseDto>> scrollDrivers(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+    CursorPageDto<DriverGetResponseDto> drivers = driverService.scrollDrivers(cursor, size, sortBy);
+    return ResponseEntity.ok(drivers);
+  }
+
   @GetMapping("/search")
   public ResponseEntity<Page<DriverGetResponseDto>> searchDrivers(
           @RequestParam(required = false) String firstName,
@@ -190,9 +199,22 @@ public class DriverController {
     return ResponseEntity.ok(drivers);
   }
 
+  @GetMapping(value = "/search", params = "cursor")
+  public ResponseEntity<CursorPageDto<DriverGetResponseDto>> scrollSearchDrivers(
+          @RequestParam(required = false) String firstName,
+          @RequestParam(required = false) String lastName,
+          @RequestParam(required = false) String passport,
+          @RequestParam(required = false) Integer experience,
+          @RequestParam String cursor,
+          @RequestParam(defaultValue = "10") int size,
+          @RequestParam(defaultValue = "id") String sortBy) {
+    CursorPageDto<DriverGetResponseDto> drivers = driverService.scrollSearchDrivers(firstName,
+            lastName, passport, experience, cursor, size, sortBy);
+    return ResponseEntity.ok(drivers);
+  }
+
   @PostMapping("/buy-car")
-  public String processCarPurchaseRequest(@RequestBody CarPurchaseEvent carPurchaseEvent)
-          throws JsonProcessingException {
+  public String processCarPurchaseRequest(@RequestBody CarPurchaseEvent carPurchaseEvent) {
     return driverService.sendCarPurchaseEvent(carPurchaseEvent);
   }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.drivesbillsmicroservice.controller;
+
+import com.example.drivesbillsmicroservice.dto.message.MessageDto;
+import com.example.drivesbillsmicroservice.dto.rate.ExchangeRatesDto;
+import com.example.drivesbillsmicroservice.rates.ExchangeRateTable;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/rates")
+public class ExchangeRateController {
+  private final CurrencyConversionService currencyConversionService;
+
+  @Autowired
+  public ExchangeRateController(CurrencyConversionService currencyConversionService) {
+    this.currencyConversionService = currencyConversionService;
+  }
+
+  @Operation(
+          summary = "Get the exchange rates",
+          description = "This endpoint returns the exchange rates in use and their version",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Exchange rates",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = ExchangeRatesDto.class)
+                          )
+                  )
+          }
+  )
+  @GetMapping
+  public ResponseEntity<ExchangeRatesDto> getRates() {
+    return ResponseEntity.ok(toDto(currencyConversionService.getRateTable()));
+  }
+
+  @Operation(
+          summary = "Reload the exchange rates",
+          description = "This endpoint reads the exchange rates file again and uses its rates "
+                  + "if their version is newer than the one in use",
+          responses = {
+              @ApiResponse(
+                          responseCode = "200",
+                          description = "Exchange rates in use after the reload",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = ExchangeRatesDto.class)
+                          )
+                  ),
+              @ApiResponse(
+                          responseCode = "422",
+                          description = "Exchange rates file unreadable or invalid",
+                          content = @Content(
+                                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                  schema = @Schema(implementation = MessageDto.class)
+                          )
+                  )
+          }
+  )
+  @PostMapping("/reload")
+  public ResponseEntity<ExchangeRatesDto> reload() {
+    log.info("Received request to reload the exchange rates");
+    return ResponseEntity.ok(toDto(currencyConversionService.reload()));
+  }
+
+  private ExchangeRatesDto toDto(ExchangeRateTable table) {
+    return new ExchangeRatesDto(table.getVersion(), table.getValues());
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.drivesbillsmicroservice.dto.account.balance;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data transfer object representing the balance of one account, either in each currency or
+ * converted to one currency.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountBalanceDto {
+  @Schema(description = "Id of the account", example = "1")
+  private Long accountId;
+  @Schema(description = "Id of the driver of the account", example = "1")
+  private Long driverId;
+  @Schema(description = "Red balance, absent with a currency", example = "12.50")
+  private BigDecimal redDollar;
+  @Schema(description = "Green balance, absent with a currency", example = "0.00")
+  private BigDecimal greenDollar;
+  @Schema(description = "Blue balance, absent with a currency", example = "6.00")
+  private BigDecimal blueDollar;
+  @Schema(description = "Currency of the converted balance", example = "GREEN")
+  private Currency currency;
+  @Schema(description = "Sum of the balances converted to the currency", example = "34.85")
+  private BigDecimal amount;
+  @Schema(description = "Version of the exchange rates of the converted balance", example = "3")
+  private Long rateVersion;
+}
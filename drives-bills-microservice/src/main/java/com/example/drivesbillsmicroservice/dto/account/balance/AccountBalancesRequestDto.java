@@ -0,0 +1,40 @@
+package com.example.drivesbillsmicroservice.dto.account.balance;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data transfer object representing the request for the balances of several accounts.
+ * The account ids and the driver filters are combined, an empty request selects every
+ * account.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AccountBalancesRequestDto {
+  @Schema(description = "Ids of the accounts, all accounts when empty", example = "[1, 2, 3]")
+  @Size(max = 10000, message = "At most 10000 account ids can be requested")
+  private List<Long> accountIds;
+  @Schema(description = "Part of the first name of the drivers", example = "Ivan")
+  private String firstName;
+  @Schema(description = "Part of the last name of the drivers", example = "Petrov")
+  private String lastName;
+  @Schema(description = "Part of the passport of the drivers", example = "AB12")
+  private String passport;
+  @Schema(description = "Experience of the drivers", example = "5")
+  private Integer experience;
+  @Schema(description = "Currency the balances are converted to, all three when absent",
+          example = "GREEN")
+  private Currency currency;
+}
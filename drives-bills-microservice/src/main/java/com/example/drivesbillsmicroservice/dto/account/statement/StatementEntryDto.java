@@ -0,0 +1,41 @@
+package com.example.drivesbillsmicroservice.dto.account.statement;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data transfer object representing one line of an account statement.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class StatementEntryDto {
+  @Schema(description = "Currency of the amount", example = "RED")
+  private Currency currency;
+  @Schema(description = "Credited amount, negative for a debit", example = "-12.50")
+  private BigDecimal amount;
+  @Schema(description = "Amount converted to the requested currency, absent without one",
+          example = "-31.25")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private BigDecimal convertedAmount;
+  @Schema(description = "Version of the exchange rates of the converted amount", example = "3")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long rateVersion;
+  @Schema(description = "Id of the event that caused the change, absent for API calls")
+  private UUID eventId;
+  @Schema(description = "Time of the change", example = "2026-10-18T09:30:00Z")
+  private Instant createdAt;
+}
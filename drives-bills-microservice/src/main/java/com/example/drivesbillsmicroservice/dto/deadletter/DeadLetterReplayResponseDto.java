@@ -0,0 +1,29 @@
+package com.example.drivesbillsmicroservice.dto.deadletter;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for the result of a dead-letter replay.
+ * This class represents the number of dead letters that were sent back to their topic.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class DeadLetterReplayResponseDto {
+  @Schema(description = "Topic the dead letters were sent back to",
+          example = "topic.add.detail")
+  private String topic;
+
+  @Schema(description = "Number of dead letters replayed",
+          example = "12")
+  private int replayed;
+}
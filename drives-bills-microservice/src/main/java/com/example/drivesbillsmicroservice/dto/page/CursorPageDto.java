@@ -0,0 +1,35 @@
+package com.example.drivesbillsmicroservice.dto.page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) for a keyset (seek) page.
+ * This class represents one slice of a listing together with the opaque continuation
+ * token that has to be passed back to fetch the following slice.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CursorPageDto<T> {
+  @Schema(description = "Items of the current slice")
+  private List<T> content;
+  @Schema(description = "Number of items in the current slice",
+          example = "10")
+  private int size;
+  @Schema(description = "Continuation token of the next slice, absent on the last one",
+          example = "eyJpZCI6MTAsImZpcnN0TmFtZSI6Ik9sZWcifQ")
+  private String nextCursor;
+  @Schema(description = "Whether a next slice exists",
+          example = "true")
+  private boolean hasNext;
+}
@@ -0,0 +1,29 @@
+package com.example.drivesbillsmicroservice.dto.rate;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Data transfer object representing the exchange rates in use.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ExchangeRatesDto {
+  @Schema(description = "Version of the rates", example = "3")
+  private long version;
+  @Schema(description = "Value of each currency in a common unit",
+          example = "{\"RED\": 2.5, \"GREEN\": 1, \"BLUE\": 0.6}")
+  private Map<Currency, BigDecimal> values;
+}
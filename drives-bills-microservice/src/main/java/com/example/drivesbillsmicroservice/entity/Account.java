@@ -17,7 +17,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 /**
- * Represents an account entity.
+ * Represents an account entity. The balances are in minor units.
  */
 @Setter
 @Getter
@@ -35,9 +35,9 @@ public class Account {
   @JoinColumn(name = "driver_id", nullable = false)
   private Driver driver;
   @Column
-  private Double redDollar;
+  private Long redDollar;
   @Column
-  private Double greenDollar;
+  private Long greenDollar;
   @Column
-  private Double blueDollar;
+  private Long blueDollar;
 }
\ No newline at end of file
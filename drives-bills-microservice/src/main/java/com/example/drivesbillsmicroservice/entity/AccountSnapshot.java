@@ -0,0 +1,35 @@
+package com.example.drivesbillsmicroservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Represents the balances of an account in minor units, made of its opening balances and the
+ * journal entries created before takenAt. The snapshot is moved forward periodically, so
+ * that a balance only sums the entries created since.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "account_snapshots")
+public class AccountSnapshot {
+  @Id
+  private Long accountId;
+  @Column(nullable = false)
+  private Instant takenAt;
+  @Column(nullable = false)
+  private long redDollar;
+  @Column(nullable = false)
+  private long greenDollar;
+  @Column(nullable = false)
+  private long blueDollar;
+}
@@ -0,0 +1,54 @@
+package com.example.drivesbillsmicroservice.entity;
+
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Represents a Kafka record whose payment was committed, together with the outcome of the
+ * payment. It is written in the transaction of the payment, so that a record delivered again
+ * after its Kafka transaction was aborted is not paid twice.
+ * Records are only ever inserted, which spares the lookup that saving an entity with an
+ * assigned id would otherwise cost.
+ */
+@Getter
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "consumed_records")
+public class ConsumedRecord implements Persistable<ConsumedRecordId> {
+  @EmbeddedId
+  private ConsumedRecordId id;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private DetailPaymentEvent.Status outcome;
+  @Transient
+  private boolean stored;
+
+  public ConsumedRecord(ConsumedRecordId id, DetailPaymentEvent.Status outcome) {
+    this.id = id;
+    this.outcome = outcome;
+  }
+
+  @Override
+  public boolean isNew() {
+    return !stored;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markStored() {
+    stored = true;
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.drivesbillsmicroservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Identifies a consumed Kafka record by its topic, partition and offset.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Embeddable
+public class ConsumedRecordId implements Serializable {
+  @Column(nullable = false)
+  private String topic;
+  @Column(name = "record_partition", nullable = false)
+  private int partition;
+  @Column(name = "record_offset", nullable = false)
+  private long offset;
+
+  public static ConsumedRecordId of(ConsumerRecord<?, ?> record) {
+    return new ConsumedRecordId(record.topic(), record.partition(), record.offset());
+  }
+}
@@ -37,6 +37,7 @@ public class Driver {
   @Column
   private String firstName;
   private String lastName;
+  @Column(unique = true)
   private String passport;
   @Enumerated(EnumType.STRING)
   private LicenseCategory licenseCategory;
@@ -0,0 +1,60 @@
+package com.example.drivesbillsmicroservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Represents an executed idempotent operation together with its result and the fingerprint
+ * of the request that triggered it. It is written in the transaction of the operation, so
+ * that the operation is executed once however many times its key is presented. The rows are purged once they leave the idempotency window.
+ */
+@Getter
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "idempotency_records",
+        indexes = @Index(name = "idx_idempotency_records_created_at", columnList = "createdAt"))
+public class IdempotencyRecord implements Persistable<IdempotencyRecordId> {
+  @EmbeddedId
+  private IdempotencyRecordId id;
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  private long fingerprint;
+  @Column(nullable = false)
+  private int result;
+  @Column(nullable = false)
+  private Instant createdAt;
+  @Transient
+  private boolean stored;
+
+  public IdempotencyRecord(IdempotencyRecordId id, long fingerprint, int result,
+                           Instant createdAt) {
+    this.id = id;
+    this.fingerprint = fingerprint;
+    this.result = result;
+    this.createdAt = createdAt;
+  }
+
+  @Override
+  public boolean isNew() {
+    return !stored;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markStored() {
+    stored = true;
+  }
+}
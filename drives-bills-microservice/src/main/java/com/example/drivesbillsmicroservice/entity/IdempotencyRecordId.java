@@ -0,0 +1,26 @@
+package com.example.drivesbillsmicroservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Identifies an idempotent operation by the two halves of its 128-bit key.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Embeddable
+public class IdempotencyRecordId implements Serializable {
+  @Column(nullable = false)
+  private long keyHigh;
+  @Column(nullable = false)
+  private long keyLow;
+}
@@ -0,0 +1,63 @@
+package com.example.drivesbillsmicroservice.entity;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+
+/**
+ * Represents one credit or debit of an account in minor units, debits having a negative
+ * amount. Entries are only ever inserted, the balance of an account is its snapshot plus the
+ * entries after it. Ids come from a sequence that hands out blocks of ids, so that the
+ * entries of a transaction are inserted in batches. createdAt is left out of the insert and
+ * filled by the column default with the database clock, on PostgreSQL the start of the
+ * inserting transaction, so that the entries of all instances are timestamped by one clock.
+ * It is not read back after the insert, which would break the batches, so it is only set on
+ * loaded entries. On PostgreSQL the table is partitioned by month of createdAt.
+ */
+@Getter
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "account_journal",
+        indexes = @Index(name = "idx_account_journal_account_created_at",
+                columnList = "accountId, createdAt"))
+public class JournalEntry {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_journal_seq")
+  @SequenceGenerator(name = "account_journal_seq", sequenceName = "account_journal_seq",
+          allocationSize = 50)
+  private Long id;
+  @Column(nullable = false)
+  private Long accountId;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Currency currency;
+  @Column(nullable = false)
+  private long amount;
+  @Column
+  private UUID eventId;
+  @ColumnDefault("CURRENT_TIMESTAMP")
+  @Column(nullable = false, insertable = false, updatable = false)
+  private Instant createdAt;
+
+  public JournalEntry(Long accountId, Currency currency, long amount, UUID eventId) {
+    this.accountId = accountId;
+    this.currency = currency;
+    this.amount = amount;
+    this.eventId = eventId;
+  }
+}
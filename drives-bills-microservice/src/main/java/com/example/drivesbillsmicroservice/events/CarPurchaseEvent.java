@@ -6,9 +6,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import java.util.UUID;
 
 /**
  * Represents a car purchase event for kafka message.
+ * The event id identifies the event across redeliveries.
  */
 @Setter
 @Getter
@@ -19,4 +21,5 @@ import lombok.ToString;
 public class CarPurchaseEvent {
   private Long driverId;
   private String licensePlate;
+  private UUID eventId;
 }
\ No newline at end of file
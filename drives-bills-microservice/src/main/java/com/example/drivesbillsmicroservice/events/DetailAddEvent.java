@@ -1,11 +1,15 @@
 package com.example.drivesbillsmicroservice.events;
 
+import com.example.drivesbillsmicroservice.money.Money;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 /**
  * Represents a detail add event for kafka message.
+ * The event id identifies the event across redeliveries, so that it is paid only once.
+ * The price is sent as a decimal and in minor units; older writers send the decimal only.
  */
 @Setter
 @Getter
@@ -19,4 +23,13 @@ public class DetailAddEvent {
     private String licensePlate;
     private Long driverId;
     private String currency;
+    private UUID eventId;
+    private Long priceMinor;
+
+    /**
+     * Returns the price in minor units, rounded from the decimal price for older writers.
+     */
+    public long priceInMinorUnits() {
+        return priceMinor != null ? priceMinor : Money.fromDecimal(price);
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.drivesbillsmicroservice.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Represents the outcome of the payment of a detail, sent by drives-bills as the reply to a
+ * DetailAddEvent that asked for one.
+ */
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class DetailPaymentEvent {
+  private String serialNumber;
+  private String licensePlate;
+  private Long driverId;
+  private Status status;
+
+  /**
+   * Outcomes of a payment. New outcomes are appended, the names are part of the event format.
+   */
+  public enum Status {
+    PAID,
+    INSUFFICIENT_BALANCE,
+    ACCOUNT_NOT_FOUND
+  }
+}
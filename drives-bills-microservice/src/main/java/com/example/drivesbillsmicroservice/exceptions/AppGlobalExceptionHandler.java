@@ -2,8 +2,16 @@ package com.example.drivesbillsmicroservice.exceptions;
 
 import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
 import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.exceptions.car.CarNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.cursor.InvalidCursorException;
+import com.example.drivesbillsmicroservice.exceptions.cursor.InvalidSortException;
 import com.example.drivesbillsmicroservice.exceptions.driver.DriverAlreadyExistException;
 import com.example.drivesbillsmicroservice.exceptions.driver.DriverNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.idempotency.IdempotencyKeyInUseException;
+import com.example.drivesbillsmicroservice.exceptions.idempotency.IdempotencyKeyReusedException;
+import com.example.drivesbillsmicroservice.exceptions.kafka.MessageNotSentException;
+import com.example.drivesbillsmicroservice.exceptions.kafka.TopicNotReplayableException;
+import com.example.drivesbillsmicroservice.exceptions.rate.RateTableInvalidException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
@@ -69,7 +77,12 @@ public class AppGlobalExceptionHandler {
   }
 
   @ExceptionHandler({DriverAlreadyExistException.class, DriverNotFoundException.class,
-                     AccountNotFoundException.class, InsufficientBalanceException.class})
+                     AccountNotFoundException.class, InsufficientBalanceException.class,
+                     InvalidCursorException.class, InvalidSortException.class,
+                     MessageNotSentException.class, CarNotFoundException.class,
+                     TopicNotReplayableException.class,
+                     IdempotencyKeyInUseException.class, IdempotencyKeyReusedException.class,
+                     RateTableInvalidException.class})
   public ResponseEntity<CustomErrorResponse> handleProjectException(AppException ex) {
     CustomErrorResponse apiResponse = new CustomErrorResponse();
     apiResponse.setCode(ex.getErrorCode().getCode());
@@ -22,7 +22,31 @@ public enum ErrorCode {
             LocalDateTime.now()),
   ACCOUNT_NOT_FOUND(ErrorCodeConstants.ACCOUNT_NOT_FOUND_401,
                      HttpStatus.UNAUTHORIZED,
-                     LocalDateTime.now());
+                     LocalDateTime.now()),
+  INVALID_CURSOR(ErrorCodeConstants.INVALID_CURSOR_400,
+            HttpStatus.BAD_REQUEST,
+            LocalDateTime.now()),
+  INVALID_SORT(ErrorCodeConstants.INVALID_SORT_400,
+            HttpStatus.BAD_REQUEST,
+            LocalDateTime.now()),
+  MESSAGE_NOT_SENT(ErrorCodeConstants.MESSAGE_NOT_SENT_503,
+            HttpStatus.SERVICE_UNAVAILABLE,
+            LocalDateTime.now()),
+  CAR_NOT_FOUND(ErrorCodeConstants.CAR_NOT_FOUND_404,
+            HttpStatus.NOT_FOUND,
+            LocalDateTime.now()),
+  TOPIC_NOT_REPLAYABLE(ErrorCodeConstants.TOPIC_NOT_REPLAYABLE_400,
+            HttpStatus.BAD_REQUEST,
+            LocalDateTime.now()),
+  IDEMPOTENCY_KEY_IN_USE(ErrorCodeConstants.IDEMPOTENCY_KEY_IN_USE_409,
+            HttpStatus.CONFLICT,
+            LocalDateTime.now()),
+  IDEMPOTENCY_KEY_REUSED(ErrorCodeConstants.IDEMPOTENCY_KEY_REUSED_422,
+            HttpStatus.UNPROCESSABLE_ENTITY,
+            LocalDateTime.now()),
+  RATE_TABLE_INVALID(ErrorCodeConstants.RATE_TABLE_INVALID_422,
+            HttpStatus.UNPROCESSABLE_ENTITY,
+            LocalDateTime.now());
 
   private String code;
   private HttpStatus httpStatus;
@@ -0,0 +1,19 @@
+package com.example.drivesbillsmicroservice.exceptions.car;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a car is not registered in cars-details.
+ */
+@Getter
+public class CarNotFoundException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public CarNotFoundException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.drivesbillsmicroservice.exceptions.cursor;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a continuation token can not be decoded or does not match
+ * the requested sorting.
+ */
+@Getter
+public class InvalidCursorException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public InvalidCursorException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.drivesbillsmicroservice.exceptions.idempotency;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when an operation is presented again with its idempotency key while its
+ * first execution has not completed yet.
+ */
+@Getter
+public class IdempotencyKeyInUseException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public IdempotencyKeyInUseException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+
+  public IdempotencyKeyInUseException(String message) {
+    super(message);
+  }
+}
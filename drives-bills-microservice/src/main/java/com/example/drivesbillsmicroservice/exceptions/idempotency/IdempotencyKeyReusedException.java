@@ -0,0 +1,24 @@
+package com.example.drivesbillsmicroservice.exceptions.idempotency;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when an idempotency key is presented again with a request that differs
+ * from the one it was first used for.
+ */
+@Getter
+public class IdempotencyKeyReusedException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public IdempotencyKeyReusedException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+
+  public IdempotencyKeyReusedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.drivesbillsmicroservice.exceptions.kafka;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * The MessageNotSentException is an exception class that is thrown when the broker does
+ * not acknowledge a message in time while the producer waits for acknowledgements.
+ * It extends the RuntimeException class and implements the AppException interface.
+ * The exception includes an error code and parameters associated with the error.
+ */
+@Getter
+public class MessageNotSentException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public MessageNotSentException(ErrorCode errorCode, Throwable cause, Object... params) {
+    super(cause);
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.drivesbillsmicroservice.exceptions.kafka;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when the dead letters of a topic whose failed records are not parked are replayed.
+ */
+@Getter
+public class TopicNotReplayableException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public TopicNotReplayableException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
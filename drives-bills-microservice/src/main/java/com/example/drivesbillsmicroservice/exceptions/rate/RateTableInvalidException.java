@@ -0,0 +1,19 @@
+package com.example.drivesbillsmicroservice.exceptions.rate;
+
+import com.example.drivesbillsmicroservice.exceptions.AppException;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Exception thrown when the exchange rates file cannot be read or is invalid on reload.
+ */
+@Getter
+public class RateTableInvalidException extends RuntimeException implements AppException {
+  private ErrorCode errorCode;
+  private Object[] params;
+
+  public RateTableInvalidException(ErrorCode errorCode, Object... params) {
+    this.errorCode = errorCode;
+    this.params = params;
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.drivesbillsmicroservice.grpc;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.grpc.drivesbills.v1.AccountLookupGrpc;
+import com.example.grpc.drivesbills.v1.BalanceReply;
+import com.example.grpc.drivesbills.v1.CheckDebitReply;
+import com.example.grpc.drivesbills.v1.CheckDebitRequest;
+import com.example.grpc.drivesbills.v1.GetBalanceRequest;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves the balance and debit-check lookups of the internal gRPC API.
+ */
+@Component
+public class AccountLookupGrpcService extends AccountLookupGrpc.AccountLookupImplBase {
+  private final AccountService accountService;
+
+  @Autowired
+  public AccountLookupGrpcService(AccountService accountService) {
+    this.accountService = accountService;
+  }
+
+  @Override
+  public void getBalance(GetBalanceRequest request,
+                         StreamObserver<BalanceReply> responseObserver) {
+    try {
+      ConvertedAmount balance = accountService.getBalance(request.getAccountId(),
+              Currency.valueOf(request.getCurrency()));
+      responseObserver.onNext(BalanceReply.newBuilder()
+              .setAccountId(request.getAccountId())
+              .setCurrency(request.getCurrency())
+              .setBalance(Decimals.fromMinorUnits(balance.getAmount()))
+              .setRateVersion(balance.getRateVersion())
+              .build());
+      responseObserver.onCompleted();
+    } catch (AccountNotFoundException e) {
+      responseObserver.onError(accountNotFound(request.getAccountId()));
+    } catch (IllegalArgumentException e) {
+      responseObserver.onError(unknownCurrency(request.getCurrency()));
+    }
+  }
+
+  @Override
+  public void checkDebit(CheckDebitRequest request,
+                         StreamObserver<CheckDebitReply> responseObserver) {
+    try {
+      boolean affordable = accountService.canDebit(request.getAccountId(),
+              Decimals.toMinorUnits(request.getAmount()),
+              Currency.valueOf(request.getCurrency()));
+      responseObserver.onNext(CheckDebitReply.newBuilder().setAffordable(affordable).build());
+      responseObserver.onCompleted();
+    } catch (AccountNotFoundException e) {
+      responseObserver.onError(accountNotFound(request.getAccountId()));
+    } catch (IllegalArgumentException e) {
+      responseObserver.onError(unknownCurrency(request.getCurrency()));
+    }
+  }
+
+  private RuntimeException accountNotFound(long accountId) {
+    return Status.NOT_FOUND
+            .withDescription("Account not found: " + accountId)
+            .asRuntimeException();
+  }
+
+  private RuntimeException unknownCurrency(String currency) {
+    return Status.INVALID_ARGUMENT
+            .withDescription("Unknown currency: " + currency)
+            .asRuntimeException();
+  }
+}
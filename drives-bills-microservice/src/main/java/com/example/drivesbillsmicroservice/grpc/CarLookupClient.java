@@ -0,0 +1,47 @@
+package com.example.drivesbillsmicroservice.grpc;
+
+import com.example.grpc.carsdetails.v1.CarLookupGrpc;
+import com.example.grpc.carsdetails.v1.GetCarRequest;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client of the car lookups served by cars-details.
+ * The checks are advisory: cars-details still validates the purchase when it consumes the
+ * event, so a check that cannot be answered in time lets the request through.
+ */
+@Slf4j
+@Component
+public class CarLookupClient {
+  private final CarLookupGrpc.CarLookupBlockingStub carLookupStub;
+
+  @Autowired
+  public CarLookupClient(CarLookupGrpc.CarLookupBlockingStub carLookupStub) {
+    this.carLookupStub = carLookupStub;
+  }
+
+  /**
+   * Tells whether a car is registered in cars-details.
+   *
+   * @param licensePlate The license plate of the car.
+   * @return false only when cars-details answers that the car does not exist.
+   */
+  public boolean carExists(String licensePlate) {
+    if (licensePlate == null) {
+      return true;
+    }
+    try {
+      carLookupStub.getCar(GetCarRequest.newBuilder().setLicensePlate(licensePlate).build());
+      return true;
+    } catch (StatusRuntimeException e) {
+      if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+        return false;
+      }
+      log.warn("Car lookup of {} skipped: {}", licensePlate, e.getStatus());
+      return true;
+    }
+  }
+}
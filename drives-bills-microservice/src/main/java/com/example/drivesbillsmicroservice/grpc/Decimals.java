@@ -0,0 +1,50 @@
+package com.example.drivesbillsmicroservice.grpc;
+
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.grpc.common.v1.Decimal;
+import java.math.BigDecimal;
+
+/**
+ * Conversions between BigDecimal and the Decimal message of the internal API.
+ */
+public final class Decimals {
+
+  private Decimals() {
+  }
+
+  /**
+   * Converts an amount whose unscaled value fits a long, which is the case of all prices.
+   *
+   * @param value The amount to convert.
+   * @return The Decimal message.
+   * @throws ArithmeticException if the unscaled value does not fit a long.
+   */
+  public static Decimal toProto(BigDecimal value) {
+    return Decimal.newBuilder()
+            .setUnscaled(value.unscaledValue().longValueExact())
+            .setScale(value.scale())
+            .build();
+  }
+
+  public static BigDecimal fromProto(Decimal value) {
+    return BigDecimal.valueOf(value.getUnscaled(), value.getScale());
+  }
+
+  public static Decimal fromMinorUnits(long amount) {
+    return Decimal.newBuilder().setUnscaled(amount).setScale(Money.SCALE).build();
+  }
+
+  /**
+   * Converts an amount to minor units, reading it without a BigDecimal when it already has
+   * the scale of minor units.
+   *
+   * @param value The Decimal message.
+   * @return The amount in minor units, rounded half even.
+   */
+  public static long toMinorUnits(Decimal value) {
+    if (value.getScale() == Money.SCALE) {
+      return value.getUnscaled();
+    }
+    return Money.fromDecimal(fromProto(value));
+  }
+}
@@ -1,43 +1,81 @@
 package com.example.drivesbillsmicroservice.kafka;
 
-import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.config.KafkaConfig;
 import com.example.drivesbillsmicroservice.events.DetailAddEvent;
-import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.kafka.parallel.KeyOrderedExecutor;
+import com.example.drivesbillsmicroservice.kafka.retry.FailedRecordRouter;
+import com.example.drivesbillsmicroservice.service.DetailPaymentService;
 import com.example.drivesbillsmicroservice.service.DriverService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 /**
  * Represents a Kafka consumer component.
  * Consumes messages from the "topic.car" Kafka topic.
+ * Messages are processed in parallel by the KeyOrderedExecutor, the debits of a driver are
+ * keyed by its id so that they are applied in order.
+ * When the message carries a reply topic, the outcome of the payment is sent back to it
+ * with the correlation id of the message.
+ * Messages that cannot be processed are parked by the FailedRecordRouter and processed again
+ * from the retry topics by the retry listener, which replies as well. Payments refused for
+ * a business reason are outcomes, they are answered and not parked.
+ * Replaced by the TransactionalConsumer when kafka.transactions.enabled is set, and by the
+ * PaymentTopology when kafka.streams.enabled is set.
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = {"kafka.transactions.enabled", "kafka.streams.enabled"},
+        havingValue = "false", matchIfMissing = true)
 public class Consumer {
-  private final ObjectMapper objectMapper;
-  private final AccountService accountService;
+  private final DetailPaymentService detailPaymentService;
   private final DriverService driverService;
+  private final Producer producer;
+  private final KeyOrderedExecutor keyOrderedExecutor;
+  private final FailedRecordRouter failedRecordRouter;
 
   @Autowired
-  public Consumer(ObjectMapper objectMapper,
-                  AccountService accountService,
-                  DriverService driverService) {
-    this.objectMapper = objectMapper;
-    this.accountService = accountService;
+  public Consumer(DetailPaymentService detailPaymentService,
+                  DriverService driverService,
+                  Producer producer,
+                  KeyOrderedExecutor keyOrderedExecutor,
+                  FailedRecordRouter failedRecordRouter) {
+    this.detailPaymentService = detailPaymentService;
     this.driverService = driverService;
+    this.producer = producer;
+    this.keyOrderedExecutor = keyOrderedExecutor;
+    this.failedRecordRouter = failedRecordRouter;
   }
 
-  @KafkaListener(topics = "topic.car")
-  public void consumeMessageCarTopic(String message) throws JsonProcessingException {
-    log.info("message consumed {}", message);
-    DetailAddEvent detailAddEvent = objectMapper.readValue(message, DetailAddEvent.class);
-    accountService.debit(detailAddEvent.getDriverId(),
-                         detailAddEvent.getPrice().doubleValue(),
-                         Currency.valueOf(detailAddEvent.getCurrency()));
-    driverService.sendSuccessfulPaymentEvent(detailAddEvent);
+  @KafkaListener(topics = "topic.car",
+          containerFactory = KafkaConfig.PARALLEL_LISTENER_CONTAINER_FACTORY)
+  public void consumeMessageCarTopic(ConsumerRecord<String, Object> record,
+                                     Acknowledgment acknowledgment) {
+    DetailAddEvent detailAddEvent = (DetailAddEvent) record.value();
+    log.info("message consumed {}", detailAddEvent);
+    keyOrderedExecutor.submit(detailAddEvent.getDriverId(),
+            () -> failedRecordRouter.process(record, () -> payAndReply(record)),
+            acknowledgment);
   }
-}
\ No newline at end of file
+
+  @KafkaListener(topicPattern = "topic\\.car\\.retry-\\d+",
+          containerFactory = KafkaConfig.RETRY_LISTENER_CONTAINER_FACTORY)
+  public void retryMessageCarTopic(ConsumerRecord<String, Object> record,
+                                   Acknowledgment acknowledgment) {
+    failedRecordRouter.retry(record, acknowledgment, () -> payAndReply(record));
+  }
+
+  private void payAndReply(ConsumerRecord<String, Object> record) {
+    DetailAddEvent detailAddEvent = (DetailAddEvent) record.value();
+    DetailPaymentEvent detailPaymentEvent = detailPaymentService.pay(detailAddEvent);
+    if (detailPaymentEvent.getStatus() == DetailPaymentEvent.Status.PAID) {
+      driverService.sendSuccessfulPaymentEvent(detailAddEvent);
+    }
+    producer.reply(record, detailPaymentEvent);
+  }
+}
@@ -2,17 +2,48 @@ package com.example.drivesbillsmicroservice.kafka;
 
 import com.example.drivesbillsmicroservice.events.CarPurchaseEvent;
 import com.example.drivesbillsmicroservice.events.DetailAddEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.kafka.MessageNotSentException;
+import com.example.drivesbillsmicroservice.kafka.codec.EventCodec;
+import com.example.drivesbillsmicroservice.kafka.spool.OutboundSpool;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalanceSerde;
+import com.example.drivesbillsmicroservice.kafka.streams.PaymentTopology;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 /**
  * Represents a Kafka producer component.
  * Sends messages to Kafka topics "driverTopic" and "driverTopic1".
+ * Events are serialized in the binary format of the EventCodec.
+ * Records are keyed by license plate so that the events of a car keep their order.
+ * Replies carry the correlation id of the request they answer.
+ * Acknowledgements are handled asynchronously and counted in the kafka.producer.sends
+ * metric, unless kafka.producer.wait-for-ack is set, in which case a send fails when the
+ * broker does not acknowledge the record within kafka.producer.ack-timeout.
+ * Sends made inside a Kafka transaction never wait, committing the transaction fails when
+ * one of its records was not acknowledged.
+ * With kafka.spool.enabled, events sent outside of a Kafka transaction are appended to the
+ * OutboundSpool instead and sent by the SpoolRelay, so a send only waits for the local disk,
+ * whatever the state of the broker. Replies are never spooled.
  */
 @Slf4j
 @Component
@@ -22,27 +53,122 @@ public class Producer {
   @Value("${topic.name-1}")
   private String addDetailTopic;
 
-  private final ObjectMapper objectMapper;
-  private final KafkaTemplate<String, String> kafkaTemplate;
+  @Value("${kafka.producer.wait-for-ack:false}")
+  private boolean waitForAck;
+
+  @Value("${kafka.producer.ack-timeout:10s}")
+  private Duration ackTimeout;
+
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final MeterRegistry meterRegistry;
+  private final OutboundSpool outboundSpool;
 
   @Autowired
-  public Producer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+  public Producer(KafkaTemplate<String, Object> kafkaTemplate,
+                  MeterRegistry meterRegistry,
+                  ObjectProvider<OutboundSpool> outboundSpool) {
     this.kafkaTemplate = kafkaTemplate;
-    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.outboundSpool = outboundSpool.getIfAvailable();
   }
 
-  public String sendMessageCarPurchase(CarPurchaseEvent carPurchaseEvent)
-          throws JsonProcessingException {
-    String purchaseEventAsMessage = objectMapper.writeValueAsString(carPurchaseEvent);
-    kafkaTemplate.send(buyCarTopic, purchaseEventAsMessage);
-    log.info("Driver request produced {}", purchaseEventAsMessage);
+  public String sendMessageCarPurchase(CarPurchaseEvent carPurchaseEvent) {
+    send(buyCarTopic, carPurchaseEvent.getLicensePlate(), carPurchaseEvent);
+    log.info("Driver request produced {}", carPurchaseEvent);
     return "message sent";
   }
 
-  public String sendMessageDetailAdd(DetailAddEvent detailAddEvent) throws JsonProcessingException {
-    String detailAddEventAsMessage = objectMapper.writeValueAsString(detailAddEvent);
-    kafkaTemplate.send(addDetailTopic, detailAddEventAsMessage);
-    log.info("Driver request produced {}", detailAddEventAsMessage);
+  public String sendMessageDetailAdd(DetailAddEvent detailAddEvent) {
+    send(addDetailTopic, detailAddEvent.getLicensePlate(), detailAddEvent);
+    log.info("Driver request produced {}", detailAddEvent);
     return "message sent";
   }
-}
\ No newline at end of file
+
+  /**
+   * Sends an adjustment of the balances of an account to the PaymentTopology, keyed by
+   * account ID. The adjustment is written in the format of the AccountBalanceSerde.
+   *
+   * @param accountId  The ID of the account.
+   * @param adjustment The amounts to add to the balances, negative for a debit.
+   */
+  public void sendAccountAdjustment(Long accountId, AccountBalance adjustment) {
+    send(PaymentTopology.ADJUSTMENT_TOPIC, String.valueOf(accountId),
+            AccountBalanceSerde.encode(adjustment));
+    log.info("Account adjustment produced {}", adjustment);
+  }
+
+  /**
+   * Sends the outcome of a payment to the reply topic of the request, if the request
+   * carries one.
+   *
+   * @param request            The consumed request.
+   * @param detailPaymentEvent The outcome of the payment.
+   */
+  public void reply(ConsumerRecord<?, ?> request, DetailPaymentEvent detailPaymentEvent) {
+    Header replyTopic = request.headers().lastHeader(KafkaHeaders.REPLY_TOPIC);
+    if (replyTopic == null) {
+      return;
+    }
+    ProducerRecord<String, Object> record = new ProducerRecord<>(
+            new String(replyTopic.value(), StandardCharsets.UTF_8),
+            String.valueOf(detailPaymentEvent.getDriverId()), detailPaymentEvent);
+    Header correlationId = request.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+    if (correlationId != null) {
+      record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId.value());
+    }
+    send(record);
+    log.info("Payment outcome produced {}", detailPaymentEvent);
+  }
+
+  private void send(String topic, String key, Object event) {
+    if (outboundSpool != null && !kafkaTemplate.inTransaction()) {
+      spool(topic, key, event);
+      return;
+    }
+    send(new ProducerRecord<>(topic, key, event));
+  }
+
+  private void spool(String topic, String key, Object event) {
+    try {
+      outboundSpool.append(topic, key,
+              event instanceof byte[] bytes ? bytes : EventCodec.encode(event));
+    } catch (IllegalStateException | UncheckedIOException e) {
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    }
+  }
+
+  private void send(ProducerRecord<String, Object> record) {
+    String topic = record.topic();
+    String key = record.key();
+    CompletableFuture<SendResult<String, Object>> future = kafkaTemplate
+            .send(record)
+            .whenComplete((result, ex) -> onAcknowledgement(topic, key, result, ex));
+    if (!waitForAck || kafkaTemplate.inTransaction()) {
+      return;
+    }
+    try {
+      future.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    }
+  }
+
+  private void onAcknowledgement(String topic,
+                                 String key,
+                                 SendResult<String, Object> result,
+                                 Throwable ex) {
+    if (ex == null) {
+      log.debug("Message with key {} acknowledged at {}-{}@{}", key, topic,
+              result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+      meterRegistry.counter("kafka.producer.sends", "topic", topic, "result", "success")
+              .increment();
+    } else {
+      log.error("Message with key {} was not delivered to {}", key, topic, ex);
+      meterRegistry.counter("kafka.producer.sends", "topic", topic, "result", "failure")
+              .increment();
+    }
+  }
+}
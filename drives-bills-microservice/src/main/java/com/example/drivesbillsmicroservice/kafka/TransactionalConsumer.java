@@ -0,0 +1,107 @@
+package com.example.drivesbillsmicroservice.kafka;
+
+import com.example.drivesbillsmicroservice.config.KafkaConfig;
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.kafka.retry.FailedRecordRouter;
+import com.example.drivesbillsmicroservice.service.DetailPaymentService;
+import com.example.drivesbillsmicroservice.service.DriverService;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kafka consumer of the "topic.car" topic that pays every detail exactly once, enabled with
+ * kafka.transactions.enabled.
+ * Each poll is handled in one Kafka transaction started by the listener container, which
+ * holds the install events, the replies, the parked records and the consumed offsets. The
+ * debits are committed to the database just before, together with the outcome of every
+ * record; a batch delivered again because its Kafka transaction was aborted reuses these
+ * outcomes instead of debiting twice.
+ * When the payment of a batch fails, its records are paid one at a time so that only the
+ * failing ones are parked by the FailedRecordRouter. Only payments are parked: a send that
+ * fails aborts the transaction, the batch is delivered again and the recorded outcomes are
+ * sent then, never next to a parked copy of the record.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kafka.transactions.enabled", havingValue = "true")
+public class TransactionalConsumer {
+  private final DetailPaymentService detailPaymentService;
+  private final DriverService driverService;
+  private final Producer producer;
+  private final FailedRecordRouter failedRecordRouter;
+
+  @Autowired
+  public TransactionalConsumer(DetailPaymentService detailPaymentService,
+                               DriverService driverService,
+                               Producer producer,
+                               FailedRecordRouter failedRecordRouter) {
+    this.detailPaymentService = detailPaymentService;
+    this.driverService = driverService;
+    this.producer = producer;
+    this.failedRecordRouter = failedRecordRouter;
+  }
+
+  @KafkaListener(topics = "topic.car",
+          containerFactory = KafkaConfig.TRANSACTIONAL_LISTENER_CONTAINER_FACTORY)
+  public void consumeMessagesCarTopic(List<ConsumerRecord<String, Object>> records) {
+    log.info("{} messages consumed", records.size());
+    List<ConsumerRecord<String, Object>> payable = new ArrayList<>(records.size());
+    for (ConsumerRecord<String, Object> record : records) {
+      if (record.value() instanceof DetailAddEvent) {
+        payable.add(record);
+      } else {
+        failedRecordRouter.accept(record,
+                new SerializationException("Record value is not a DetailAddEvent"));
+      }
+    }
+    if (payable.isEmpty()) {
+      return;
+    }
+    List<DetailPaymentEvent> outcomes;
+    try {
+      outcomes = detailPaymentService.payOnce(payable);
+    } catch (RuntimeException e) {
+      log.warn("Payment of a batch of {} details failed, paying them one at a time",
+              payable.size(), e);
+      for (ConsumerRecord<String, Object> record : payable) {
+        List<DetailPaymentEvent> outcome = new ArrayList<>(1);
+        failedRecordRouter.process(record, () -> outcome.addAll(payOnce(record)));
+        outcome.forEach(detailPaymentEvent -> complete(record, detailPaymentEvent));
+      }
+      return;
+    }
+    for (int i = 0; i < payable.size(); i++) {
+      complete(payable.get(i), outcomes.get(i));
+    }
+  }
+
+  @KafkaListener(topicPattern = "topic\\.car\\.retry-\\d+",
+          containerFactory = KafkaConfig.RETRY_LISTENER_CONTAINER_FACTORY)
+  public void retryMessageCarTopic(ConsumerRecord<String, Object> record,
+                                   Acknowledgment acknowledgment) {
+    List<DetailPaymentEvent> outcome = new ArrayList<>(1);
+    failedRecordRouter.retry(record, acknowledgment, () -> outcome.addAll(payOnce(record)));
+    outcome.forEach(detailPaymentEvent -> complete(record, detailPaymentEvent));
+  }
+
+  private List<DetailPaymentEvent> payOnce(ConsumerRecord<String, Object> record) {
+    return detailPaymentService.payOnce(List.of(record));
+  }
+
+  private void complete(ConsumerRecord<String, Object> record,
+                        DetailPaymentEvent detailPaymentEvent) {
+    if (detailPaymentEvent.getStatus() == DetailPaymentEvent.Status.PAID) {
+      driverService.sendSuccessfulPaymentEvent((DetailAddEvent) record.value());
+    }
+    producer.reply(record, detailPaymentEvent);
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.drivesbillsmicroservice.kafka.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Reads the primitive fields written by {@link EventWriter} from a byte array.
+ * Reading past the end of the array fails with a SerializationException.
+ */
+class EventReader {
+  private final byte[] buffer;
+  private int position;
+
+  EventReader(byte[] buffer) {
+    this.buffer = buffer;
+  }
+
+  int readByte() {
+    require(1);
+    return buffer[position++] & 0xFF;
+  }
+
+  long readVarLong() {
+    long value = readUnsignedVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  long readUnsignedVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new SerializationException("Malformed varint at offset " + position);
+  }
+
+  UUID readUuid() {
+    require(2 * Long.BYTES);
+    return new UUID(readFixedLong(), readFixedLong());
+  }
+
+  String readString() {
+    int length = readLength();
+    String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+    position += length;
+    return value;
+  }
+
+  String readCode(List<String> knownCodes) {
+    long index = readUnsignedVarLong();
+    if (index == 0) {
+      return readString();
+    }
+    if (index > knownCodes.size()) {
+      throw new SerializationException("Unknown code index " + index);
+    }
+    return knownCodes.get((int) index - 1);
+  }
+
+  BigDecimal readDecimal() {
+    long header = readVarLong();
+    int scale = Math.toIntExact(header >> 1);
+    if ((header & 1) == 0) {
+      return BigDecimal.valueOf(readVarLong(), scale);
+    }
+    int length = readLength();
+    BigInteger unscaled = new BigInteger(Arrays.copyOfRange(buffer, position, position + length));
+    position += length;
+    return new BigDecimal(unscaled, scale);
+  }
+
+  private long readFixedLong() {
+    long value = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      value = (value << Byte.SIZE) | (buffer[position++] & 0xFF);
+    }
+    return value;
+  }
+
+  private int readLength() {
+    long length = readUnsignedVarLong();
+    if (length > buffer.length - position) {
+      throw new SerializationException("Field of " + length + " bytes exceeds the record");
+    }
+    return (int) length;
+  }
+
+  private void require(int length) {
+    if (position + length > buffer.length) {
+      throw new SerializationException("Unexpected end of record at offset " + position);
+    }
+  }
+}
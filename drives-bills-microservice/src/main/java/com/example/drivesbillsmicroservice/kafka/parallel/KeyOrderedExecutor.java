@@ -0,0 +1,153 @@
+package com.example.drivesbillsmicroservice.kafka.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Processes the records of listeners on a bounded pool of worker lanes, so that the records
+ * of one partition are handled in parallel instead of one after the other.
+ * Records with the same key always go to the same lane and are handled in the order they
+ * were submitted; records with different keys are handled in parallel.
+ * A record is acknowledged once its task has succeeded. With asynchronous acks the container
+ * commits the offsets of a partition only up to the lowest record that is still in flight,
+ * and pauses the consumer until all records of the previous poll are acknowledged.
+ * A task that fails is retried with a growing backoff, holding back the later records of its
+ * lane, so that a record that cannot be parked, for instance because the dead-letter topic is
+ * unreachable, is never lost. The container pauses until the task succeeds, or redelivers
+ * the record after the next rebalance if the executor is closed first.
+ * Submitting to a lane whose queue is full blocks the consumer thread until room is made.
+ */
+@Slf4j
+public class KeyOrderedExecutor implements AutoCloseable {
+  private static final long POLL_TIMEOUT_MS = 100;
+  private static final long CLOSE_TIMEOUT_MS = 10_000;
+  private static final long INITIAL_BACKOFF_MS = 100;
+  private static final long MAX_BACKOFF_MS = 30_000;
+
+  private final List<BlockingQueue<Runnable>> lanes;
+  private final List<Thread> workers;
+  private volatile boolean running = true;
+
+  /**
+   * Starts one worker thread per lane.
+   *
+   * @param name         The prefix of the names of the worker threads.
+   * @param lanes        The number of lanes, that is the maximum parallelism.
+   * @param laneCapacity The number of tasks a lane can hold before submitting blocks.
+   */
+  public KeyOrderedExecutor(String name, int lanes, int laneCapacity) {
+    if (lanes < 1 || laneCapacity < 1) {
+      throw new IllegalArgumentException("lanes and laneCapacity must be positive");
+    }
+    this.lanes = new ArrayList<>(lanes);
+    this.workers = new ArrayList<>(lanes);
+    for (int i = 0; i < lanes; i++) {
+      BlockingQueue<Runnable> lane = new ArrayBlockingQueue<>(laneCapacity);
+      Thread worker = new Thread(() -> runLane(lane), name + "-" + i);
+      worker.setDaemon(true);
+      this.lanes.add(lane);
+      this.workers.add(worker);
+      worker.start();
+    }
+  }
+
+  /**
+   * Runs the task on the lane of the key and acknowledges the record once it succeeded.
+   *
+   * @param key            The key whose records must keep their order, may be null.
+   * @param task           The processing of the record.
+   * @param acknowledgment The acknowledgment of the record.
+   */
+  public void submit(Object key, Runnable task, Acknowledgment acknowledgment) {
+    if (!running) {
+      throw new RejectedExecutionException("Executor is closed");
+    }
+    try {
+      lanes.get(laneOf(key)).put(() -> run(key, task, acknowledgment));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException(e);
+    }
+  }
+
+  int laneOf(Object key) {
+    int hash = Objects.hashCode(key);
+    return Math.floorMod(hash ^ (hash >>> 16), lanes.size());
+  }
+
+  /**
+   * Stops the workers once their current task has run or given up retrying. Queued and
+   * failed records are not acknowledged and are redelivered after the next rebalance.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      for (Thread worker : workers) {
+        worker.join(CLOSE_TIMEOUT_MS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run(Object key, Runnable task, Acknowledgment acknowledgment) {
+    long backoff = INITIAL_BACKOFF_MS;
+    while (running) {
+      try {
+        task.run();
+        acknowledgment.acknowledge();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Record with key {} could not be processed, retrying in {} ms",
+                key, backoff, e);
+      }
+      if (!pause(backoff)) {
+        return;
+      }
+      backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+    }
+    log.warn("Record with key {} left unacknowledged on close", key);
+  }
+
+  /**
+   * Sleeps for the backoff in steps, so that a closing executor does not wait for it.
+   *
+   * @return false if the thread was interrupted.
+   */
+  private boolean pause(long backoffMs) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+    try {
+      long remaining;
+      while (running && (remaining = deadline - System.nanoTime()) > 0) {
+        TimeUnit.NANOSECONDS.sleep(Math.min(remaining,
+                TimeUnit.MILLISECONDS.toNanos(POLL_TIMEOUT_MS)));
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void runLane(BlockingQueue<Runnable> lane) {
+    while (running) {
+      try {
+        Runnable task = lane.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (task != null) {
+          task.run();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+}
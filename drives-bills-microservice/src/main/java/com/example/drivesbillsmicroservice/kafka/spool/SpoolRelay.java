@@ -0,0 +1,130 @@
+package com.example.drivesbillsmicroservice.kafka.spool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Sends the records of the OutboundSpool to Kafka from a background thread, in batches of up
+ * to maxBatchSize records.
+ * A batch is committed in the spool once the broker acknowledged all of its records. When a
+ * record is not acknowledged within the ack timeout, the whole batch is sent again after a
+ * back-off that doubles up to maxBackOff, so a record may be delivered more than once but is
+ * never lost. Records keep their spool order, which is the order they were sent in.
+ * The number of bytes waiting in the spool is published as the kafka.spool.backlog gauge.
+ */
+@Slf4j
+public class SpoolRelay implements AutoCloseable {
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+  private static final long CLOSE_TIMEOUT_MS = 10_000;
+
+  private final OutboundSpool outboundSpool;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final MeterRegistry meterRegistry;
+  private final int maxBatchSize;
+  private final Duration ackTimeout;
+  private final Duration initialBackOff;
+  private final Duration maxBackOff;
+  private final Thread relay;
+  private volatile boolean running = true;
+
+  /**
+   * Starts the relay thread.
+   *
+   * @param outboundSpool  The spool to drain.
+   * @param kafkaTemplate  The template the records are sent with.
+   * @param meterRegistry  The registry of the backlog gauge.
+   * @param maxBatchSize   The maximum number of records sent before waiting for their acks.
+   * @param ackTimeout     The maximum time to wait for the acks of a batch.
+   * @param initialBackOff The back-off after the first failed batch.
+   * @param maxBackOff     The maximum back-off between failed batches.
+   */
+  public SpoolRelay(OutboundSpool outboundSpool,
+                    KafkaTemplate<String, Object> kafkaTemplate,
+                    MeterRegistry meterRegistry,
+                    int maxBatchSize,
+                    Duration ackTimeout,
+                    Duration initialBackOff,
+                    Duration maxBackOff) {
+    this.outboundSpool = outboundSpool;
+    this.kafkaTemplate = kafkaTemplate;
+    this.meterRegistry = meterRegistry;
+    this.maxBatchSize = maxBatchSize;
+    this.ackTimeout = ackTimeout;
+    this.initialBackOff = initialBackOff;
+    this.maxBackOff = maxBackOff;
+    meterRegistry.gauge("kafka.spool.backlog", outboundSpool, OutboundSpool::backlog);
+    this.relay = new Thread(this::run, "kafka-spool-relay");
+    this.relay.setDaemon(true);
+    this.relay.start();
+  }
+
+  /**
+   * Stops the relay once its current batch is sent. Records that are not committed are sent
+   * again after the next start.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      relay.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    long position = outboundSpool.committedPosition();
+    Duration backOff = initialBackOff;
+    while (running) {
+      try {
+        List<SpoolEntry> batch = outboundSpool.read(position, maxBatchSize, POLL_TIMEOUT);
+        if (batch.isEmpty()) {
+          continue;
+        }
+        send(batch);
+        position = batch.get(batch.size() - 1).getNextPosition();
+        outboundSpool.commit(position);
+        backOff = initialBackOff;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        log.warn("Spooled records were not delivered, retrying in {}", backOff, e);
+        meterRegistry.counter("kafka.spool.relay.failures").increment();
+        position = outboundSpool.committedPosition();
+        sleep(backOff);
+        backOff = backOff.multipliedBy(2).compareTo(maxBackOff) > 0
+                ? maxBackOff
+                : backOff.multipliedBy(2);
+      }
+    }
+  }
+
+  private void send(List<SpoolEntry> batch) throws Exception {
+    List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+    for (SpoolEntry entry : batch) {
+      futures.add(kafkaTemplate.send(
+              new ProducerRecord<String, Object>(entry.getTopic(), entry.getKey(), entry.getValue())));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    meterRegistry.counter("kafka.spool.relayed").increment(batch.size());
+    log.debug("{} spooled records delivered", batch.size());
+  }
+
+  private void sleep(Duration duration) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
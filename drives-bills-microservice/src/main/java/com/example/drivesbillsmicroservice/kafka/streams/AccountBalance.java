@@ -0,0 +1,66 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Balances of an account in each currency, in minor units, as held by the account-balances
+ * store of the PaymentTopology. Also used as an adjustment, in which case each amount is
+ * added to the balance of its currency.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AccountBalance {
+  private final long redDollar;
+  private final long greenDollar;
+  private final long blueDollar;
+
+  public static AccountBalance of(Account account) {
+    return new AccountBalance(account.getRedDollar(), account.getGreenDollar(),
+            account.getBlueDollar());
+  }
+
+  /**
+   * Returns an adjustment of the given amount in one currency.
+   */
+  public static AccountBalance of(Currency currency, long amount) {
+    return switch (currency) {
+      case RED -> new AccountBalance(amount, 0, 0);
+      case GREEN -> new AccountBalance(0, amount, 0);
+      case BLUE -> new AccountBalance(0, 0, amount);
+    };
+  }
+
+  public long get(Currency currency) {
+    return switch (currency) {
+      case RED -> redDollar;
+      case GREEN -> greenDollar;
+      case BLUE -> blueDollar;
+    };
+  }
+
+  public AccountBalance plus(AccountBalance adjustment) {
+    return new AccountBalance(redDollar + adjustment.redDollar,
+            greenDollar + adjustment.greenDollar,
+            blueDollar + adjustment.blueDollar);
+  }
+
+  public boolean isNegative() {
+    return redDollar < 0 || greenDollar < 0 || blueDollar < 0;
+  }
+
+  /**
+   * Copies the balances to the account.
+   */
+  public void applyTo(Account account) {
+    account.setRedDollar(redDollar);
+    account.setGreenDollar(greenDollar);
+    account.setBlueDollar(blueDollar);
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import java.util.Optional;
+
+/**
+ * Loads the balances of an account that the account-balances store does not hold yet,
+ * typically from the database.
+ */
+@FunctionalInterface
+public interface AccountBalanceLoader {
+
+  /**
+   * Loads the balances of an account.
+   *
+   * @param accountId the ID of the account
+   * @return the balances of the account, empty if there is no such account
+   */
+  Optional<AccountBalance> load(Long accountId);
+}
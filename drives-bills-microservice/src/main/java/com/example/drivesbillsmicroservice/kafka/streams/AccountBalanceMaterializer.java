@@ -0,0 +1,54 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import com.example.drivesbillsmicroservice.config.KafkaStreamsConfig;
+import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import jakarta.transaction.Transactional;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the balances computed by the PaymentTopology back to the accounts table, enabled
+ * with kafka.streams.enabled.
+ * Each poll is handled as one batch: only the last balances of an account are written, and
+ * all accounts of the batch are loaded and saved together. The table lags behind the
+ * account-balances store, it is the source of the balances of accounts the store does not
+ * hold yet and the view read by the account API.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kafka.streams.enabled", havingValue = "true")
+public class AccountBalanceMaterializer {
+  private final AccountRepository accountRepository;
+
+  @Autowired
+  public AccountBalanceMaterializer(AccountRepository accountRepository) {
+    this.accountRepository = accountRepository;
+  }
+
+  @Transactional
+  @KafkaListener(topics = PaymentTopology.BALANCE_TOPIC,
+          containerFactory = KafkaStreamsConfig.BALANCE_LISTENER_CONTAINER_FACTORY)
+  public void materialize(List<ConsumerRecord<String, AccountBalance>> records) {
+    Map<Long, AccountBalance> balances = new LinkedHashMap<>();
+    for (ConsumerRecord<String, AccountBalance> record : records) {
+      if (record.value() == null) {
+        log.warn("Record {}-{}@{} is not an account balance and is skipped", record.topic(),
+                record.partition(), record.offset());
+        continue;
+      }
+      balances.put(Long.valueOf(record.key()), record.value());
+    }
+    List<Account> accounts = accountRepository.findAllById(balances.keySet());
+    accounts.forEach(account -> balances.get(account.getId()).applyTo(account));
+    accountRepository.saveAll(accounts);
+    log.info("Balances of {} accounts materialized", accounts.size());
+  }
+}
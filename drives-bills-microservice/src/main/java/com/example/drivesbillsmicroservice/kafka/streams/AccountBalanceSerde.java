@@ -0,0 +1,44 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import java.nio.ByteBuffer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Binary format of the account balances and adjustments, which only drives-bills reads and
+ * writes: a version byte followed by the red, green and blue amounts in minor units as
+ * longs. Version 1 held the amounts as doubles, its records are rejected.
+ */
+public class AccountBalanceSerde implements Serde<AccountBalance> {
+  static final int VERSION = 2;
+  private static final int SIZE = 1 + 3 * Long.BYTES;
+
+  public static byte[] encode(AccountBalance balance) {
+    return ByteBuffer.allocate(SIZE)
+            .put((byte) VERSION)
+            .putLong(balance.getRedDollar())
+            .putLong(balance.getGreenDollar())
+            .putLong(balance.getBlueDollar())
+            .array();
+  }
+
+  public static AccountBalance decode(byte[] data) {
+    if (data.length != SIZE || data[0] != VERSION) {
+      throw new SerializationException("Not an account balance of version " + VERSION);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(data, 1, SIZE - 1);
+    return new AccountBalance(buffer.getLong(), buffer.getLong(), buffer.getLong());
+  }
+
+  @Override
+  public Serializer<AccountBalance> serializer() {
+    return (topic, balance) -> balance == null ? null : encode(balance);
+  }
+
+  @Override
+  public Deserializer<AccountBalance> deserializer() {
+    return (topic, data) -> data == null ? null : decode(data);
+  }
+}
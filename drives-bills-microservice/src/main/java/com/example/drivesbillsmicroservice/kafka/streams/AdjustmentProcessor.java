@@ -0,0 +1,37 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.processor.api.Record;
+
+/**
+ * Applies the credits and debits requested through the account API, which are consumed from
+ * the account adjustment topic keyed by account ID. An adjustment to an unknown account, or
+ * that would leave a balance below zero, is rejected and skipped.
+ */
+@Slf4j
+class AdjustmentProcessor extends BalanceProcessor<AccountBalance> {
+
+  AdjustmentProcessor(AccountBalanceLoader accountBalanceLoader) {
+    super(accountBalanceLoader);
+  }
+
+  @Override
+  public void process(Record<String, AccountBalance> record) {
+    if (record.key() == null || record.value() == null) {
+      log.warn("Adjustment without account or amounts is skipped");
+      return;
+    }
+    AccountBalance balance = balanceOf(record.key());
+    if (balance == null) {
+      log.warn("Adjustment {} rejected, no account {}", record.value(), record.key());
+      return;
+    }
+    AccountBalance adjusted = balance.plus(record.value());
+    if (adjusted.isNegative()) {
+      log.warn("Adjustment {} rejected, insufficient balance of account {}", record.value(),
+              record.key());
+      return;
+    }
+    update(record.key(), adjusted, record.timestamp());
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+/**
+ * Base of the processors of the PaymentTopology that read and change the balances held by
+ * the account-balances store, keyed by account ID.
+ * An account missing from the store is loaded once by the AccountBalanceLoader; from then on
+ * the store is the only owner of its balances. Every change is forwarded to the balances
+ * sink, from which the database is updated.
+ *
+ * @param <V> the type of the consumed values
+ */
+abstract class BalanceProcessor<V> implements Processor<String, V, String, Object> {
+  private final AccountBalanceLoader accountBalanceLoader;
+  private ProcessorContext<String, Object> context;
+  private KeyValueStore<String, AccountBalance> balances;
+
+  BalanceProcessor(AccountBalanceLoader accountBalanceLoader) {
+    this.accountBalanceLoader = accountBalanceLoader;
+  }
+
+  @Override
+  public void init(ProcessorContext<String, Object> context) {
+    this.context = context;
+    this.balances = context.getStateStore(PaymentTopology.BALANCE_STORE);
+  }
+
+  ProcessorContext<String, Object> context() {
+    return context;
+  }
+
+  /**
+   * Returns the balances of an account, null if there is no such account.
+   */
+  AccountBalance balanceOf(String accountId) {
+    AccountBalance balance = balances.get(accountId);
+    if (balance == null) {
+      balance = load(accountId);
+      if (balance != null) {
+        balances.put(accountId, balance);
+      }
+    }
+    return balance;
+  }
+
+  private AccountBalance load(String accountId) {
+    try {
+      return accountBalanceLoader.load(Long.valueOf(accountId)).orElse(null);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  void update(String accountId, AccountBalance balance, long timestamp) {
+    balances.put(accountId, balance);
+    context.forward(new Record<String, Object>(accountId, balance, timestamp, new RecordHeaders()),
+            PaymentTopology.BALANCE_SINK);
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.processor.api.Record;
+import org.springframework.kafka.support.KafkaHeaders;
+
+/**
+ * Pays the details of the "topic.car" topic from the balances of the driver's account.
+ * A paid detail is forwarded to the install sink, keyed by license plate. When the record
+ * carries a reply topic, the outcome of the payment is forwarded to the reply sink with the
+ * correlation id of the record, refusals included.
+ */
+@Slf4j
+class PaymentProcessor extends BalanceProcessor<Object> {
+
+  PaymentProcessor(AccountBalanceLoader accountBalanceLoader) {
+    super(accountBalanceLoader);
+  }
+
+  @Override
+  public void process(Record<String, Object> record) {
+    if (!(record.value() instanceof DetailAddEvent detailAddEvent)) {
+      log.warn("Record with key {} is not a detail to pay and is skipped", record.key());
+      return;
+    }
+    DetailPaymentEvent.Status status = pay(detailAddEvent, record.timestamp());
+    if (status == DetailPaymentEvent.Status.PAID) {
+      context().forward(new Record<String, Object>(detailAddEvent.getLicensePlate(),
+              detailAddEvent, record.timestamp(), new RecordHeaders()),
+              PaymentTopology.INSTALL_SINK);
+    }
+    reply(record, detailAddEvent, status);
+  }
+
+  private DetailPaymentEvent.Status pay(DetailAddEvent detailAddEvent, long timestamp) {
+    String accountId = String.valueOf(detailAddEvent.getDriverId());
+    AccountBalance balance = balanceOf(accountId);
+    if (balance == null) {
+      log.warn("Detail {} not paid, no account for driver {}",
+              detailAddEvent.getSerialNumber(), detailAddEvent.getDriverId());
+      return DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND;
+    }
+    Currency currency = Currency.valueOf(detailAddEvent.getCurrency());
+    long amount = detailAddEvent.priceInMinorUnits();
+    if (balance.get(currency) - amount < 0) {
+      log.warn("Detail {} not paid, insufficient balance of driver {}",
+              detailAddEvent.getSerialNumber(), detailAddEvent.getDriverId());
+      return DetailPaymentEvent.Status.INSUFFICIENT_BALANCE;
+    }
+    update(accountId, balance.plus(AccountBalance.of(currency, -amount)), timestamp);
+    return DetailPaymentEvent.Status.PAID;
+  }
+
+  private void reply(Record<String, Object> record,
+                     DetailAddEvent detailAddEvent,
+                     DetailPaymentEvent.Status status) {
+    Header replyTopic = record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC);
+    if (replyTopic == null) {
+      return;
+    }
+    RecordHeaders headers = new RecordHeaders();
+    headers.add(replyTopic);
+    Header correlationId = record.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+    if (correlationId != null) {
+      headers.add(correlationId);
+    }
+    DetailPaymentEvent detailPaymentEvent = DetailPaymentEvent.builder()
+            .serialNumber(detailAddEvent.getSerialNumber())
+            .licensePlate(detailAddEvent.getLicensePlate())
+            .driverId(detailAddEvent.getDriverId())
+            .status(status)
+            .build();
+    context().forward(new Record<String, Object>(String.valueOf(detailAddEvent.getDriverId()),
+            detailPaymentEvent, record.timestamp(), headers), PaymentTopology.REPLY_SINK);
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import com.example.drivesbillsmicroservice.kafka.codec.EventDeserializer;
+import com.example.drivesbillsmicroservice.kafka.codec.EventSerializer;
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.processor.TopicNameExtractor;
+import org.apache.kafka.streams.state.Stores;
+import org.springframework.kafka.support.KafkaHeaders;
+
+/**
+ * Kafka Streams engine of the purchase-and-install flow, the alternative to the listeners of
+ * the "topic.car" topic enabled with kafka.streams.enabled.
+ * Account balances live in the account-balances store, a local persistent store that is
+ * changelogged to Kafka, so a debit is validated by a local lookup instead of a database
+ * round trip. The "topic.car" records are keyed by driver ID and the adjustment records by
+ * account ID, which is the same ID, so the store of a partition holds all the balances its
+ * records need, as long as {@value #ADJUSTMENT_TOPIC} has as many partitions as "topic.car".
+ * Nodes:
+ * <ul>
+ *   <li>payments: pays the details of "topic.car", see PaymentProcessor;</li>
+ *   <li>adjustments: applies the credits and debits of {@value #ADJUSTMENT_TOPIC}, see
+ *   AdjustmentProcessor;</li>
+ *   <li>installs: paid details, to "topic.add.detail";</li>
+ *   <li>replies: payment outcomes, to the reply topic of their request;</li>
+ *   <li>balances: the new balances of an account after each change, to the compacted
+ *   {@value #BALANCE_TOPIC} topic from which the AccountBalanceMaterializer updates the
+ *   database asynchronously.</li>
+ * </ul>
+ */
+public final class PaymentTopology {
+  public static final String CAR_TOPIC = "topic.car";
+  public static final String ADD_DETAIL_TOPIC = "topic.add.detail";
+  public static final String ADJUSTMENT_TOPIC = "topic.account.adjustment";
+  public static final String BALANCE_TOPIC = "topic.account.balance";
+  public static final String BALANCE_STORE = "account-balances";
+
+  static final String INSTALL_SINK = "installs";
+  static final String REPLY_SINK = "replies";
+  static final String BALANCE_SINK = "balances";
+  private static final String CAR_SOURCE = "cars";
+  private static final String ADJUSTMENT_SOURCE = "adjustment-requests";
+  private static final String PAYMENT_PROCESSOR = "payments";
+  private static final String ADJUSTMENT_PROCESSOR = "adjustments";
+
+  private PaymentTopology() {
+  }
+
+  public static Topology build(AccountBalanceLoader accountBalanceLoader) {
+    return configure(new Topology(), accountBalanceLoader);
+  }
+
+  /**
+   * Adds the nodes and the store of the payment flow to a topology.
+   *
+   * @param topology             The topology to add to.
+   * @param accountBalanceLoader The loader of the balances missing from the store.
+   * @return the topology
+   */
+  public static Topology configure(Topology topology, AccountBalanceLoader accountBalanceLoader) {
+    AccountBalanceSerde accountBalanceSerde = new AccountBalanceSerde();
+    return topology
+            .addSource(CAR_SOURCE, new StringDeserializer(), new EventDeserializer(), CAR_TOPIC)
+            .addSource(ADJUSTMENT_SOURCE, new StringDeserializer(),
+                    accountBalanceSerde.deserializer(), ADJUSTMENT_TOPIC)
+            .addProcessor(PAYMENT_PROCESSOR,
+                    () -> new PaymentProcessor(accountBalanceLoader), CAR_SOURCE)
+            .addProcessor(ADJUSTMENT_PROCESSOR,
+                    () -> new AdjustmentProcessor(accountBalanceLoader), ADJUSTMENT_SOURCE)
+            .addStateStore(Stores.keyValueStoreBuilder(
+                    Stores.persistentKeyValueStore(BALANCE_STORE),
+                    Serdes.String(), accountBalanceSerde),
+                    PAYMENT_PROCESSOR, ADJUSTMENT_PROCESSOR)
+            .addSink(INSTALL_SINK, ADD_DETAIL_TOPIC, new StringSerializer(),
+                    new EventSerializer(), PAYMENT_PROCESSOR)
+            .addSink(REPLY_SINK, replyTopic(), new StringSerializer(),
+                    new EventSerializer(), PAYMENT_PROCESSOR)
+            .addSink(BALANCE_SINK, BALANCE_TOPIC, new StringSerializer(),
+                    accountBalanceSerde.serializer(), PAYMENT_PROCESSOR, ADJUSTMENT_PROCESSOR);
+  }
+
+  private static TopicNameExtractor<String, Object> replyTopic() {
+    return (key, value, recordContext) -> new String(
+            recordContext.headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value(),
+            StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import java.util.List;
+import java.util.Map;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the balances of the ledger in the accounts table. The accounts of a flush are
+ * loaded and saved together in one transaction.
+ */
+public class AccountLedgerStore implements LedgerStore {
+  private final AccountRepository accountRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public AccountLedgerStore(AccountRepository accountRepository,
+                            TransactionTemplate transactionTemplate) {
+    this.accountRepository = accountRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  @Override
+  public AccountBalance load(long accountId) {
+    return accountRepository.findById(accountId).map(AccountBalance::of).orElse(null);
+  }
+
+  @Override
+  public void store(Map<Long, AccountBalance> balances) {
+    transactionTemplate.executeWithoutResult(status -> {
+      List<Account> accounts = accountRepository.findAllById(balances.keySet());
+      accounts.forEach(account -> balances.get(account.getId()).applyTo(account));
+      accountRepository.saveAll(accounts);
+    });
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+/**
+ * Slot of a LedgerRingBuffer. Slots are allocated once and reused by every command that
+ * passes through them.
+ */
+final class LedgerCommand {
+  static final int CREDIT = 0;
+  static final int DEBIT = 1;
+  static final int READ = 2;
+
+  int type;
+  long accountId;
+  int currency;
+  long amount;
+  LedgerReply reply;
+  int status;
+}
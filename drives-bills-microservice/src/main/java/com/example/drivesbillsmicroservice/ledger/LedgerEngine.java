@@ -0,0 +1,113 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory ledger of the account balances, in the style of a single-writer engine.
+ * Accounts are spread by id over shards; each shard has a ring of commands and one writer
+ * thread that owns the balances of its accounts, so balance changes never wait for a lock
+ * and an account is never changed by two threads at once. A change is answered once it is
+ * journaled, and the accounts table is updated behind, in batches. On start, each shard
+ * replays the changes it journaled after the last batch stored.
+ * The engine has to be the only writer of the balances of the accounts table.
+ */
+@Slf4j
+public class LedgerEngine implements AutoCloseable {
+  private static final long REPLY_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  private final LedgerShard[] shards;
+  private final ExecutorService flusher;
+
+  /**
+   * Opens the journals of the shards, replays them and starts the writers.
+   *
+   * @param directory     The directory holding one journal directory per shard.
+   * @param shards        The number of shards, that is of writer threads.
+   * @param ringSize      The number of commands a shard can hold before submitting waits.
+   * @param flushInterval The time between two writes of the changed balances to the store.
+   * @param segmentSize   The size above which a journal starts a new segment file.
+   * @param fsync         Whether a change is answered only once it is on disk.
+   * @param store         The store of the balances.
+   */
+  public LedgerEngine(Path directory, int shards, int ringSize, Duration flushInterval,
+                      long segmentSize, boolean fsync, LedgerStore store) {
+    if (shards < 1 || ringSize < 1) {
+      throw new IllegalArgumentException("shards and ringSize must be positive");
+    }
+    this.flusher = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "ledger-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.shards = new LedgerShard[shards];
+    for (int i = 0; i < shards; i++) {
+      this.shards[i] = new LedgerShard(i, new LedgerRingBuffer(ringSize),
+              new LedgerJournal(directory.resolve("shard-" + i), segmentSize, fsync),
+              store, flusher, flushInterval.toNanos());
+    }
+    for (LedgerShard shard : this.shards) {
+      shard.start();
+    }
+    log.info("Ledger started with {} shards in {}", shards, directory);
+  }
+
+  public void credit(long accountId, long amount, Currency currency) {
+    execute(LedgerCommand.CREDIT, accountId, amount, currency);
+  }
+
+  public void debit(long accountId, long amount, Currency currency) {
+    execute(LedgerCommand.DEBIT, accountId, amount, currency);
+  }
+
+  public AccountBalance getBalances(long accountId) {
+    LedgerReply reply = execute(LedgerCommand.READ, accountId, 0, Currency.RED);
+    return new AccountBalance(reply.balances[0], reply.balances[1], reply.balances[2]);
+  }
+
+  int shardOf(long accountId) {
+    long hash = accountId * 0x9E3779B97F4A7C15L;
+    return Math.floorMod((int) (hash ^ (hash >>> 32)), shards.length);
+  }
+
+  /**
+   * Answers the commands in the rings, stores the changed balances and stops the writers.
+   */
+  @Override
+  public void close() {
+    for (LedgerShard shard : shards) {
+      shard.close();
+    }
+    flusher.shutdown();
+  }
+
+  private LedgerReply execute(int type, long accountId, long amount, Currency currency) {
+    LedgerReply reply = new LedgerReply();
+    shards[shardOf(accountId)].submit(type, accountId, currency.ordinal(), amount, reply);
+    switch (reply.await(REPLY_TIMEOUT_NANOS)) {
+      case LedgerReply.ACCOUNT_NOT_FOUND ->
+              throw new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND);
+      case LedgerReply.INSUFFICIENT_BALANCE ->
+              throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
+      case LedgerReply.FAILED ->
+              throw new IllegalStateException("Ledger could not process account " + accountId);
+      case LedgerReply.TIMED_OUT ->
+              throw new IllegalStateException("Ledger did not answer for account " + accountId
+                      + " in " + TimeUnit.NANOSECONDS.toMillis(REPLY_TIMEOUT_NANOS)
+                      + " ms, the outcome is unknown: the command is still queued and may be"
+                      + " applied later");
+      default -> {
+        return reply;
+      }
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the balance changes of a ledger shard.
+ * A record holds its sequence, the account, the currency, the amount and the balance of the
+ * currency after the change, both in minor units, followed by the CRC32C of these fields.
+ * Replaying a record sets the balance rather than adding the amount, so a record replayed
+ * onto a table that already holds its change does no harm.
+ * Records are written to segment files named after the sequence of their first record. The
+ * checkpoint file holds the sequence up to which the balances are stored in the accounts
+ * table; segments below it are deleted. On opening, the journal is cut at the first record
+ * that is incomplete or corrupt, which a crash in the middle of a write leaves behind.
+ * A journal is used by the writer thread of its shard only, except for the checkpoint.
+ */
+@Slf4j
+final class LedgerJournal implements AutoCloseable {
+  static final int RECORD_SIZE = 4 * Long.BYTES + 1 + Integer.BYTES;
+  private static final int CHECKSUMMED_SIZE = RECORD_SIZE - Integer.BYTES;
+  private static final int BUFFER_RECORDS = 1024;
+  private static final String SEGMENT_SUFFIX = ".journal";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+
+  private final Path directory;
+  private final long segmentSize;
+  private final boolean fsync;
+  private final NavigableMap<Long, Path> segments = new TreeMap<>();
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE);
+  private final CRC32C crc = new CRC32C();
+  private FileChannel channel;
+  private long channelSize;
+  private long lastSequence;
+
+  /**
+   * Receives the records replayed from the journal.
+   */
+  interface RecordHandler {
+    void accept(long accountId, int currency, long balance);
+  }
+
+  /**
+   * Opens the journal of a directory, cutting it at its first invalid record.
+   *
+   * @param directory   The directory of the segment and checkpoint files.
+   * @param segmentSize The size above which a new segment file is started.
+   * @param fsync       Whether a flush waits for the records to be on disk.
+   */
+  LedgerJournal(Path directory, long segmentSize, boolean fsync) {
+    this.directory = directory;
+    this.segmentSize = Math.max(RECORD_SIZE, segmentSize - segmentSize % RECORD_SIZE);
+    this.fsync = fsync;
+    try {
+      Files.createDirectories(directory);
+      try (Stream<Path> files = Files.list(directory)) {
+        files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .forEach(file -> segments.put(firstSequenceOf(file), file));
+      }
+      lastSequence = checkpoint();
+      recover();
+      Path current = segments.isEmpty() ? createSegment(lastSequence + 1)
+              : segments.lastEntry().getValue();
+      channel = FileChannel.open(current, StandardOpenOption.WRITE);
+      channelSize = channel.size();
+      channel.position(channelSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Ledger journal " + directory + " cannot be opened", e);
+    }
+  }
+
+  /**
+   * Replays the records written after the checkpoint, in sequence order.
+   */
+  void replay(RecordHandler handler) {
+    long checkpoint = checkpoint();
+    try {
+      for (Path segment : segments.values()) {
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(segment));
+        while (records.remaining() >= RECORD_SIZE) {
+          long sequence = records.getLong();
+          long accountId = records.getLong();
+          int currency = records.get();
+          records.getLong();
+          long balance = records.getLong();
+          records.getInt();
+          if (sequence > checkpoint) {
+            handler.accept(accountId, currency, balance);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Ledger journal " + directory + " cannot be read", e);
+    }
+  }
+
+  /**
+   * Appends a record to the buffer and returns its sequence. The record is written by the
+   * next flush.
+   */
+  long append(long accountId, int currency, long amount, long balance) {
+    if (!buffer.hasRemaining()) {
+      write();
+    }
+    if (channelSize + buffer.position() >= segmentSize) {
+      roll();
+    }
+    long sequence = ++lastSequence;
+    int start = buffer.position();
+    buffer.putLong(sequence)
+            .putLong(accountId)
+            .put((byte) currency)
+            .putLong(amount)
+            .putLong(balance);
+    crc.reset();
+    crc.update(buffer.duplicate().position(start).limit(start + CHECKSUMMED_SIZE));
+    buffer.putInt((int) crc.getValue());
+    return sequence;
+  }
+
+  /**
+   * Writes the buffered records, and waits for them to be on disk if fsync is set.
+   */
+  void flush() {
+    write();
+    if (fsync) {
+      try {
+        channel.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Ledger journal " + directory + " cannot be flushed", e);
+      }
+    }
+  }
+
+  long lastSequence() {
+    return lastSequence;
+  }
+
+  long checkpoint() {
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    try {
+      return Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Ledger checkpoint " + checkpoint + " cannot be read", e);
+    }
+  }
+
+  /**
+   * Records that the balances are stored up to a sequence. Called by the flusher.
+   */
+  void checkpoint(long sequence) {
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+    try {
+      Files.writeString(temporary, Long.toString(sequence));
+      Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Ledger checkpoint " + checkpoint + " cannot be written", e);
+    }
+  }
+
+  /**
+   * Deletes the segments whose records are all at or below a sequence, except the segment
+   * being written.
+   */
+  void deleteUpTo(long sequence) {
+    Map.Entry<Long, Path> next = segments.higherEntry(segments.firstKey());
+    while (next != null && next.getKey() - 1 <= sequence) {
+      Map.Entry<Long, Path> first = segments.pollFirstEntry();
+      try {
+        Files.deleteIfExists(first.getValue());
+      } catch (IOException e) {
+        log.warn("Ledger segment {} could not be deleted", first.getValue(), e);
+      }
+      next = segments.higherEntry(segments.firstKey());
+    }
+  }
+
+  int segmentCount() {
+    return segments.size();
+  }
+
+  @Override
+  public void close() {
+    try {
+      flush();
+    } catch (UncheckedIOException e) {
+      log.warn("Ledger journal {} could not be flushed on close", directory, e);
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Ledger journal {} could not be closed", directory, e);
+    }
+  }
+
+  private void recover() throws IOException {
+    long expected = segments.isEmpty() ? lastSequence + 1 : segments.firstKey();
+    boolean corrupt = false;
+    for (Map.Entry<Long, Path> segment : segments.entrySet().stream().toList()) {
+      if (corrupt) {
+        Files.delete(segment.getValue());
+        segments.remove(segment.getKey());
+        continue;
+      }
+      ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(segment.getValue()));
+      int valid = 0;
+      while (records.remaining() >= RECORD_SIZE && isValid(records, expected)) {
+        valid += RECORD_SIZE;
+        records.position(valid);
+        expected++;
+      }
+      if (valid < records.limit()) {
+        log.warn("Ledger segment {} is cut at byte {} of {}", segment.getValue(), valid,
+                records.limit());
+        try (FileChannel file = FileChannel.open(segment.getValue(), StandardOpenOption.WRITE)) {
+          file.truncate(valid);
+        }
+        corrupt = true;
+      }
+    }
+    lastSequence = Math.max(lastSequence, expected - 1);
+  }
+
+  private boolean isValid(ByteBuffer records, long expected) {
+    int start = records.position();
+    crc.reset();
+    crc.update(records.duplicate().limit(start + CHECKSUMMED_SIZE));
+    return records.getLong(start) == expected
+            && records.getInt(start + CHECKSUMMED_SIZE) == (int) crc.getValue();
+  }
+
+  private void write() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channelSize += channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Ledger journal " + directory + " cannot be written", e);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  private void roll() {
+    flush();
+    try {
+      channel.close();
+      channel = FileChannel.open(createSegment(lastSequence + 1), StandardOpenOption.WRITE);
+      channelSize = 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Ledger journal " + directory + " cannot be rolled", e);
+    }
+  }
+
+  private Path createSegment(long firstSequence) throws IOException {
+    Path segment = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+    Files.createFile(segment);
+    segments.put(firstSequence, segment);
+    return segment;
+  }
+
+  private static long firstSequenceOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+}
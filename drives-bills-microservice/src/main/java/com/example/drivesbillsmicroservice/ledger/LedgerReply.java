@@ -0,0 +1,47 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Answer of a single ledger command. The writer thread fills it in and wakes the owner up.
+ * A reply is never reused: a command whose owner stopped waiting stays in the ring and is
+ * still answered later, and that late answer must not reach another command.
+ */
+final class LedgerReply {
+  static final int OK = 0;
+  static final int ACCOUNT_NOT_FOUND = 1;
+  static final int INSUFFICIENT_BALANCE = 2;
+  static final int FAILED = 3;
+  static final int TIMED_OUT = 4;
+  private static final int SPINS = 100;
+
+  final long[] balances = new long[3];
+  private final Thread owner = Thread.currentThread();
+  private int status;
+  private volatile boolean done;
+
+  void complete(int status) {
+    this.status = status;
+    done = true;
+    LockSupport.unpark(owner);
+  }
+
+  /**
+   * Waits for the command to be answered and returns its status, or {@link #TIMED_OUT} when
+   * no answer came in time.
+   */
+  int await(long timeoutNanos) {
+    for (int i = 0; i < SPINS && !done; i++) {
+      Thread.onSpinWait();
+    }
+    long deadline = System.nanoTime() + timeoutNanos;
+    while (!done) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return TIMED_OUT;
+      }
+      LockSupport.parkNanos(this, remaining);
+    }
+    return status;
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring of preallocated command slots with many producers and a single consumer.
+ * A producer claims the next sequence, fills the slot of the sequence in and publishes it;
+ * the consumer takes every published slot in sequence order and releases them once handled,
+ * which makes room for producers waiting on a full ring. Nothing is allocated or locked on
+ * the way.
+ */
+final class LedgerRingBuffer {
+  private static final long FULL_PARK_NANOS = 1_000;
+
+  private final LedgerCommand[] slots;
+  private final AtomicLongArray published;
+  private final int mask;
+  private final AtomicLong claimed = new AtomicLong(-1);
+  private volatile long released = -1;
+
+  LedgerRingBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.slots = new LedgerCommand[size];
+    this.published = new AtomicLongArray(size);
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      slots[i] = new LedgerCommand();
+      published.set(i, -1);
+    }
+  }
+
+  /**
+   * Claims the next sequence, waiting while the ring is full.
+   */
+  long claim() {
+    long sequence = claimed.incrementAndGet();
+    while (sequence - slots.length > released) {
+      LockSupport.parkNanos(FULL_PARK_NANOS);
+    }
+    return sequence;
+  }
+
+  LedgerCommand get(long sequence) {
+    return slots[(int) sequence & mask];
+  }
+
+  void publish(long sequence) {
+    published.set((int) sequence & mask, sequence);
+  }
+
+  /**
+   * Returns the last sequence published without a gap since the last released one.
+   */
+  long lastPublished() {
+    long sequence = released;
+    long limit = sequence + slots.length;
+    while (sequence < limit && published.get((int) (sequence + 1) & mask) == sequence + 1) {
+      sequence++;
+    }
+    return sequence;
+  }
+
+  long released() {
+    return released;
+  }
+
+  void release(long sequence) {
+    released = sequence;
+  }
+
+  boolean isEmpty() {
+    return claimed.get() == released;
+  }
+
+  int capacity() {
+    return slots.length;
+  }
+}
@@ -0,0 +1,304 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Owns the balances of a subset of the accounts. A single writer thread takes the commands
+ * from the ring of the shard in batches: it applies the commands of a batch to the balances
+ * in memory, journals the changes, flushes the journal once for the whole batch and only
+ * then answers the commands. Since nothing else touches the balances, they need no locks.
+ * Changed accounts are written behind: every flush interval the writer hands a copy of
+ * their balances to the flusher, which stores them and moves the checkpoint of the journal
+ * to the last change they include. A flush that fails is retried with the next one.
+ * An account is loaded from the store the first time it is used; on start, the changes
+ * journaled after the checkpoint are replayed onto the loaded balances.
+ */
+@Slf4j
+final class LedgerShard implements AutoCloseable {
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final int IDLE_SPINS = 1000;
+  private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+  private final int index;
+  private final LedgerRingBuffer ring;
+  private final LedgerJournal journal;
+  private final LedgerStore store;
+  private final Executor flusher;
+  private final long flushIntervalNanos;
+  private final Map<Long, long[]> balances = new HashMap<>();
+  private final Set<Long> changed = new HashSet<>();
+  private final Thread writer;
+  private Flush pendingFlush;
+  private long flushedAt;
+  private boolean failed;
+  private volatile boolean running = true;
+  private volatile boolean idle;
+
+  LedgerShard(int index, LedgerRingBuffer ring, LedgerJournal journal, LedgerStore store,
+              Executor flusher, long flushIntervalNanos) {
+    this.index = index;
+    this.ring = ring;
+    this.journal = journal;
+    this.store = store;
+    this.flusher = flusher;
+    this.flushIntervalNanos = flushIntervalNanos;
+    journal.replay((accountId, currency, balance) -> {
+      long[] account = account(accountId);
+      if (account != null) {
+        account[currency] = balance;
+        changed.add(accountId);
+      }
+    });
+    if (!changed.isEmpty()) {
+      log.info("Ledger shard {} replayed the changes of {} accounts", index, changed.size());
+    }
+    this.writer = new Thread(this::run, "ledger-writer-" + index);
+    this.writer.setDaemon(true);
+  }
+
+  void start() {
+    writer.start();
+  }
+
+  /**
+   * Hands a command to the writer. The reply is completed once the command is applied and,
+   * for a change, journaled.
+   */
+  void submit(int type, long accountId, int currency, long amount, LedgerReply reply) {
+    if (!running) {
+      throw new IllegalStateException("Ledger shard " + index + " is closed");
+    }
+    long sequence = ring.claim();
+    LedgerCommand command = ring.get(sequence);
+    command.type = type;
+    command.accountId = accountId;
+    command.currency = currency;
+    command.amount = amount;
+    command.reply = reply;
+    ring.publish(sequence);
+    if (idle) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  /**
+   * Stops the writer once the commands in the ring are answered, then stores the changed
+   * balances and moves the checkpoint to the end of the journal.
+   */
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(TimeUnit.NANOSECONDS.toMillis(CLOSE_TIMEOUT_NANOS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+    while (pendingFlush != null && !pendingFlush.isDone() && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+    completeFlush();
+    if (!changed.isEmpty()) {
+      Flush flush = snapshot();
+      flush.run();
+      if (flush.failed) {
+        log.error("Ledger shard {} could not store {} accounts on close, they are replayed "
+                + "from the journal on start", index, flush.balances.size());
+      }
+    }
+    journal.close();
+  }
+
+  private void run() {
+    int spins = 0;
+    while (running || !ring.isEmpty()) {
+      long first = ring.released() + 1;
+      long last = ring.lastPublished();
+      if (last >= first) {
+        handle(first, last);
+        spins = 0;
+      } else if (++spins > IDLE_SPINS) {
+        idle = true;
+        if (ring.lastPublished() < first) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        idle = false;
+        spins = 0;
+      } else {
+        Thread.onSpinWait();
+      }
+      maintainFlush();
+    }
+  }
+
+  private void handle(long first, long last) {
+    boolean journaled = false;
+    boolean journalFailed = failed;
+    for (long sequence = first; sequence <= last && !journalFailed; sequence++) {
+      LedgerCommand command = ring.get(sequence);
+      try {
+        command.status = apply(command);
+        journaled |= command.status == LedgerReply.OK && command.type != LedgerCommand.READ;
+      } catch (UncheckedIOException e) {
+        journalFailed = true;
+        stop(e);
+      } catch (RuntimeException e) {
+        log.error("Ledger command on account {} failed", command.accountId, e);
+        command.status = LedgerReply.FAILED;
+      }
+    }
+    if (journaled && !journalFailed) {
+      try {
+        journal.flush();
+      } catch (UncheckedIOException e) {
+        journalFailed = true;
+        stop(e);
+      }
+    }
+    for (long sequence = first; sequence <= last; sequence++) {
+      LedgerCommand command = ring.get(sequence);
+      LedgerReply reply = command.reply;
+      command.reply = null;
+      if (journalFailed) {
+        reply.complete(LedgerReply.FAILED);
+        continue;
+      }
+      if (command.status == LedgerReply.OK) {
+        System.arraycopy(balances.get(command.accountId), 0, reply.balances, 0, 3);
+      }
+      reply.complete(command.status);
+    }
+    ring.release(last);
+  }
+
+  /**
+   * Stops the shard when its journal cannot be written. The balances in memory may hold
+   * changes that are not journaled, they are dropped and the shard refuses further commands.
+   */
+  private void stop(UncheckedIOException e) {
+    log.error("Ledger shard {} cannot write its journal and stops", index, e);
+    running = false;
+    failed = true;
+    balances.clear();
+    changed.clear();
+  }
+
+  /**
+   * Applies a command to the balances and returns its status.
+   */
+  private int apply(LedgerCommand command) {
+    long[] account = account(command.accountId);
+    if (account == null) {
+      return LedgerReply.ACCOUNT_NOT_FOUND;
+    }
+    switch (command.type) {
+      case LedgerCommand.CREDIT -> account[command.currency] += command.amount;
+      case LedgerCommand.DEBIT -> {
+        if (account[command.currency] < command.amount) {
+          return LedgerReply.INSUFFICIENT_BALANCE;
+        }
+        account[command.currency] -= command.amount;
+      }
+      default -> {
+        return LedgerReply.OK;
+      }
+    }
+    long amount = command.type == LedgerCommand.CREDIT ? command.amount : -command.amount;
+    journal.append(command.accountId, command.currency, amount, account[command.currency]);
+    changed.add(command.accountId);
+    return LedgerReply.OK;
+  }
+
+  private long[] account(long accountId) {
+    long[] account = balances.get(accountId);
+    if (account == null) {
+      AccountBalance loaded = store.load(accountId);
+      if (loaded == null) {
+        return null;
+      }
+      account = new long[] {loaded.getRedDollar(), loaded.getGreenDollar(),
+          loaded.getBlueDollar()};
+      balances.put(accountId, account);
+    }
+    return account;
+  }
+
+  private void maintainFlush() {
+    if (pendingFlush != null) {
+      if (!pendingFlush.isDone()) {
+        return;
+      }
+      completeFlush();
+    }
+    long now = System.nanoTime();
+    if (!changed.isEmpty() && now - flushedAt >= flushIntervalNanos) {
+      flushedAt = now;
+      pendingFlush = snapshot();
+      flusher.execute(pendingFlush);
+    }
+  }
+
+  private void completeFlush() {
+    if (pendingFlush == null || !pendingFlush.isDone()) {
+      return;
+    }
+    if (pendingFlush.failed) {
+      changed.addAll(pendingFlush.balances.keySet());
+    } else {
+      journal.deleteUpTo(pendingFlush.sequence);
+    }
+    pendingFlush = null;
+  }
+
+  private Flush snapshot() {
+    Map<Long, AccountBalance> snapshot = new HashMap<>(changed.size() * 2);
+    for (Long accountId : changed) {
+      long[] account = balances.get(accountId);
+      snapshot.put(accountId, new AccountBalance(account[0], account[1], account[2]));
+    }
+    changed.clear();
+    return new Flush(snapshot, journal.lastSequence());
+  }
+
+  /**
+   * Write-behind of the balances changed up to a journal sequence.
+   */
+  private final class Flush implements Runnable {
+    private final Map<Long, AccountBalance> balances;
+    private final long sequence;
+    private volatile boolean done;
+    private boolean failed;
+
+    Flush(Map<Long, AccountBalance> balances, long sequence) {
+      this.balances = balances;
+      this.sequence = sequence;
+    }
+
+    boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public void run() {
+      try {
+        store.store(balances);
+        journal.checkpoint(sequence);
+      } catch (RuntimeException e) {
+        log.warn("Ledger shard {} could not store {} accounts, they are stored with the next "
+                + "flush", index, balances.size(), e);
+        failed = true;
+      }
+      done = true;
+    }
+  }
+}
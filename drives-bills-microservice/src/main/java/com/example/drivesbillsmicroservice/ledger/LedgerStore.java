@@ -0,0 +1,21 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import java.util.Map;
+
+/**
+ * Durable store behind the LedgerEngine, which loads an account the first time it is used
+ * and writes the balances of changed accounts behind.
+ */
+public interface LedgerStore {
+
+  /**
+   * Returns the balances of an account, or null if there is no such account.
+   */
+  AccountBalance load(long accountId);
+
+  /**
+   * Writes the balances of accounts, all of them or none.
+   */
+  void store(Map<Long, AccountBalance> balances);
+}
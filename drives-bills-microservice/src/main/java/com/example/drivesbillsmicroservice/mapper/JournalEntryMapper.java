@@ -0,0 +1,21 @@
+package com.example.drivesbillsmicroservice.mapper;
+
+import com.example.drivesbillsmicroservice.dto.account.statement.StatementEntryDto;
+import com.example.drivesbillsmicroservice.entity.JournalEntry;
+import com.example.drivesbillsmicroservice.money.Money;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Mapper interface for converting journal entries to statement lines.
+ */
+@Mapper(imports = Money.class)
+public interface JournalEntryMapper {
+  JournalEntryMapper INSTANCE = Mappers.getMapper(JournalEntryMapper.class);
+
+  @Mapping(target = "amount", expression = "java(Money.toDecimal(journalEntry.getAmount()))")
+  @Mapping(target = "convertedAmount", ignore = true)
+  @Mapping(target = "rateVersion", ignore = true)
+  StatementEntryDto toStatementEntry(JournalEntry journalEntry);
+}
@@ -0,0 +1,65 @@
+package com.example.drivesbillsmicroservice.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts of money are longs counting minor units, cents of a dollar of any currency, so
+ * that sums are exact and cost no allocation. Decimal amounts only exist at the edges of the
+ * service: the REST and gRPC APIs and the events of older writers. Every rounding is half
+ * even, whether it rounds a decimal to cents or a conversion.
+ */
+public final class Money {
+  public static final int SCALE = 2;
+  public static final long UNIT = 100;
+
+  private Money() {
+  }
+
+  /**
+   * Converts a decimal amount to minor units, rounding to cents.
+   *
+   * @throws ArithmeticException if the amount does not fit a long
+   */
+  public static long fromDecimal(BigDecimal amount) {
+    return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal toDecimal(long amount) {
+    return BigDecimal.valueOf(amount, SCALE);
+  }
+
+  /**
+   * Formats minor units as a decimal amount with two digits after the point.
+   */
+  public static String format(long amount) {
+    long units = amount / UNIT;
+    long cents = Math.abs(amount % UNIT);
+    StringBuilder text = new StringBuilder(24);
+    if (amount < 0 && units == 0) {
+      text.append('-');
+    }
+    text.append(units).append('.');
+    if (cents < 10) {
+      text.append('0');
+    }
+    return text.append(cents).toString();
+  }
+
+  /**
+   * Divides two longs and rounds the quotient half even.
+   */
+  public static long divide(long dividend, long divisor) {
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    if (remainder == 0) {
+      return quotient;
+    }
+    int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+    int comparison = Long.compare(Math.abs(remainder), Math.abs(divisor) - Math.abs(remainder));
+    if (comparison > 0 || comparison == 0 && (quotient & 1) != 0) {
+      return quotient + sign;
+    }
+    return quotient;
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.drivesbillsmicroservice.rates;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Amount in minor units produced by a conversion, with the version of the rates used.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ConvertedAmount {
+  private final long amount;
+  private final Currency currency;
+  private final long rateVersion;
+}
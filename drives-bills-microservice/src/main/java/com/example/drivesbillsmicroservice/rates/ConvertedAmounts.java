@@ -0,0 +1,16 @@
+package com.example.drivesbillsmicroservice.rates;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Amounts in minor units produced by a batch conversion, all with the rates of one version.
+ */
+@Getter
+@AllArgsConstructor
+public class ConvertedAmounts {
+  private final long[] amounts;
+  private final Currency currency;
+  private final long rateVersion;
+}
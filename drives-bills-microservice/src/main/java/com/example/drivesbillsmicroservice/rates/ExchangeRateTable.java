@@ -0,0 +1,107 @@
+package com.example.drivesbillsmicroservice.rates;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.money.Money;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable table of the exchange rates of a version. Each currency has a value in a common
+ * unit; the values are scaled to integers and, for every pair of currencies, the table holds
+ * the ratio of their values reduced to lowest terms, so that a conversion is one multiplication
+ * and one half-even division of longs. A new version replaces the whole table, so a conversion
+ * never sees the rates of two versions.
+ */
+public final class ExchangeRateTable {
+  private static final int CURRENCIES = Currency.values().length;
+
+  private final long version;
+  private final Map<Currency, BigDecimal> values;
+  private final long[] scaledValues = new long[CURRENCIES];
+  private final long[] numerators = new long[CURRENCIES * CURRENCIES];
+  private final long[] denominators = new long[CURRENCIES * CURRENCIES];
+
+  /**
+   * Builds the table of a version.
+   *
+   * @param version The version of the rates, greater for newer rates.
+   * @param values  The value of each currency in a common unit.
+   * @throws IllegalArgumentException if a currency has no positive value.
+   */
+  public ExchangeRateTable(long version, Map<Currency, BigDecimal> values) {
+    int scale = 0;
+    for (Currency currency : Currency.values()) {
+      BigDecimal value = values.get(currency);
+      if (value == null || value.signum() <= 0) {
+        throw new IllegalArgumentException("Currency " + currency + " has no positive rate");
+      }
+      scale = Math.max(scale, value.stripTrailingZeros().scale());
+    }
+    this.version = version;
+    this.values = Collections.unmodifiableMap(new EnumMap<>(values));
+    for (Currency currency : Currency.values()) {
+      scaledValues[currency.ordinal()] = values.get(currency).movePointRight(scale)
+              .toBigIntegerExact().longValueExact();
+    }
+    for (int from = 0; from < CURRENCIES; from++) {
+      for (int to = 0; to < CURRENCIES; to++) {
+        long divisor = BigInteger.valueOf(scaledValues[from])
+                .gcd(BigInteger.valueOf(scaledValues[to])).longValue();
+        numerators[from * CURRENCIES + to] = scaledValues[from] / divisor;
+        denominators[from * CURRENCIES + to] = scaledValues[to] / divisor;
+      }
+    }
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Map<Currency, BigDecimal> getValues() {
+    return values;
+  }
+
+  /**
+   * Converts an amount in minor units, rounding half even.
+   */
+  public long convert(long amount, Currency fromCurrency, Currency toCurrency) {
+    int pair = fromCurrency.ordinal() * CURRENCIES + toCurrency.ordinal();
+    return Money.divide(Math.multiplyExact(amount, numerators[pair]), denominators[pair]);
+  }
+
+  /**
+   * Converts the balances of an account in each currency to one currency and sums them,
+   * rounding once.
+   */
+  public long convertTotal(long redDollar, long greenDollar, long blueDollar,
+                           Currency toCurrency) {
+    long total = Math.addExact(Math.addExact(
+            Math.multiplyExact(redDollar, scaledValues[Currency.RED.ordinal()]),
+            Math.multiplyExact(greenDollar, scaledValues[Currency.GREEN.ordinal()])),
+            Math.multiplyExact(blueDollar, scaledValues[Currency.BLUE.ordinal()]));
+    return Money.divide(total, scaledValues[toCurrency.ordinal()]);
+  }
+
+  /**
+   * Converts amounts in minor units to one currency, each from its own currency, into an
+   * array of the same length. The loop allocates nothing and only looks up the ratio of the
+   * currency of each amount.
+   *
+   * @throws IllegalArgumentException if the arrays differ in length.
+   */
+  public void convertAll(long[] amounts, Currency[] fromCurrencies, Currency toCurrency,
+                         long[] converted) {
+    if (amounts.length != fromCurrencies.length || amounts.length != converted.length) {
+      throw new IllegalArgumentException("Amounts, currencies and results differ in length");
+    }
+    int to = toCurrency.ordinal();
+    for (int i = 0; i < amounts.length; i++) {
+      int pair = fromCurrencies[i].ordinal() * CURRENCIES + to;
+      converted[i] = Money.divide(Math.multiplyExact(amounts[i], numerators[pair]),
+              denominators[pair]);
+    }
+  }
+}
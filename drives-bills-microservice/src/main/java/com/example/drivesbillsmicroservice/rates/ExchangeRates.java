@@ -0,0 +1,158 @@
+package com.example.drivesbillsmicroservice.rates;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the exchange rate table in use. Readers take the current table without locking; a
+ * reload builds a complete new table and swaps it in with one volatile write, and only if its
+ * version is greater than the current one, so a reload of an unchanged or older file is a
+ * no-op.
+ * The rates are read from a properties file holding a version key and the value of each
+ * currency in a common unit, keyed by currency code. Without a file, the built-in rates are
+ * used. When watching, a daemon thread reloads the file each time it is written or replaced;
+ * a file that cannot be read or is invalid leaves the current table in use.
+ */
+@Slf4j
+public class ExchangeRates implements AutoCloseable {
+  static final String VERSION = "version";
+  static final ExchangeRateTable DEFAULT = new ExchangeRateTable(1, Map.of(
+          Currency.RED, new BigDecimal("2.5"),
+          Currency.GREEN, BigDecimal.ONE,
+          Currency.BLUE, new BigDecimal("0.6")));
+
+  private final Path file;
+  private volatile ExchangeRateTable table;
+  private WatchService watchService;
+  private Thread watcher;
+
+  /**
+   * Loads the rates of a file, or the built-in rates without one.
+   *
+   * @param file The rates file, or null.
+   * @throws IllegalArgumentException if the file is invalid.
+   * @throws UncheckedIOException     if the file cannot be read.
+   */
+  public ExchangeRates(Path file) {
+    this.file = file;
+    this.table = file != null ? read(file) : DEFAULT;
+    log.info("Exchange rates of version {} loaded", table.getVersion());
+  }
+
+  public ExchangeRateTable getTable() {
+    return table;
+  }
+
+  /**
+   * Reads the file again and swaps its table in if its version is newer.
+   *
+   * @return The table in use after the reload.
+   * @throws IllegalArgumentException if the file is invalid.
+   * @throws UncheckedIOException     if the file cannot be read.
+   */
+  public synchronized ExchangeRateTable reload() {
+    if (file == null) {
+      return table;
+    }
+    ExchangeRateTable loaded = read(file);
+    if (loaded.getVersion() <= table.getVersion()) {
+      log.info("Exchange rates of version {} not newer than version {}, kept",
+              loaded.getVersion(), table.getVersion());
+      return table;
+    }
+    table = loaded;
+    log.info("Exchange rates of version {} loaded", loaded.getVersion());
+    return loaded;
+  }
+
+  /**
+   * Starts reloading the file whenever it is written or replaced.
+   */
+  public synchronized void watch() {
+    if (file == null || watcher != null) {
+      return;
+    }
+    Path directory = file.toAbsolutePath().getParent();
+    try {
+      watchService = directory.getFileSystem().newWatchService();
+      directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Directory " + directory + " cannot be watched", e);
+    }
+    watcher = new Thread(this::runWatcher, "exchange-rate-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        log.warn("Exchange rate watcher could not be closed", e);
+      }
+    }
+  }
+
+  static ExchangeRateTable read(Path file) {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Exchange rates " + file + " cannot be read", e);
+    }
+    String version = properties.getProperty(VERSION);
+    if (version == null) {
+      throw new IllegalArgumentException("Exchange rates " + file + " have no version");
+    }
+    Map<Currency, BigDecimal> values = new EnumMap<>(Currency.class);
+    for (Currency currency : Currency.values()) {
+      String value = properties.getProperty(currency.name());
+      if (value != null) {
+        values.put(currency, new BigDecimal(value.trim()));
+      }
+    }
+    return new ExchangeRateTable(Long.parseLong(version.trim()), values);
+  }
+
+  private void runWatcher() {
+    Path name = file.getFileName();
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+      boolean changed = false;
+      for (WatchEvent<?> event : key.pollEvents()) {
+        changed |= name.equals(event.context());
+      }
+      key.reset();
+      if (changed) {
+        try {
+          reload();
+        } catch (RuntimeException e) {
+          log.warn("Exchange rates {} could not be reloaded, version {} kept", file,
+                  table.getVersion(), e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.drivesbillsmicroservice.repository;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Reads the balances of many accounts with one aggregate query, selecting columns only, so
+ * that no account or driver entity is loaded.
+ */
+public interface AccountBalanceRepository {
+
+  /**
+     * Streams the balances of the accounts matching all the given filters, ordered by account
+     * id. Must be consumed inside a transaction.
+     *
+     * @param accountIds the IDs of the accounts, or null for all accounts
+     * @param firstName the value the first name of the driver contains, or null
+     * @param lastName the value the last name of the driver contains, or null
+     * @param passport the value the passport of the driver contains, or null
+     * @param experience the experience of the driver, or null
+     * @param journal true to add the journal to the snapshots, false to read the balance
+     *     columns of the accounts table
+     * @return the stream of balances in minor units
+     */
+  Stream<BalanceRow> streamBalances(Collection<Long> accountIds, String firstName,
+                                    String lastName, String passport, Integer experience,
+                                    boolean journal);
+
+  /**
+   * Balances of an account in each currency, in minor units.
+   */
+  @Getter
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  @ToString
+  class BalanceRow {
+    private final Long accountId;
+    private final Long driverId;
+    private final long redDollar;
+    private final long greenDollar;
+    private final long blueDollar;
+  }
+}
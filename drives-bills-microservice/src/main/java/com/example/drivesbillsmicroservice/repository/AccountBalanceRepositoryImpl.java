@@ -0,0 +1,105 @@
+package com.example.drivesbillsmicroservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
+
+/**
+ * Builds the query from the filters that are given only, so that the database plans each
+ * combination on its own instead of one plan full of null checks. With the journal, the
+ * balances are computed like AccountJournalService.getBalances: the snapshot of each
+ * account, or its opening balances without one, plus the sum of its entries created since,
+ * per currency. The snapshot and the entries are read by the same statement, so a snapshot
+ * moved concurrently is never counted together with the entries it absorbed.
+ */
+class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+  private static final String CURRENCY = "com.example.drivesbillsmicroservice.enums.Currency.";
+  private static final int FETCH_SIZE = 1000;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Stream<BalanceRow> streamBalances(Collection<Long> accountIds, String firstName,
+                                           String lastName, String passport,
+                                           Integer experience, boolean journal) {
+    List<String> predicates = new ArrayList<>();
+    if (accountIds != null) {
+      predicates.add("a.id IN :accountIds");
+    }
+    if (firstName != null) {
+      predicates.add("d.firstName LIKE :firstName");
+    }
+    if (lastName != null) {
+      predicates.add("d.lastName LIKE :lastName");
+    }
+    if (passport != null) {
+      predicates.add("d.passport LIKE :passport");
+    }
+    if (experience != null) {
+      predicates.add("d.experience = :experience");
+    }
+
+    StringBuilder jpql = new StringBuilder("SELECT a.id, d.id, ");
+    if (journal) {
+      jpql.append(journalTotal("redDollar", "RED")).append(", ")
+              .append(journalTotal("greenDollar", "GREEN")).append(", ")
+              .append(journalTotal("blueDollar", "BLUE"))
+              .append(" FROM Account a JOIN a.driver d ")
+              .append("LEFT JOIN AccountSnapshot s ON s.accountId = a.id ")
+              .append("LEFT JOIN JournalEntry j ON j.accountId = a.id ")
+              .append("AND j.createdAt >= COALESCE(s.takenAt, :epoch)");
+    } else {
+      jpql.append("COALESCE(a.redDollar, 0L), COALESCE(a.greenDollar, 0L), ")
+              .append("COALESCE(a.blueDollar, 0L) FROM Account a JOIN a.driver d");
+    }
+    if (!predicates.isEmpty()) {
+      jpql.append(" WHERE ").append(String.join(" AND ", predicates));
+    }
+    if (journal) {
+      jpql.append(" GROUP BY a.id, d.id, s.redDollar, s.greenDollar, s.blueDollar, ")
+              .append("a.redDollar, a.greenDollar, a.blueDollar");
+    }
+    jpql.append(" ORDER BY a.id");
+
+    TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, FETCH_SIZE);
+    if (journal) {
+      query.setParameter("epoch", Instant.EPOCH);
+    }
+    if (accountIds != null) {
+      query.setParameter("accountIds", accountIds);
+    }
+    if (firstName != null) {
+      query.setParameter("firstName", "%" + firstName + "%");
+    }
+    if (lastName != null) {
+      query.setParameter("lastName", "%" + lastName + "%");
+    }
+    if (passport != null) {
+      query.setParameter("passport", "%" + passport + "%");
+    }
+    if (experience != null) {
+      query.setParameter("experience", experience);
+    }
+    return query.getResultStream().map(tuple -> new BalanceRow(
+            tuple.get(0, Long.class), tuple.get(1, Long.class), longValue(tuple, 2),
+            longValue(tuple, 3), longValue(tuple, 4)));
+  }
+
+  private static String journalTotal(String column, String currency) {
+    return "COALESCE(s." + column + ", a." + column + ", 0L) + COALESCE(SUM(CASE WHEN "
+            + "j.currency = " + CURRENCY + currency + " THEN j.amount ELSE 0L END), 0L)";
+  }
+
+  private static long longValue(Tuple tuple, int index) {
+    return ((Number) tuple.get(index)).longValue();
+  }
+}
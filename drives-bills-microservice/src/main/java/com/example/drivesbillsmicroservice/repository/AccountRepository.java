@@ -1,9 +1,30 @@
 package com.example.drivesbillsmicroservice.repository;
 
 import com.example.drivesbillsmicroservice.entity.Account;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+/**
+ * The balances of an account are its journal, the balance columns of the accounts table
+ * only hold the opening balances. The account row is locked by debits, so that two debits
+ * of an account never both pass the balance check.
+ */
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
-}
\ No newline at end of file
+public interface AccountRepository extends JpaRepository<Account, Long>,
+        AccountBalanceRepository {
+
+  /**
+   * Locks the row of an account until the end of the transaction.
+   *
+   * @param id the ID of the account
+   * @return the ID of the locked account, or empty if it does not exist
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a.id FROM Account a WHERE a.id = :id")
+  Optional<Long> lockById(@Param("id") Long id);
+}
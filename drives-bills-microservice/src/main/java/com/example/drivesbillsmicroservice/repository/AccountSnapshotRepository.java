@@ -0,0 +1,50 @@
+package com.example.drivesbillsmicroservice.repository;
+
+import com.example.drivesbillsmicroservice.entity.AccountSnapshot;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountSnapshotRepository extends JpaRepository<AccountSnapshot, Long> {
+
+  /**
+   * Creates the snapshots of the accounts that have none from their opening balances.
+   *
+   * @param takenAt the instant of the opening balances
+   * @return the number of created snapshots
+   */
+  @Modifying
+  @Query(value = "INSERT INTO account_snapshots "
+          + "(account_id, taken_at, red_dollar, green_dollar, blue_dollar) "
+          + "SELECT a.id, :takenAt, COALESCE(a.red_dollar, 0), COALESCE(a.green_dollar, 0), "
+          + "COALESCE(a.blue_dollar, 0) FROM accounts a WHERE NOT EXISTS "
+          + "(SELECT 1 FROM account_snapshots s WHERE s.account_id = a.id)",
+          nativeQuery = true)
+  int createOpening(@Param("takenAt") Instant takenAt);
+
+  /**
+   * Adds totals to a snapshot and moves it forward, unless it was moved since it was read.
+   *
+   * @param accountId the ID of the account
+   * @param previous the instant the snapshot was read at
+   * @param takenAt the new instant of the snapshot
+   * @param red the total to add to the red balance
+   * @param green the total to add to the green balance
+   * @param blue the total to add to the blue balance
+   * @return 1 if the snapshot was moved, 0 otherwise
+   */
+  @Modifying
+  @Query("UPDATE AccountSnapshot s SET s.redDollar = s.redDollar + :red, "
+          + "s.greenDollar = s.greenDollar + :green, s.blueDollar = s.blueDollar + :blue, "
+          + "s.takenAt = :takenAt WHERE s.accountId = :accountId AND s.takenAt = :previous")
+  int advance(@Param("accountId") Long accountId,
+              @Param("previous") Instant previous,
+              @Param("takenAt") Instant takenAt,
+              @Param("red") long red,
+              @Param("green") long green,
+              @Param("blue") long blue);
+}
@@ -0,0 +1,28 @@
+package com.example.drivesbillsmicroservice.repository;
+
+import com.example.drivesbillsmicroservice.entity.ConsumedRecord;
+import com.example.drivesbillsmicroservice.entity.ConsumedRecordId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConsumedRecordRepository extends JpaRepository<ConsumedRecord, ConsumedRecordId> {
+
+  /**
+     * Deletes the records of a partition below an offset. The consumer group has committed
+     * these offsets, so the records are not delivered again.
+     *
+     * @param topic the topic of the records
+     * @param partition the partition of the records
+     * @param offset the offset below which records are deleted
+     */
+  @Modifying
+  @Query("DELETE FROM ConsumedRecord c WHERE c.id.topic = :topic "
+          + "AND c.id.partition = :partition AND c.id.offset < :offset")
+  void deleteCommitted(@Param("topic") String topic,
+                       @Param("partition") int partition,
+                       @Param("offset") long offset);
+}
@@ -1,19 +1,24 @@
 package com.example.drivesbillsmicroservice.repository;
 
 import com.example.drivesbillsmicroservice.entity.Driver;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for accessing and managing Driver entities in the database.
  */
 @Repository
-public interface DriverRepository extends JpaRepository<Driver, Long> {
+public interface DriverRepository extends JpaRepository<Driver, Long>, JpaSpecificationExecutor<Driver> {
 
   /**
      * Retrieves a list of drivers who have their birthday today.
@@ -32,6 +37,15 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
      */
   boolean existsByPassport(String passport);
 
+  /**
+     * Streams the passport numbers of all drivers. Must be consumed inside a transaction.
+     *
+     * @return the stream of all passport numbers
+     */
+  @Query("SELECT d.passport FROM Driver d")
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<String> streamAllPassports();
+
   /**
      * Finds a driver by the specified passport number.
      *
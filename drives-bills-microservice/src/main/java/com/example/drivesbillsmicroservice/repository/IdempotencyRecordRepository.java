@@ -0,0 +1,25 @@
+package com.example.drivesbillsmicroservice.repository;
+
+import com.example.drivesbillsmicroservice.entity.IdempotencyRecord;
+import com.example.drivesbillsmicroservice.entity.IdempotencyRecordId;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository
+        extends JpaRepository<IdempotencyRecord, IdempotencyRecordId> {
+
+  /**
+     * Deletes the records created before an instant, their keys have left the window.
+     *
+     * @param instant the instant before which records are deleted
+     * @return the number of deleted records
+     */
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :instant")
+  int deleteCreatedBefore(@Param("instant") Instant instant);
+}
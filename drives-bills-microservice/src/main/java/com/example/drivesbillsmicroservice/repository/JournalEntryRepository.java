@@ -0,0 +1,57 @@
+package com.example.drivesbillsmicroservice.repository;
+
+import com.example.drivesbillsmicroservice.entity.JournalEntry;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Both sums read the journal through the index on account and creation time.
+ */
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long>,
+        JpaSpecificationExecutor<JournalEntry> {
+
+  /**
+   * Sums the entries of an account created from an instant on, per currency.
+   *
+   * @param accountId the ID of the account
+   * @param from the instant from which entries are summed
+   * @return one total per currency that has entries
+   */
+  @Query("SELECT j.currency AS currency, SUM(j.amount) AS amount FROM JournalEntry j "
+          + "WHERE j.accountId = :accountId AND j.createdAt >= :from GROUP BY j.currency")
+  List<CurrencyTotal> sumCreatedFrom(@Param("accountId") Long accountId,
+                                     @Param("from") Instant from);
+
+  /**
+   * Sums the entries created between the snapshot of their account and an instant, per
+   * account and currency.
+   *
+   * @param until the instant before which entries are summed
+   * @return one total per account and currency that has entries
+   */
+  @Query("SELECT j.accountId AS accountId, s.takenAt AS takenAt, j.currency AS currency, "
+          + "SUM(j.amount) AS amount FROM JournalEntry j "
+          + "JOIN AccountSnapshot s ON s.accountId = j.accountId "
+          + "WHERE j.createdAt >= s.takenAt AND j.createdAt < :until "
+          + "GROUP BY j.accountId, s.takenAt, j.currency")
+  List<SnapshotTotal> sumAfterSnapshots(@Param("until") Instant until);
+
+  interface CurrencyTotal {
+    Currency getCurrency();
+
+    Long getAmount();
+  }
+
+  interface SnapshotTotal extends CurrencyTotal {
+    Long getAccountId();
+
+    Instant getTakenAt();
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.drivesbillsmicroservice.repository.specification;
+
+import com.example.drivesbillsmicroservice.entity.Driver;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Factory of Specification predicates for Driver entities.
+ * Each method mirrors one of the derived search queries of the DriverRepository, so the
+ * same filters can be used with fluent queries such as keyset scrolling.
+ */
+public final class DriverSpecification {
+  private DriverSpecification() {
+  }
+
+  /**
+     * Matches drivers whose first name contains the specified value.
+     *
+     * @param firstName the first name to search for
+     * @return the specification predicate
+     */
+  public static Specification<Driver> firstNameContains(String firstName) {
+    return (root, query, builder) -> builder.like(root.get("firstName"), "%" + firstName + "%");
+  }
+
+  /**
+     * Matches drivers whose last name contains the specified value.
+     *
+     * @param lastName the last name to search for
+     * @return the specification predicate
+     */
+  public static Specification<Driver> lastNameContains(String lastName) {
+    return (root, query, builder) -> builder.like(root.get("lastName"), "%" + lastName + "%");
+  }
+
+  /**
+     * Matches drivers whose passport number contains the specified value.
+     *
+     * @param passport the passport number to search for
+     * @return the specification predicate
+     */
+  public static Specification<Driver> passportContains(String passport) {
+    return (root, query, builder) -> builder.like(root.get("passport"), "%" + passport + "%");
+  }
+
+  /**
+     * Matches drivers with the specified experience.
+     *
+     * @param experience the experience to search for
+     * @return the specification predicate
+     */
+  public static Specification<Driver> experienceEquals(Integer experience) {
+    return (root, query, builder) -> builder.equal(root.get("experience"), experience);
+  }
+}
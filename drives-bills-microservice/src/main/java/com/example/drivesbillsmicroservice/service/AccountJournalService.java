@@ -0,0 +1,57 @@
+package com.example.drivesbillsmicroservice.service;
+
+import com.example.drivesbillsmicroservice.dto.account.statement.StatementEntryDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service interface for the journal of the account balances.
+ */
+@Service
+public interface AccountJournalService {
+
+  /**
+     * Records a credit or, with a negative amount, a debit of an account.
+     *
+     * @param accountId the ID of the account
+     * @param currency the currency of the amount
+     * @param amount the amount in minor units, negative for a debit
+     * @param eventId the id of the event that caused the change, or null
+     */
+  void append(Long accountId, Currency currency, long amount, UUID eventId);
+
+  /**
+     * Retrieves the balances of an account: its snapshot plus the entries created since.
+     *
+     * @param accountId the ID of the account
+     * @return the balances of the account in each currency, in minor units
+     */
+  AccountBalance getBalances(Long accountId);
+
+  /**
+     * Retrieves a slice of the entries of an account, the most recent first.
+     *
+     * @param accountId the ID of the account
+     * @param cursor the continuation token of the previous slice, empty for the first one
+     * @param size the number of entries of the slice
+     * @param currency the currency the amounts are also converted to, or null
+     * @return the slice of entries with the token of the next one
+     */
+  CursorPageDto<StatementEntryDto> getStatement(Long accountId, String cursor, int size,
+                                                Currency currency);
+
+  /**
+     * Moves the snapshots forward to the entries created before the snapshot lag.
+     *
+     * @return the number of moved snapshots
+     */
+  int takeSnapshots();
+
+  /**
+     * Creates the monthly partitions of the journal for the current and the coming months.
+     */
+  void createPartitions();
+}
@@ -1,7 +1,11 @@
 package com.example.drivesbillsmicroservice.service;
 
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalanceDto;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalancesRequestDto;
 import com.example.drivesbillsmicroservice.enums.Currency;
-import java.math.BigDecimal;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Service;
 
 
@@ -15,26 +19,58 @@ public interface AccountService {
      * Credits the specified amount in the given currency to the account with the provided ID.
      *
      * @param accountId the ID of the account to credit
-     * @param amount the amount to credit
+     * @param amount the amount to credit, in minor units
      * @param currency the currency of the amount
      */
-  void credit(Long accountId, double amount, Currency currency);
+  void credit(Long accountId, long amount, Currency currency);
 
   /**
      * Debits the specified amount in the given currency from the account with the provided ID.
      *
      * @param accountId the ID of the account to debit
-     * @param amount the amount to debit
+     * @param amount the amount to debit, in minor units
      * @param currency the currency of the amount
      */
-  void debit(Long accountId, double amount, Currency currency);
+  void debit(Long accountId, long amount, Currency currency);
+
+  /**
+     * Debits the specified amount in the given currency from the account with the provided ID,
+     * on behalf of an event.
+     *
+     * @param accountId the ID of the account to debit
+     * @param amount the amount to debit, in minor units
+     * @param currency the currency of the amount
+     * @param eventId the id of the event the debit pays for, or null
+     */
+  void debit(Long accountId, long amount, Currency currency, UUID eventId);
+
+  /**
+     * Tells whether a debit of the specified amount would be accepted, without performing it.
+     *
+     * @param accountId the ID of the account to debit
+     * @param amount the amount to debit, in minor units
+     * @param currency the currency of the amount
+     * @return true if the account holds at least the amount in the given currency
+     */
+  boolean canDebit(Long accountId, long amount, Currency currency);
 
   /**
      * Retrieves the balance of the account with the provided ID in the given currency.
      *
      * @param accountId the ID of the account
      * @param currency the currency of the balance
-     * @return the balance of the account in the specified currency
+     * @return the balance of the account in the specified currency, in minor units, with the
+     *     version of the rates it was converted with
+     */
+  ConvertedAmount getBalance(Long accountId, Currency currency);
+
+  /**
+     * Passes the balances of the accounts matching a request to a consumer one by one, in the
+     * order of their IDs, without holding them all in memory. Accounts that do not exist are
+     * left out.
+     *
+     * @param request the accounts and the currency of the balances
+     * @param consumer the consumer of each balance
      */
-  BigDecimal getBalance(Long accountId, Currency currency);
-}
\ No newline at end of file
+  void streamBalances(AccountBalancesRequestDto request, Consumer<AccountBalanceDto> consumer);
+}
@@ -1,6 +1,9 @@
 package com.example.drivesbillsmicroservice.service;
 
 import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmounts;
+import com.example.drivesbillsmicroservice.rates.ExchangeRateTable;
 
 /**
  * Service interface for converting amounts between different currencies.
@@ -10,10 +13,49 @@ public interface CurrencyConversionService {
   /**
      * Converts the specified amount from one currency to another.
      *
-     * @param amount the amount to convert
+     * @param amount the amount to convert, in minor units
      * @param fromCurrency the source currency
      * @param toCurrency the target currency
-     * @return the converted amount
+     * @return the converted amount in minor units, rounded half even, with the rate version
      */
-  double convert(double amount, Currency fromCurrency, Currency toCurrency);
-}
\ No newline at end of file
+  ConvertedAmount convert(long amount, Currency fromCurrency, Currency toCurrency);
+
+  /**
+     * Converts the balances of an account in each currency to one currency and sums them,
+     * rounding once.
+     *
+     * @param redDollar the red dollar balance, in minor units
+     * @param greenDollar the green dollar balance, in minor units
+     * @param blueDollar the blue dollar balance, in minor units
+     * @param toCurrency the target currency
+     * @return the total in minor units of the target currency, rounded half even, with the
+     *     rate version
+     */
+  ConvertedAmount convertTotal(long redDollar, long greenDollar, long blueDollar,
+                               Currency toCurrency);
+
+  /**
+     * Converts amounts, each from its own currency, to one currency with the rates of a
+     * single version.
+     *
+     * @param amounts the amounts to convert, in minor units
+     * @param fromCurrencies the currency of each amount
+     * @param toCurrency the target currency
+     * @return the converted amounts in the order of the given ones, with the rate version
+     */
+  ConvertedAmounts convertAll(long[] amounts, Currency[] fromCurrencies, Currency toCurrency);
+
+  /**
+     * Returns the rate table conversions currently use.
+     *
+     * @return the current rate table
+     */
+  ExchangeRateTable getRateTable();
+
+  /**
+     * Loads the rate table again from its source and uses it if its version is newer.
+     *
+     * @return the rate table in use after the reload
+     */
+  ExchangeRateTable reload();
+}
@@ -0,0 +1,33 @@
+package com.example.drivesbillsmicroservice.service;
+
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service interface for paying the details installed on the cars of drivers.
+ */
+@Service
+public interface DetailPaymentService {
+
+  /**
+     * Debits the price of a detail from the account of its driver. A payment refused because
+     * of an insufficient balance or a missing account is an outcome, not a failure.
+     *
+     * @param detailAddEvent the detail to pay
+     * @return the outcome of the payment
+     */
+  DetailPaymentEvent pay(DetailAddEvent detailAddEvent);
+
+  /**
+     * Pays the details of consumed records in one database transaction, recording the outcome
+     * of every record with it. A record whose payment was committed by an earlier delivery is
+     * not paid again, its recorded outcome is returned instead.
+     *
+     * @param records the consumed records, whose values are DetailAddEvents
+     * @return the outcomes of the payments, in the order of the records
+     */
+  List<DetailPaymentEvent> payOnce(List<ConsumerRecord<String, Object>> records);
+}
@@ -3,9 +3,9 @@ package com.example.drivesbillsmicroservice.service;
 import com.example.drivesbillsmicroservice.dto.driver.create.DriverCreateRequestDto;
 import com.example.drivesbillsmicroservice.dto.driver.get.DriverGetResponseDto;
 import com.example.drivesbillsmicroservice.dto.driver.update.DriverUpdateRequestDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.events.CarPurchaseEvent;
 import com.example.drivesbillsmicroservice.events.DetailAddEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
@@ -94,6 +94,37 @@ public interface DriverService {
      */
   Page<DriverGetResponseDto> getAllDrivers(int page, int size, String sortBy);
 
+  /**
+     * Retrieves all drivers with keyset pagination, without offset scan and count query.
+     *
+     * @param cursor the continuation token of the previous slice, empty for the first one
+     * @param size the slice size
+     * @param sortBy the field to sort by, the id is used as tie-breaker
+     * @return a slice of driver response DTOs with the token of the next one
+     */
+  CursorPageDto<DriverGetResponseDto> scrollDrivers(String cursor, int size, String sortBy);
+
+  /**
+     * Searches drivers by first name, last name, passport or experience with keyset pagination.
+     * Only the first non-null filter is applied, the same way as for the paged search.
+     *
+     * @param firstName the first name to search for
+     * @param lastName the last name to search for
+     * @param passport the passport number to search for
+     * @param experience the experience to search for
+     * @param cursor the continuation token of the previous slice, empty for the first one
+     * @param size the slice size
+     * @param sortBy the field to sort by, the id is used as tie-breaker
+     * @return a slice of driver response DTOs with the token of the next one
+     */
+  CursorPageDto<DriverGetResponseDto> scrollSearchDrivers(String firstName,
+                                                          String lastName,
+                                                          String passport,
+                                                          Integer experience,
+                                                          String cursor,
+                                                          int size,
+                                                          String sortBy);
+
   /**
      * Finds a driver by passport number.
      *
@@ -119,20 +150,19 @@ public interface DriverService {
 
   /**
      * Sends a car purchase event.
+     * The request is rejected early when cars-details answers that the car does not exist.
      *
      * @param carPurchaseEvent the car purchase event to send
      * @return a string indicating the status of the message sending
-     * @throws JsonProcessingException if an error occurs while processing the car purchase event
      */
 
-  String sendCarPurchaseEvent(CarPurchaseEvent carPurchaseEvent) throws JsonProcessingException;
+  String sendCarPurchaseEvent(CarPurchaseEvent carPurchaseEvent);
 
   /**
      * Sends a successful payment event.
      *
      * @param detailAddEvent the detail add event to send
      * @return a string indicating the status of the message sending
-     * @throws JsonProcessingException if an error occurs while processing the detail add event
      */
-  String sendSuccessfulPaymentEvent(DetailAddEvent detailAddEvent) throws JsonProcessingException;
+  String sendSuccessfulPaymentEvent(DetailAddEvent detailAddEvent);
 }
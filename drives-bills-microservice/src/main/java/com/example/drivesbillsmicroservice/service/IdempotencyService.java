@@ -0,0 +1,55 @@
+package com.example.drivesbillsmicroservice.service;
+
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service interface for executing operations at most once per idempotency key.
+ */
+@Service
+public interface IdempotencyService {
+
+  /**
+     * Executes an operation unless its key was already presented, in which case the result
+     * of the first execution is returned without executing the operation again. The result is
+     * recorded in the transaction of the operation, an operation that throws is not recorded
+     * and is executed again when its key is presented again. A key presented again with
+     * another request fingerprint is rejected instead of answered with the first result.
+     *
+     * @param keyHigh the most significant half of the key
+     * @param keyLow the least significant half of the key
+     * @param fingerprint the fingerprint of the request the operation executes
+     * @param operation the operation, returning a non-negative result
+     * @return the result of the first execution of the operation
+     */
+  int execute(long keyHigh, long keyLow, long fingerprint, IntSupplier operation);
+
+  /**
+     * Executes an operation at most once per event id.
+     *
+     * @param eventId the id of the event that triggers the operation
+     * @param operation the operation, returning a non-negative result
+     * @return the result of the first execution of the operation
+     */
+  int execute(UUID eventId, IntSupplier operation);
+
+  /**
+     * Executes an operation at most once per idempotency key supplied by a client. The key
+     * is only meaningful within its scope, so the same key used for another operation
+     * executes that operation. The same key presented with other request parameters is
+     * rejected, so a reused key never returns the result of a different request.
+     *
+     * @param scope the operation and the resource it applies to
+     * @param key the idempotency key supplied by the client
+     * @param request the parameters of the request, fingerprinted next to the result
+     * @param operation the operation, returning a non-negative result
+     * @return the result of the first execution of the operation
+     */
+  int execute(String scope, String key, String request, IntSupplier operation);
+
+  /**
+     * Deletes the records whose keys have left the idempotency window.
+     */
+  void purgeExpired();
+}
@@ -0,0 +1,243 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.dto.account.statement.StatementEntryDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
+import com.example.drivesbillsmicroservice.entity.AccountSnapshot;
+import com.example.drivesbillsmicroservice.entity.JournalEntry;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.mapper.JournalEntryMapper;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmounts;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.repository.AccountSnapshotRepository;
+import com.example.drivesbillsmicroservice.repository.JournalEntryRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import com.example.drivesbillsmicroservice.service.utils.CursorCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * Keeps the balances as an append-only journal with one snapshot per account.
+ * A snapshot starts from the opening balances held by the accounts table and is moved
+ * forward periodically to the entries created before now minus the snapshot lag. Entries
+ * and snapshots are timestamped by the database clock, never by the clock of an instance.
+ * An entry is timestamped at the start of its transaction and one committed after the
+ * snapshot passed its timestamp would be missed, so the lag has to exceed the longest
+ * transaction: transactions are bounded by spring.transaction.default-timeout, and the
+ * service refuses to start unless the lag is greater.
+ * On PostgreSQL, the journal is partitioned by month: the partitioned table is created by
+ * schema-postgresql.sql and the partitions of the coming months are created ahead of time.
+ */
+@Slf4j
+@Service
+public class AccountJournalServiceImplementation implements AccountJournalService {
+  private static final String CREATED_AT = "createdAt";
+  private static final String POSTGRESQL = "PostgreSQL";
+
+  private final JournalEntryRepository journalEntryRepository;
+  private final AccountSnapshotRepository accountSnapshotRepository;
+  private final AccountRepository accountRepository;
+  private final CursorCodec cursorCodec;
+  private final JdbcTemplate jdbcTemplate;
+  private final CurrencyConversionService currencyConversionService;
+  @Value("${account.journal.snapshot.lag:1m}")
+  private Duration snapshotLag;
+  @Value("${spring.transaction.default-timeout:0s}")
+  private Duration transactionTimeout;
+  @Value("${account.journal.partitions.months-ahead:2}")
+  private int monthsAhead;
+
+  @Autowired
+  public AccountJournalServiceImplementation(JournalEntryRepository journalEntryRepository,
+                                             AccountSnapshotRepository accountSnapshotRepository,
+                                             AccountRepository accountRepository,
+                                             CursorCodec cursorCodec,
+                                             JdbcTemplate jdbcTemplate,
+                                             CurrencyConversionService currencyConversionService) {
+    this.journalEntryRepository = journalEntryRepository;
+    this.accountSnapshotRepository = accountSnapshotRepository;
+    this.accountRepository = accountRepository;
+    this.cursorCodec = cursorCodec;
+    this.jdbcTemplate = jdbcTemplate;
+    this.currencyConversionService = currencyConversionService;
+  }
+
+  /**
+   * An unbounded transaction could commit an entry after the snapshot moved past it, which
+   * would leave the entry out of every balance.
+   */
+  @PostConstruct
+  void checkSnapshotLag() {
+    if (transactionTimeout.isZero() || transactionTimeout.compareTo(snapshotLag) >= 0) {
+      throw new IllegalStateException("account.journal.snapshot.lag (" + snapshotLag
+              + ") must be greater than spring.transaction.default-timeout ("
+              + transactionTimeout + ")");
+    }
+  }
+
+  @Override
+  public void append(Long accountId, Currency currency, long amount, UUID eventId) {
+    journalEntryRepository.save(new JournalEntry(accountId, currency, amount, eventId));
+  }
+
+  /**
+   * Reads the snapshot before the entries. A snapshot moved in between is not seen, and the
+   * entries are then summed from the instant of the snapshot that was read.
+   */
+  @Override
+  public AccountBalance getBalances(Long accountId) {
+    AccountSnapshot snapshot = accountSnapshotRepository.findById(accountId)
+            .orElseGet(() -> opening(accountId));
+    AccountBalance balance = new AccountBalance(snapshot.getRedDollar(),
+            snapshot.getGreenDollar(), snapshot.getBlueDollar());
+    for (JournalEntryRepository.CurrencyTotal total
+            : journalEntryRepository.sumCreatedFrom(accountId, snapshot.getTakenAt())) {
+      balance = balance.plus(AccountBalance.of(total.getCurrency(), total.getAmount()));
+    }
+    return balance;
+  }
+
+  @Override
+  public CursorPageDto<StatementEntryDto> getStatement(Long accountId, String cursor, int size,
+                                                       Currency currency) {
+    if (!StringUtils.hasText(cursor) && !accountRepository.existsById(accountId)) {
+      throw new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND);
+    }
+    Sort sort = Sort.by(Sort.Direction.DESC, CREATED_AT, "id");
+    ScrollPosition position = cursorCodec.decode(cursor, JournalEntry.class, sort);
+    Window<JournalEntry> entries = journalEntryRepository.findBy(
+            (root, query, builder) -> builder.equal(root.get("accountId"), accountId),
+            query -> query
+                    .sortBy(sort)
+                    .limit(size)
+                    .scroll(position));
+    CursorPageDto<StatementEntryDto> page =
+            cursorCodec.toPage(entries.map(JournalEntryMapper.INSTANCE::toStatementEntry));
+    if (currency != null) {
+      convert(entries.getContent(), page.getContent(), currency);
+    }
+    return page;
+  }
+
+  /**
+   * Converts the amounts of a statement slice in one batch, so that they all use the rates of
+   * the same version.
+   */
+  private void convert(List<JournalEntry> entries, List<StatementEntryDto> lines,
+                       Currency currency) {
+    long[] amounts = new long[entries.size()];
+    Currency[] currencies = new Currency[entries.size()];
+    for (int i = 0; i < amounts.length; i++) {
+      amounts[i] = entries.get(i).getAmount();
+      currencies[i] = entries.get(i).getCurrency();
+    }
+    ConvertedAmounts converted = currencyConversionService.convertAll(amounts, currencies,
+            currency);
+    for (int i = 0; i < amounts.length; i++) {
+      lines.get(i).setConvertedAmount(Money.toDecimal(converted.getAmounts()[i]));
+      lines.get(i).setRateVersion(converted.getRateVersion());
+    }
+  }
+
+  /**
+   * A snapshot is only moved if it still has the instant it was read with, so instances
+   * running the job at the same time never add the same entries twice.
+   */
+  @Override
+  @Transactional
+  @Scheduled(cron = "${account.journal.snapshot.cron:0 */5 * * * ?}")
+  public int takeSnapshots() {
+    Instant until = databaseNow().minus(snapshotLag);
+    int opened = accountSnapshotRepository.createOpening(Instant.EPOCH);
+    Map<Long, JournalEntryRepository.SnapshotTotal> snapshots = new HashMap<>();
+    Map<Long, AccountBalance> totals = new HashMap<>();
+    for (JournalEntryRepository.SnapshotTotal total
+            : journalEntryRepository.sumAfterSnapshots(until)) {
+      snapshots.put(total.getAccountId(), total);
+      totals.merge(total.getAccountId(), AccountBalance.of(total.getCurrency(),
+              total.getAmount()), AccountBalance::plus);
+    }
+    int advanced = 0;
+    for (Map.Entry<Long, AccountBalance> total : totals.entrySet()) {
+      AccountBalance balance = total.getValue();
+      advanced += accountSnapshotRepository.advance(total.getKey(),
+              snapshots.get(total.getKey()).getTakenAt(), until, balance.getRedDollar(),
+              balance.getGreenDollar(), balance.getBlueDollar());
+    }
+    log.debug("Opened {} and moved {} account snapshots to {}", opened, advanced, until);
+    return advanced;
+  }
+
+  /**
+   * Rows inserted for a month that has no partition go to the default partition, after
+   * which the partition of that month can no longer be created.
+   */
+  @Override
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${account.journal.partitions.cron:0 0 3 * * ?}")
+  public void createPartitions() {
+    String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+    if (!POSTGRESQL.equals(database)) {
+      return;
+    }
+    YearMonth month = YearMonth.now(ZoneOffset.UTC);
+    for (int i = 0; i <= monthsAhead; i++) {
+      createPartition(month.plusMonths(i));
+    }
+  }
+
+  private void createPartition(YearMonth month) {
+    String sql = String.format("CREATE TABLE IF NOT EXISTS account_journal_y%dm%02d "
+                    + "PARTITION OF account_journal "
+                    + "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+            month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1));
+    try {
+      jdbcTemplate.execute(sql);
+    } catch (DataAccessException e) {
+      log.warn("Journal partition of {} could not be created", month, e);
+    }
+  }
+
+  private Instant databaseNow() {
+    return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", OffsetDateTime.class)
+            .toInstant();
+  }
+
+  private AccountSnapshot opening(Long accountId) {
+    return accountRepository.findById(accountId)
+            .map(account -> {
+              AccountBalance balance = AccountBalance.of(account);
+              return new AccountSnapshot(accountId, Instant.EPOCH, balance.getRedDollar(),
+                      balance.getGreenDollar(), balance.getBlueDollar());
+            })
+            .orElseThrow(() -> new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND));
+  }
+}
@@ -1,90 +1,164 @@
 package com.example.drivesbillsmicroservice.service.implementation;
 
-import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalanceDto;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalancesRequestDto;
 import com.example.drivesbillsmicroservice.enums.Currency;
 import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
 import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
 import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.rates.ExchangeRateTable;
+import com.example.drivesbillsmicroservice.repository.AccountBalanceRepository.BalanceRow;
 import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
 import com.example.drivesbillsmicroservice.service.AccountService;
 import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+/**
+ * Account service of the journal, the default engine. Every credit and debit inserts a
+ * journal entry instead of updating the account, and balances are the snapshot of the
+ * account plus the entries created since.
+ */
 @Service
+@ConditionalOnProperty(name = {"kafka.streams.enabled", "ledger.enabled"},
+        havingValue = "false", matchIfMissing = true)
 public class AccountServiceImplementation implements AccountService {
   private final AccountRepository accountRepository;
+  private final AccountJournalService accountJournalService;
   private final CurrencyConversionService currencyConversionService;
 
   @Autowired
   public AccountServiceImplementation(AccountRepository accountRepository,
+                                      AccountJournalService accountJournalService,
                                       CurrencyConversionService currencyConversionService) {
     this.accountRepository = accountRepository;
+    this.accountJournalService = accountJournalService;
     this.currencyConversionService = currencyConversionService;
   }
 
-  public void credit(Long accountId, double amount, Currency currency) {
-    Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND));
+  /**
+   * Credits the account with one journal entry. A credit cannot overdraw the account, so it
+   * takes no lock.
+   */
+  @Transactional(dontRollbackOn = AccountNotFoundException.class)
+  public void credit(Long accountId, long amount, Currency currency) {
+    if (!accountRepository.existsById(accountId)) {
+      throw new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND);
+    }
+    accountJournalService.append(accountId, currency, amount, null);
+  }
+
+  @Transactional(dontRollbackOn = {AccountNotFoundException.class,
+      InsufficientBalanceException.class})
+  public void debit(Long accountId, long amount, Currency currency) {
+    debit(accountId, amount, currency, null);
+  }
 
-    switch (currency) {
-      case RED:
-        account.setRedDollar(account.getRedDollar() + amount);
-        break;
-      case GREEN:
-        account.setGreenDollar(account.getGreenDollar() + amount);
-        break;
-      case BLUE:
-        account.setBlueDollar(account.getBlueDollar() + amount);
-        break;
+  /**
+   * Debits the account with one journal entry. The account row is locked first, so that the
+   * balance checked is not spent by a concurrent debit before the entry is inserted. Unlike
+   * the conditional update of a balance column, a guard over the journal cannot be one
+   * statement: the sum it checks is not a row that a concurrent insert would conflict on.
+   * A debit therefore costs four statements, the lock, the snapshot, the sum of the later
+   * entries and the insert, and the debits of one account are serialized until the
+   * transaction holding the lock ends. Credits take no lock. A refused debit inserted
+   * nothing, so it does not roll back the transaction it joins.
+   */
+  @Transactional(dontRollbackOn = {AccountNotFoundException.class,
+      InsufficientBalanceException.class})
+  public void debit(Long accountId, long amount, Currency currency, UUID eventId) {
+    if (accountRepository.lockById(accountId).isEmpty()) {
+      throw new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND);
     }
+    if (balances(accountId).get(currency) < amount) {
+      throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
+    }
+    accountJournalService.append(accountId, currency, -amount, eventId);
+  }
 
-    accountRepository.save(account);
+  public boolean canDebit(Long accountId, long amount, Currency currency) {
+    return balances(accountId).get(currency) - amount >= 0;
   }
 
-  public void debit(Long accountId, double amount, Currency currency) {
-    Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND));
+  public ConvertedAmount getBalance(Long accountId, Currency currency) {
+    AccountBalance balances = balances(accountId);
+    return currencyConversionService.convertTotal(balances.getRedDollar(),
+            balances.getGreenDollar(), balances.getBlueDollar(), currency);
+  }
 
-    switch (currency) {
-      case RED:
-        if (account.getRedDollar() - amount < 0) {
-          throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
-        }
-        account.setRedDollar(account.getRedDollar() - amount);
-        break;
-      case GREEN:
-        if (account.getGreenDollar() - amount < 0) {
-          throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
-        }
-        account.setGreenDollar(account.getGreenDollar() - amount);
-        break;
-      case BLUE:
-        if (account.getBlueDollar() - amount < 0) {
-          throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
-        }
-        account.setBlueDollar(account.getBlueDollar() - amount);
-        break;
+  /**
+   * Reads the balances with one aggregate query and converts each row as it is read, with
+   * the rate table of one version for the whole request. The query is streamed, so the
+   * transaction is held until the consumer has taken the last balance.
+   */
+  @Transactional
+  public void streamBalances(AccountBalancesRequestDto request,
+                             Consumer<AccountBalanceDto> consumer) {
+    Currency currency = request.getCurrency();
+    ExchangeRateTable table = currency != null ? currencyConversionService.getRateTable() : null;
+    List<Long> accountIds = request.getAccountIds() == null || request.getAccountIds().isEmpty()
+            ? null : request.getAccountIds();
+    try (Stream<BalanceRow> rows = accountRepository.streamBalances(accountIds,
+            filter(request.getFirstName()), filter(request.getLastName()),
+            filter(request.getPassport()), request.getExperience(), balancesInJournal())) {
+      rows.forEach(row -> consumer.accept(toBalance(row, currency, table)));
     }
-    accountRepository.save(account);
   }
 
-  public BigDecimal getBalance(Long accountId, Currency currency) {
-    Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND));
-    double redBalance = account.getRedDollar();
-    double greenBalance = account.getGreenDollar();
-    double blueBalance = account.getBlueDollar();
-    double redToCurrency = currencyConversionService.convert(1.0, Currency.RED, currency);
-    double greenToCurrency = currencyConversionService.convert(1.0, Currency.GREEN, currency);
-    double blueToCurrency = currencyConversionService.convert(1.0, Currency.BLUE, currency);
-    BigDecimal balance = BigDecimal.valueOf(redBalance)
-                .multiply(BigDecimal.valueOf(redToCurrency))
-                .add(BigDecimal.valueOf(greenBalance).multiply(BigDecimal.valueOf(greenToCurrency)))
-                .add(BigDecimal.valueOf(blueBalance).multiply(BigDecimal.valueOf(blueToCurrency)));
+  /**
+   * Tells whether balances are the snapshots plus the journal, rather than the balance
+   * columns of the accounts table.
+   */
+  protected boolean balancesInJournal() {
+    return true;
+  }
+
+  /**
+   * Returns the balances of an account in each currency.
+   */
+  protected AccountBalance balances(Long accountId) {
+    return accountJournalService.getBalances(accountId);
+  }
+
+  /**
+   * Returns the balances of an account read by the bulk query, which are those of the query
+   * itself unless the engine holds more recent ones.
+   */
+  protected AccountBalance balances(BalanceRow row) {
+    return new AccountBalance(row.getRedDollar(), row.getGreenDollar(), row.getBlueDollar());
+  }
+
+  private AccountBalanceDto toBalance(BalanceRow row, Currency currency,
+                                      ExchangeRateTable table) {
+    AccountBalance balances = balances(row);
+    AccountBalanceDto.AccountBalanceDtoBuilder balance = AccountBalanceDto.builder()
+            .accountId(row.getAccountId())
+            .driverId(row.getDriverId());
+    if (currency == null) {
+      return balance.redDollar(Money.toDecimal(balances.getRedDollar()))
+              .greenDollar(Money.toDecimal(balances.getGreenDollar()))
+              .blueDollar(Money.toDecimal(balances.getBlueDollar()))
+              .build();
+    }
+    return balance.currency(currency)
+            .amount(Money.toDecimal(table.convertTotal(balances.getRedDollar(),
+                    balances.getGreenDollar(), balances.getBlueDollar(), currency)))
+            .rateVersion(table.getVersion())
+            .build();
+  }
 
-    return balance.setScale(2, RoundingMode.HALF_UP); // Округляем до двух знаков после запятой
+  private static String filter(String value) {
+    return StringUtils.hasText(value) ? value : null;
   }
-}
\ No newline at end of file
+}
@@ -1,26 +1,65 @@
 package com.example.drivesbillsmicroservice.service.implementation;
 
 import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.rate.RateTableInvalidException;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmounts;
+import com.example.drivesbillsmicroservice.rates.ExchangeRateTable;
+import com.example.drivesbillsmicroservice.rates.ExchangeRates;
 import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import java.io.UncheckedIOException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+/**
+ * Converts amounts with the rate table of ExchangeRates. Each conversion reads the current
+ * table once, so all of its amounts use the rates of the version it reports.
+ */
 @Service
 public class CurrencyConversionServiceImpl implements CurrencyConversionService {
+  private final ExchangeRates exchangeRates;
 
-  public double convert(double amount, Currency fromCurrency, Currency toCurrency) {
-    if (fromCurrency == Currency.RED && toCurrency == Currency.BLUE) {
-      return amount * 2.5 / 0.6;
-    } else if (fromCurrency == Currency.GREEN && toCurrency == Currency.RED) {
-      return amount / 2.5;
-    } else if (fromCurrency == Currency.RED && toCurrency == Currency.GREEN) {
-      return amount * 2.5;
-    } else if (fromCurrency == Currency.GREEN && toCurrency == Currency.BLUE) {
-      return amount / 0.6;
-    } else if (fromCurrency == Currency.BLUE && toCurrency == Currency.RED) {
-      return amount * 0.6 / 2.5;
-    } else if (fromCurrency == Currency.BLUE && toCurrency == Currency.GREEN) {
-      return amount * 0.6;
+  @Autowired
+  public CurrencyConversionServiceImpl(ExchangeRates exchangeRates) {
+    this.exchangeRates = exchangeRates;
+  }
+
+  @Override
+  public ConvertedAmount convert(long amount, Currency fromCurrency, Currency toCurrency) {
+    ExchangeRateTable table = exchangeRates.getTable();
+    return new ConvertedAmount(table.convert(amount, fromCurrency, toCurrency), toCurrency,
+            table.getVersion());
+  }
+
+  @Override
+  public ConvertedAmount convertTotal(long redDollar, long greenDollar, long blueDollar,
+                                      Currency toCurrency) {
+    ExchangeRateTable table = exchangeRates.getTable();
+    return new ConvertedAmount(table.convertTotal(redDollar, greenDollar, blueDollar,
+            toCurrency), toCurrency, table.getVersion());
+  }
+
+  @Override
+  public ConvertedAmounts convertAll(long[] amounts, Currency[] fromCurrencies,
+                                     Currency toCurrency) {
+    ExchangeRateTable table = exchangeRates.getTable();
+    long[] converted = new long[amounts.length];
+    table.convertAll(amounts, fromCurrencies, toCurrency, converted);
+    return new ConvertedAmounts(converted, toCurrency, table.getVersion());
+  }
+
+  @Override
+  public ExchangeRateTable getRateTable() {
+    return exchangeRates.getTable();
+  }
+
+  @Override
+  public ExchangeRateTable reload() {
+    try {
+      return exchangeRates.reload();
+    } catch (IllegalArgumentException | UncheckedIOException e) {
+      throw new RateTableInvalidException(ErrorCode.RATE_TABLE_INVALID, e.getMessage());
     }
-    return amount;
   }
-}
\ No newline at end of file
+}
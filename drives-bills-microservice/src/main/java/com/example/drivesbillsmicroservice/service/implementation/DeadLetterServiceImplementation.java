@@ -0,0 +1,110 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.dto.deadletter.DeadLetterReplayResponseDto;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.kafka.MessageNotSentException;
+import com.example.drivesbillsmicroservice.exceptions.kafka.TopicNotReplayableException;
+import com.example.drivesbillsmicroservice.kafka.retry.FailedRecordRouter;
+import com.example.drivesbillsmicroservice.service.DeadLetterService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class DeadLetterServiceImplementation implements DeadLetterService {
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+  @Value("${kafka.producer.ack-timeout:10s}")
+  private Duration ackTimeout;
+
+  private final ConsumerFactory<String, byte[]> deadLetterConsumerFactory;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final FailedRecordRouter failedRecordRouter;
+
+  @Autowired
+  public DeadLetterServiceImplementation(ConsumerFactory<String, byte[]> deadLetterConsumerFactory,
+                                         KafkaTemplate<String, Object> kafkaTemplate,
+                                         FailedRecordRouter failedRecordRouter) {
+    this.deadLetterConsumerFactory = deadLetterConsumerFactory;
+    this.kafkaTemplate = kafkaTemplate;
+    this.failedRecordRouter = failedRecordRouter;
+  }
+
+  @Override
+  public DeadLetterReplayResponseDto replay(String topic, int max) {
+    if (!failedRecordRouter.isRouted(topic)) {
+      throw new TopicNotReplayableException(ErrorCode.TOPIC_NOT_REPLAYABLE, topic);
+    }
+    String deadLetterTopic = failedRecordRouter.deadLetterTopic(topic);
+    Map<TopicPartition, OffsetAndMetadata> replayedOffsets = new HashMap<>();
+    int replayed = 0;
+    try (Consumer<String, byte[]> consumer = deadLetterConsumerFactory.createConsumer()) {
+      List<PartitionInfo> partitions = consumer.partitionsFor(deadLetterTopic);
+      if (partitions == null || partitions.isEmpty()) {
+        return new DeadLetterReplayResponseDto(topic, 0);
+      }
+      consumer.assign(partitions.stream()
+              .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+              .toList());
+      try {
+        while (replayed < max) {
+          ConsumerRecords<String, byte[]> deadLetters = consumer.poll(POLL_TIMEOUT);
+          if (deadLetters.isEmpty()) {
+            break;
+          }
+          for (ConsumerRecord<String, byte[]> deadLetter : deadLetters) {
+            if (replayed == max) {
+              break;
+            }
+            send(topic, deadLetter);
+            replayedOffsets.put(new TopicPartition(deadLetter.topic(), deadLetter.partition()),
+                    new OffsetAndMetadata(deadLetter.offset() + 1));
+            replayed++;
+          }
+        }
+      } finally {
+        if (!replayedOffsets.isEmpty()) {
+          consumer.commitSync(replayedOffsets);
+        }
+      }
+    }
+    log.info("{} dead letters replayed to {}", replayed, topic);
+    return new DeadLetterReplayResponseDto(topic, replayed);
+  }
+
+  private void send(String topic, ConsumerRecord<String, byte[]> deadLetter) {
+    List<Header> headers = Arrays.stream(deadLetter.headers().toArray())
+            .filter(header -> !FailedRecordRouter.isParkingHeader(header.key()))
+            .toList();
+    ProducerRecord<String, Object> record = new ProducerRecord<>(topic, null,
+            deadLetter.key(), deadLetter.value(), headers);
+    try {
+      kafkaTemplate.send(record).get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw new MessageNotSentException(ErrorCode.MESSAGE_NOT_SENT, e);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.entity.ConsumedRecord;
+import com.example.drivesbillsmicroservice.entity.ConsumedRecordId;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.repository.ConsumedRecordRepository;
+import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.service.DetailPaymentService;
+import com.example.drivesbillsmicroservice.service.IdempotencyService;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class DetailPaymentServiceImplementation implements DetailPaymentService {
+  private final AccountService accountService;
+  private final ConsumedRecordRepository consumedRecordRepository;
+  private final IdempotencyService idempotencyService;
+
+  @Autowired
+  public DetailPaymentServiceImplementation(AccountService accountService,
+                                            ConsumedRecordRepository consumedRecordRepository,
+                                            IdempotencyService idempotencyService) {
+    this.accountService = accountService;
+    this.consumedRecordRepository = consumedRecordRepository;
+    this.idempotencyService = idempotencyService;
+  }
+
+  /**
+   * An event with an id is paid once however many times it is delivered, a redelivered
+   * event gets the outcome of its first payment, refusals included.
+   */
+  @Override
+  public DetailPaymentEvent pay(DetailAddEvent detailAddEvent) {
+    if (detailAddEvent.getEventId() == null) {
+      return outcome(detailAddEvent, debit(detailAddEvent));
+    }
+    int status = idempotencyService.execute(detailAddEvent.getEventId(),
+            () -> debit(detailAddEvent).ordinal());
+    return outcome(detailAddEvent, DetailPaymentEvent.Status.values()[status]);
+  }
+
+  private DetailPaymentEvent.Status debit(DetailAddEvent detailAddEvent) {
+    DetailPaymentEvent.Status status;
+    try {
+      accountService.debit(detailAddEvent.getDriverId(),
+                           detailAddEvent.priceInMinorUnits(),
+                           Currency.valueOf(detailAddEvent.getCurrency()),
+                           detailAddEvent.getEventId());
+      status = DetailPaymentEvent.Status.PAID;
+    } catch (InsufficientBalanceException e) {
+      log.warn("Detail {} not paid, insufficient balance of driver {}",
+              detailAddEvent.getSerialNumber(), detailAddEvent.getDriverId());
+      status = DetailPaymentEvent.Status.INSUFFICIENT_BALANCE;
+    } catch (AccountNotFoundException e) {
+      log.warn("Detail {} not paid, no account for driver {}",
+              detailAddEvent.getSerialNumber(), detailAddEvent.getDriverId());
+      status = DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND;
+    }
+    return status;
+  }
+
+  /**
+   * Looks the outcomes of the whole batch up with one query and inserts the new ones in one
+   * batch. The records of a partition below the first offset of the batch are committed in
+   * Kafka, their rows are deleted so that the table only holds the records in flight.
+   */
+  @Override
+  @Transactional
+  public List<DetailPaymentEvent> payOnce(List<ConsumerRecord<String, Object>> records) {
+    Map<ConsumedRecordId, ConsumedRecord> consumed = consumedRecordRepository
+            .findAllById(records.stream().map(ConsumedRecordId::of).toList()).stream()
+            .collect(Collectors.toMap(ConsumedRecord::getId, Function.identity()));
+    List<DetailPaymentEvent> outcomes = new ArrayList<>(records.size());
+    List<ConsumedRecord> paid = new ArrayList<>(records.size());
+    Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+    for (ConsumerRecord<String, Object> record : records) {
+      DetailAddEvent detailAddEvent = (DetailAddEvent) record.value();
+      ConsumedRecordId id = ConsumedRecordId.of(record);
+      ConsumedRecord consumedRecord = consumed.get(id);
+      if (consumedRecord == null) {
+        DetailPaymentEvent outcome = pay(detailAddEvent);
+        paid.add(new ConsumedRecord(id, outcome.getStatus()));
+        outcomes.add(outcome);
+      } else {
+        log.info("Record {} was already paid, its outcome {} is reused", id,
+                consumedRecord.getOutcome());
+        outcomes.add(outcome(detailAddEvent, consumedRecord.getOutcome()));
+      }
+      firstOffsets.merge(new TopicPartition(record.topic(), record.partition()),
+              record.offset(), Math::min);
+    }
+    consumedRecordRepository.saveAll(paid);
+    firstOffsets.forEach((partition, offset) -> consumedRecordRepository
+            .deleteCommitted(partition.topic(), partition.partition(), offset));
+    return outcomes;
+  }
+
+  private static DetailPaymentEvent outcome(DetailAddEvent detailAddEvent,
+                                            DetailPaymentEvent.Status status) {
+    return DetailPaymentEvent.builder()
+            .serialNumber(detailAddEvent.getSerialNumber())
+            .licensePlate(detailAddEvent.getLicensePlate())
+            .driverId(detailAddEvent.getDriverId())
+            .status(status)
+            .build();
+  }
+}
@@ -3,39 +3,62 @@ package com.example.drivesbillsmicroservice.service.implementation;
 import com.example.drivesbillsmicroservice.dto.driver.create.DriverCreateRequestDto;
 import com.example.drivesbillsmicroservice.dto.driver.get.DriverGetResponseDto;
 import com.example.drivesbillsmicroservice.dto.driver.update.DriverUpdateRequestDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.entity.Driver;
 import com.example.drivesbillsmicroservice.events.CarPurchaseEvent;
 import com.example.drivesbillsmicroservice.events.DetailAddEvent;
 import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.car.CarNotFoundException;
 import com.example.drivesbillsmicroservice.exceptions.driver.DriverAlreadyExistException;
 import com.example.drivesbillsmicroservice.exceptions.driver.DriverNotFoundException;
+import com.example.drivesbillsmicroservice.grpc.CarLookupClient;
 import com.example.drivesbillsmicroservice.kafka.Producer;
 import com.example.drivesbillsmicroservice.mapper.DriverMapper;
 import com.example.drivesbillsmicroservice.repository.DriverRepository;
+import com.example.drivesbillsmicroservice.repository.specification.DriverSpecification;
 import com.example.drivesbillsmicroservice.service.DriverService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.drivesbillsmicroservice.service.utils.CursorCodec;
+import com.example.drivesbillsmicroservice.service.utils.UniqueKeyFilters;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 
 @Service
 public class DriverServiceImplementation implements DriverService {
+  private static final Set<String> SORTABLE_FIELDS = Set.of("id", "experience");
+
   private final DriverRepository driverRepository;
   private final Producer producer;
+  private final CursorCodec cursorCodec;
+  private final UniqueKeyFilters uniqueKeyFilters;
+  private final CarLookupClient carLookupClient;
 
   @Autowired
-  public DriverServiceImplementation(DriverRepository driverRepository, Producer producer) {
+  public DriverServiceImplementation(DriverRepository driverRepository,
+                                     Producer producer,
+                                     CursorCodec cursorCodec,
+                                     UniqueKeyFilters uniqueKeyFilters,
+                                     CarLookupClient carLookupClient) {
     this.driverRepository = driverRepository;
     this.producer = producer;
+    this.cursorCodec = cursorCodec;
+    this.uniqueKeyFilters = uniqueKeyFilters;
+    this.carLookupClient = carLookupClient;
   }
 
 
@@ -49,10 +72,17 @@ public class DriverServiceImplementation implements DriverService {
 
   @Override
   public void registerDriver(DriverCreateRequestDto driverCreateRequestDto) {
-    if (driverRepository.existsByPassport(driverCreateRequestDto.getPassport())) {
+    String passport = driverCreateRequestDto.getPassport();
+    if (uniqueKeyFilters.passports().mightContain(passport)
+            && driverRepository.existsByPassport(passport)) {
+      throw new DriverAlreadyExistException(ErrorCode.DRIVER_ALREADY_EXIST);
+    }
+    uniqueKeyFilters.passports().add(passport);
+    try {
+      driverRepository.saveAndFlush(DriverMapper.INSTANCE.toDriver(driverCreateRequestDto));
+    } catch (DataIntegrityViolationException e) {
       throw new DriverAlreadyExistException(ErrorCode.DRIVER_ALREADY_EXIST);
     }
-    driverRepository.save(DriverMapper.INSTANCE.toDriver(driverCreateRequestDto));
   }
 
   @Override
@@ -71,6 +101,7 @@ public class DriverServiceImplementation implements DriverService {
     if (driver.isEmpty()) {
       throw new DriverNotFoundException(ErrorCode.DRIVER_NOT_FOUND);
     }
+    uniqueKeyFilters.passports().remove(passport);
     driverRepository.deleteByPassport(passport);
   }
 
@@ -142,14 +173,59 @@ public class DriverServiceImplementation implements DriverService {
   }
 
   @Override
-  public String sendCarPurchaseEvent(CarPurchaseEvent carPurchaseEvent)
-          throws JsonProcessingException {
+  public CursorPageDto<DriverGetResponseDto> scrollDrivers(String cursor, int size, String sortBy) {
+    return scroll(Specification.where(null), cursor, size, sortBy);
+  }
+
+  @Override
+  public CursorPageDto<DriverGetResponseDto> scrollSearchDrivers(String firstName,
+                                                                 String lastName,
+                                                                 String passport,
+                                                                 Integer experience,
+                                                                 String cursor,
+                                                                 int size,
+                                                                 String sortBy) {
+    Specification<Driver> specification;
+    if (firstName != null) {
+      specification = DriverSpecification.firstNameContains(firstName);
+    } else if (lastName != null) {
+      specification = DriverSpecification.lastNameContains(lastName);
+    } else if (passport != null) {
+      specification = DriverSpecification.passportContains(passport);
+    } else if (experience != null) {
+      specification = DriverSpecification.experienceEquals(experience);
+    } else {
+      specification = Specification.where(null);
+    }
+    return scroll(specification, cursor, size, sortBy);
+  }
+
+  private CursorPageDto<DriverGetResponseDto> scroll(Specification<Driver> specification,
+                                                     String cursor,
+                                                     int size,
+                                                     String sortBy) {
+    Sort sort = cursorCodec.sort(sortBy, SORTABLE_FIELDS, "id");
+    ScrollPosition position = cursorCodec.decode(cursor, Driver.class, sort);
+    Window<Driver> driverWindow = driverRepository.findBy(specification, query -> query
+            .sortBy(sort)
+            .limit(size)
+            .scroll(position));
+    return cursorCodec.toPage(driverWindow.map(DriverMapper.INSTANCE::toDtoResponse));
+  }
+
+  @Override
+  public String sendCarPurchaseEvent(CarPurchaseEvent carPurchaseEvent) {
+    if (!carLookupClient.carExists(carPurchaseEvent.getLicensePlate())) {
+      throw new CarNotFoundException(ErrorCode.CAR_NOT_FOUND);
+    }
+    if (carPurchaseEvent.getEventId() == null) {
+      carPurchaseEvent.setEventId(UUID.randomUUID());
+    }
     return producer.sendMessageCarPurchase(carPurchaseEvent);
   }
 
   @Override
-  public String sendSuccessfulPaymentEvent(DetailAddEvent detailAddEvent)
-          throws JsonProcessingException {
+  public String sendSuccessfulPaymentEvent(DetailAddEvent detailAddEvent) {
     return producer.sendMessageDetailAdd(detailAddEvent);
   }
 }
\ No newline at end of file
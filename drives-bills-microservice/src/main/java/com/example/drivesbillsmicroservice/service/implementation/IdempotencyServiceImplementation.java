@@ -0,0 +1,141 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.entity.IdempotencyRecord;
+import com.example.drivesbillsmicroservice.entity.IdempotencyRecordId;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.idempotency.IdempotencyKeyInUseException;
+import com.example.drivesbillsmicroservice.exceptions.idempotency.IdempotencyKeyReusedException;
+import com.example.drivesbillsmicroservice.repository.IdempotencyRecordRepository;
+import com.example.drivesbillsmicroservice.service.IdempotencyService;
+import com.example.drivesbillsmicroservice.service.utils.IdempotencyWindow;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Answers a presented key from the idempotency window first, so that duplicates arriving
+ * shortly after their original never reach the database. A key missing from the window is
+ * looked up by its primary key in the idempotency_records table, which outlives restarts and
+ * is shared by all instances. A key is only added to the window once the transaction that
+ * recorded it has committed, so the window never answers with a result that was rolled back.
+ * Client keys are stored with a fingerprint of the request parameters, and a key presented
+ * with other parameters is rejected with 422 instead of replaying the first result.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImplementation implements IdempotencyService {
+  private static final HashFunction KEY_HASH = Hashing.murmur3_128();
+  private static final char SCOPE_SEPARATOR = '\n';
+  private static final long NO_FINGERPRINT = 0;
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final IdempotencyWindow window;
+  private final Duration windowDuration;
+  private final Counter memoryReplays;
+  private final Counter databaseReplays;
+
+  @Autowired
+  public IdempotencyServiceImplementation(IdempotencyRecordRepository idempotencyRecordRepository,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${idempotency.window:24h}") Duration window,
+                                          @Value("${idempotency.capacity:131072}") int capacity) {
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.window = new IdempotencyWindow(capacity, window.toMillis(), System.currentTimeMillis());
+    this.windowDuration = window;
+    this.memoryReplays = meterRegistry.counter("idempotency.replayed", "source", "memory");
+    this.databaseReplays = meterRegistry.counter("idempotency.replayed", "source", "database");
+    Gauge.builder("idempotency.window.size", this.window, IdempotencyWindow::size)
+            .register(meterRegistry);
+  }
+
+  @Override
+  @Transactional
+  public int execute(long keyHigh, long keyLow, long fingerprint, IntSupplier operation) {
+    int result = window.get(keyHigh, keyLow, fingerprint, System.currentTimeMillis());
+    if (result == IdempotencyWindow.MISMATCH) {
+      throw new IdempotencyKeyReusedException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+    }
+    if (result != IdempotencyWindow.MISSING) {
+      memoryReplays.increment();
+      return result;
+    }
+    IdempotencyRecordId id = new IdempotencyRecordId(keyHigh, keyLow);
+    Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(id);
+    if (stored.isPresent()) {
+      if (stored.get().getFingerprint() != fingerprint) {
+        throw new IdempotencyKeyReusedException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+      }
+      databaseReplays.increment();
+      result = stored.get().getResult();
+      window.put(keyHigh, keyLow, fingerprint, result, System.currentTimeMillis());
+      return result;
+    }
+    result = operation.getAsInt();
+    try {
+      idempotencyRecordRepository.saveAndFlush(
+              new IdempotencyRecord(id, fingerprint, result, Instant.now()));
+    } catch (DataIntegrityViolationException e) {
+      log.warn("Idempotency key {} was recorded concurrently", id);
+      throw new IdempotencyKeyInUseException(ErrorCode.IDEMPOTENCY_KEY_IN_USE);
+    }
+    rememberAfterCommit(keyHigh, keyLow, fingerprint, result);
+    return result;
+  }
+
+  @Override
+  public int execute(UUID eventId, IntSupplier operation) {
+    return execute(eventId.getMostSignificantBits(), eventId.getLeastSignificantBits(),
+            NO_FINGERPRINT, operation);
+  }
+
+  @Override
+  public int execute(String scope, String key, String request, IntSupplier operation) {
+    ByteBuffer hash = ByteBuffer.wrap(KEY_HASH.newHasher()
+            .putUnencodedChars(scope)
+            .putChar(SCOPE_SEPARATOR)
+            .putUnencodedChars(key)
+            .hash()
+            .asBytes());
+    long fingerprint = KEY_HASH.hashUnencodedChars(request).asLong();
+    return execute(hash.getLong(), hash.getLong(), fingerprint, operation);
+  }
+
+  @Override
+  @Transactional
+  @Scheduled(cron = "${idempotency.purge-cron:0 0 * * * ?}")
+  public void purgeExpired() {
+    int deleted = idempotencyRecordRepository
+            .deleteCreatedBefore(Instant.now().minus(windowDuration));
+    log.info("Purged {} expired idempotency records", deleted);
+  }
+
+  private void rememberAfterCommit(long keyHigh, long keyLow, long fingerprint, int result) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      window.put(keyHigh, keyLow, fingerprint, result, System.currentTimeMillis());
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        window.put(keyHigh, keyLow, fingerprint, result, System.currentTimeMillis());
+      }
+    });
+  }
+}
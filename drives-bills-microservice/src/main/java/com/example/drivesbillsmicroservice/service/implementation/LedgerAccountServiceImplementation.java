@@ -0,0 +1,73 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.ledger.LedgerEngine;
+import com.example.drivesbillsmicroservice.repository.AccountBalanceRepository.BalanceRow;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import jakarta.transaction.Transactional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Account service of the in-memory ledger, enabled with ledger.enabled.
+ * Credits, debits and balances are answered by the LedgerEngine, which writes the balances
+ * to the accounts table behind. The operations join a surrounding transaction but do not
+ * start one, since they do not touch the database.
+ */
+@Service
+@ConditionalOnProperty(name = "ledger.enabled", havingValue = "true")
+public class LedgerAccountServiceImplementation extends AccountServiceImplementation {
+  private final LedgerEngine ledgerEngine;
+
+  @Autowired
+  public LedgerAccountServiceImplementation(AccountRepository accountRepository,
+                                            AccountJournalService accountJournalService,
+                                            CurrencyConversionService currencyConversionService,
+                                            LedgerEngine ledgerEngine) {
+    super(accountRepository, accountJournalService, currencyConversionService);
+    this.ledgerEngine = ledgerEngine;
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public void credit(Long accountId, long amount, Currency currency) {
+    ledgerEngine.credit(accountId, amount, currency);
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public void debit(Long accountId, long amount, Currency currency) {
+    ledgerEngine.debit(accountId, amount, currency);
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.SUPPORTS)
+  public void debit(Long accountId, long amount, Currency currency, UUID eventId) {
+    ledgerEngine.debit(accountId, amount, currency);
+  }
+
+  /**
+   * The ledger writes the balances to the accounts table behind, so the bulk query only
+   * selects the matching accounts, without summing the journal, and their balances are read
+   * from the ledger like those of a single account.
+   */
+  @Override
+  protected boolean balancesInJournal() {
+    return false;
+  }
+
+  @Override
+  protected AccountBalance balances(BalanceRow row) {
+    return ledgerEngine.getBalances(row.getAccountId());
+  }
+
+  @Override
+  protected AccountBalance balances(Long accountId) {
+    return ledgerEngine.getBalances(accountId);
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.kafka.Producer;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Account service of the Kafka Streams engine, enabled with kafka.streams.enabled.
+ * The PaymentTopology owns the balances: credits and debits are sent to it as adjustments
+ * and applied asynchronously, while balances are read from the accounts table, which the
+ * AccountBalanceMaterializer keeps up to date with a short lag. A debit is checked against
+ * that table before it is sent and checked again by the topology, which rejects it if the
+ * balance no longer covers it.
+ */
+@Service
+@ConditionalOnProperty(name = "kafka.streams.enabled", havingValue = "true")
+public class StreamsAccountServiceImplementation extends AccountServiceImplementation {
+  private final AccountRepository accountRepository;
+  private final Producer producer;
+
+  @Autowired
+  public StreamsAccountServiceImplementation(AccountRepository accountRepository,
+                                             AccountJournalService accountJournalService,
+                                             CurrencyConversionService currencyConversionService,
+                                             Producer producer) {
+    super(accountRepository, accountJournalService, currencyConversionService);
+    this.accountRepository = accountRepository;
+    this.producer = producer;
+  }
+
+  @Override
+  public void credit(Long accountId, long amount, Currency currency) {
+    if (!accountRepository.existsById(accountId)) {
+      throw new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND);
+    }
+    producer.sendAccountAdjustment(accountId, AccountBalance.of(currency, amount));
+  }
+
+  @Override
+  public void debit(Long accountId, long amount, Currency currency, UUID eventId) {
+    if (!canDebit(accountId, amount, currency)) {
+      throw new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE);
+    }
+    producer.sendAccountAdjustment(accountId, AccountBalance.of(currency, -amount));
+  }
+
+  @Override
+  protected boolean balancesInJournal() {
+    return false;
+  }
+
+  @Override
+  protected AccountBalance balances(Long accountId) {
+    return accountRepository.findById(accountId)
+            .map(AccountBalance::of)
+            .orElseThrow(() -> new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND));
+  }
+}
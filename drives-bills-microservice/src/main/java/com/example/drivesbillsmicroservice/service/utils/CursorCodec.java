@@ -0,0 +1,130 @@
+package com.example.drivesbillsmicroservice.service.utils;
+
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.cursor.InvalidCursorException;
+import com.example.drivesbillsmicroservice.exceptions.cursor.InvalidSortException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Encodes keyset scroll positions into opaque continuation tokens and back.
+ * A token is the URL-safe Base64 form of a JSON object holding the sort key and the
+ * tie-breaker of the last row of a slice, so the next slice is fetched with a seek
+ * predicate instead of an offset and no count query is needed.
+ * A seek predicate skips rows whose sort key is null, so listings may only be sorted by
+ * properties that never hold null values, and the identifier always closes the sort.
+ */
+@Component
+public class CursorCodec {
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final ObjectMapper objectMapper;
+
+  @Autowired
+  public CursorCodec(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Builds the sort of a keyset listing, closed by the identifier as the tie-breaker.
+   *
+   * @param sortBy     The property requested by the client.
+   * @param sortable   The properties the listing may be sorted by, none of them nullable.
+   * @param idProperty The identifier property of the entity.
+   * @return The sort by the requested property followed by the identifier.
+   * @throws InvalidSortException If the requested property is not sortable.
+   */
+  public Sort sort(String sortBy, Set<String> sortable, String idProperty) {
+    if (!sortable.contains(sortBy)) {
+      throw new InvalidSortException(ErrorCode.INVALID_SORT, sortBy);
+    }
+    return sortBy.equals(idProperty) ? Sort.by(idProperty) : Sort.by(sortBy, idProperty);
+  }
+
+  /**
+   * Decodes a continuation token into a forward keyset position.
+   *
+   * @param cursor      The token sent by the client, empty for the first slice.
+   * @param entityClass The entity the keys belong to, used to restore the key types.
+   * @param sort        The sort of the listing, the token must hold a key for each property.
+   * @return The initial position for an empty token, the decoded position otherwise.
+   */
+  public ScrollPosition decode(String cursor, Class<?> entityClass, Sort sort) {
+    if (!StringUtils.hasText(cursor)) {
+      return ScrollPosition.keyset();
+    }
+    Map<String, Object> keys = new LinkedHashMap<>();
+    try {
+      JsonNode node = objectMapper.reader()
+              .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+              .readTree(DECODER.decode(cursor));
+      Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> entry = fields.next();
+        Field field = ReflectionUtils.findField(entityClass, entry.getKey());
+        if (field == null || entry.getValue().isNull()) {
+          throw new InvalidCursorException(ErrorCode.INVALID_CURSOR);
+        }
+        keys.put(entry.getKey(), objectMapper.treeToValue(entry.getValue(), field.getType()));
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      throw new InvalidCursorException(ErrorCode.INVALID_CURSOR);
+    }
+    Set<String> properties = sort.stream()
+            .map(Sort.Order::getProperty)
+            .collect(Collectors.toSet());
+    if (!keys.keySet().equals(properties)) {
+      throw new InvalidCursorException(ErrorCode.INVALID_CURSOR);
+    }
+    return ScrollPosition.forward(keys);
+  }
+
+  /**
+   * Encodes a keyset position into a continuation token.
+   *
+   * @param position The position of the last row of a slice.
+   * @return The opaque continuation token.
+   */
+  public String encode(ScrollPosition position) {
+    try {
+      Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+      return ENCODER.encodeToString(objectMapper.writeValueAsBytes(keys));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to encode cursor", e);
+    }
+  }
+
+  /**
+   * Builds a cursor page from a scrolled window.
+   *
+   * @param window The window returned by the repository.
+   * @param <T>    The type of the window items.
+   * @return A CursorPageDto holding the items and the token of the next slice.
+   */
+  public <T> CursorPageDto<T> toPage(Window<T> window) {
+    String nextCursor = window.hasNext() && !window.isEmpty()
+            ? encode(window.positionAt(window.size() - 1))
+            : null;
+    return new CursorPageDto<>(window.getContent(), window.size(), nextCursor, nextCursor != null);
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.drivesbillsmicroservice.service.utils;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the results of the operations executed recently, keyed by their 128-bit
+ * idempotency keys, together with the fingerprints of the requests that produced them.
+ * The keys and results are kept in primitive arrays with open addressing, so a lookup costs
+ * one hash and a few probes and allocates nothing. Entries are kept in two generations: new
+ * entries go to the current one, and every half window, or as soon as the current one is
+ * full, the previous generation is dropped and the current one takes its place. An entry is
+ * therefore remembered for at least half a window, and older entries are answered by the
+ * database.
+ */
+public class IdempotencyWindow {
+  public static final int MISSING = -1;
+  public static final int MISMATCH = -2;
+  private static final double MAX_LOAD = 0.75;
+
+  private final Generation[] generations;
+  private final long rotationMillis;
+  private final int maxSize;
+  private int current;
+  private long rotatedAt;
+
+  /**
+   * @param capacity     the number of slots of a generation, rounded up to a power of two
+   * @param windowMillis how long entries are remembered at most
+   * @param now          the current time in milliseconds
+   */
+  public IdempotencyWindow(int capacity, long windowMillis, long now) {
+    int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.generations = new Generation[] {new Generation(slots), new Generation(slots)};
+    this.rotationMillis = Math.max(1, windowMillis / 2);
+    this.maxSize = (int) (slots * MAX_LOAD);
+    this.rotatedAt = now;
+  }
+
+  /**
+   * Returns the result remembered for a key, {@link #MISSING}, or {@link #MISMATCH} when the
+   * key was remembered for a request with another fingerprint.
+   */
+  public synchronized int get(long keyHigh, long keyLow, long fingerprint, long now) {
+    rotateIfDue(now);
+    int result = generations[current].get(keyHigh, keyLow, fingerprint);
+    return result != MISSING
+            ? result
+            : generations[current ^ 1].get(keyHigh, keyLow, fingerprint);
+  }
+
+  /**
+   * Remembers the result of a key and the fingerprint of its request, results are
+   * non-negative.
+   */
+  public synchronized void put(long keyHigh, long keyLow, long fingerprint, int result,
+                               long now) {
+    if (result < 0) {
+      throw new IllegalArgumentException("Result must not be negative: " + result);
+    }
+    rotateIfDue(now);
+    if (generations[current].size >= maxSize) {
+      rotate(now);
+    }
+    generations[current].put(keyHigh, keyLow, fingerprint, result);
+  }
+
+  public synchronized int size() {
+    return generations[0].size + generations[1].size;
+  }
+
+  public int capacity() {
+    return maxSize;
+  }
+
+  private void rotateIfDue(long now) {
+    if (now - rotatedAt >= rotationMillis) {
+      rotate(now);
+      if (now - rotatedAt >= rotationMillis) {
+        rotate(now);
+      }
+    }
+  }
+
+  private void rotate(long now) {
+    current ^= 1;
+    generations[current].clear();
+    rotatedAt = now;
+  }
+
+  /**
+   * Hash table with linear probing. A slot is free when its stored result is 0, results are
+   * stored plus one.
+   */
+  private static final class Generation {
+    private final long[] keyHighs;
+    private final long[] keyLows;
+    private final long[] fingerprints;
+    private final int[] results;
+    private final int mask;
+    private int size;
+
+    Generation(int slots) {
+      this.keyHighs = new long[slots];
+      this.keyLows = new long[slots];
+      this.fingerprints = new long[slots];
+      this.results = new int[slots];
+      this.mask = slots - 1;
+    }
+
+    int get(long keyHigh, long keyLow, long fingerprint) {
+      for (int slot = slotOf(keyHigh, keyLow); results[slot] != 0; slot = (slot + 1) & mask) {
+        if (keyHighs[slot] == keyHigh && keyLows[slot] == keyLow) {
+          return fingerprints[slot] == fingerprint ? results[slot] - 1 : MISMATCH;
+        }
+      }
+      return MISSING;
+    }
+
+    void put(long keyHigh, long keyLow, long fingerprint, int result) {
+      int slot = slotOf(keyHigh, keyLow);
+      while (results[slot] != 0) {
+        if (keyHighs[slot] == keyHigh && keyLows[slot] == keyLow) {
+          fingerprints[slot] = fingerprint;
+          results[slot] = result + 1;
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+      keyHighs[slot] = keyHigh;
+      keyLows[slot] = keyLow;
+      fingerprints[slot] = fingerprint;
+      results[slot] = result + 1;
+      size++;
+    }
+
+    void clear() {
+      if (size > 0) {
+        Arrays.fill(results, 0);
+        size = 0;
+      }
+    }
+
+    private int slotOf(long keyHigh, long keyLow) {
+      long hash = keyHigh * 0x9E3779B97F4A7C15L ^ keyLow;
+      hash ^= hash >>> 33;
+      hash *= 0xFF51AFD7ED558CCDL;
+      hash ^= hash >>> 33;
+      return (int) hash & mask;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.drivesbillsmicroservice.service.utils;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Bloom filter over the values of a unique column.
+ * A negative answer is definite, so the existence query can be skipped, while a positive
+ * answer may be false and has to be confirmed by the database. Until the filter is loaded
+ * every value is reported as possibly present. A Bloom filter cannot forget a value, so
+ * removed values only add false positives until the next load.
+ * The filter only sees the values added by this instance, so it is rebuilt from the
+ * database periodically; values added while a rebuild is running go to both filters. Values
+ * inserted elsewhere since the last rebuild are answered as absent, so the unique
+ * constraint of the column stays the authority and the filter is only a fast path.
+ */
+public class UniqueKeyFilter {
+  private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+  private final String name;
+  private final long capacity;
+  private final double falsePositiveRate;
+  private final AtomicLong removed = new AtomicLong();
+  private volatile BloomFilter<CharSequence> bloomFilter;
+  private volatile BloomFilter<CharSequence> rebuilding;
+  private volatile boolean loaded;
+
+  public UniqueKeyFilter(String name, DataSize memoryBudget, double falsePositiveRate) {
+    this.name = name;
+    this.capacity = capacity(memoryBudget, falsePositiveRate);
+    this.falsePositiveRate = falsePositiveRate;
+    this.bloomFilter = create();
+  }
+
+  private BloomFilter<CharSequence> create() {
+    return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+            capacity, falsePositiveRate);
+  }
+
+  /**
+   * Returns how many values fit in the memory budget at the false-positive rate.
+   */
+  static long capacity(DataSize memoryBudget, double falsePositiveRate) {
+    double bits = memoryBudget.toBytes() * 8d;
+    return Math.max(1, (long) (-bits * LN2_SQUARED / Math.log(falsePositiveRate)));
+  }
+
+  public boolean mightContain(String value) {
+    return !loaded || value == null || bloomFilter.mightContain(value);
+  }
+
+  public void add(String value) {
+    if (value != null) {
+      bloomFilter.put(value);
+      BloomFilter<CharSequence> next = rebuilding;
+      if (next != null) {
+        next.put(value);
+      }
+    }
+  }
+
+  public void remove(String value) {
+    removed.incrementAndGet();
+  }
+
+  /**
+   * Builds a new filter from all existing values, replaces the current one with it and
+   * starts answering "not present" for the other ones.
+   */
+  public void load(Stream<String> values) {
+    BloomFilter<CharSequence> next = create();
+    rebuilding = next;
+    try {
+      values.forEach(next::put);
+      bloomFilter = next;
+      removed.set(0);
+      loaded = true;
+    } finally {
+      rebuilding = null;
+    }
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public double occupancy() {
+    return (double) elementCount() / capacity;
+  }
+
+  public long elementCount() {
+    return bloomFilter.approximateElementCount();
+  }
+
+  public double expectedFpp() {
+    return bloomFilter.expectedFpp();
+  }
+
+  /**
+   * Publishes the occupancy, the element count, the expected false-positive rate and
+   * the removed value count of the filter.
+   */
+  public void bindTo(MeterRegistry meterRegistry) {
+    Gauge.builder("unique.key.filter.occupancy", this, UniqueKeyFilter::occupancy)
+            .tag("key", name)
+            .register(meterRegistry);
+    Gauge.builder("unique.key.filter.elements", this, UniqueKeyFilter::elementCount)
+            .tag("key", name)
+            .register(meterRegistry);
+    Gauge.builder("unique.key.filter.expected.fpp", this, UniqueKeyFilter::expectedFpp)
+            .tag("key", name)
+            .register(meterRegistry);
+    Gauge.builder("unique.key.filter.removed", removed, AtomicLong::get)
+            .tag("key", name)
+            .register(meterRegistry);
+  }
+}
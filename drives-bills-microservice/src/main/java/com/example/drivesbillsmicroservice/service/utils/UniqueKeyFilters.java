@@ -0,0 +1,58 @@
+package com.example.drivesbillsmicroservice.service.utils;
+
+import com.example.drivesbillsmicroservice.repository.DriverRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Holds the Bloom filter of the passport numbers, which lets driver registration skip
+ * the existence query for passports that are certainly new.
+ * The filter is loaded from the database once the application is ready and rebuilt on
+ * the unique-key-filter.rebuild-cron schedule, so passports registered by other instances
+ * are picked up.
+ */
+@Slf4j
+@Component
+public class UniqueKeyFilters {
+  private final DriverRepository driverRepository;
+  private final UniqueKeyFilter passports;
+
+  @Autowired
+  public UniqueKeyFilters(DriverRepository driverRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${unique-key-filter.memory-budget:4MB}") DataSize memoryBudget,
+                          @Value("${unique-key-filter.false-positive-rate:0.01}")
+                          double falsePositiveRate) {
+    this.driverRepository = driverRepository;
+    this.passports = new UniqueKeyFilter("passport", memoryBudget, falsePositiveRate);
+    passports.bindTo(meterRegistry);
+  }
+
+  public UniqueKeyFilter passports() {
+    return passports;
+  }
+
+  @Transactional
+  @Scheduled(cron = "${unique-key-filter.rebuild-cron:0 30 * * * ?}")
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    try (Stream<String> stream = driverRepository.streamAllPassports()) {
+      passports.load(stream);
+      log.info("Loaded {} filter, capacity {}, occupancy {}",
+              passports.getName(), passports.getCapacity(), passports.occupancy());
+    } catch (DataAccessException e) {
+      log.warn("Could not load {} filter, its previous state stays in use",
+              passports.getName(), e);
+    }
+  }
+}
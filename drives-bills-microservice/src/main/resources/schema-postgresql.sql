@@ -0,0 +1,18 @@
+CREATE SEQUENCE IF NOT EXISTS account_journal_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS account_journal (
+    id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    currency VARCHAR(255) NOT NULL,
+    amount BIGINT NOT NULL,
+    event_id UUID,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE account_journal ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS account_journal_default PARTITION OF account_journal DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_account_journal_account_created_at
+    ON account_journal (account_id, created_at);
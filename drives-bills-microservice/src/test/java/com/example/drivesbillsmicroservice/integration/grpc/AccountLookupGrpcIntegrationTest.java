@@ -0,0 +1,112 @@
+package com.example.drivesbillsmicroservice.integration.grpc;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.grpc.AccountLookupGrpcService;
+import com.example.drivesbillsmicroservice.grpc.DeadlineInterceptor;
+import com.example.drivesbillsmicroservice.grpc.Decimals;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.utils.TestConstants;
+import com.example.grpc.drivesbills.v1.AccountLookupGrpc;
+import com.example.grpc.drivesbills.v1.BalanceReply;
+import com.example.grpc.drivesbills.v1.CheckDebitRequest;
+import com.example.grpc.drivesbills.v1.GetBalanceRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountLookupGrpcIntegrationTest {
+  @Mock
+  private AccountService accountService;
+
+  private Server server;
+  private ManagedChannel channel;
+  private AccountLookupGrpc.AccountLookupBlockingStub blockingStub;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(new AccountLookupGrpcService(accountService))
+            .build()
+            .start();
+    channel = InProcessChannelBuilder.forName(serverName)
+            .directExecutor()
+            .intercept(new DeadlineInterceptor(Duration.ofSeconds(1)))
+            .build();
+    blockingStub = AccountLookupGrpc.newBlockingStub(channel);
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void getBalance_ReturnsBalanceInRequestedCurrency() {
+    when(accountService.getBalance(TestConstants.ID, Currency.GREEN)).thenReturn(new ConvertedAmount(25000L, Currency.GREEN, 3));
+    BalanceReply reply = blockingStub.getBalance(GetBalanceRequest.newBuilder()
+            .setAccountId(TestConstants.ID)
+            .setCurrency(Currency.GREEN.name())
+            .build());
+    assertEquals(new BigDecimal("250.00"), Decimals.fromProto(reply.getBalance()));
+    assertEquals(Currency.GREEN.name(), reply.getCurrency());
+    assertEquals(3, reply.getRateVersion());
+  }
+
+  @Test
+  void getBalance_FailsWithNotFound_WhenAccountDoesNotExist() {
+    when(accountService.getBalance(TestConstants.ID, Currency.RED))
+            .thenThrow(new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND));
+    StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub.getBalance(GetBalanceRequest.newBuilder()
+                    .setAccountId(TestConstants.ID)
+                    .setCurrency(Currency.RED.name())
+                    .build()));
+    assertEquals(Status.Code.NOT_FOUND, exception.getStatus().getCode());
+  }
+
+  @Test
+  void checkDebit_ReturnsWhetherAccountCanPay() {
+    when(accountService.canDebit(TestConstants.ID, TestConstants.AMOUNT, Currency.BLUE)).thenReturn(false);
+    boolean affordable = blockingStub.checkDebit(CheckDebitRequest.newBuilder()
+            .setAccountId(TestConstants.ID)
+            .setAmount(Decimals.toProto(Money.toDecimal(TestConstants.AMOUNT)))
+            .setCurrency(Currency.BLUE.name())
+            .build()).getAffordable();
+    assertFalse(affordable);
+  }
+
+  @Test
+  void checkDebit_FailsWithInvalidArgument_WhenCurrencyIsUnknown() {
+    StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub.checkDebit(CheckDebitRequest.newBuilder()
+                    .setAccountId(TestConstants.ID)
+                    .setAmount(Decimals.toProto(BigDecimal.ONE))
+                    .setCurrency("PURPLE")
+                    .build()));
+    assertEquals(Status.Code.INVALID_ARGUMENT, exception.getStatus().getCode());
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.drivesbillsmicroservice.integration.grpc;
+
+import com.example.drivesbillsmicroservice.grpc.CarLookupClient;
+import com.example.drivesbillsmicroservice.grpc.DeadlineInterceptor;
+import com.example.drivesbillsmicroservice.utils.TestConstants;
+import com.example.grpc.carsdetails.v1.CarLookupGrpc;
+import com.example.grpc.carsdetails.v1.CarReply;
+import com.example.grpc.carsdetails.v1.GetCarRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CarLookupClientIntegrationTest {
+  private Server server;
+  private ManagedChannel channel;
+  private CarLookupClient carLookupClient;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(new CarLookupGrpc.CarLookupImplBase() {
+              @Override
+              public void getCar(GetCarRequest request, StreamObserver<CarReply> responseObserver) {
+                if (!TestConstants.LICENSE_PLATE.equals(request.getLicensePlate())) {
+                  responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+                  return;
+                }
+                responseObserver.onNext(CarReply.newBuilder()
+                        .setLicensePlate(request.getLicensePlate())
+                        .build());
+                responseObserver.onCompleted();
+              }
+            })
+            .build()
+            .start();
+    channel = InProcessChannelBuilder.forName(serverName)
+            .directExecutor()
+            .intercept(new DeadlineInterceptor(Duration.ofMillis(100)))
+            .build();
+    carLookupClient = new CarLookupClient(CarLookupGrpc.newBlockingStub(channel));
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void carExists_ReturnsAnswerOfCarsDetails() {
+    assertTrue(carLookupClient.carExists(TestConstants.LICENSE_PLATE));
+    assertFalse(carLookupClient.carExists(TestConstants.PASSPORT));
+  }
+
+  @Test
+  void carExists_LetsRequestThrough_WhenCarsDetailsIsUnavailable() {
+    server.shutdownNow();
+    assertTrue(carLookupClient.carExists(TestConstants.LICENSE_PLATE));
+  }
+}
@@ -0,0 +1,216 @@
+package com.example.drivesbillsmicroservice.integration.jpa;
+
+import com.example.drivesbillsmicroservice.config.ExchangeRateConfig;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalanceDto;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalancesRequestDto;
+import com.example.drivesbillsmicroservice.dto.account.statement.StatementEntryDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
+import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.entity.Driver;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.repository.AccountSnapshotRepository;
+import com.example.drivesbillsmicroservice.repository.DriverRepository;
+import com.example.drivesbillsmicroservice.repository.JournalEntryRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.service.implementation.AccountJournalServiceImplementation;
+import com.example.drivesbillsmicroservice.service.implementation.AccountServiceImplementation;
+import com.example.drivesbillsmicroservice.service.implementation.CurrencyConversionServiceImpl;
+import com.example.drivesbillsmicroservice.service.utils.CursorCodec;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that balances are the opening balances plus the journal, whether or not the
+ * snapshots were moved, and that statements are paged from the most recent entry and
+ * converted in one batch, and that bulk balances match them.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:account-journal;MODE=PostgreSQL",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.sql.init.mode=never",
+    "account.journal.snapshot.lag=" + AccountJournalIntegrationTest.SNAPSHOT_LAG_MS + "ms",
+    "spring.transaction.default-timeout=2s"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AccountServiceImplementation.class, AccountJournalServiceImplementation.class,
+    CurrencyConversionServiceImpl.class, ExchangeRateConfig.class, CursorCodec.class,
+    JacksonAutoConfiguration.class})
+class AccountJournalIntegrationTest {
+  static final long SNAPSHOT_LAG_MS = 2100;
+  private static final long OPENING_BALANCE = 10000L;
+
+  @Autowired
+  private AccountService accountService;
+  @Autowired
+  private AccountJournalService accountJournalService;
+  @Autowired
+  private DriverRepository driverRepository;
+  @Autowired
+  private JournalEntryRepository journalEntryRepository;
+  @Autowired
+  private AccountSnapshotRepository accountSnapshotRepository;
+
+  private Long accountId;
+
+  @BeforeEach
+  void setUp() {
+    Driver driver = Driver.builder().firstName("Ivan").lastName("Petrov").passport("AB12345")
+            .build();
+    Account account = Account.builder()
+            .driver(driver)
+            .redDollar(OPENING_BALANCE)
+            .greenDollar(0L)
+            .blueDollar(0L)
+            .build();
+    driver.setAccount(account);
+    accountId = driverRepository.save(driver).getAccount().getId();
+  }
+
+  @AfterEach
+  void tearDown() {
+    journalEntryRepository.deleteAll();
+    accountSnapshotRepository.deleteAll();
+    driverRepository.deleteAll();
+  }
+
+  @Test
+  void getBalances_AddsJournalToOpeningBalances_BeforeAndAfterSnapshots() throws Exception {
+    accountService.credit(accountId, 1000L, Currency.GREEN);
+    accountService.debit(accountId, 3000L, Currency.RED);
+    AccountBalance expected = new AccountBalance(7000L, 1000L, 0L);
+    assertEquals(expected, accountJournalService.getBalances(accountId));
+
+    Thread.sleep(SNAPSHOT_LAG_MS);
+    assertEquals(1, accountJournalService.takeSnapshots());
+    assertEquals(expected, accountJournalService.getBalances(accountId));
+
+    accountService.debit(accountId, 7000L, Currency.RED, UUID.randomUUID());
+    Thread.sleep(SNAPSHOT_LAG_MS);
+    assertEquals(1, accountJournalService.takeSnapshots());
+    assertEquals(0, accountJournalService.takeSnapshots());
+    assertEquals(new AccountBalance(0L, 1000L, 0L), accountJournalService.getBalances(accountId));
+    assertEquals(0L, accountSnapshotRepository.findById(accountId).orElseThrow().getRedDollar());
+  }
+
+  @Test
+  void streamBalances_AddsJournalToOpeningBalancesAndSnapshots_InOneQuery() throws Exception {
+    Driver other = Driver.builder().firstName("Olga").lastName("Sidorova").passport("CD67890")
+            .build();
+    other.setAccount(Account.builder().driver(other).redDollar(0L).greenDollar(500L)
+            .blueDollar(0L).build());
+    Long otherId = driverRepository.save(other).getAccount().getId();
+    accountService.credit(accountId, 1000L, Currency.GREEN);
+    Thread.sleep(SNAPSHOT_LAG_MS);
+    assertEquals(1, accountJournalService.takeSnapshots());
+    accountService.debit(accountId, 3000L, Currency.RED);
+    accountService.credit(otherId, 600L, Currency.BLUE);
+
+    List<AccountBalanceDto> balances = new ArrayList<>();
+    accountService.streamBalances(new AccountBalancesRequestDto(), balances::add);
+
+    assertEquals(List.of(accountId, otherId),
+            balances.stream().map(AccountBalanceDto::getAccountId).toList());
+    assertEquals(new BigDecimal("70.00"), balances.get(0).getRedDollar());
+    assertEquals(new BigDecimal("10.00"), balances.get(0).getGreenDollar());
+    assertEquals(new BigDecimal("6.00"), balances.get(1).getBlueDollar());
+    assertNull(balances.get(0).getAmount());
+
+    balances.clear();
+    accountService.streamBalances(AccountBalancesRequestDto.builder().lastName("Petr")
+            .currency(Currency.GREEN).build(), balances::add);
+    assertEquals(1, balances.size());
+    assertEquals(accountService.getBalance(accountId, Currency.GREEN).getAmount(),
+            balances.get(0).getAmount().movePointRight(2).longValueExact());
+    assertEquals(1L, balances.get(0).getRateVersion());
+    assertNull(balances.get(0).getRedDollar());
+
+    balances.clear();
+    accountService.streamBalances(AccountBalancesRequestDto.builder()
+            .accountIds(List.of(otherId, otherId + 1)).build(), balances::add);
+    assertEquals(List.of(otherId),
+            balances.stream().map(AccountBalanceDto::getAccountId).toList());
+  }
+
+  @Test
+  void getStatement_PagesEntriesFromTheMostRecent() throws Exception {
+    for (int i = 1; i <= 5; i++) {
+      accountService.credit(accountId, i * 100L, Currency.BLUE);
+      Thread.sleep(2);
+    }
+
+    List<BigDecimal> amounts = new ArrayList<>();
+    CursorPageDto<StatementEntryDto> page = accountJournalService.getStatement(accountId, null, 2, null);
+    amounts.addAll(page.getContent().stream().map(StatementEntryDto::getAmount).toList());
+    while (page.isHasNext()) {
+      page = accountJournalService.getStatement(accountId, page.getNextCursor(), 2, null);
+      amounts.addAll(page.getContent().stream().map(StatementEntryDto::getAmount).toList());
+    }
+
+    assertEquals(Stream.of("5.00", "4.00", "3.00", "2.00", "1.00").map(BigDecimal::new).toList(),
+            amounts);
+    assertFalse(page.isHasNext());
+    assertNull(page.getNextCursor());
+    assertTrue(page.getContent().stream().allMatch(entry -> entry.getEventId() == null));
+  }
+
+  @Test
+  void getStatement_ConvertsAmountsToRequestedCurrencyWithOneRateVersion() throws Exception {
+    accountService.credit(accountId, 1000L, Currency.RED);
+    Thread.sleep(2);
+    accountService.credit(accountId, 600L, Currency.BLUE);
+
+    List<StatementEntryDto> lines = accountJournalService.getStatement(accountId, null, 10,
+            Currency.GREEN).getContent();
+
+    assertEquals(List.of(new BigDecimal("3.60"), new BigDecimal("25.00")),
+            lines.stream().map(StatementEntryDto::getConvertedAmount).toList());
+    assertTrue(lines.stream().allMatch(line -> line.getRateVersion() == 1L));
+    assertNull(accountJournalService.getStatement(accountId, null, 10, null).getContent()
+            .get(0).getConvertedAmount());
+  }
+
+  @Test
+  void checkSnapshotLag_Throws_WhenTransactionsAreNotBoundedBelowTheLag() {
+    AccountJournalServiceImplementation service = new AccountJournalServiceImplementation(
+            null, null, null, null, null, null);
+    ReflectionTestUtils.setField(service, "snapshotLag", Duration.ofMinutes(1));
+    for (Duration timeout : List.of(Duration.ZERO, Duration.ofMinutes(1))) {
+      ReflectionTestUtils.setField(service, "transactionTimeout", timeout);
+      assertThrows(IllegalStateException.class,
+              () -> ReflectionTestUtils.invokeMethod(service, "checkSnapshotLag"));
+    }
+    ReflectionTestUtils.setField(service, "transactionTimeout", Duration.ofSeconds(30));
+    ReflectionTestUtils.invokeMethod(service, "checkSnapshotLag");
+  }
+
+  @Test
+  void getStatement_ThrowsAccountNotFoundException_WhenAccountDoesNotExist() {
+    assertThrows(AccountNotFoundException.class,
+            () -> accountJournalService.getStatement(accountId + 1, null, 10, null));
+  }
+}
@@ -0,0 +1,136 @@
+package com.example.drivesbillsmicroservice.integration.jpa;
+
+import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.entity.Driver;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.repository.DriverRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import com.example.drivesbillsmicroservice.service.implementation.AccountJournalServiceImplementation;
+import com.example.drivesbillsmicroservice.service.implementation.AccountServiceImplementation;
+import com.example.drivesbillsmicroservice.service.utils.CursorCodec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Credits and debits one account from many threads at once, every operation in its own
+ * transaction, and checks that no journal entry is lost and no debit overdraws the account.
+ * H2 runs in PostgreSQL mode with the PostgreSQL dialect, so the statements are those sent
+ * in production.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:account-updates;MODE=PostgreSQL;LOCK_TIMEOUT=10000",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AccountServiceImplementation.class, AccountJournalServiceImplementation.class,
+    CursorCodec.class, JacksonAutoConfiguration.class})
+class AccountUpdateConcurrencyIntegrationTest {
+  private static final int THREADS = 16;
+  private static final int OPERATIONS = 2000;
+  private static final long INITIAL_BALANCE = 1000L;
+
+  @Autowired
+  private AccountService accountService;
+  @Autowired
+  private AccountJournalService accountJournalService;
+  @Autowired
+  private DriverRepository driverRepository;
+  @MockBean
+  private CurrencyConversionService currencyConversionService;
+
+  private ExecutorService executor;
+  private Long accountId;
+
+  @BeforeEach
+  void setUp() {
+    Driver driver = new Driver();
+    Account account = Account.builder()
+            .driver(driver)
+            .redDollar(INITIAL_BALANCE)
+            .greenDollar(0L)
+            .blueDollar(0L)
+            .build();
+    driver.setAccount(account);
+    accountId = driverRepository.save(driver).getAccount().getId();
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    driverRepository.deleteAll();
+  }
+
+  @Test
+  void credit_LosesNoUpdate_WhenAccountIsCreditedConcurrently() throws Exception {
+    runConcurrently(() -> {
+      accountService.credit(accountId, 1L, Currency.RED);
+      return true;
+    });
+
+    assertEquals(INITIAL_BALANCE + OPERATIONS, redDollar());
+  }
+
+  @Test
+  void debit_NeverOverdraws_WhenAccountIsDebitedConcurrently() throws Exception {
+    int debited = runConcurrently(() -> {
+      try {
+        accountService.debit(accountId, 1L, Currency.RED);
+        return true;
+      } catch (InsufficientBalanceException e) {
+        return false;
+      }
+    });
+
+    assertEquals((int) INITIAL_BALANCE, debited);
+    assertEquals(0L, redDollar());
+  }
+
+  @Test
+  void debit_ThrowsAccountNotFoundException_WhenAccountDoesNotExist() {
+    assertThrows(AccountNotFoundException.class,
+            () -> accountService.debit(accountId + 1, 1L, Currency.RED));
+  }
+
+  private int runConcurrently(Callable<Boolean> operation) throws Exception {
+    List<Future<Boolean>> results = new ArrayList<>(OPERATIONS);
+    for (int i = 0; i < OPERATIONS; i++) {
+      results.add(executor.submit(operation));
+    }
+    int succeeded = 0;
+    for (Future<Boolean> result : results) {
+      if (result.get()) {
+        succeeded++;
+      }
+    }
+    return succeeded;
+  }
+
+  private long redDollar() {
+    return accountJournalService.getBalances(accountId).getRedDollar();
+  }
+}
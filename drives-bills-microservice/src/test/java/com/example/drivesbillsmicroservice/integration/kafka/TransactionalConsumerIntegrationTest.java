@@ -0,0 +1,211 @@
+package com.example.drivesbillsmicroservice.integration.kafka;
+
+import com.example.drivesbillsmicroservice.config.KafkaConfig;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.kafka.Consumer;
+import com.example.drivesbillsmicroservice.kafka.Producer;
+import com.example.drivesbillsmicroservice.kafka.TransactionalConsumer;
+import com.example.drivesbillsmicroservice.kafka.codec.EventDeserializer;
+import com.example.drivesbillsmicroservice.kafka.retry.FailedRecordRouter;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.service.DetailPaymentService;
+import com.example.drivesbillsmicroservice.service.DriverService;
+import com.example.drivesbillsmicroservice.utils.TestConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+
+@SpringJUnitConfig
+@EmbeddedKafka(partitions = 1,
+        topics = {"topic.car", "topic.car.retry-0", "topic.car.dlt", "topic.add.detail",
+            TransactionalConsumerIntegrationTest.REPLY_TOPIC},
+        brokerProperties = {"transaction.state.log.replication.factor=1",
+            "transaction.state.log.min.isr=1"},
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@TestPropertySource(properties = {
+    "spring.kafka.consumer.group-id=drives-bills-test",
+    "spring.kafka.consumer.auto-offset-reset=earliest",
+    "spring.kafka.consumer.isolation-level=read-committed",
+    "kafka.transactions.enabled=true",
+    "kafka.retry.topics=topic.car",
+    "kafka.retry.attempts=1",
+    "kafka.retry.initial-delay=500ms",
+    "topic.name=topic.driver.buy.car",
+    "topic.name-1=topic.add.detail"})
+class TransactionalConsumerIntegrationTest {
+  static final String REPLY_TOPIC = "topic.car.payment";
+  private static final String CAR_TOPIC = "topic.car";
+  private static final String ADD_DETAIL_TOPIC = "topic.add.detail";
+  private static final long TIMEOUT_MS = 20_000;
+
+  @Configuration
+  @EnableKafka
+  @EnableConfigurationProperties(KafkaProperties.class)
+  @Import({KafkaConfig.class, Consumer.class, TransactionalConsumer.class, Producer.class,
+      FailedRecordRouter.class})
+  static class Config {
+    @Bean
+    static ConversionService conversionService() {
+      return ApplicationConversionService.getSharedInstance();
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Autowired
+  private EmbeddedKafkaBroker broker;
+  @Autowired
+  private KafkaTemplate<String, Object> kafkaTemplate;
+  @Autowired
+  private Producer producer;
+  @Autowired
+  private ApplicationContext applicationContext;
+  @MockBean
+  private DetailPaymentService detailPaymentService;
+  @MockBean
+  private DriverService driverService;
+
+  /**
+   * Covers the whole flow on one topic, so that offsets and outcomes do not leak between
+   * test methods: an aborted batch is delivered again without any of its records becoming
+   * visible twice, and a record whose payment keeps failing is parked alone.
+   */
+  @Test
+  void consumeMessagesCarTopic_ProducesOutcomesOfEachRecordOnce() throws Exception {
+    assertTrue(applicationContext.getBeanProvider(Consumer.class).stream().findAny().isEmpty());
+    AtomicBoolean abortFirstDelivery = new AtomicBoolean(true);
+    willAnswer(invocation -> {
+      DetailAddEvent detailAddEvent = invocation.getArgument(0);
+      producer.sendMessageDetailAdd(detailAddEvent);
+      if ("SN2".equals(detailAddEvent.getSerialNumber()) && abortFirstDelivery.getAndSet(false)) {
+        throw new IllegalStateException("Broker unavailable");
+      }
+      return "message sent";
+    }).given(driverService).sendSuccessfulPaymentEvent(any(DetailAddEvent.class));
+    given(detailPaymentService.payOnce(anyList())).willAnswer(invocation -> {
+      List<ConsumerRecord<String, Object>> records = invocation.getArgument(0);
+      List<DetailPaymentEvent> outcomes = new ArrayList<>();
+      for (ConsumerRecord<String, Object> record : records) {
+        DetailAddEvent detailAddEvent = (DetailAddEvent) record.value();
+        if ("SN3".equals(detailAddEvent.getSerialNumber()) && record.topic().equals(CAR_TOPIC)) {
+          throw new IllegalStateException("Database unavailable");
+        }
+        outcomes.add(DetailPaymentEvent.builder()
+                .serialNumber(detailAddEvent.getSerialNumber())
+                .driverId(detailAddEvent.getDriverId())
+                .status(DetailPaymentEvent.Status.PAID)
+                .build());
+      }
+      return outcomes;
+    });
+
+    send("SN1", false);
+    send("SN2", true);
+    send("SN3", false);
+
+    await(() -> committedOffset(CAR_TOPIC) == 3);
+    await(() -> serialNumbers(ADD_DETAIL_TOPIC).size() == 3);
+    assertEquals(List.of("SN1", "SN2", "SN3"), serialNumbers(ADD_DETAIL_TOPIC));
+    assertEquals(List.of("SN2"), serialNumbers(REPLY_TOPIC));
+    verify(detailPaymentService, atLeast(2)).payOnce(anyList());
+  }
+
+  private void send(String serialNumber, boolean awaitReply) throws Exception {
+    DetailAddEvent detailAddEvent = DetailAddEvent.builder()
+            .serialNumber(serialNumber)
+            .licensePlate(TestConstants.LICENSE_PLATE)
+            .driverId(TestConstants.ID)
+            .price(Money.toDecimal(TestConstants.AMOUNT))
+            .currency(Currency.RED.name())
+            .build();
+    ProducerRecord<String, Object> record = new ProducerRecord<>(CAR_TOPIC,
+            String.valueOf(TestConstants.ID), detailAddEvent);
+    if (awaitReply) {
+      record.headers().add(KafkaHeaders.REPLY_TOPIC, REPLY_TOPIC.getBytes(StandardCharsets.UTF_8));
+      record.headers().add(KafkaHeaders.CORRELATION_ID, serialNumber.getBytes(StandardCharsets.UTF_8));
+    }
+    kafkaTemplate.send(record).get();
+  }
+
+  private List<String> serialNumbers(String topic) {
+    Map<String, Object> properties = KafkaTestUtils.consumerProps(
+            "reader-" + System.nanoTime(), "false", broker);
+    properties.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+    try (org.apache.kafka.clients.consumer.Consumer<String, Object> consumer =
+                 new DefaultKafkaConsumerFactory<>(properties, new StringDeserializer(),
+                         new EventDeserializer()).createConsumer()) {
+      broker.consumeFromAnEmbeddedTopic(consumer, topic);
+      List<String> serialNumbers = new ArrayList<>();
+      KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(2)).records(topic)
+              .forEach(record -> serialNumbers.add(serialNumberOf(record.value())));
+      return serialNumbers;
+    }
+  }
+
+  private static String serialNumberOf(Object event) {
+    return event instanceof DetailAddEvent detailAddEvent
+            ? detailAddEvent.getSerialNumber()
+            : ((DetailPaymentEvent) event).getSerialNumber();
+  }
+
+  private long committedOffset(String topic) throws Exception {
+    var offset = KafkaTestUtils.getCurrentOffset(broker.getBrokersAsString(),
+            "drives-bills-test", topic, 0);
+    return offset == null ? -1 : offset.offset();
+  }
+
+  private static void await(CheckedCondition condition) throws Exception {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.met()) {
+      assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+  }
+
+  private interface CheckedCondition {
+    boolean met() throws Exception;
+  }
+}
@@ -2,23 +2,45 @@ package com.example.drivesbillsmicroservice.integration.mvc;
 
 import com.example.drivesbillsmicroservice.controller.AccountController;
 import com.example.drivesbillsmicroservice.controller.utils.ControllerUtils;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalanceDto;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalancesRequestDto;
+import com.example.drivesbillsmicroservice.dto.account.statement.StatementEntryDto;
 import com.example.drivesbillsmicroservice.dto.message.MessageDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
 import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.service.IdempotencyService;
 import com.example.drivesbillsmicroservice.utils.TestConstants;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
-import java.math.BigDecimal;
+import org.springframework.test.web.servlet.MvcResult;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AccountController.class)
@@ -30,13 +52,17 @@ public class AccountControllerIntegrationTest {
   private ControllerUtils controllerUtils;
   @MockBean
   private AccountService accountService;
+  @MockBean
+  private AccountJournalService accountJournalService;
+  @MockBean
+  private IdempotencyService idempotencyService;
 
   @Test
   public void testCredit() throws Exception {
     Currency currency = Currency.RED;
     given(controllerUtils.createResponseEntityOk(anyString())).willReturn(ResponseEntity.ok(new MessageDto(TestConstants.MONEY_CREDITED)));
     mockMvc.perform(post("/accounts/{accountId}/credit", TestConstants.ID)
-                        .param("amount", String.valueOf(TestConstants.AMOUNT))
+                        .param("amount", Money.toDecimal(TestConstants.AMOUNT).toPlainString())
                         .param("currency", currency.toString()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value(TestConstants.MONEY_CREDITED));
@@ -47,20 +73,114 @@ public class AccountControllerIntegrationTest {
     Currency currency = Currency.RED;
     given(controllerUtils.createResponseEntityOk(anyString())).willReturn(ResponseEntity.ok(new MessageDto(TestConstants.MONEY_DEBITED)));
     mockMvc.perform(post("/accounts/{accountId}/debit", TestConstants.ID)
-                        .param("amount", String.valueOf(TestConstants.AMOUNT))
+                        .param("amount", Money.toDecimal(TestConstants.AMOUNT).toPlainString())
+                        .param("currency", currency.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value(TestConstants.MONEY_DEBITED));
+  }
+
+  @Test
+  public void testDebitWithIdempotencyKey() throws Exception {
+    Currency currency = Currency.RED;
+    given(controllerUtils.createResponseEntityOk(anyString())).willReturn(ResponseEntity.ok(new MessageDto(TestConstants.MONEY_DEBITED)));
+    given(idempotencyService.execute(eq("debit/" + TestConstants.ID), eq("key-1"),
+            eq(TestConstants.ID + "/" + TestConstants.AMOUNT + "/" + currency), any(IntSupplier.class))).willReturn(0);
+    mockMvc.perform(post("/accounts/{accountId}/debit", TestConstants.ID)
+                        .header(AccountController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .param("amount", Money.toDecimal(TestConstants.AMOUNT).toPlainString())
                         .param("currency", currency.toString()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value(TestConstants.MONEY_DEBITED));
+    verify(accountService, never()).debit(TestConstants.ID, TestConstants.AMOUNT, currency);
   }
 
   @Test
   public void testGetBalance() throws Exception {
     Currency currency = Currency.RED;
-    BigDecimal balance = BigDecimal.valueOf(1000.0);
-    given(accountService.getBalance(TestConstants.ID, currency)).willReturn(balance);
+    given(accountService.getBalance(TestConstants.ID, currency)).willReturn(new ConvertedAmount(100005L, currency, 3));
     mockMvc.perform(get("/accounts/{accountId}/balance", TestConstants.ID)
                         .param("currency", currency.toString()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value(balance.toString()));
+                .andExpect(jsonPath("$.message").value("1000.05"))
+                .andExpect(header().string(AccountController.RATE_VERSION_HEADER, "3"));
     }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGetBalances() throws Exception {
+    doAnswer(invocation -> {
+      Consumer<AccountBalanceDto> consumer = invocation.getArgument(1);
+      consumer.accept(AccountBalanceDto.builder().accountId(1L).driverId(1L)
+              .currency(Currency.GREEN).amount(Money.toDecimal(3625L)).rateVersion(3L).build());
+      consumer.accept(AccountBalanceDto.builder().accountId(2L).driverId(2L)
+              .currency(Currency.GREEN).amount(Money.toDecimal(0L)).rateVersion(3L).build());
+      return null;
+    }).when(accountService).streamBalances(
+            argThat(request -> request.getCurrency() == Currency.GREEN
+                    && request.getAccountIds().equals(List.of(1L, 2L))),
+            any(Consumer.class));
+    MvcResult result = mockMvc.perform(post("/accounts/balances")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountIds\": [1, 2], \"currency\": \"GREEN\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].amount").value(36.25))
+                .andExpect(jsonPath("$[0].rateVersion").value(3))
+                .andExpect(jsonPath("$[1].accountId").value(2))
+                .andExpect(jsonPath("$[0].redDollar").doesNotExist());
+  }
+
+  @Test
+  public void testGetBalances_RejectsTooManyAccountIds() throws Exception {
+    StringBuilder ids = new StringBuilder("1");
+    for (int i = 2; i <= 10001; i++) {
+      ids.append(',').append(i);
+    }
+    mockMvc.perform(post("/accounts/balances")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountIds\": [" + ids + "]}"))
+                .andExpect(status().isBadRequest());
+    verify(accountService, never()).streamBalances(any(AccountBalancesRequestDto.class),
+            any());
+  }
+
+  @Test
+  public void testGetStatement() throws Exception {
+    StatementEntryDto entry = StatementEntryDto.builder()
+            .currency(Currency.RED)
+            .amount(Money.toDecimal(-TestConstants.AMOUNT))
+            .createdAt(Instant.parse("2026-10-18T09:30:00Z"))
+            .build();
+    given(accountJournalService.getStatement(TestConstants.ID, "next", 5, null))
+            .willReturn(new CursorPageDto<>(List.of(entry), 1, null, false));
+    mockMvc.perform(get("/accounts/{accountId}/statement", TestConstants.ID)
+                        .param("cursor", "next")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].currency").value(Currency.RED.toString()))
+                .andExpect(jsonPath("$.content[0].amount").value(-200.0))
+                .andExpect(jsonPath("$.content[0].convertedAmount").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(false));
+  }
+
+  @Test
+  public void testGetStatementInCurrency() throws Exception {
+    StatementEntryDto entry = StatementEntryDto.builder()
+            .currency(Currency.RED)
+            .amount(Money.toDecimal(-TestConstants.AMOUNT))
+            .convertedAmount(Money.toDecimal(-50000L))
+            .rateVersion(3L)
+            .createdAt(Instant.parse("2026-10-18T09:30:00Z"))
+            .build();
+    given(accountJournalService.getStatement(TestConstants.ID, null, 10, Currency.GREEN))
+            .willReturn(new CursorPageDto<>(List.of(entry), 1, null, false));
+    mockMvc.perform(get("/accounts/{accountId}/statement", TestConstants.ID)
+                        .param("currency", Currency.GREEN.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].convertedAmount").value(-500.0))
+                .andExpect(jsonPath("$.content[0].rateVersion").value(3));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.drivesbillsmicroservice.integration.mvc;
+
+import com.example.drivesbillsmicroservice.controller.DeadLetterController;
+import com.example.drivesbillsmicroservice.dto.deadletter.DeadLetterReplayResponseDto;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.kafka.TopicNotReplayableException;
+import com.example.drivesbillsmicroservice.service.DeadLetterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DeadLetterController.class)
+public class DeadLetterControllerIntegrationTest {
+  private static final String TOPIC = "topic.car";
+
+  @Autowired
+  private MockMvc mockMvc;
+  @MockBean
+  private DeadLetterService deadLetterService;
+
+  @Test
+  public void testReplay() throws Exception {
+    given(deadLetterService.replay(TOPIC, 10)).willReturn(new DeadLetterReplayResponseDto(TOPIC, 3));
+    mockMvc.perform(post("/dead-letters/{topic}/replay", TOPIC).param("max", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.topic").value(TOPIC))
+            .andExpect(jsonPath("$.replayed").value(3));
+  }
+
+  @Test
+  public void testReplay_TopicNotReplayable() throws Exception {
+    given(deadLetterService.replay("topic.unknown", 100)).willThrow(
+            new TopicNotReplayableException(ErrorCode.TOPIC_NOT_REPLAYABLE, "topic.unknown"));
+    mockMvc.perform(post("/dead-letters/{topic}/replay", "topic.unknown"))
+            .andExpect(status().isBadRequest());
+  }
+}
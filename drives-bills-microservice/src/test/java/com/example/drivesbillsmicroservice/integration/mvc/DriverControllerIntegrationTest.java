@@ -6,6 +6,7 @@ import com.example.drivesbillsmicroservice.dto.driver.create.DriverCreateRequest
 import com.example.drivesbillsmicroservice.dto.driver.get.DriverGetResponseDto;
 import com.example.drivesbillsmicroservice.dto.driver.update.DriverUpdateRequestDto;
 import com.example.drivesbillsmicroservice.dto.message.MessageDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.enums.LicenseCategory;
 import com.example.drivesbillsmicroservice.repository.DriverRepository;
 import com.example.drivesbillsmicroservice.service.DriverService;
@@ -195,4 +196,19 @@ public class DriverControllerIntegrationTest {
             .andExpect(jsonPath("$.content[0].firstName").value(drivers.get(0).getFirstName()))
             .andExpect(jsonPath("$.content[0].lastName").value(drivers.get(0).getLastName()));
   }
+
+  @Test
+  public void testScrollDrivers() throws Exception {
+    List<DriverGetResponseDto> drivers = new ArrayList<>();
+    drivers.add(new DriverGetResponseDto(TestConstants.FIRST_NAME, TestConstants.LAST_NAME, TestConstants.PASSPORT, LicenseCategory.B, LocalDate.now(), 2));
+    CursorPageDto<DriverGetResponseDto> driverPage = new CursorPageDto<>(drivers, drivers.size(), null, false);
+    given(driverService.scrollDrivers("", TestConstants.SIZE, TestConstants.SORT_BY_ID)).willReturn(driverPage);
+    mockMvc.perform(get("/drivers")
+                    .param("cursor", "")
+                    .param("size", String.valueOf(TestConstants.SIZE)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(drivers.size())))
+            .andExpect(jsonPath("$.content[0].passport").value(drivers.get(0).getPassport()))
+            .andExpect(jsonPath("$.hasNext").value(false));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.example.drivesbillsmicroservice.kafka.spool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SpoolRelayTest {
+  private static final String TOPIC = "topic.car";
+  private static final long TIMEOUT_MS = 5_000;
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  private KafkaTemplate<String, Object> kafkaTemplate;
+
+  private OutboundSpool outboundSpool;
+  private SpoolRelay spoolRelay;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    outboundSpool = new OutboundSpool(directory, 4096, 4096 * 4, Duration.ofMillis(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    spoolRelay.close();
+    outboundSpool.close();
+  }
+
+  @Test
+  void relay_SendsSpooledRecords_AndCommitsThem() throws InterruptedException {
+    when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+    outboundSpool.append(TOPIC, "1", "first".getBytes(StandardCharsets.UTF_8));
+    outboundSpool.append(TOPIC, "1", "second".getBytes(StandardCharsets.UTF_8));
+
+    spoolRelay = startRelay();
+
+    verify(kafkaTemplate, timeout(TIMEOUT_MS).times(2)).send(any(ProducerRecord.class));
+    awaitEmptyBacklog();
+  }
+
+  @Test
+  void relay_SendsBatchAgain_WhenItIsNotAcknowledged() throws InterruptedException {
+    AtomicBoolean brokerDown = new AtomicBoolean(true);
+    when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation ->
+            brokerDown.getAndSet(false)
+                    ? CompletableFuture.failedFuture(new IllegalStateException("Broker down"))
+                    : CompletableFuture.<SendResult<String, Object>>completedFuture(null));
+    outboundSpool.append(TOPIC, "1", "first".getBytes(StandardCharsets.UTF_8));
+
+    spoolRelay = startRelay();
+
+    verify(kafkaTemplate, timeout(TIMEOUT_MS).times(2)).send(any(ProducerRecord.class));
+    awaitEmptyBacklog();
+  }
+
+  private SpoolRelay startRelay() {
+    return new SpoolRelay(outboundSpool, kafkaTemplate, new SimpleMeterRegistry(), 100,
+            Duration.ofSeconds(1), Duration.ofMillis(10), Duration.ofMillis(100));
+  }
+
+  private void awaitEmptyBacklog() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (outboundSpool.backlog() > 0) {
+      assertTrue(System.currentTimeMillis() < deadline, "backlog not sent in time");
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertEquals(0, outboundSpool.backlog());
+  }
+}
@@ -0,0 +1,195 @@
+package com.example.drivesbillsmicroservice.kafka.streams;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.kafka.codec.EventDeserializer;
+import com.example.drivesbillsmicroservice.kafka.codec.EventSerializer;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.utils.TestConstants;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentTopologyTest {
+  private static final String REPLY_TOPIC = "topic.car.payment";
+  private static final String ACCOUNT_ID = String.valueOf(TestConstants.ID);
+  private static final Long UNKNOWN_ACCOUNT_ID = 2L;
+
+  @TempDir
+  Path stateDir;
+
+  private final Map<Long, AccountBalance> database = new HashMap<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private TopologyTestDriver driver;
+  private TestInputTopic<String, Object> cars;
+  private TestInputTopic<String, AccountBalance> adjustments;
+  private TestOutputTopic<String, Object> installs;
+  private TestOutputTopic<String, Object> replies;
+  private TestOutputTopic<String, AccountBalance> balances;
+  private KeyValueStore<String, AccountBalance> store;
+
+  @BeforeEach
+  void setUp() {
+    database.put(TestConstants.ID, new AccountBalance(TestConstants.AMOUNT, 0, 0));
+    AccountBalanceLoader loader = accountId -> {
+      loads.incrementAndGet();
+      return Optional.ofNullable(database.get(accountId));
+    };
+    Properties properties = new Properties();
+    properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "drives-bills-payments-test");
+    properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+    properties.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+    properties.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+            LogAndContinueExceptionHandler.class);
+    driver = new TopologyTestDriver(PaymentTopology.build(loader), properties);
+    AccountBalanceSerde serde = new AccountBalanceSerde();
+    cars = driver.createInputTopic(PaymentTopology.CAR_TOPIC,
+            new StringSerializer(), new EventSerializer());
+    adjustments = driver.createInputTopic(PaymentTopology.ADJUSTMENT_TOPIC,
+            new StringSerializer(), serde.serializer());
+    installs = driver.createOutputTopic(PaymentTopology.ADD_DETAIL_TOPIC,
+            new StringDeserializer(), new EventDeserializer());
+    replies = driver.createOutputTopic(REPLY_TOPIC,
+            new StringDeserializer(), new EventDeserializer());
+    balances = driver.createOutputTopic(PaymentTopology.BALANCE_TOPIC,
+            new StringDeserializer(), serde.deserializer());
+    store = driver.getKeyValueStore(PaymentTopology.BALANCE_STORE);
+  }
+
+  @AfterEach
+  void tearDown() {
+    driver.close();
+  }
+
+  @Test
+  void pay_DebitsBalanceAndForwardsInstall_WhenBalanceIsSufficient() {
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT), true);
+
+    AccountBalance expected = new AccountBalance(0, 0, 0);
+    assertEquals(expected, store.get(ACCOUNT_ID));
+    assertEquals(List.of(new KeyValue<>(ACCOUNT_ID, expected)),
+            balances.readKeyValuesToList());
+    TestRecord<String, Object> install = installs.readRecord();
+    assertEquals(TestConstants.LICENSE_PLATE, install.key());
+    assertEquals(TestConstants.SERIAL_NUMBER, ((DetailAddEvent) install.value()).getSerialNumber());
+    assertEquals(DetailPaymentEvent.Status.PAID, readReply().getStatus());
+  }
+
+  @Test
+  void pay_RepliesInsufficientBalance_WhenBalanceDoesNotCoverPrice() {
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT + 1), true);
+
+    assertEquals(DetailPaymentEvent.Status.INSUFFICIENT_BALANCE, readReply().getStatus());
+    assertTrue(installs.isEmpty());
+    assertTrue(balances.isEmpty());
+    assertEquals(new AccountBalance(TestConstants.AMOUNT, 0, 0), store.get(ACCOUNT_ID));
+  }
+
+  @Test
+  void pay_RepliesAccountNotFound_WhenAccountDoesNotExist() {
+    pay(detailAddEvent(UNKNOWN_ACCOUNT_ID, TestConstants.AMOUNT), true);
+
+    assertEquals(DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND, readReply().getStatus());
+    assertTrue(installs.isEmpty());
+    assertNull(store.get(String.valueOf(UNKNOWN_ACCOUNT_ID)));
+  }
+
+  @Test
+  void pay_LoadsBalanceOnce_AndDoesNotReply_WithoutReplyTopic() {
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT / 2), false);
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT / 2), false);
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT / 2), false);
+
+    assertEquals(1, loads.get());
+    assertEquals(2, installs.readRecordsToList().size());
+    assertTrue(replies.isEmpty());
+    assertEquals(new AccountBalance(0, 0, 0), store.get(ACCOUNT_ID));
+  }
+
+  @Test
+  void pay_UsesCreditedBalance_AfterAdjustment() {
+    adjustments.pipeInput(ACCOUNT_ID, AccountBalance.of(Currency.RED, TestConstants.AMOUNT));
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT * 2), true);
+
+    assertEquals(DetailPaymentEvent.Status.PAID, readReply().getStatus());
+    assertEquals(2, balances.readRecordsToList().size());
+    assertEquals(new AccountBalance(0, 0, 0), store.get(ACCOUNT_ID));
+  }
+
+  @Test
+  void adjust_RejectsDebit_ThatWouldLeaveNegativeBalance() {
+    adjustments.pipeInput(ACCOUNT_ID, AccountBalance.of(Currency.RED, -TestConstants.AMOUNT - 1));
+    adjustments.pipeInput(String.valueOf(UNKNOWN_ACCOUNT_ID),
+            AccountBalance.of(Currency.RED, TestConstants.AMOUNT));
+
+    assertTrue(balances.isEmpty());
+    assertEquals(new AccountBalance(TestConstants.AMOUNT, 0, 0), store.get(ACCOUNT_ID));
+  }
+
+  @Test
+  void pay_SkipsRecordsThatCannotBeDecoded() {
+    driver.createInputTopic(PaymentTopology.CAR_TOPIC,
+            new StringSerializer(), new ByteArraySerializer())
+            .pipeInput(ACCOUNT_ID, new byte[] {1, 2, 3});
+    pay(detailAddEvent(TestConstants.ID, TestConstants.AMOUNT), false);
+
+    assertEquals(1, installs.readRecordsToList().size());
+  }
+
+  private void pay(DetailAddEvent detailAddEvent, boolean awaitReply) {
+    RecordHeaders headers = new RecordHeaders();
+    if (awaitReply) {
+      headers.add(KafkaHeaders.REPLY_TOPIC, REPLY_TOPIC.getBytes(StandardCharsets.UTF_8));
+      headers.add(KafkaHeaders.CORRELATION_ID,
+              detailAddEvent.getSerialNumber().getBytes(StandardCharsets.UTF_8));
+    }
+    cars.pipeInput(new TestRecord<>(String.valueOf(detailAddEvent.getDriverId()),
+            detailAddEvent, headers));
+  }
+
+  private DetailPaymentEvent readReply() {
+    TestRecord<String, Object> reply = replies.readRecord();
+    assertEquals(TestConstants.SERIAL_NUMBER, new String(
+            reply.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value(),
+            StandardCharsets.UTF_8));
+    assertTrue(replies.isEmpty());
+    return (DetailPaymentEvent) reply.value();
+  }
+
+  private static DetailAddEvent detailAddEvent(Long driverId, long price) {
+    return DetailAddEvent.builder()
+            .serialNumber(TestConstants.SERIAL_NUMBER)
+            .licensePlate(TestConstants.LICENSE_PLATE)
+            .driverId(driverId)
+            .price(Money.toDecimal(price))
+            .currency(Currency.RED.name())
+            .build();
+  }
+}
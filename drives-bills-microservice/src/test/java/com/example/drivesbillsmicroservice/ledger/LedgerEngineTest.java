@@ -0,0 +1,179 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerEngineTest {
+  private static final long ACCOUNT_ID = 1L;
+  private static final long MISSING_ACCOUNT_ID = 2L;
+  private static final int SHARDS = 4;
+  private static final Duration FLUSH_INTERVAL = Duration.ofMillis(20);
+  private static final long TIMEOUT_MS = 5_000;
+
+  @TempDir
+  private Path directory;
+
+  private final InMemoryStore store = new InMemoryStore();
+
+  @Test
+  void creditAndDebit_ChangeBalanceInMemory_AndAreStoredBehind() throws InterruptedException {
+    store.balances.put(ACCOUNT_ID, new AccountBalance(100, 0, 0));
+    try (LedgerEngine engine = open()) {
+      engine.credit(ACCOUNT_ID, 50, Currency.GREEN);
+      engine.debit(ACCOUNT_ID, 30, Currency.RED);
+
+      assertEquals(new AccountBalance(70, 50, 0), engine.getBalances(ACCOUNT_ID));
+      await(() -> new AccountBalance(70, 50, 0).equals(store.balances.get(ACCOUNT_ID)));
+    }
+  }
+
+  @Test
+  void debit_ThrowsInsufficientBalance_AndLeavesBalanceUnchanged() {
+    store.balances.put(ACCOUNT_ID, new AccountBalance(10, 0, 0));
+    try (LedgerEngine engine = open()) {
+      assertThrows(InsufficientBalanceException.class,
+              () -> engine.debit(ACCOUNT_ID, 11, Currency.RED));
+      assertEquals(10, engine.getBalances(ACCOUNT_ID).getRedDollar());
+    }
+  }
+
+  @Test
+  void credit_ThrowsAccountNotFound_WhenStoreHasNoAccount() {
+    try (LedgerEngine engine = open()) {
+      assertThrows(AccountNotFoundException.class,
+              () -> engine.credit(MISSING_ACCOUNT_ID, 1, Currency.RED));
+    }
+  }
+
+  @Test
+  void reply_TimesOut_AndIgnoresAnswerThatArrivesLater() {
+    LedgerReply reply = new LedgerReply();
+    assertEquals(LedgerReply.TIMED_OUT, reply.await(TimeUnit.MILLISECONDS.toNanos(1)));
+
+    LedgerReply next = new LedgerReply();
+    reply.complete(LedgerReply.INSUFFICIENT_BALANCE);
+    next.complete(LedgerReply.OK);
+    assertEquals(LedgerReply.OK, next.await(TimeUnit.MILLISECONDS.toNanos(1)));
+  }
+
+  @Test
+  void debit_LosesNoUpdate_WhenAccountsAreChangedConcurrently() throws Exception {
+    int accounts = 8;
+    int debitsPerAccount = 2000;
+    for (long id = 1; id <= accounts; id++) {
+      store.balances.put(id, new AccountBalance(1000, 0, 0));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    AtomicInteger debited = new AtomicInteger();
+    try (LedgerEngine engine = open()) {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < accounts * debitsPerAccount; i++) {
+        long accountId = i % accounts + 1;
+        results.add(executor.submit(() -> {
+          try {
+            engine.debit(accountId, 1, Currency.RED);
+            debited.incrementAndGet();
+          } catch (InsufficientBalanceException e) {
+            // expected once the balance is spent
+          }
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+      assertEquals(accounts * 1000, debited.get());
+      for (long id = 1; id <= accounts; id++) {
+        assertEquals(0, engine.getBalances(id).getRedDollar());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    for (long id = 1; id <= accounts; id++) {
+      assertEquals(0, store.balances.get(id).getRedDollar());
+    }
+  }
+
+  @Test
+  void open_ReplaysJournal_WhenChangesWereNotStored() {
+    store.balances.put(ACCOUNT_ID, new AccountBalance(100, 0, 0));
+    store.failing.set(true);
+    try (LedgerEngine engine = open()) {
+      engine.credit(ACCOUNT_ID, 25, Currency.BLUE);
+      engine.debit(ACCOUNT_ID, 40, Currency.RED);
+    }
+    assertEquals(new AccountBalance(100, 0, 0), store.balances.get(ACCOUNT_ID));
+
+    store.failing.set(false);
+    try (LedgerEngine engine = open()) {
+      assertEquals(new AccountBalance(60, 0, 25), engine.getBalances(ACCOUNT_ID));
+    }
+    assertEquals(new AccountBalance(60, 0, 25), store.balances.get(ACCOUNT_ID));
+  }
+
+  @Test
+  void shardOf_SpreadsAccountsOverAllShards() {
+    try (LedgerEngine engine = open()) {
+      boolean[] used = new boolean[SHARDS];
+      for (long id = 1; id <= 100; id++) {
+        used[engine.shardOf(id)] = true;
+      }
+      for (boolean shardUsed : used) {
+        assertTrue(shardUsed);
+      }
+    }
+  }
+
+  private LedgerEngine open() {
+    return new LedgerEngine(directory, SHARDS, 64, FLUSH_INTERVAL, 4096, true, store);
+  }
+
+  private static void await(Condition condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.met()) {
+      assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private interface Condition {
+    boolean met();
+  }
+
+  private static final class InMemoryStore implements LedgerStore {
+    private final Map<Long, AccountBalance> balances = new ConcurrentHashMap<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    @Override
+    public AccountBalance load(long accountId) {
+      return balances.get(accountId);
+    }
+
+    @Override
+    public void store(Map<Long, AccountBalance> changed) {
+      if (failing.get()) {
+        throw new IllegalStateException("Database unavailable");
+      }
+      balances.putAll(changed);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.drivesbillsmicroservice.ledger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerJournalTest {
+  private static final long SEGMENT_SIZE = 10L * LedgerJournal.RECORD_SIZE;
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  void replay_ReturnsRecordsAfterCheckpoint() {
+    try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, false)) {
+      for (int i = 1; i <= 25; i++) {
+        journal.append(i, 0, 1, i * 10);
+      }
+      journal.flush();
+      journal.checkpoint(20);
+    }
+
+    try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, false)) {
+      assertEquals(25, journal.lastSequence());
+      assertEquals(List.of(210L, 220L, 230L, 240L, 250L), replayedBalances(journal));
+    }
+  }
+
+  @Test
+  void open_CutsJournalAtTornRecord() throws IOException {
+    try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, false)) {
+      for (int i = 1; i <= 3; i++) {
+        journal.append(i, 1, 1, i);
+      }
+    }
+    Path segment = segments().get(0);
+    try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      file.truncate(3L * LedgerJournal.RECORD_SIZE - 5);
+    }
+
+    try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, false)) {
+      assertEquals(2, journal.lastSequence());
+      assertEquals(List.of(1L, 2L), replayedBalances(journal));
+      assertEquals(3, journal.append(3, 1, 1, 3));
+    }
+  }
+
+  @Test
+  void deleteUpTo_DeletesSegmentsBelowCheckpoint_ButKeepsCurrentOne() throws IOException {
+    try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, false)) {
+      for (int i = 1; i <= 35; i++) {
+        journal.append(i, 2, 1, i);
+      }
+      journal.flush();
+      assertEquals(4, journal.segmentCount());
+
+      journal.deleteUpTo(20);
+      assertEquals(2, journal.segmentCount());
+      journal.deleteUpTo(35);
+      assertEquals(1, journal.segmentCount());
+      assertTrue(Files.size(segments().get(0)) > 0);
+    }
+  }
+
+  private static List<Long> replayedBalances(LedgerJournal journal) {
+    List<Long> balances = new ArrayList<>();
+    journal.replay((accountId, currency, balance) -> balances.add(balance));
+    return balances;
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".journal")).sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.drivesbillsmicroservice.money;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "12.5, 1250",
+    "0.005, 0",
+    "0.015, 2",
+    "-0.015, -2",
+    "200, 20000"
+  })
+  void fromDecimal_RoundsToCentsHalfEven(String amount, long expected) {
+    assertEquals(expected, Money.fromDecimal(new BigDecimal(amount)));
+  }
+
+  @Test
+  void fromDecimal_Throws_WhenAmountDoesNotFitLong() {
+    assertThrows(ArithmeticException.class,
+            () -> Money.fromDecimal(new BigDecimal("123456789012345678901234567890")));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "1250, 12.50",
+    "5, 0.05",
+    "-5, -0.05",
+    "-1250, -12.50",
+    "0, 0.00"
+  })
+  void format_WritesTwoDecimals(long amount, String expected) {
+    assertEquals(expected, Money.format(amount));
+    assertEquals(expected, Money.toDecimal(amount).toPlainString());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "7, 2, 4",
+    "5, 2, 2",
+    "-7, 2, -4",
+    "-5, 2, -2",
+    "10, 6, 2",
+    "7, -2, -4",
+    "8, 3, 3"
+  })
+  void divide_RoundsHalfEven(long dividend, long divisor, long expected) {
+    assertEquals(expected, Money.divide(dividend, divisor));
+  }
+}
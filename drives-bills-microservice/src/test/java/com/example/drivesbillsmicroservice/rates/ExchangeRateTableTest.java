@@ -0,0 +1,69 @@
+package com.example.drivesbillsmicroservice.rates;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangeRateTableTest {
+  private static final ExchangeRateTable TABLE = new ExchangeRateTable(7, Map.of(
+          Currency.RED, new BigDecimal("2.5"),
+          Currency.GREEN, new BigDecimal("1.00"),
+          Currency.BLUE, new BigDecimal("0.6")));
+
+  @Test
+  void convert_UsesReducedRatiosAndRoundsHalfEven() {
+    assertEquals(25000L, TABLE.convert(10000L, Currency.RED, Currency.GREEN));
+    assertEquals(16667L, TABLE.convert(10000L, Currency.GREEN, Currency.BLUE));
+    assertEquals(12L, TABLE.convert(3L, Currency.RED, Currency.BLUE));
+    assertEquals(38L, TABLE.convert(9L, Currency.RED, Currency.BLUE));
+    assertEquals(-12L, TABLE.convert(-3L, Currency.RED, Currency.BLUE));
+    assertEquals(123L, TABLE.convert(123L, Currency.BLUE, Currency.BLUE));
+  }
+
+  @Test
+  void convertTotal_RoundsOnce() {
+    assertEquals(68333L, TABLE.convertTotal(10000L, 10000L, 10000L, Currency.BLUE));
+    assertEquals(16400L, TABLE.convertTotal(10000L, 10000L, 10000L, Currency.RED));
+  }
+
+  @Test
+  void convertAll_ConvertsEachAmountFromItsCurrency() {
+    long[] amounts = {10000L, 10000L, -600L, 0L};
+    Currency[] currencies = {Currency.RED, Currency.GREEN, Currency.BLUE, Currency.RED};
+    long[] converted = new long[amounts.length];
+
+    TABLE.convertAll(amounts, currencies, Currency.GREEN, converted);
+
+    assertArrayEquals(new long[] {25000L, 10000L, -360L, 0L}, converted);
+    for (int i = 0; i < amounts.length; i++) {
+      assertEquals(TABLE.convert(amounts[i], currencies[i], Currency.BLUE),
+              convertOne(amounts[i], currencies[i]));
+    }
+  }
+
+  @Test
+  void convertAll_Throws_WhenArraysDifferInLength() {
+    assertThrows(IllegalArgumentException.class, () -> TABLE.convertAll(new long[2],
+            new Currency[] {Currency.RED}, Currency.GREEN, new long[2]));
+  }
+
+  @Test
+  void constructor_Throws_WhenCurrencyHasNoPositiveRate() {
+    assertThrows(IllegalArgumentException.class, () -> new ExchangeRateTable(1, Map.of(
+            Currency.RED, BigDecimal.ONE, Currency.GREEN, BigDecimal.ONE)));
+    assertThrows(IllegalArgumentException.class, () -> new ExchangeRateTable(1, Map.of(
+            Currency.RED, BigDecimal.ONE, Currency.GREEN, BigDecimal.ONE,
+            Currency.BLUE, BigDecimal.ZERO)));
+  }
+
+  private static long convertOne(long amount, Currency currency) {
+    long[] converted = new long[1];
+    TABLE.convertAll(new long[] {amount}, new Currency[] {currency}, Currency.BLUE, converted);
+    return converted[0];
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.drivesbillsmicroservice.rates;
+
+import com.example.drivesbillsmicroservice.enums.Currency;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeRatesTest {
+  private static final long TIMEOUT_MS = 10_000;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void constructor_UsesBuiltInRates_WithoutFile() {
+    try (ExchangeRates exchangeRates = new ExchangeRates(null)) {
+      assertSame(ExchangeRates.DEFAULT, exchangeRates.getTable());
+      assertSame(ExchangeRates.DEFAULT, exchangeRates.reload());
+    }
+  }
+
+  @Test
+  void reload_SwapsTable_OnlyWhenVersionIsNewer() throws IOException {
+    Path file = write(2, "2.5");
+    try (ExchangeRates exchangeRates = new ExchangeRates(file)) {
+      ExchangeRateTable loaded = exchangeRates.getTable();
+      assertEquals(2, loaded.getVersion());
+
+      write(2, "3");
+      assertSame(loaded, exchangeRates.reload());
+
+      write(3, "3");
+      ExchangeRateTable reloaded = exchangeRates.reload();
+      assertEquals(3, reloaded.getVersion());
+      assertEquals(new BigDecimal("3"), reloaded.getValues().get(Currency.RED));
+      assertSame(reloaded, exchangeRates.getTable());
+    }
+  }
+
+  @Test
+  void reload_KeepsTable_WhenFileIsInvalid() throws IOException {
+    Path file = write(2, "2.5");
+    try (ExchangeRates exchangeRates = new ExchangeRates(file)) {
+      ExchangeRateTable loaded = exchangeRates.getTable();
+
+      Files.writeString(file, "version=3\nRED=2.5\nGREEN=1\n");
+      assertThrows(IllegalArgumentException.class, exchangeRates::reload);
+      Files.writeString(file, "RED=2.5\nGREEN=1\nBLUE=0.6\n");
+      assertThrows(IllegalArgumentException.class, exchangeRates::reload);
+      Files.delete(file);
+      assertThrows(UncheckedIOException.class, exchangeRates::reload);
+
+      assertSame(loaded, exchangeRates.getTable());
+    }
+  }
+
+  @Test
+  void watch_ReloadsTable_WhenFileIsReplaced() throws Exception {
+    Path file = write(2, "2.5");
+    try (ExchangeRates exchangeRates = new ExchangeRates(file)) {
+      exchangeRates.watch();
+
+      Path replacement = directory.resolve("rates.tmp");
+      Files.writeString(replacement, "version=5\nRED=4\nGREEN=1\nBLUE=0.5\n");
+      Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+
+      long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+      while (exchangeRates.getTable().getVersion() != 5) {
+        assertTrue(System.currentTimeMillis() < deadline, "rates not reloaded in time");
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+      assertEquals(40000L, exchangeRates.getTable().convert(10000L, Currency.RED,
+              Currency.GREEN));
+    }
+  }
+
+  private Path write(long version, String red) throws IOException {
+    Path file = directory.resolve("rates.properties");
+    Files.writeString(file, "version=" + version + "\nRED=" + red + "\nGREEN=1\nBLUE=0.6\n");
+    return file;
+  }
+}
@@ -2,18 +2,26 @@ package com.example.drivesbillsmicroservice.service.implementation;
 
 import com.example.drivesbillsmicroservice.entity.Account;
 import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
 import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.rates.ConvertedAmount;
 import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
 import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
 import com.example.drivesbillsmicroservice.utils.TestConstants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
@@ -25,105 +33,75 @@ class AccountServiceImplementationTest {
   @Mock
   private AccountRepository accountRepository;
 
+  @Mock
+  private AccountJournalService accountJournalService;
+
   @Mock
   private CurrencyConversionService currencyConversionService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
-    accountService = new AccountServiceImplementation(accountRepository, currencyConversionService);
+    accountService = new AccountServiceImplementation(accountRepository, accountJournalService,
+            currencyConversionService);
   }
 
   @Test
-  void credit_IncreasesAccountBalanceForSpecifiedCurrency() {
-    Currency currency = Currency.RED;
-    Account account = createAccount();
-    when(accountRepository.findById(TestConstants.ID)).thenReturn(Optional.of(account));
-    accountService.credit(TestConstants.ID, TestConstants.AMOUNT, currency);
-    switch (currency) {
-      case RED:
-        assertEquals(TestConstants.AMOUNT, account.getRedDollar(), TestConstants.DELTA);
-        break;
-      case GREEN:
-        assertEquals(TestConstants.AMOUNT, account.getGreenDollar(), TestConstants.DELTA);
-        break;
-      case BLUE:
-        assertEquals(TestConstants.AMOUNT, account.getBlueDollar(), TestConstants.DELTA);
-      break;
-    }
-      verify(accountRepository, times(1)).findById(TestConstants.ID);
-    verify(accountRepository, times(1)).save(account);
+  void credit_AppendsJournalEntryWithoutUpdatingAccount() {
+    when(accountRepository.existsById(TestConstants.ID)).thenReturn(true);
+    accountService.credit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED);
+    verify(accountJournalService, times(1)).append(TestConstants.ID, Currency.RED, TestConstants.AMOUNT, null);
+    verify(accountRepository, never()).lockById(TestConstants.ID);
+    verify(accountRepository, never()).save(any(Account.class));
   }
 
   @Test
-  void debit_DecreasesAccountBalanceForSpecifiedCurrency() {
-    double amount = 50.0;
-    Currency currency = Currency.GREEN;
-    Account account = createAccount();
-    account.setGreenDollar(100.0);
-    when(accountRepository.findById(TestConstants.ID)).thenReturn(Optional.of(account));
-    accountService.debit(TestConstants.ID, amount, currency);
-    switch (currency) {
-      case RED:
-        assertEquals(0.0, account.getRedDollar(), TestConstants.DELTA);
-        assertEquals(100.0, account.getGreenDollar(), TestConstants.DELTA);
-        assertEquals(0.0, account.getBlueDollar(), TestConstants.DELTA);
-        break;
-      case GREEN:
-         assertEquals(50.0, account.getGreenDollar(), TestConstants.DELTA);
-         break;
-      case BLUE:
-          assertEquals(0.0, account.getBlueDollar(), TestConstants.DELTA);
-          assertEquals(100.0, account.getGreenDollar(), TestConstants.DELTA);
-          break;
-    }
-    verify(accountRepository, times(1)).findById(TestConstants.ID);
-    verify(accountRepository, times(1)).save(account);
+  void credit_ThrowsAccountNotFoundException_WhenAccountDoesNotExist() {
+    assertThrows(AccountNotFoundException.class, () -> accountService.credit(TestConstants.ID, TestConstants.AMOUNT, Currency.GREEN));
+    verify(accountJournalService, never()).append(anyLong(), any(Currency.class), anyLong(), any());
+  }
+
+  @Test
+  void debit_LocksAccountAndAppendsNegativeJournalEntry() {
+    long amount = 5000L;
+    UUID eventId = UUID.randomUUID();
+    when(accountRepository.lockById(TestConstants.ID)).thenReturn(Optional.of(TestConstants.ID));
+    when(accountJournalService.getBalances(TestConstants.ID)).thenReturn(new AccountBalance(0, amount, 0));
+    accountService.debit(TestConstants.ID, amount, Currency.GREEN, eventId);
+    verify(accountJournalService, times(1)).append(TestConstants.ID, Currency.GREEN, -amount, eventId);
+    verify(accountRepository, never()).save(any(Account.class));
   }
 
   @Test
   void debit_ThrowsInsufficientBalanceException_WhenAccountBalanceIsLessThanDebitAmount() {
-    Currency currency = Currency.BLUE;
-    Account account = createAccount();
-    account.setBlueDollar(100.0);
-    when(accountRepository.findById(TestConstants.ID)).thenReturn(Optional.of(account));
-    assertThrows(InsufficientBalanceException.class, () -> accountService.debit(TestConstants.ID, TestConstants.AMOUNT, currency));
-    verify(accountRepository, times(1)).findById(TestConstants.ID);
-    verify(accountRepository, never()).save(account);
+    when(accountRepository.lockById(TestConstants.ID)).thenReturn(Optional.of(TestConstants.ID));
+    when(accountJournalService.getBalances(TestConstants.ID)).thenReturn(new AccountBalance(0, 0, TestConstants.AMOUNT - 1));
+    assertThrows(InsufficientBalanceException.class, () -> accountService.debit(TestConstants.ID, TestConstants.AMOUNT, Currency.BLUE));
+    verify(accountJournalService, never()).append(anyLong(), any(Currency.class), anyLong(), any());
   }
 
   @Test
-  void getBalance_ReturnsCorrectBalanceForSpecifiedCurrency() {
-    Currency currency = Currency.GREEN;
-    Account account = createAccount();
-    account.setRedDollar(100.0);
-    account.setGreenDollar(200.0);
-    account.setBlueDollar(300.0);
-    double redToCurrencyRate = 2.0;
-    double greenToCurrencyRate = 1.5;
-    double blueToCurrencyRate = 0.8;
-    when(accountRepository.findById(TestConstants.ID)).thenReturn(Optional.of(account));
-    when(currencyConversionService.convert(1.0, Currency.RED, currency)).thenReturn(redToCurrencyRate);
-    when(currencyConversionService.convert(1.0, Currency.GREEN, currency)).thenReturn(greenToCurrencyRate);
-    when(currencyConversionService.convert(1.0, Currency.BLUE, currency)).thenReturn(blueToCurrencyRate);
-    BigDecimal expectedBalance = BigDecimal.valueOf(account.getRedDollar())
-                .multiply(BigDecimal.valueOf(redToCurrencyRate))
-                .add(BigDecimal.valueOf(account.getGreenDollar()).multiply(BigDecimal.valueOf(greenToCurrencyRate)))
-                .add(BigDecimal.valueOf(account.getBlueDollar()).multiply(BigDecimal.valueOf(blueToCurrencyRate)));
-    BigDecimal balance = accountService.getBalance(TestConstants.ID, currency);
-    assertEquals(expectedBalance.setScale(2, BigDecimal.ROUND_HALF_UP), balance);
-    verify(accountRepository, times(1)).findById(TestConstants.ID);
-    verify(currencyConversionService, times(1)).convert(1.0, Currency.RED, currency);
-    verify(currencyConversionService, times(1)).convert(1.0, Currency.GREEN, currency);
-    verify(currencyConversionService, times(1)).convert(1.0, Currency.BLUE, currency);
+  void debit_ThrowsAccountNotFoundException_WhenAccountDoesNotExist() {
+    when(accountRepository.lockById(TestConstants.ID)).thenReturn(Optional.empty());
+    assertThrows(AccountNotFoundException.class, () -> accountService.debit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED));
+    verify(accountJournalService, never()).getBalances(TestConstants.ID);
+  }
+
+  @Test
+  void canDebit_ComparesBalanceOfSpecifiedCurrencyWithoutDebiting() {
+    when(accountJournalService.getBalances(TestConstants.ID)).thenReturn(new AccountBalance(0, 0, 10000L));
+    assertTrue(accountService.canDebit(TestConstants.ID, 10000L, Currency.BLUE));
+    assertFalse(accountService.canDebit(TestConstants.ID, 10001L, Currency.BLUE));
+    assertFalse(accountService.canDebit(TestConstants.ID, 1L, Currency.RED));
+    verify(accountJournalService, never()).append(anyLong(), any(Currency.class), anyLong(), any());
   }
 
-  private Account createAccount() {
-    Account account = new Account();
-    account.setId(TestConstants.ID);
-    account.setRedDollar(0.0);
-    account.setGreenDollar(0.0);
-    account.setBlueDollar(0.0);
-    return account;
+  @Test
+  void getBalance_ConvertsBalancesOfAllCurrenciesAtOnce() {
+    Currency currency = Currency.GREEN;
+    when(accountJournalService.getBalances(TestConstants.ID)).thenReturn(new AccountBalance(10000L, 20000L, 30000L));
+    when(currencyConversionService.convertTotal(10000L, 20000L, 30000L, currency)).thenReturn(new ConvertedAmount(63000L, currency, 1));
+    assertEquals(new ConvertedAmount(63000L, currency, 1), accountService.getBalance(TestConstants.ID, currency));
+    verify(accountJournalService, times(1)).getBalances(TestConstants.ID);
   }
-}
\ No newline at end of file
+}
@@ -19,25 +19,42 @@ public class ConversionServiceTest {
 
   @ParameterizedTest
   @CsvSource({
-            "RED, GREEN, 100.0, 250.0",
-            "RED, GREEN, 200.0, 500.0",
-            "GREEN, RED, 100.0, 40.0",
-            "GREEN, RED, 200.0, 80.0",
-            "GREEN, BLUE, 100.0, 166.6667",
-            "GREEN, BLUE, 200.0, 333.3333",
-            "BLUE, GREEN, 100.0, 60.0",
-            "BLUE, GREEN, 200.0, 120.0",
-            "RED, BLUE, 100.0, 416.6667",
-            "RED, BLUE, 200.0, 833.3333",
-            "BLUE, RED, 100.0, 24.0",
-            "BLUE, RED, 200.0, 48.0"
+            "RED, GREEN, 10000, 25000",
+            "RED, GREEN, 20000, 50000",
+            "GREEN, RED, 10000, 4000",
+            "GREEN, RED, 20000, 8000",
+            "GREEN, BLUE, 10000, 16667",
+            "GREEN, BLUE, 20000, 33333",
+            "BLUE, GREEN, 10000, 6000",
+            "BLUE, GREEN, 20000, 12000",
+            "RED, BLUE, 10000, 41667",
+            "RED, BLUE, 20000, 83333",
+            "BLUE, RED, 10000, 2400",
+            "BLUE, RED, 20000, 4800",
+            "RED, BLUE, 3, 12",
+            "RED, BLUE, 9, 38"
   })
   public void testCurrencyConversion(Currency sourceCurrency,
                                        Currency targetCurrency,
-                                       double amount,
-                                       double expectedAmount) {
-    double delta = 0.001;
-    double actualAmount = currencyConversionService.convert(amount, sourceCurrency, targetCurrency);
-    assertEquals(expectedAmount, actualAmount, delta);
+                                       long amount,
+                                       long expectedAmount) {
+    long actualAmount = currencyConversionService.convert(amount, sourceCurrency, targetCurrency).getAmount();
+    assertEquals(expectedAmount, actualAmount);
   }
-}
\ No newline at end of file
+
+  @ParameterizedTest
+  @CsvSource({
+            "10000, 10000, 10000, GREEN, 41000",
+            "10000, 10000, 10000, RED, 16400",
+            "10000, 10000, 10000, BLUE, 68333",
+            "1, 1, 1, BLUE, 7"
+  })
+  public void testTotalConversionRoundsOnce(long redDollar,
+                                            long greenDollar,
+                                            long blueDollar,
+                                            Currency targetCurrency,
+                                            long expectedAmount) {
+    assertEquals(expectedAmount, currencyConversionService.convertTotal(redDollar, greenDollar,
+            blueDollar, targetCurrency).getAmount());
+  }
+}
@@ -0,0 +1,182 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.entity.ConsumedRecord;
+import com.example.drivesbillsmicroservice.entity.ConsumedRecordId;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.events.DetailPaymentEvent;
+import com.example.drivesbillsmicroservice.exceptions.ErrorCode;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.money.Money;
+import com.example.drivesbillsmicroservice.repository.ConsumedRecordRepository;
+import com.example.drivesbillsmicroservice.service.AccountService;
+import com.example.drivesbillsmicroservice.service.IdempotencyService;
+import com.example.drivesbillsmicroservice.utils.TestConstants;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DetailPaymentServiceImplementationTest {
+  private static final String TOPIC = "topic.car";
+
+  private DetailPaymentServiceImplementation detailPaymentService;
+
+  @Mock
+  private AccountService accountService;
+
+  @Mock
+  private ConsumedRecordRepository consumedRecordRepository;
+
+  @Mock
+  private IdempotencyService idempotencyService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    detailPaymentService = new DetailPaymentServiceImplementation(accountService,
+            consumedRecordRepository, idempotencyService);
+  }
+
+  @Test
+  void pay_DebitsAccountAndReturnsPaid() {
+    DetailPaymentEvent outcome = detailPaymentService.pay(detailAddEvent());
+
+    verify(accountService).debit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED, null);
+    assertEquals(DetailPaymentEvent.Status.PAID, outcome.getStatus());
+    assertEquals(TestConstants.SERIAL_NUMBER, outcome.getSerialNumber());
+    assertEquals(TestConstants.LICENSE_PLATE, outcome.getLicensePlate());
+    assertEquals(TestConstants.ID, outcome.getDriverId());
+  }
+
+  @Test
+  void pay_DebitsPriceInMinorUnits_WhenEventCarriesIt() {
+    DetailAddEvent detailAddEvent = detailAddEvent();
+    detailAddEvent.setPriceMinor(TestConstants.AMOUNT + 1);
+
+    detailPaymentService.pay(detailAddEvent);
+
+    verify(accountService).debit(TestConstants.ID, TestConstants.AMOUNT + 1, Currency.RED, null);
+  }
+
+  @Test
+  void pay_ReturnsInsufficientBalance_WhenDebitIsRefused() {
+    doThrow(new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE))
+            .when(accountService).debit(anyLong(), anyLong(), any(Currency.class), any());
+
+    assertEquals(DetailPaymentEvent.Status.INSUFFICIENT_BALANCE,
+            detailPaymentService.pay(detailAddEvent()).getStatus());
+  }
+
+  @Test
+  void pay_ReturnsAccountNotFound_WhenDriverHasNoAccount() {
+    doThrow(new AccountNotFoundException(ErrorCode.ACCOUNT_NOT_FOUND))
+            .when(accountService).debit(anyLong(), anyLong(), any(Currency.class), any());
+
+    assertEquals(DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND,
+            detailPaymentService.pay(detailAddEvent()).getStatus());
+  }
+
+  @Test
+  void pay_DebitsEventWithIdOnceAndRecordsItsOutcome() {
+    UUID eventId = UUID.randomUUID();
+    DetailAddEvent detailAddEvent = detailAddEvent();
+    detailAddEvent.setEventId(eventId);
+    doThrow(new InsufficientBalanceException(ErrorCode.ACCOUNT_INSUFFICIENT_BALANCE))
+            .when(accountService).debit(anyLong(), anyLong(), any(Currency.class), any());
+    when(idempotencyService.execute(eq(eventId), any(IntSupplier.class)))
+            .thenAnswer(invocation -> invocation.<IntSupplier>getArgument(1).getAsInt());
+
+    assertEquals(DetailPaymentEvent.Status.INSUFFICIENT_BALANCE,
+            detailPaymentService.pay(detailAddEvent).getStatus());
+    verify(accountService).debit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED, eventId);
+  }
+
+  @Test
+  void pay_ReturnsRecordedOutcome_WhenEventWasAlreadyPaid() {
+    UUID eventId = UUID.randomUUID();
+    DetailAddEvent detailAddEvent = detailAddEvent();
+    detailAddEvent.setEventId(eventId);
+    when(idempotencyService.execute(eq(eventId), any(IntSupplier.class)))
+            .thenReturn(DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND.ordinal());
+
+    assertEquals(DetailPaymentEvent.Status.ACCOUNT_NOT_FOUND,
+            detailPaymentService.pay(detailAddEvent).getStatus());
+    verify(accountService, never()).debit(anyLong(), anyLong(), any(Currency.class), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void payOnce_PaysNewRecordsAndRecordsTheirOutcomes() {
+    List<ConsumerRecord<String, Object>> records = List.of(record(0, 5), record(0, 6));
+
+    List<DetailPaymentEvent> outcomes = detailPaymentService.payOnce(records);
+
+    verify(accountService, times(2)).debit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED, null);
+    assertEquals(2, outcomes.size());
+    ArgumentCaptor<List<ConsumedRecord>> saved = ArgumentCaptor.forClass(List.class);
+    verify(consumedRecordRepository).saveAll(saved.capture());
+    assertEquals(List.of(new ConsumedRecordId(TOPIC, 0, 5), new ConsumedRecordId(TOPIC, 0, 6)),
+            saved.getValue().stream().map(ConsumedRecord::getId).toList());
+    assertTrue(saved.getValue().stream().allMatch(ConsumedRecord::isNew));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void payOnce_ReusesRecordedOutcome_WhenRecordWasAlreadyPaid() {
+    ConsumedRecordId paidId = new ConsumedRecordId(TOPIC, 0, 5);
+    when(consumedRecordRepository.findAllById(any())).thenReturn(List.of(
+            new ConsumedRecord(paidId, DetailPaymentEvent.Status.INSUFFICIENT_BALANCE)));
+
+    List<DetailPaymentEvent> outcomes = detailPaymentService.payOnce(
+            List.of(record(0, 5), record(0, 6)));
+
+    verify(accountService, times(1)).debit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED, null);
+    assertEquals(DetailPaymentEvent.Status.INSUFFICIENT_BALANCE, outcomes.get(0).getStatus());
+    assertEquals(DetailPaymentEvent.Status.PAID, outcomes.get(1).getStatus());
+    ArgumentCaptor<List<ConsumedRecord>> saved = ArgumentCaptor.forClass(List.class);
+    verify(consumedRecordRepository).saveAll(saved.capture());
+    assertEquals(List.of(new ConsumedRecordId(TOPIC, 0, 6)),
+            saved.getValue().stream().map(ConsumedRecord::getId).toList());
+  }
+
+  @Test
+  void payOnce_DeletesCommittedRecordsBelowFirstOffsetOfEachPartition() {
+    detailPaymentService.payOnce(List.of(record(0, 7), record(1, 3), record(0, 5)));
+
+    verify(consumedRecordRepository).deleteCommitted(TOPIC, 0, 5);
+    verify(consumedRecordRepository).deleteCommitted(TOPIC, 1, 3);
+    verify(consumedRecordRepository, never()).deleteCommitted(TOPIC, 0, 7);
+  }
+
+  private static ConsumerRecord<String, Object> record(int partition, long offset) {
+    return new ConsumerRecord<>(TOPIC, partition, offset, String.valueOf(TestConstants.ID),
+            detailAddEvent());
+  }
+
+  private static DetailAddEvent detailAddEvent() {
+    return DetailAddEvent.builder()
+            .serialNumber(TestConstants.SERIAL_NUMBER)
+            .licensePlate(TestConstants.LICENSE_PLATE)
+            .driverId(TestConstants.ID)
+            .price(Money.toDecimal(TestConstants.AMOUNT))
+            .currency(Currency.RED.name())
+            .build();
+  }
+}
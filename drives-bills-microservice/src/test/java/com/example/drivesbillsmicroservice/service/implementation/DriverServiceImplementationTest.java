@@ -3,36 +3,53 @@ package com.example.drivesbillsmicroservice.service.implementation;
 import com.example.drivesbillsmicroservice.dto.driver.create.DriverCreateRequestDto;
 import com.example.drivesbillsmicroservice.dto.driver.get.DriverGetResponseDto;
 import com.example.drivesbillsmicroservice.dto.driver.update.DriverUpdateRequestDto;
+import com.example.drivesbillsmicroservice.dto.page.CursorPageDto;
 import com.example.drivesbillsmicroservice.entity.Driver;
 import com.example.drivesbillsmicroservice.enums.LicenseCategory;
 import com.example.drivesbillsmicroservice.events.CarPurchaseEvent;
 import com.example.drivesbillsmicroservice.events.DetailAddEvent;
+import com.example.drivesbillsmicroservice.exceptions.car.CarNotFoundException;
 import com.example.drivesbillsmicroservice.exceptions.driver.DriverAlreadyExistException;
 import com.example.drivesbillsmicroservice.exceptions.driver.DriverNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.cursor.InvalidCursorException;
+import com.example.drivesbillsmicroservice.exceptions.cursor.InvalidSortException;
+import com.example.drivesbillsmicroservice.grpc.CarLookupClient;
 import com.example.drivesbillsmicroservice.kafka.Producer;
 import com.example.drivesbillsmicroservice.repository.DriverRepository;
+import com.example.drivesbillsmicroservice.service.utils.CursorCodec;
+import com.example.drivesbillsmicroservice.service.utils.UniqueKeyFilters;
 import com.example.drivesbillsmicroservice.utils.TestConstants;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.unit.DataSize;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 public class DriverServiceImplementationTest {
@@ -42,6 +59,16 @@ public class DriverServiceImplementationTest {
   @Mock
   private Producer producer;
 
+  @Mock
+  private CarLookupClient carLookupClient;
+
+  @Spy
+  private CursorCodec cursorCodec = new CursorCodec(new ObjectMapper().findAndRegisterModules());
+
+  @Spy
+  private UniqueKeyFilters uniqueKeyFilters = new UniqueKeyFilters(null,
+          new SimpleMeterRegistry(), DataSize.ofKilobytes(64), 0.01);
+
   @InjectMocks
   private DriverServiceImplementation driverService;
 
@@ -50,7 +77,27 @@ public class DriverServiceImplementationTest {
     DriverCreateRequestDto driverCreateRequestDto = createDriverCreateRequestDto();
     when(driverRepository.existsByPassport(driverCreateRequestDto.getPassport())).thenReturn(false);
     driverService.registerDriver(driverCreateRequestDto);
-    verify(driverRepository).save(any(Driver.class));
+    verify(driverRepository).saveAndFlush(any(Driver.class));
+  }
+
+  @Test
+  void registerDriver_SkipsExistenceQuery_WhenFilterRulesOutPassport() {
+    DriverCreateRequestDto driverCreateRequestDto = createDriverCreateRequestDto();
+    uniqueKeyFilters.passports().load(Stream.of(TestConstants.PASSPORT_2));
+    driverService.registerDriver(driverCreateRequestDto);
+    verify(driverRepository, never()).existsByPassport(any());
+    verify(driverRepository).saveAndFlush(any(Driver.class));
+    assertTrue(uniqueKeyFilters.passports().mightContain(driverCreateRequestDto.getPassport()));
+  }
+
+  @Test
+  void registerDriver_ThrowsDriverAlreadyExistException_WhenFilterMissedPassportTakenElsewhere() {
+    DriverCreateRequestDto driverCreateRequestDto = createDriverCreateRequestDto();
+    uniqueKeyFilters.passports().load(Stream.empty());
+    when(driverRepository.saveAndFlush(any(Driver.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+    assertThrows(DriverAlreadyExistException.class, () -> driverService.registerDriver(driverCreateRequestDto));
+    verify(driverRepository, never()).existsByPassport(any());
   }
 
   @Test
@@ -159,21 +206,61 @@ public class DriverServiceImplementationTest {
   }
 
   @Test
-  void sendCarPurchaseEvent_ReturnsMessageSentByProducer() throws JsonProcessingException {
+  void sendCarPurchaseEvent_ReturnsMessageSentByProducer() {
     CarPurchaseEvent carPurchaseEvent = createCarPurchaseEvent();
+    when(carLookupClient.carExists(TestConstants.LICENSE_PLATE)).thenReturn(true);
     when(producer.sendMessageCarPurchase(carPurchaseEvent)).thenReturn(TestConstants.MESSAGE_SENT);
     String result = driverService.sendCarPurchaseEvent(carPurchaseEvent);
     assertEquals(TestConstants.MESSAGE_SENT, result);
   }
 
   @Test
-  void sendSuccessfulPaymentEvent_ReturnsMessageSentByProducer() throws JsonProcessingException {
+  void sendCarPurchaseEvent_ThrowsCarNotFoundException_WhenCarIsNotRegistered() {
+    CarPurchaseEvent carPurchaseEvent = createCarPurchaseEvent();
+    when(carLookupClient.carExists(TestConstants.LICENSE_PLATE)).thenReturn(false);
+    assertThrows(CarNotFoundException.class, () -> driverService.sendCarPurchaseEvent(carPurchaseEvent));
+    verify(producer, never()).sendMessageCarPurchase(any());
+  }
+
+  @Test
+  void sendSuccessfulPaymentEvent_ReturnsMessageSentByProducer() {
     DetailAddEvent detailAddEvent = createDetailAddEvent();
     when(producer.sendMessageDetailAdd(detailAddEvent)).thenReturn(TestConstants.MESSAGE_SENT);
     String result = driverService.sendSuccessfulPaymentEvent(detailAddEvent);
     assertEquals(TestConstants.MESSAGE_SENT, result);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void scrollDrivers_ReturnsSliceWithCursorOfLastRow() {
+    List<Driver> drivers = new ArrayList<>();
+    drivers.add(createDriver(TestConstants.FIRST_NAME, TestConstants.LAST_NAME, TestConstants.PASSPORT, LocalDate.now()));
+    drivers.get(0).setId(TestConstants.ID);
+    Window<Driver> driverWindow = Window.from(drivers,
+            index -> ScrollPosition.forward(Map.of(TestConstants.SORT_BY_EXPERIENCE, drivers.get(index).getExperience(),
+                    "id", drivers.get(index).getId())),
+            true);
+    when(driverRepository.findBy(any(Specification.class), any())).thenReturn(driverWindow);
+    CursorPageDto<DriverGetResponseDto> result = driverService.scrollDrivers("", 1, TestConstants.SORT_BY_EXPERIENCE);
+    assertEquals(TestConstants.PASSPORT, result.getContent().get(0).getPassport());
+    assertTrue(result.isHasNext());
+    assertEquals(ScrollPosition.forward(Map.of(TestConstants.SORT_BY_EXPERIENCE, 0, "id", TestConstants.ID)),
+            cursorCodec.decode(result.getNextCursor(), Driver.class, Sort.by(TestConstants.SORT_BY_EXPERIENCE, "id")));
+  }
+
+  @Test
+  void scrollSearchDrivers_ThrowsInvalidCursorException_WhenCursorDoesNotMatchSorting() {
+    String cursor = cursorCodec.encode(ScrollPosition.forward(Map.of("id", TestConstants.ID)));
+    assertThrows(InvalidCursorException.class, () -> driverService.scrollSearchDrivers(TestConstants.FIRST_NAME,
+            null, null, null, cursor, TestConstants.SIZE, TestConstants.SORT_BY_EXPERIENCE));
+  }
+
+  @Test
+  void scrollDrivers_ThrowsInvalidSortException_WhenSortPropertyIsNullable() {
+    assertThrows(InvalidSortException.class,
+            () -> driverService.scrollDrivers("", TestConstants.SIZE, TestConstants.SORT_BY_LAST_NAME));
+  }
+
   private DriverCreateRequestDto createDriverCreateRequestDto() {
     DriverCreateRequestDto dto = new DriverCreateRequestDto();
     dto.setFirstName(TestConstants.FIRST_NAME);
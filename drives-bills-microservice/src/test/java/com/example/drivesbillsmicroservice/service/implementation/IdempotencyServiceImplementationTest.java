@@ -0,0 +1,122 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.entity.IdempotencyRecord;
+import com.example.drivesbillsmicroservice.entity.IdempotencyRecordId;
+import com.example.drivesbillsmicroservice.exceptions.idempotency.IdempotencyKeyInUseException;
+import com.example.drivesbillsmicroservice.exceptions.idempotency.IdempotencyKeyReusedException;
+import com.example.drivesbillsmicroservice.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplementationTest {
+  private static final IdempotencyRecordId ID = new IdempotencyRecordId(1L, 2L);
+  private static final long FINGERPRINT = 42L;
+
+  private IdempotencyServiceImplementation idempotencyService;
+
+  @Mock
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    idempotencyService = new IdempotencyServiceImplementation(idempotencyRecordRepository,
+            new SimpleMeterRegistry(), Duration.ofHours(1), 16);
+    when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.empty());
+  }
+
+  @Test
+  void execute_ExecutesOperationOnceAndRecordsItsResult() {
+    AtomicInteger executions = new AtomicInteger();
+
+    assertEquals(4, idempotencyService.execute(1L, 2L, FINGERPRINT, () -> executions.incrementAndGet() + 3));
+    assertEquals(4, idempotencyService.execute(1L, 2L, FINGERPRINT, () -> executions.incrementAndGet() + 3));
+
+    assertEquals(1, executions.get());
+    ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+    verify(idempotencyRecordRepository).saveAndFlush(saved.capture());
+    assertEquals(ID, saved.getValue().getId());
+    assertEquals(4, saved.getValue().getResult());
+    verify(idempotencyRecordRepository, times(1)).findById(ID);
+  }
+
+  @Test
+  void execute_ReturnsStoredResult_WhenKeyIsOnlyInDatabase() {
+    when(idempotencyRecordRepository.findById(ID))
+            .thenReturn(Optional.of(new IdempotencyRecord(ID, FINGERPRINT, 5, Instant.now())));
+
+    assertEquals(5, idempotencyService.execute(1L, 2L, FINGERPRINT, () -> {
+      throw new IllegalStateException("executed again");
+    }));
+    verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+  }
+
+  @Test
+  void execute_DoesNotRecordFailedOperation() {
+    assertThrows(IllegalStateException.class, () -> idempotencyService.execute(1L, 2L, FINGERPRINT, () -> {
+      throw new IllegalStateException("failed");
+    }));
+
+    assertEquals(0, idempotencyService.execute(1L, 2L, FINGERPRINT, () -> 0));
+    verify(idempotencyRecordRepository, times(1)).saveAndFlush(any());
+  }
+
+  @Test
+  void execute_ThrowsIdempotencyKeyInUse_WhenKeyIsRecordedConcurrently() {
+    when(idempotencyRecordRepository.saveAndFlush(any()))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    assertThrows(IdempotencyKeyInUseException.class,
+            () -> idempotencyService.execute(1L, 2L, FINGERPRINT, () -> 0));
+  }
+
+  @Test
+  void execute_ScopesClientKeys() {
+    AtomicInteger executions = new AtomicInteger();
+
+    idempotencyService.execute("debit/1", "key-1", "1/100/RED", executions::incrementAndGet);
+    idempotencyService.execute("debit/1", "key-1", "1/100/RED", executions::incrementAndGet);
+    idempotencyService.execute("credit/1", "key-1", "1/100/RED", executions::incrementAndGet);
+
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  void execute_ThrowsIdempotencyKeyReused_WhenKeyIsPresentedWithOtherRequest() {
+    AtomicInteger executions = new AtomicInteger();
+
+    idempotencyService.execute("debit/1", "key-1", "1/100/RED", executions::incrementAndGet);
+
+    assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute(
+            "debit/1", "key-1", "1/500/RED", executions::incrementAndGet));
+    assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute(
+            "debit/1", "key-1", "1/100/GREEN", executions::incrementAndGet));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void execute_ThrowsIdempotencyKeyReused_WhenStoredRecordHasOtherFingerprint() {
+    when(idempotencyRecordRepository.findById(ID))
+            .thenReturn(Optional.of(new IdempotencyRecord(ID, FINGERPRINT + 1, 5, Instant.now())));
+
+    assertThrows(IdempotencyKeyReusedException.class,
+            () -> idempotencyService.execute(1L, 2L, FINGERPRINT, () -> 0));
+    verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+  }
+}
@@ -0,0 +1,66 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalanceDto;
+import com.example.drivesbillsmicroservice.dto.account.balance.AccountBalancesRequestDto;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.ledger.LedgerEngine;
+import com.example.drivesbillsmicroservice.rates.ExchangeRateTable;
+import com.example.drivesbillsmicroservice.repository.AccountBalanceRepository.BalanceRow;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+class LedgerAccountServiceImplementationTest {
+  private LedgerAccountServiceImplementation accountService;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AccountJournalService accountJournalService;
+
+  @Mock
+  private CurrencyConversionService currencyConversionService;
+
+  @Mock
+  private LedgerEngine ledgerEngine;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    accountService = new LedgerAccountServiceImplementation(accountRepository,
+            accountJournalService, currencyConversionService, ledgerEngine);
+  }
+
+  @Test
+  void streamBalances_ReadsBalancesOfMatchedAccountsFromLedger_NotFromAccountsTable() {
+    when(accountRepository.streamBalances(null, null, null, null, null, false))
+            .thenAnswer(invocation -> Stream.of(new BalanceRow(1L, 2L, 500L, 0L, 0L)));
+    when(ledgerEngine.getBalances(1L)).thenReturn(new AccountBalance(1000L, 0L, 600L));
+    when(currencyConversionService.getRateTable()).thenReturn(new ExchangeRateTable(4,
+            Map.of(Currency.RED, new BigDecimal("2.5"), Currency.GREEN, BigDecimal.ONE,
+                    Currency.BLUE, new BigDecimal("0.6"))));
+
+    List<AccountBalanceDto> balances = new ArrayList<>();
+    accountService.streamBalances(new AccountBalancesRequestDto(), balances::add);
+    accountService.streamBalances(AccountBalancesRequestDto.builder().currency(Currency.GREEN)
+            .build(), balances::add);
+
+    assertEquals(new BigDecimal("10.00"), balances.get(0).getRedDollar());
+    assertEquals(new BigDecimal("6.00"), balances.get(0).getBlueDollar());
+    assertEquals(new BigDecimal("28.60"), balances.get(1).getAmount());
+    assertEquals(4L, balances.get(1).getRateVersion());
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.drivesbillsmicroservice.service.implementation;
+
+import com.example.drivesbillsmicroservice.entity.Account;
+import com.example.drivesbillsmicroservice.enums.Currency;
+import com.example.drivesbillsmicroservice.exceptions.account.AccountNotFoundException;
+import com.example.drivesbillsmicroservice.exceptions.account.InsufficientBalanceException;
+import com.example.drivesbillsmicroservice.kafka.Producer;
+import com.example.drivesbillsmicroservice.kafka.streams.AccountBalance;
+import com.example.drivesbillsmicroservice.repository.AccountRepository;
+import com.example.drivesbillsmicroservice.service.AccountJournalService;
+import com.example.drivesbillsmicroservice.service.CurrencyConversionService;
+import com.example.drivesbillsmicroservice.utils.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StreamsAccountServiceImplementationTest {
+  private StreamsAccountServiceImplementation accountService;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AccountJournalService accountJournalService;
+
+  @Mock
+  private CurrencyConversionService currencyConversionService;
+
+  @Mock
+  private Producer producer;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    accountService = new StreamsAccountServiceImplementation(accountRepository,
+            accountJournalService, currencyConversionService, producer);
+  }
+
+  @Test
+  void credit_SendsAdjustment_InsteadOfSavingAccount() {
+    when(accountRepository.existsById(TestConstants.ID)).thenReturn(true);
+    accountService.credit(TestConstants.ID, TestConstants.AMOUNT, Currency.GREEN);
+    verify(producer).sendAccountAdjustment(TestConstants.ID,
+            AccountBalance.of(Currency.GREEN, TestConstants.AMOUNT));
+    verify(accountRepository, never()).save(any());
+  }
+
+  @Test
+  void credit_ThrowsAccountNotFoundException_WhenAccountDoesNotExist() {
+    when(accountRepository.existsById(TestConstants.ID)).thenReturn(false);
+    assertThrows(AccountNotFoundException.class,
+        () -> accountService.credit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED));
+    verify(producer, never()).sendAccountAdjustment(anyLong(), any());
+  }
+
+  @Test
+  void debit_SendsNegativeAdjustment_WhenBalanceIsSufficient() {
+    when(accountRepository.findById(TestConstants.ID)).thenReturn(Optional.of(createAccount()));
+    accountService.debit(TestConstants.ID, TestConstants.AMOUNT, Currency.RED);
+    verify(producer).sendAccountAdjustment(TestConstants.ID,
+            AccountBalance.of(Currency.RED, -TestConstants.AMOUNT));
+    verify(accountRepository, never()).save(any());
+  }
+
+  @Test
+  void debit_ThrowsInsufficientBalanceException_WhenBalanceIsInsufficient() {
+    when(accountRepository.findById(TestConstants.ID)).thenReturn(Optional.of(createAccount()));
+    assertThrows(InsufficientBalanceException.class,
+        () -> accountService.debit(TestConstants.ID, TestConstants.AMOUNT + 1, Currency.RED));
+    verify(producer, never()).sendAccountAdjustment(anyLong(), any());
+  }
+
+  private static Account createAccount() {
+    return Account.builder()
+            .id(TestConstants.ID)
+            .redDollar(TestConstants.AMOUNT)
+            .greenDollar(0L)
+            .blueDollar(0L)
+            .build();
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.drivesbillsmicroservice.service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyWindowTest {
+  private static final long WINDOW_MILLIS = 1_000;
+  private static final long NOW = 10_000;
+  private static final long FINGERPRINT = 42;
+
+  @Test
+  void get_ReturnsRememberedResult() {
+    IdempotencyWindow window = new IdempotencyWindow(16, WINDOW_MILLIS, NOW);
+    window.put(1, 2, FINGERPRINT, 0, NOW);
+    window.put(0, 0, FINGERPRINT, 7, NOW);
+
+    assertEquals(0, window.get(1, 2, FINGERPRINT, NOW));
+    assertEquals(7, window.get(0, 0, FINGERPRINT, NOW));
+    assertEquals(IdempotencyWindow.MISSING, window.get(2, 1, FINGERPRINT, NOW));
+  }
+
+  @Test
+  void get_ReturnsMismatch_WhenKeyWasRememberedWithAnotherFingerprint() {
+    IdempotencyWindow window = new IdempotencyWindow(16, WINDOW_MILLIS, NOW);
+    window.put(1, 2, FINGERPRINT, 3, NOW);
+
+    assertEquals(IdempotencyWindow.MISMATCH, window.get(1, 2, FINGERPRINT + 1, NOW));
+    assertEquals(3, window.get(1, 2, FINGERPRINT, NOW));
+  }
+
+  @Test
+  void get_KeepsEntriesForHalfWindowAtLeast_AndForgetsThemAfterWindow() {
+    IdempotencyWindow window = new IdempotencyWindow(16, WINDOW_MILLIS, NOW);
+    window.put(1, 2, FINGERPRINT, 3, NOW);
+
+    assertEquals(3, window.get(1, 2, FINGERPRINT, NOW + WINDOW_MILLIS / 2));
+    assertEquals(IdempotencyWindow.MISSING, window.get(1, 2, FINGERPRINT, NOW + WINDOW_MILLIS));
+  }
+
+  @Test
+  void put_RotatesGeneration_WhenCurrentOneIsFull() {
+    IdempotencyWindow window = new IdempotencyWindow(16, WINDOW_MILLIS, NOW);
+    int keys = window.capacity() * 3;
+    for (int key = 0; key < keys; key++) {
+      window.put(key, -key, FINGERPRINT, key, NOW);
+    }
+
+    assertTrue(window.size() <= 2 * window.capacity());
+    assertEquals(keys - 1, window.get(keys - 1, 1 - keys, FINGERPRINT, NOW));
+    assertEquals(IdempotencyWindow.MISSING, window.get(0, 0, FINGERPRINT, NOW));
+  }
+
+  @Test
+  void put_RejectsNegativeResult() {
+    IdempotencyWindow window = new IdempotencyWindow(16, WINDOW_MILLIS, NOW);
+
+    assertThrows(IllegalArgumentException.class, () -> window.put(1, 2, FINGERPRINT, -1, NOW));
+  }
+}
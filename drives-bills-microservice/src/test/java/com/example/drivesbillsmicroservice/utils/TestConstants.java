@@ -2,14 +2,17 @@ package com.example.drivesbillsmicroservice.utils;
 
 public class TestConstants {
     public static final Long ID = 1L;
-    public static final Double AMOUNT = 200D;
+    public static final long AMOUNT = 20000L;
     public static final double DELTA = 0.001;
     public static final String MESSAGE_SENT = "Message sent";
     public static final String PASSPORT = "PASSPORT1";
+    public static final String PASSPORT_2 = "PASSPORT2";
     public static final String FIRST_NAME = "Oleg";
     public static final String LAST_NAME = "Ivanov";
     public static final String SORT_BY_LAST_NAME = "lastName";
     public static final String SORT_BY_FIRST_NAME = "firstName";
+    public static final String SORT_BY_EXPERIENCE = "experience";
+    public static final String SORT_BY_ID = "id";
     public static final String LICENSE_PLATE = "0987654321A";
     public static final String SERIAL_NUMBER = "1234567890A";
     public static final String DRIVER_CREATED_MESSAGE = "Driver created";